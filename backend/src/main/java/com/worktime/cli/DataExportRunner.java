@@ -0,0 +1,87 @@
+package com.worktime.cli;
+
+import com.worktime.model.enums.ExportFormat;
+import com.worktime.service.DataExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * Command-line mode exporting one dataset to a file, then exiting.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -jar work-time-analytics-backend.jar --spring.main.web-application-type=none \
+ *     --export.dataset=aggregations --export.user-id=user-1 --export.output=daily.arrows \
+ *     [--export.format=ARROW] [--export.start-date=2020-01-01] [--export.end-date=2026-10-18]
+ * </pre>
+ * Datasets are {@code sessions}, {@code segments} and {@code aggregations};
+ * formats are those of {@link ExportFormat}.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "export.dataset")
+@RequiredArgsConstructor
+public class DataExportRunner implements ApplicationRunner {
+
+    private final DataExportService exportService;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${export.dataset}")
+    private String dataset;
+
+    @Value("${export.user-id}")
+    private String userId;
+
+    @Value("${export.output}")
+    private Path output;
+
+    @Value("${export.format:ARROW}")
+    private ExportFormat format;
+
+    @Value("${export.start-date:}")
+    private String startDate;
+
+    @Value("${export.end-date:}")
+    private String endDate;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        LocalDate start = startDate.isBlank() ? LocalDate.EPOCH : LocalDate.parse(startDate);
+        LocalDate end = endDate.isBlank() ? LocalDate.now() : LocalDate.parse(endDate);
+        log.info("Exporting {} for user {} ({} to {}) as {} to {}", dataset, userId, start, end, format, output);
+
+        long count;
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(output))) {
+            count = switch (dataset) {
+                case "sessions" -> exportService.exportSessions(userId,
+                        start.atStartOfDay(ZoneOffset.UTC).toInstant(),
+                        end.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+                        format, out);
+                case "segments" -> exportService.exportSegments(userId, start, end, format, out);
+                case "aggregations" -> exportService.exportAggregations(userId, start, end, format, out);
+                default -> throw new IllegalArgumentException("Unknown export dataset: " + dataset
+                        + " (expected sessions, segments or aggregations)");
+            };
+        }
+
+        log.info("Exported {} rows to {}", count, output);
+        System.exit(SpringApplication.exit(context, () -> 0));
+    }
+}
@@ -0,0 +1,189 @@
+package com.worktime.cli;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Query;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Command-line mode verifying that the hot repository query shapes are served by an
+ * index, then exiting with status 1 if any is not.
+ *
+ * <p>Usage:
+ * <pre>
+ * java -jar work-time-analytics-backend.jar --spring.main.web-application-type=none \
+ *     --plan-check.enabled=true
+ * </pre>
+ * Each query is planned with sequential scans disabled, so the check holds on empty or
+ * small databases: a sequential scan in the plan means no index can serve the query.
+ * The SQL mirrors the repository methods named in each check.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "plan-check.enabled", havingValue = "true")
+@RequiredArgsConstructor
+public class QueryPlanCheckRunner implements ApplicationRunner {
+
+    private static final List<PlanCheck> CHECKS = List.of(
+            new PlanCheck("ActivitySessionRepository.findByUserIdAndProcessedFalseAndIsDeletedFalse", """
+                    SELECT * FROM activity_sessions
+                    WHERE user_id = :userId AND processed = false AND is_deleted = false
+                    """),
+            new PlanCheck("ActivitySessionRepository.findByUserIdAndActivityTypeStartingBetween", """
+                    SELECT * FROM activity_sessions
+                    WHERE user_id = :userId AND activity_type = 4 AND is_deleted = false
+                      AND start_time >= :start AND start_time < :end
+                    """),
+            new PlanCheck("ActivitySessionRepository.findResponsePageByUserIdOverlapping", """
+                    SELECT id, start_time, end_time FROM activity_sessions
+                    WHERE user_id = :userId AND is_deleted = false
+                      AND start_time >= :start AND start_time < :end AND end_time > :start
+                    ORDER BY start_time, id LIMIT 100
+                    """),
+            new PlanCheck("ActivitySessionRepository.findByHealthConnectRecordId", """
+                    SELECT * FROM activity_sessions WHERE health_connect_record_id = :recordId
+                    """),
+            new PlanCheck("ActivitySegmentRepository.findByUserIdAndActivityDateAndIsDeletedFalse", """
+                    SELECT * FROM activity_segments
+                    WHERE user_id = :userId AND activity_date = :date AND is_deleted = false
+                    """),
+            new PlanCheck("SessionArchiveRepository.findByUserIdAndMonth", """
+                    SELECT * FROM session_archives WHERE user_id = :userId AND month = :date
+                    """),
+            new PlanCheck("ActivitySegment by session (resplit, deletion)", """
+                    SELECT * FROM activity_segments WHERE session_id = :sessionId
+                    """),
+            new PlanCheck("DailyAggregationRepository.findDayTypeByUserIdAndDate", """
+                    SELECT day_type FROM daily_aggregations WHERE user_id = :userId AND date = :date
+                    """),
+            new PlanCheck("DailyAggregationRepository.findComparableResponses", """
+                    SELECT * FROM daily_aggregations
+                    WHERE user_id = :userId AND day_type = 'WORKDAY' AND date BETWEEN :startDate AND :date
+                      AND anomalous = false AND total_steps IS NOT NULL AND sleep_duration_seconds IS NOT NULL
+                    ORDER BY date DESC LIMIT 1
+                    """),
+            new PlanCheck("DailyAggregationRepository.findAnomalousResponses", """
+                    SELECT * FROM daily_aggregations
+                    WHERE user_id = :userId AND anomalous = true AND date BETWEEN :startDate AND :date
+                    """),
+            new PlanCheck("DailyAggregationRepository.findResponsesByDateBetween", """
+                    SELECT * FROM daily_aggregations WHERE date BETWEEN :startDate AND :date
+                    """),
+            new PlanCheck("WorkingScheduleRepository.findActiveResponsesByUserId", """
+                    SELECT * FROM working_schedules
+                    WHERE user_id = :userId AND is_active = true AND is_deleted = false
+                    """),
+            new PlanCheck("WorkingScheduleRepository.findByUserIdAndDayOfWeek", """
+                    SELECT * FROM working_schedules WHERE user_id = :userId AND day_of_week = 'MONDAY'
+                    """),
+            new PlanCheck("StepRollupRepository.findByUserIdAndActivityDateAndIsDeletedFalse", """
+                    SELECT * FROM step_rollups
+                    WHERE user_id = :userId AND activity_date = :date AND is_deleted = false
+                    """),
+            new PlanCheck("SessionDayLineageRepository.findBySessionId", """
+                    SELECT * FROM session_day_lineage WHERE session_id = :sessionId
+                    """),
+            new PlanCheck("SessionDayLineageRepository.findByUserIdAndFirstDateBetween", """
+                    SELECT * FROM session_day_lineage
+                    WHERE user_id = :userId AND first_date BETWEEN :startDate AND :date
+                    """),
+            new PlanCheck("DirtyDayRepository.claimNext", """
+                    SELECT * FROM dirty_days ORDER BY updated_at LIMIT 1
+                    """),
+            new PlanCheck("PendingResplitRepository.claimNext", """
+                    SELECT * FROM pending_resplits ORDER BY updated_at LIMIT 1
+                    """),
+            new PlanCheck("TombstonePurgeService session tombstones", """
+                    SELECT id, start_time FROM activity_sessions
+                    WHERE is_deleted = true AND updated_at < :end
+                    ORDER BY updated_at LIMIT 1000
+                    """),
+            new PlanCheck("TombstonePurgeService segment tombstones", """
+                    SELECT id, activity_date FROM activity_segments
+                    WHERE is_deleted = true AND updated_at < :end
+                    ORDER BY updated_at LIMIT 1000
+                    """)
+    );
+
+    private final PlatformTransactionManager transactionManager;
+    private final ConfigurableApplicationContext context;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        LocalDate date = LocalDate.now();
+        Instant now = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+        Map<String, Object> parameters = Map.of(
+                "userId", "plan-check",
+                "recordId", "plan-check",
+                "sessionId", new UUID(0L, 0L),
+                "date", date,
+                "startDate", date.minusDays(90),
+                "start", now.minus(2, ChronoUnit.DAYS),
+                "end", now);
+
+        List<String> failures = new ArrayList<>();
+        for (PlanCheck check : CHECKS) {
+            List<String> plan = explain(check.sql(), parameters);
+            boolean indexed = plan.stream().noneMatch(line -> line.contains("Seq Scan"));
+            log.info("{} {}:\n{}", indexed ? "PASS" : "FAIL", check.name(), String.join("\n", plan));
+            if (!indexed) {
+                failures.add(check.name());
+            }
+        }
+
+        if (failures.isEmpty()) {
+            log.info("All {} query plans use indexes", CHECKS.size());
+        } else {
+            log.error("{} of {} query plans fall back to sequential scans: {}",
+                    failures.size(), CHECKS.size(), failures);
+        }
+        int status = failures.isEmpty() ? 0 : 1;
+        System.exit(SpringApplication.exit(context, () -> status));
+    }
+
+    /**
+     * Plan a query with sequential scans disabled for the enclosing transaction only.
+     */
+    @SuppressWarnings("unchecked")
+    private List<String> explain(String sql, Map<String, Object> parameters) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        return transaction.execute(status -> {
+            entityManager.createNativeQuery("SELECT set_config('enable_seqscan', 'off', true)")
+                    .getSingleResult();
+
+            Query query = entityManager.createNativeQuery("EXPLAIN " + sql);
+            parameters.forEach((name, value) -> {
+                if (Pattern.compile(":" + name + "\\b").matcher(sql).find()) {
+                    query.setParameter(name, value);
+                }
+            });
+            return (List<String>) query.getResultList();
+        });
+    }
+
+    private record PlanCheck(String name, String sql) {}
+}
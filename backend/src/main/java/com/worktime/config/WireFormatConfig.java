@@ -0,0 +1,30 @@
+package com.worktime.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.JacksonCborHttpMessageConverter;
+import org.springframework.http.converter.smile.JacksonSmileHttpMessageConverter;
+
+/**
+ * Binary wire formats accepted alongside JSON.
+ *
+ * <p>Clients select a format with the Content-Type header ({@code application/cbor} or
+ * {@code application/x-jackson-smile}); the same request DTOs and validation apply.
+ * Responses follow the Accept header and default to JSON.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Configuration
+public class WireFormatConfig {
+
+    @Bean
+    public JacksonCborHttpMessageConverter cborHttpMessageConverter() {
+        return new JacksonCborHttpMessageConverter();
+    }
+
+    @Bean
+    public JacksonSmileHttpMessageConverter smileHttpMessageConverter() {
+        return new JacksonSmileHttpMessageConverter();
+    }
+}
@@ -1,8 +1,19 @@
 package com.worktime.controller;
 
+import com.worktime.dto.activitysession.ActivitySessionPageResponse;
 import com.worktime.dto.activitysession.ActivitySessionRequest;
 import com.worktime.dto.activitysession.ActivitySessionResponse;
+import com.worktime.dto.activitysession.BatchIngestionSummaryResponse;
+import com.worktime.dto.activitysession.BulkDeleteRequest;
+import com.worktime.dto.activitysession.BulkDeleteResponse;
+import com.worktime.dto.daydigest.DayDigestResponse;
+import com.worktime.dto.syncstate.SyncStateResponse;
 import com.worktime.service.ActivityIngestionService;
+import com.worktime.service.BulkDeletionService;
+import com.worktime.service.DayDigestService;
+import com.worktime.service.SessionArchiveService;
+import com.worktime.service.SyncStateService;
+import com.worktime.service.UserLaneService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -11,7 +22,10 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Objects;
 import java.util.UUID;
 
 /**
@@ -30,9 +44,15 @@ import java.util.UUID;
 public class ActivityIngestionController {
 
     private final ActivityIngestionService ingestionService;
+    private final SyncStateService syncStateService;
+    private final DayDigestService dayDigestService;
+    private final SessionArchiveService sessionArchiveService;
+    private final BulkDeletionService bulkDeletionService;
+    private final UserLaneService userLaneService;
 
     /**
      * Ingest a single activity session.
+     * Sessions longer than worktime.sessions.max-duration (7 days by default) are rejected.
      *
      * POST /api/v1/activity/sessions
      */
@@ -42,7 +62,8 @@ public class ActivityIngestionController {
     ) {
         log.info("Received activity session ingestion request: {}", request.activityType());
 
-        ActivitySessionResponse response = ingestionService.ingestSession(request);
+        ActivitySessionResponse response = userLaneService.call(request.userId(),
+            () -> ingestionService.ingestSession(request));
 
         log.info("Successfully ingested session: {}", response.id());
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -51,15 +72,21 @@ public class ActivityIngestionController {
     /**
      * Batch ingest multiple activity sessions.
      *
-     * POST /api/v1/activity/sessions/batch
+     * Pass the Health Connect changes token the batch completes as changeToken
+     * so it is stored with the sync state. Each record is validated, including the
+     * maximum session duration; an invalid record fails the whole batch.
+     *
+     * POST /api/v1/activity/sessions/batch?changeToken={changeToken}
      */
     @PostMapping("/sessions/batch")
     public ResponseEntity<BatchIngestionResponse> ingestBatch(
-        @Valid @RequestBody List<ActivitySessionRequest> requests
+        @RequestBody List<ActivitySessionRequest> requests,
+        @RequestParam(required = false) String changeToken
     ) {
         log.info("Received batch ingestion request: {} sessions", requests.size());
 
-        List<ActivitySessionResponse> responses = ingestionService.ingestSessionsBatch(requests);
+        List<ActivitySessionResponse> responses = userLaneService.callAll(userIdsOf(requests),
+            () -> ingestionService.ingestSessionsBatch(requests, changeToken));
 
         BatchIngestionResponse batchResponse = new BatchIngestionResponse(
             responses.size(),
@@ -70,6 +97,60 @@ public class ActivityIngestionController {
         return ResponseEntity.status(HttpStatus.CREATED).body(batchResponse);
     }
 
+    /**
+     * Ingest multiple activity sessions in batch, answering with counts only.
+     * Duplicates and invalid records are reported instead of failing the batch.
+     * Accepts JSON, CBOR or Smile bodies, optionally gzip-compressed.
+     *
+     * POST /api/v1/activity/sessions/batch?response=summary&changeToken={changeToken}
+     */
+    @PostMapping(value = "/sessions/batch", params = "response=summary")
+    public ResponseEntity<BatchIngestionSummaryResponse> ingestBatchSummary(
+        @RequestBody List<ActivitySessionRequest> requests,
+        @RequestParam(required = false) String changeToken
+    ) {
+        log.info("Received batch ingestion request (summary): {} sessions", requests.size());
+
+        BatchIngestionSummaryResponse response = userLaneService.callAll(userIdsOf(requests),
+            () -> ingestionService.ingestSessionsBatchSummary(requests, changeToken));
+
+        log.info("Batch ingested: {}, duplicates: {}, rejected: {}",
+            response.ingested(), response.duplicates(), response.rejected());
+        return ResponseEntity.status(HttpStatus.CREATED).body(response);
+    }
+
+    /**
+     * Get the sync state of each data source of a user: the latest ingested end time
+     * and changes token. The client uploads only records newer than these.
+     *
+     * GET /api/v1/activity/sync-state?userId={userId}
+     */
+    @GetMapping("/sync-state")
+    public ResponseEntity<List<SyncStateResponse>> getSyncState(
+        @RequestParam String userId
+    ) {
+        log.info("Fetching sync state for user: {}", userId);
+
+        return ResponseEntity.ok(syncStateService.getSyncStates(userId));
+    }
+
+    /**
+     * Get the per-day session digests of a user within a date range.
+     * The client re-uploads only the days whose count or digest differ from its own.
+     *
+     * GET /api/v1/activity/digests?userId={userId}&startDate={startDate}&endDate={endDate}
+     */
+    @GetMapping("/digests")
+    public ResponseEntity<List<DayDigestResponse>> getDayDigests(
+        @RequestParam String userId,
+        @RequestParam LocalDate startDate,
+        @RequestParam LocalDate endDate
+    ) {
+        log.info("Fetching day digests for user: {} from {} to {}", userId, startDate, endDate);
+
+        return ResponseEntity.ok(dayDigestService.getDigests(userId, startDate, endDate));
+    }
+
     /**
      * Get a single activity session by ID.
      *
@@ -87,24 +168,27 @@ public class ActivityIngestionController {
     }
 
     /**
-     * Get all activity sessions for a user within a time range.
+     * Get a page of activity sessions for a user overlapping a time range.
+     * Pass the returned nextCursor to fetch the following page.
      *
-     * GET /api/v1/activity/sessions?userId={userId}&startTime={startTime}&endTime={endTime}
+     * GET /api/v1/activity/sessions?userId={userId}&startTime={startTime}&endTime={endTime}&cursor={cursor}&limit={limit}
      */
     @GetMapping("/sessions")
-    public ResponseEntity<List<ActivitySessionResponse>> getSessions(
+    public ResponseEntity<ActivitySessionPageResponse> getSessions(
         @RequestParam String userId,
         @RequestParam Instant startTime,
-        @RequestParam Instant endTime
+        @RequestParam Instant endTime,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = "500") int limit
     ) {
         log.info("Fetching sessions for user: {} ({} to {})", userId, startTime, endTime);
 
-        List<ActivitySessionResponse> responses = ingestionService.getSessionsByUserAndTimeRange(
-            userId, startTime, endTime
+        ActivitySessionPageResponse response = ingestionService.getSessionsByUserAndTimeRange(
+            userId, startTime, endTime, cursor, limit
         );
 
-        log.info("Found {} sessions", responses.size());
-        return ResponseEntity.ok(responses);
+        log.info("Found {} sessions (more: {})", response.sessions().size(), response.hasMore());
+        return ResponseEntity.ok(response);
     }
 
     /**
@@ -119,7 +203,7 @@ public class ActivityIngestionController {
     ) {
         log.info("Reprocessing unprocessed sessions for user: {}", userId);
 
-        int count = ingestionService.reprocessUnprocessedSessions(userId);
+        int count = userLaneService.call(userId, () -> ingestionService.reprocessUnprocessedSessions(userId));
 
         ReprocessResponse response = new ReprocessResponse(count);
 
@@ -127,6 +211,44 @@ public class ActivityIngestionController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Restore a user's archived month of raw sessions into the database, e.g. to
+     * resegment it.
+     *
+     * POST /api/v1/activity/archive/restore?userId={userId}&month={yyyy-MM}
+     */
+    @PostMapping("/archive/restore")
+    public ResponseEntity<RestoreArchiveResponse> restoreArchivedMonth(
+        @RequestParam String userId,
+        @RequestParam YearMonth month
+    ) {
+        log.info("Restoring archived sessions for user: {}, month: {}", userId, month);
+
+        int count = userLaneService.call(userId, () -> sessionArchiveService.restoreMonth(userId, month));
+
+        log.info("Restored {} sessions", count);
+        return ResponseEntity.ok(new RestoreArchiveResponse(count));
+    }
+
+    /**
+     * Archive a user's restored month of raw sessions again, e.g. once it is resegmented.
+     * Restored months are skipped by the scheduled archival until then.
+     *
+     * POST /api/v1/activity/archive/rearchive?userId={userId}&month={yyyy-MM}
+     */
+    @PostMapping("/archive/rearchive")
+    public ResponseEntity<RearchiveResponse> rearchiveRestoredMonth(
+        @RequestParam String userId,
+        @RequestParam YearMonth month
+    ) {
+        log.info("Archiving restored sessions again for user: {}, month: {}", userId, month);
+
+        int count = userLaneService.call(userId, () -> sessionArchiveService.rearchiveMonth(userId, month));
+
+        log.info("Archived {} sessions", count);
+        return ResponseEntity.ok(new RearchiveResponse(count));
+    }
+
     /**
      * Delete (soft delete) an activity session.
      *
@@ -138,12 +260,43 @@ public class ActivityIngestionController {
     ) {
         log.info("Deleting session: {}", id);
 
-        ingestionService.deleteSession(id);
+        String userId = ingestionService.getSessionById(id).userId();
+        userLaneService.run(userId, () -> ingestionService.deleteSession(id));
 
         log.info("Successfully deleted session: {}", id);
         return ResponseEntity.noContent().build();
     }
 
+    /**
+     * Soft delete a user's sessions (and their segments) by data source, activity type
+     * and start time range in one request. The affected days are recomputed once at the end.
+     *
+     * POST /api/v1/activity/sessions/bulk-delete
+     */
+    @PostMapping("/sessions/bulk-delete")
+    public ResponseEntity<BulkDeleteResponse> bulkDeleteSessions(
+        @Valid @RequestBody BulkDeleteRequest request
+    ) {
+        log.info("Received bulk delete request for user: {}", request.userId());
+
+        BulkDeleteResponse response = userLaneService.call(request.userId(),
+            () -> bulkDeletionService.deleteSessions(request));
+
+        log.info("Bulk deleted {} sessions, recomputed {} days",
+            response.sessionsDeleted(), response.daysRecomputed());
+        return ResponseEntity.ok(response);
+    }
+
+    // Records without a user are rejected by the service, so they take no lane
+    private List<String> userIdsOf(List<ActivitySessionRequest> requests) {
+        return requests.stream()
+            .filter(Objects::nonNull)
+            .map(ActivitySessionRequest::userId)
+            .filter(Objects::nonNull)
+            .distinct()
+            .toList();
+    }
+
     // Response DTOs
     public record BatchIngestionResponse(
         int totalIngested,
@@ -153,4 +306,12 @@ public class ActivityIngestionController {
     public record ReprocessResponse(
         int sessionsReprocessed
     ) {}
+
+    public record RestoreArchiveResponse(
+        int sessionsRestored
+    ) {}
+
+    public record RearchiveResponse(
+        int sessionsArchived
+    ) {}
 }
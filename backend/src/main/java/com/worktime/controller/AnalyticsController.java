@@ -1,7 +1,26 @@
 package com.worktime.controller;
 
+import com.worktime.dto.activityprofile.ActivityHeatmapResponse;
+import com.worktime.dto.activityprofile.DailyActivityProfileResponse;
+import com.worktime.dto.correlation.MetricCorrelationsResponse;
 import com.worktime.dto.dailyaggregation.DailyAggregationResponse;
+import com.worktime.dto.distribution.MetricPercentilesResponse;
+import com.worktime.dto.heartratezone.HeartRateZoneConfigRequest;
+import com.worktime.dto.heartratezone.HeartRateZoneConfigResponse;
+import com.worktime.dto.minutebitmap.DayMinuteSummaryResponse;
+import com.worktime.dto.summary.PeriodSummaryResponse;
+import com.worktime.model.enums.AnalyticsWindow;
+import com.worktime.model.enums.CorrelationPair;
+import com.worktime.service.ActivityProfileService;
+import com.worktime.service.AnomalyDetectionService;
+import com.worktime.service.CorrelationService;
+import com.worktime.service.ActivitySummaryService;
 import com.worktime.service.DailyAggregationService;
+import com.worktime.service.HeartRateZoneService;
+import com.worktime.service.MetricDistributionService;
+import com.worktime.service.MinuteBitmapService;
+import com.worktime.service.UserLaneService;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -9,6 +28,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.List;
 
@@ -27,6 +47,14 @@ import java.util.List;
 public class AnalyticsController {
 
     private final DailyAggregationService aggregationService;
+    private final ActivityProfileService activityProfileService;
+    private final ActivitySummaryService activitySummaryService;
+    private final HeartRateZoneService heartRateZoneService;
+    private final MetricDistributionService metricDistributionService;
+    private final AnomalyDetectionService anomalyDetectionService;
+    private final CorrelationService correlationService;
+    private final MinuteBitmapService minuteBitmapService;
+    private final UserLaneService userLaneService;
 
     /**
      * Get daily aggregation for a specific date.
@@ -46,7 +74,7 @@ public class AnalyticsController {
         if (response == null) {
             // Compute if not exists
             log.info("Daily aggregation not found, computing...");
-            response = aggregationService.computeDailyAggregation(userId, date);
+            response = userLaneService.call(userId, () -> aggregationService.computeDailyAggregation(userId, date));
         }
 
         return ResponseEntity.ok(response);
@@ -64,12 +92,50 @@ public class AnalyticsController {
     ) {
         log.info("Recomputing daily aggregation for user: {}, date: {}", userId, date);
 
-        DailyAggregationResponse response = aggregationService.computeDailyAggregation(userId, date);
+        DailyAggregationResponse response = userLaneService.call(userId,
+            () -> aggregationService.computeDailyAggregation(userId, date));
 
         log.info("Recomputed daily aggregation: {}", response.id());
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get the most recent comparable day for a specific date.
+     * Returns 204 No Content if no day qualifies.
+     *
+     * GET /api/v1/analytics/daily/{date}/comparable?userId={userId}
+     */
+    @GetMapping("/daily/{date}/comparable")
+    public ResponseEntity<DailyAggregationResponse> getComparableDay(
+        @PathVariable LocalDate date,
+        @RequestParam String userId
+    ) {
+        log.info("Finding comparable day for user: {}, date: {}", userId, date);
+
+        return aggregationService.findComparableDay(userId, date)
+            .map(ResponseEntity::ok)
+            .orElseGet(() -> ResponseEntity.noContent().build());
+    }
+
+    /**
+     * Get the days flagged as anomalous within a date range.
+     *
+     * GET /api/v1/analytics/anomalies?userId={userId}&startDate={startDate}&endDate={endDate}
+     */
+    @GetMapping("/anomalies")
+    public ResponseEntity<List<DailyAggregationResponse>> getAnomalousDays(
+        @RequestParam String userId,
+        @RequestParam LocalDate startDate,
+        @RequestParam LocalDate endDate
+    ) {
+        log.info("Fetching anomalous days for user: {} from {} to {}", userId, startDate, endDate);
+
+        List<DailyAggregationResponse> response =
+            anomalyDetectionService.getAnomalousDays(userId, startDate, endDate);
+
+        return ResponseEntity.ok(response);
+    }
+
     /**
      * Batch recompute daily aggregations for a date range.
      *
@@ -84,9 +150,9 @@ public class AnalyticsController {
         log.info("Recomputing aggregations for user: {} from {} to {}",
             userId, startDate, endDate);
 
-        int count = aggregationService.recomputeAggregationsInRange(
+        int count = userLaneService.call(userId, () -> aggregationService.recomputeAggregationsInRange(
             userId, startDate, endDate
-        );
+        ));
 
         RecomputeRangeResponse response = new RecomputeRangeResponse(count);
 
@@ -94,6 +160,165 @@ public class AnalyticsController {
         return ResponseEntity.ok(response);
     }
 
+    /**
+     * Get the hourly activity profile for a specific date.
+     *
+     * GET /api/v1/analytics/profile/{date}?userId={userId}
+     */
+    @GetMapping("/profile/{date}")
+    public ResponseEntity<DailyActivityProfileResponse> getDailyProfile(
+        @PathVariable LocalDate date,
+        @RequestParam String userId
+    ) {
+        log.info("Fetching activity profile for user: {}, date: {}", userId, date);
+
+        DailyActivityProfileResponse response = activityProfileService.getDailyProfile(userId, date);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the minute-level activity and coverage bitmaps of a day, with distinct
+     * active minutes and whether the day has complete data.
+     *
+     * GET /api/v1/analytics/minutes/{date}?userId={userId}
+     */
+    @GetMapping("/minutes/{date}")
+    public ResponseEntity<DayMinuteSummaryResponse> getMinuteSummary(
+        @PathVariable LocalDate date,
+        @RequestParam String userId
+    ) {
+        log.info("Fetching minute bitmaps for user: {}, date: {}", userId, date);
+
+        DayMinuteSummaryResponse response = minuteBitmapService.getDaySummary(userId, date);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the day-of-week x hour activity heatmap for a month range.
+     *
+     * GET /api/v1/analytics/heatmap?userId={userId}&startMonth={yyyy-MM}&endMonth={yyyy-MM}
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<ActivityHeatmapResponse> getHeatmap(
+        @RequestParam String userId,
+        @RequestParam YearMonth startMonth,
+        @RequestParam YearMonth endMonth
+    ) {
+        log.info("Fetching heatmap for user: {} from {} to {}", userId, startMonth, endMonth);
+
+        ActivityHeatmapResponse response = activityProfileService.getHeatmap(
+            userId, startMonth, endMonth
+        );
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the weekly rollup (Monday to Sunday) of the week containing a date.
+     *
+     * GET /api/v1/analytics/summary/weekly?userId={userId}&date={date}
+     */
+    @GetMapping("/summary/weekly")
+    public ResponseEntity<PeriodSummaryResponse> getWeeklySummary(
+        @RequestParam String userId,
+        @RequestParam LocalDate date
+    ) {
+        log.info("Fetching weekly summary for user: {}, week of: {}", userId, date);
+
+        PeriodSummaryResponse response = activitySummaryService.getWeeklySummary(userId, date);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the monthly rollup of a calendar month.
+     *
+     * GET /api/v1/analytics/summary/monthly?userId={userId}&month={yyyy-MM}
+     */
+    @GetMapping("/summary/monthly")
+    public ResponseEntity<PeriodSummaryResponse> getMonthlySummary(
+        @RequestParam String userId,
+        @RequestParam YearMonth month
+    ) {
+        log.info("Fetching monthly summary for user: {}, month: {}", userId, month);
+
+        PeriodSummaryResponse response = activitySummaryService.getMonthlySummary(userId, month);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the percentile ranks of a day's metrics among days of the same day type.
+     *
+     * GET /api/v1/analytics/percentiles/{date}?userId={userId}&window={window}
+     */
+    @GetMapping("/percentiles/{date}")
+    public ResponseEntity<MetricPercentilesResponse> getPercentiles(
+        @PathVariable LocalDate date,
+        @RequestParam String userId,
+        @RequestParam(defaultValue = "LAST_90_DAYS") AnalyticsWindow window
+    ) {
+        log.info("Fetching percentiles for user: {}, date: {}, window: {}", userId, date, window);
+
+        MetricPercentilesResponse response = metricDistributionService.getPercentiles(userId, date, window);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the correlations of metric pairs (e.g. sleep vs activity) over a look-back window.
+     * Returns all pairs unless one is given; the window ends today unless an end date is given.
+     *
+     * GET /api/v1/analytics/correlations?userId={userId}&window={window}&pair={pair}&endDate={endDate}
+     */
+    @GetMapping("/correlations")
+    public ResponseEntity<MetricCorrelationsResponse> getCorrelations(
+        @RequestParam String userId,
+        @RequestParam(defaultValue = "LAST_90_DAYS") AnalyticsWindow window,
+        @RequestParam(required = false) CorrelationPair pair,
+        @RequestParam(required = false) LocalDate endDate
+    ) {
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        log.info("Fetching correlations for user: {}, window: {}, pair: {}, end: {}", userId, window, pair, end);
+
+        MetricCorrelationsResponse response = correlationService.getCorrelations(userId, end, window, pair);
+
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get the heart rate zone configuration of a user.
+     *
+     * GET /api/v1/analytics/heart-rate-zones?userId={userId}
+     */
+    @GetMapping("/heart-rate-zones")
+    public ResponseEntity<HeartRateZoneConfigResponse> getHeartRateZones(
+        @RequestParam String userId
+    ) {
+        log.info("Fetching heart rate zones for user: {}", userId);
+
+        return ResponseEntity.ok(heartRateZoneService.getZoneConfig(userId));
+    }
+
+    /**
+     * Create or replace the heart rate zone configuration of a user.
+     *
+     * PUT /api/v1/analytics/heart-rate-zones
+     */
+    @PutMapping("/heart-rate-zones")
+    public ResponseEntity<HeartRateZoneConfigResponse> saveHeartRateZones(
+        @Valid @RequestBody HeartRateZoneConfigRequest request
+    ) {
+        log.info("Saving heart rate zones for user: {}", request.userId());
+
+        HeartRateZoneConfigResponse response = heartRateZoneService.saveZoneConfig(request);
+
+        log.info("Saved heart rate zones for user: {}", request.userId());
+        return ResponseEntity.ok(response);
+    }
+
     // Response DTOs
     public record RecomputeRangeResponse(
         int totalRecomputed
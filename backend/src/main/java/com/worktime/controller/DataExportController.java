@@ -0,0 +1,132 @@
+package com.worktime.controller;
+
+import com.worktime.model.enums.ExportFormat;
+import com.worktime.service.DataExportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * REST controller for streaming data exports.
+ * Responses are written while rows are read, so exports of any size start immediately.
+ *
+ * Base path: /api/v1/export
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@RestController
+@RequestMapping("/api/v1/export")
+@RequiredArgsConstructor
+@Slf4j
+public class DataExportController {
+
+    private final DataExportService exportService;
+
+    /**
+     * Export activity sessions starting within a date range (UTC days).
+     *
+     * GET /api/v1/export/sessions?userId={userId}&startDate={startDate}&endDate={endDate}&format={format}&gzip={gzip}
+     */
+    @GetMapping("/sessions")
+    public ResponseEntity<StreamingResponseBody> exportSessions(
+        @RequestParam String userId,
+        @RequestParam(required = false) LocalDate startDate,
+        @RequestParam(required = false) LocalDate endDate,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        LocalDate start = startDate != null ? startDate : LocalDate.EPOCH;
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        log.info("Exporting sessions for user: {} ({} to {}) as {}", userId, start, end, format);
+
+        return stream("sessions", format, gzip, out -> exportService.exportSessions(
+            userId,
+            start.atStartOfDay(ZoneOffset.UTC).toInstant(),
+            end.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant(),
+            format, out
+        ));
+    }
+
+    /**
+     * Export activity segments within a date range.
+     *
+     * GET /api/v1/export/segments?userId={userId}&startDate={startDate}&endDate={endDate}&format={format}&gzip={gzip}
+     */
+    @GetMapping("/segments")
+    public ResponseEntity<StreamingResponseBody> exportSegments(
+        @RequestParam String userId,
+        @RequestParam(required = false) LocalDate startDate,
+        @RequestParam(required = false) LocalDate endDate,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        LocalDate start = startDate != null ? startDate : LocalDate.EPOCH;
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        log.info("Exporting segments for user: {} ({} to {}) as {}", userId, start, end, format);
+
+        return stream("segments", format, gzip,
+            out -> exportService.exportSegments(userId, start, end, format, out));
+    }
+
+    /**
+     * Export daily aggregations within a date range.
+     *
+     * GET /api/v1/export/aggregations?userId={userId}&startDate={startDate}&endDate={endDate}&format={format}&gzip={gzip}
+     */
+    @GetMapping("/aggregations")
+    public ResponseEntity<StreamingResponseBody> exportAggregations(
+        @RequestParam String userId,
+        @RequestParam(required = false) LocalDate startDate,
+        @RequestParam(required = false) LocalDate endDate,
+        @RequestParam(defaultValue = "CSV") ExportFormat format,
+        @RequestParam(defaultValue = "false") boolean gzip
+    ) {
+        LocalDate start = startDate != null ? startDate : LocalDate.EPOCH;
+        LocalDate end = endDate != null ? endDate : LocalDate.now();
+        log.info("Exporting daily aggregations for user: {} ({} to {}) as {}", userId, start, end, format);
+
+        return stream("daily-aggregations", format, gzip,
+            out -> exportService.exportAggregations(userId, start, end, format, out));
+    }
+
+    /**
+     * Build a streaming download, optionally gzip-compressed.
+     */
+    private ResponseEntity<StreamingResponseBody> stream(String name, ExportFormat format, boolean gzip,
+                                                         ExportWriter writer) {
+        String filename = name + "." + format.getFileExtension() + (gzip ? ".gz" : "");
+
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream compressed = new GZIPOutputStream(out, true);
+                writer.write(compressed);
+                compressed.finish();
+            } else {
+                writer.write(out);
+            }
+        };
+
+        return ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(gzip ? "application/gzip" : format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment().filename(filename).build().toString())
+            .body(body);
+    }
+
+    @FunctionalInterface
+    private interface ExportWriter {
+        void write(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,20 @@
+package com.worktime.dto.activityprofile;
+
+import lombok.Builder;
+
+import java.time.YearMonth;
+
+@Builder
+public record ActivityHeatmapResponse(
+        String userId,
+        YearMonth startMonth,
+        YearMonth endMonth,
+
+        // Matrices indexed [dayOfWeek - 1][hour], Monday first
+        long[][] steps,
+        long[][] activeSeconds,
+
+        // Number of profiled days per day of week
+        int[] dayCounts
+) {
+}
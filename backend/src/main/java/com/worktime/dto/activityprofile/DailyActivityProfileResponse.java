@@ -0,0 +1,18 @@
+package com.worktime.dto.activityprofile;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.UUID;
+
+@Builder
+public record DailyActivityProfileResponse(
+        UUID id,
+        String userId,
+        LocalDate date,
+
+        // Hourly histograms (index = local hour of day)
+        int[] hourlySteps,
+        int[] hourlyActiveSeconds
+) {
+}
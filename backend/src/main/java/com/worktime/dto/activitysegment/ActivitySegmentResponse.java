@@ -22,6 +22,11 @@ public record ActivitySegmentResponse(
         Integer averageHeartRate,
         Integer minHeartRate,
         Integer maxHeartRate,
+        int[] heartRateZoneSeconds,
+
+        // After cross-source overlap resolution
+        Long attributedStepCount,
+        Double attributedCalories,
 
         // Calculation metadata
         Double allocationRatio,
@@ -29,9 +34,7 @@ public record ActivitySegmentResponse(
 
         // Audit fields
         Instant createdAt,
-        UUID createdBy,
         Instant updatedAt,
-        UUID updatedBy,
         Boolean isDeleted
 ) {
 }
\ No newline at end of file
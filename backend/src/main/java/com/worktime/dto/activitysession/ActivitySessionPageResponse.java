@@ -0,0 +1,15 @@
+package com.worktime.dto.activitysession;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record ActivitySessionPageResponse(
+        List<ActivitySessionResponse> sessions,
+
+        // Opaque token for the next page, null on the last page
+        String nextCursor,
+        boolean hasMore
+) {
+}
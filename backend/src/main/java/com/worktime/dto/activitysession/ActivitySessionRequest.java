@@ -3,7 +3,9 @@ package com.worktime.dto.activitysession;
 import com.worktime.model.enums.ActivityType;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
 import lombok.Builder;
 
 import java.time.Instant;
@@ -23,6 +25,7 @@ public record ActivitySessionRequest(
         Instant endTime,
 
         @NotBlank(message = "Timezone is required")
+        @Size(max = 64, message = "Timezone must be at most 64 characters")
         String timezone,
 
         // Metrics - nullable based on activity type
@@ -48,6 +51,9 @@ public record ActivitySessionRequest(
 
         // Metadata
         @NotBlank(message = "Data source is required")
+        @Size(max = 100, message = "Data source must be at most 100 characters")
+        @Pattern(regexp = "[\\p{L}\\p{N}][\\p{L}\\p{N} ._()-]*",
+                message = "Data source must be an app name (letters, digits, spaces and . _ ( ) -)")
         String dataSource,
 
         String healthConnectRecordId,
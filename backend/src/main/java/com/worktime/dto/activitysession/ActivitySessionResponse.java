@@ -35,9 +35,7 @@ public record ActivitySessionResponse(
 
         // Audit fields
         Instant createdAt,
-        UUID createdBy,
         Instant updatedAt,
-        UUID updatedBy,
         Boolean isDeleted
 ) {
 }
\ No newline at end of file
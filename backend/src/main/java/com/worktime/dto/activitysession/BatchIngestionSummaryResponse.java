@@ -0,0 +1,25 @@
+package com.worktime.dto.activitysession;
+
+import lombok.Builder;
+
+import java.util.List;
+
+@Builder
+public record BatchIngestionSummaryResponse(
+        int received,
+        int ingested,
+        int duplicates,
+        int rejected,
+        List<String> duplicateRecordIds,
+        List<RejectedRecord> rejectedRecords
+) {
+
+    @Builder
+    public record RejectedRecord(
+            // Position of the record in the uploaded batch
+            int index,
+            String healthConnectRecordId,
+            String reason
+    ) {
+    }
+}
@@ -0,0 +1,27 @@
+package com.worktime.dto.activitysession;
+
+import com.worktime.model.enums.ActivityType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record BulkDeleteRequest(
+        @NotBlank(message = "User ID is required")
+        String userId,
+
+        // Optional filters; null matches every source or type
+        String dataSource,
+
+        ActivityType activityType,
+
+        // Range of session start times
+        @NotNull(message = "Start time is required")
+        Instant startTime,
+
+        @NotNull(message = "End time is required")
+        Instant endTime
+) {
+}
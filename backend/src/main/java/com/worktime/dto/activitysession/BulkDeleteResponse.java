@@ -0,0 +1,11 @@
+package com.worktime.dto.activitysession;
+
+import lombok.Builder;
+
+@Builder
+public record BulkDeleteResponse(
+        long sessionsDeleted,
+        long segmentsDeleted,
+        int daysRecomputed
+) {
+}
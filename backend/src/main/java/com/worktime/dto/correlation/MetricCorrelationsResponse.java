@@ -0,0 +1,31 @@
+package com.worktime.dto.correlation;
+
+import com.worktime.model.enums.AnalyticsWindow;
+import com.worktime.model.enums.CorrelationPair;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+public record MetricCorrelationsResponse(
+        String userId,
+        LocalDate endDate,
+        AnalyticsWindow window,
+        List<PairCorrelation> pairs
+) {
+
+    @Builder
+    public record PairCorrelation(
+            CorrelationPair pair,
+            int lagDays,
+
+            // Pearson correlation coefficient (-1 to 1), null with too few samples
+            Double coefficient,
+            Double covariance,
+            Double meanX,
+            Double meanY,
+            long sampleCount
+    ) {
+    }
+}
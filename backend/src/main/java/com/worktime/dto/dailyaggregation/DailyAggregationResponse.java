@@ -1,9 +1,12 @@
 package com.worktime.dto.dailyaggregation;
 
+import com.worktime.model.enums.AggregationMetric;
 import com.worktime.model.enums.DayType;
 import lombok.Builder;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Builder
@@ -34,6 +37,22 @@ public record DailyAggregationResponse(
         Long sleepDurationSeconds,
         Double sleepQualityScore,
 
+        // Heart rate metrics
+        int[] heartRateZoneSeconds,
+
+        // Sedentary bouts during work hours
+        Integer workHoursSedentaryMinutes,
+        Integer longestSedentaryBoutMinutes,
+        Integer sedentaryBoutCount,
+
+        // Data completeness
+        Boolean hasCompleteData,
+
+        // Anomaly detection
+        Boolean anomalous,
+        Double anomalyScore,
+        AggregationMetric anomalousMetric,
+
         Instant computedAt,
 
         // Audit fields
@@ -43,4 +62,32 @@ public record DailyAggregationResponse(
         UUID updatedBy,
         Boolean isDeleted
 ) {
+
+    /**
+     * Constructor used by JPQL constructor expressions, which select the entity's local date.
+     */
+    public DailyAggregationResponse(
+            UUID id, String userId, LocalDate date, DayType dayType,
+            Long workHoursSteps, Double workHoursCalories, Integer workHoursActiveMinutes, Integer workHoursAvgHeartRate,
+            Long offHoursSteps, Double offHoursCalories, Integer offHoursActiveMinutes, Integer offHoursAvgHeartRate,
+            Long totalSteps, Double totalCalories, Integer totalActiveMinutes,
+            Long sleepDurationSeconds, Double sleepQualityScore,
+            int[] heartRateZoneSeconds,
+            Integer workHoursSedentaryMinutes, Integer longestSedentaryBoutMinutes, Integer sedentaryBoutCount,
+            Boolean hasCompleteData,
+            Boolean anomalous, Double anomalyScore, AggregationMetric anomalousMetric,
+            Instant computedAt,
+            Instant createdAt, UUID createdBy, Instant updatedAt, UUID updatedBy, Boolean isDeleted) {
+        this(id, userId, date.atStartOfDay(ZoneOffset.UTC).toInstant(), dayType,
+                workHoursSteps, workHoursCalories, workHoursActiveMinutes, workHoursAvgHeartRate,
+                offHoursSteps, offHoursCalories, offHoursActiveMinutes, offHoursAvgHeartRate,
+                totalSteps, totalCalories, totalActiveMinutes,
+                sleepDurationSeconds, sleepQualityScore,
+                heartRateZoneSeconds,
+                workHoursSedentaryMinutes, longestSedentaryBoutMinutes, sedentaryBoutCount,
+                hasCompleteData,
+                anomalous, anomalyScore, anomalousMetric,
+                computedAt,
+                createdAt, createdBy, updatedAt, updatedBy, isDeleted);
+    }
 }
@@ -0,0 +1,19 @@
+package com.worktime.dto.daydigest;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record DayDigestResponse(
+        LocalDate date,
+        long sessionCount,
+
+        // XOR of the record ID hashes as 16 lowercase hex digits
+        String digest
+) {
+
+    public DayDigestResponse(LocalDate date, Long sessionCount, Long digest) {
+        this(date, sessionCount, String.format("%016x", digest));
+    }
+}
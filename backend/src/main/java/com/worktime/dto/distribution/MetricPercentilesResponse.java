@@ -0,0 +1,35 @@
+package com.worktime.dto.distribution;
+
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.AnalyticsWindow;
+import com.worktime.model.enums.DayType;
+import lombok.Builder;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Builder
+public record MetricPercentilesResponse(
+        String userId,
+        LocalDate date,
+        DayType dayType,
+        AnalyticsWindow window,
+        List<MetricPercentile> metrics
+) {
+
+    @Builder
+    public record MetricPercentile(
+            AggregationMetric metric,
+            Double value,
+
+            // Percentile rank of the day's value among comparable days (0-100)
+            Double percentileRank,
+
+            // Distribution of comparable days
+            Double p10,
+            Double p50,
+            Double p90,
+            long sampleCount
+    ) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.worktime.dto.heartratezone;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+import lombok.Builder;
+
+@Builder
+public record HeartRateZoneConfigRequest(
+        @NotBlank(message = "User ID is required")
+        String userId,
+
+        @NotNull(message = "Max heart rate is required")
+        @Positive(message = "Max heart rate must be positive")
+        Integer maxHeartRate,
+
+        // Lower bound of each zone in percent of max heart rate, ascending
+        @NotNull(message = "Zone lower percents are required")
+        @Size(min = 5, max = 5, message = "Exactly 5 zone lower percents are required")
+        int[] zoneLowerPercents
+) {
+}
@@ -0,0 +1,17 @@
+package com.worktime.dto.heartratezone;
+
+import lombok.Builder;
+
+@Builder
+public record HeartRateZoneConfigResponse(
+        String userId,
+        Integer maxHeartRate,
+        int[] zoneLowerPercents,
+
+        // Lower bound of each zone in beats per minute
+        int[] zoneLowerBoundsBpm,
+
+        // True when no configuration is stored and defaults apply
+        Boolean isDefault
+) {
+}
@@ -0,0 +1,28 @@
+package com.worktime.dto.minutebitmap;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record DayMinuteSummaryResponse(
+        String userId,
+        LocalDate date,
+
+        // Distinct minutes, overlapping sessions counted once
+        int activeMinutes,
+        int workHoursActiveMinutes,
+        int coveredMinutes,
+        int longestGapMinutes,
+        boolean hasCompleteData,
+
+        // Work-hours minutes without steps or exercise, and their uninterrupted stretches
+        int workHoursSedentaryMinutes,
+        int longestSedentaryBoutMinutes,
+        int sedentaryBoutCount,
+
+        // 1,440-bit bitmaps, bit i = minute i of the local day (little-endian, base64 in JSON)
+        byte[] activityBitmap,
+        byte[] coverageBitmap
+) {
+}
@@ -4,6 +4,8 @@ import com.worktime.model.enums.OverrideType;
 import lombok.Builder;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
 @Builder
@@ -22,4 +24,16 @@ public record ScheduleOverrideResponse(
         UUID updatedBy,
         Boolean isDeleted
 ) {
+
+    /**
+     * Constructor used by JPQL constructor expressions, which select the entity's local date.
+     */
+    public ScheduleOverrideResponse(
+            UUID id, LocalDate date, OverrideType overrideType,
+            Instant customStartTime, Instant customEndTime, String reason,
+            Instant createdAt, UUID createdBy, Instant updatedAt, UUID updatedBy, Boolean isDeleted) {
+        this(id, date.atStartOfDay(ZoneOffset.UTC).toInstant(), overrideType,
+                customStartTime, customEndTime, reason,
+                createdAt, createdBy, updatedAt, updatedBy, isDeleted);
+    }
 }
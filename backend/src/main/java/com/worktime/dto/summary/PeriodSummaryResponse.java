@@ -0,0 +1,36 @@
+package com.worktime.dto.summary;
+
+import lombok.Builder;
+
+import java.time.LocalDate;
+
+@Builder
+public record PeriodSummaryResponse(
+        String userId,
+        LocalDate startDate,
+        LocalDate endDate,
+        int daysWithData,
+
+        // Step and calorie totals
+        Long workHoursSteps,
+        Long offHoursSteps,
+        Long totalSteps,
+        Double totalCalories,
+
+        // Active minutes totals
+        Integer workHoursActiveMinutes,
+        Integer offHoursActiveMinutes,
+        Integer totalActiveMinutes,
+
+        // Sedentary bouts during work hours
+        Integer workHoursSedentaryMinutes,
+        Integer longestSedentaryBoutMinutes,
+        Integer sedentaryBoutCount,
+
+        // Sleep metrics
+        Long averageSleepDurationSeconds,
+
+        // Heart rate metrics (minutes spent in each zone)
+        double[] heartRateZoneMinutes
+) {
+}
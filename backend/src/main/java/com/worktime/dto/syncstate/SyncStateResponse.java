@@ -0,0 +1,18 @@
+package com.worktime.dto.syncstate;
+
+import lombok.Builder;
+
+import java.time.Instant;
+
+@Builder
+public record SyncStateResponse(
+        String userId,
+        String dataSource,
+
+        // Upload only sessions ending after this instant
+        Instant maxEndTime,
+        String changeToken,
+        Long recordCount,
+        Instant lastSyncedAt
+) {
+}
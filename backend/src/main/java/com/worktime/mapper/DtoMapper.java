@@ -1,5 +1,6 @@
 package com.worktime.mapper;
 
+import com.worktime.dto.activityprofile.DailyActivityProfileResponse;
 import com.worktime.dto.activitysegment.ActivitySegmentRequest;
 import com.worktime.dto.activitysegment.ActivitySegmentResponse;
 import com.worktime.dto.activitysession.ActivitySessionRequest;
@@ -89,9 +90,7 @@ public final class DtoMapper {
                 .processed(entity.getProcessed())
                 .version(entity.getVersion())
                 .createdAt(entity.getCreatedAt())
-                .createdBy(entity.getCreatedBy())
                 .updatedAt(entity.getUpdatedAt())
-                .updatedBy(entity.getUpdatedBy())
                 .isDeleted(entity.getIsDeleted())
                 .build();
     }
@@ -100,10 +99,10 @@ public final class DtoMapper {
 
     /**
      * Convert ActivitySegmentRequest to ActivitySegment entity.
-     * Note: The session must be set separately as it requires a repository lookup.
+     * Note: The session and user ID must be set separately as they require a repository lookup.
      *
      * @param request the request DTO
-     * @return the entity (session field will be null)
+     * @return the entity (session and user ID fields will be null)
      */
     public static ActivitySegment toEntity(ActivitySegmentRequest request) {
         if (request == null) {
@@ -150,12 +149,13 @@ public final class DtoMapper {
                 .averageHeartRate(entity.getAverageHeartRate())
                 .minHeartRate(entity.getMinHeartRate())
                 .maxHeartRate(entity.getMaxHeartRate())
+                .heartRateZoneSeconds(entity.getHeartRateZoneSeconds())
+                .attributedStepCount(entity.getAttributedStepCount())
+                .attributedCalories(entity.getAttributedCalories())
                 .allocationRatio(entity.getAllocationRatio())
                 .isSplit(entity.getIsSplit())
                 .createdAt(entity.getCreatedAt())
-                .createdBy(entity.getCreatedBy())
                 .updatedAt(entity.getUpdatedAt())
-                .updatedBy(entity.getUpdatedBy())
                 .isDeleted(entity.getIsDeleted())
                 .build();
     }
@@ -325,6 +325,14 @@ public final class DtoMapper {
                 .totalActiveMinutes(entity.getTotalActiveMinutes())
                 .sleepDurationSeconds(entity.getSleepDurationSeconds())
                 .sleepQualityScore(entity.getSleepQualityScore())
+                .heartRateZoneSeconds(entity.getHeartRateZoneSeconds())
+                .workHoursSedentaryMinutes(entity.getWorkHoursSedentaryMinutes())
+                .longestSedentaryBoutMinutes(entity.getLongestSedentaryBoutMinutes())
+                .sedentaryBoutCount(entity.getSedentaryBoutCount())
+                .hasCompleteData(entity.getHasCompleteData())
+                .anomalous(entity.getAnomalous())
+                .anomalyScore(entity.getAnomalyScore())
+                .anomalousMetric(entity.getAnomalousMetric())
                 .computedAt(entity.getComputedAt())
                 .createdAt(entity.getCreatedAt())
                 .createdBy(entity.getCreatedBy())
@@ -333,4 +341,26 @@ public final class DtoMapper {
                 .isDeleted(entity.getIsDeleted())
                 .build();
     }
+
+    // ==================== DailyActivityProfile Mapping ====================
+
+    /**
+     * Convert DailyActivityProfile entity to DailyActivityProfileResponse.
+     *
+     * @param entity the entity
+     * @return the response DTO
+     */
+    public static DailyActivityProfileResponse toDto(DailyActivityProfile entity) {
+        if (entity == null) {
+            return null;
+        }
+
+        return DailyActivityProfileResponse.builder()
+                .id(entity.getId())
+                .userId(entity.getUserId())
+                .date(entity.getDate())
+                .hourlySteps(entity.getHourlySteps())
+                .hourlyActiveSeconds(entity.getHourlyActiveSeconds())
+                .build();
+    }
 }
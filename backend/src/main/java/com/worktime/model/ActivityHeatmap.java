@@ -0,0 +1,60 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+/**
+ * Entity representing a monthly day-of-week x hour activity heatmap.
+ * Cells are stored row-major as {@code (dayOfWeek - 1) * 24 + hour}, so a month is
+ * 168 cells regardless of how many days it contains. Heatmaps over longer periods are
+ * obtained by summing the monthly rows.
+ */
+@Entity
+@Table(name = "activity_heatmaps",
+    uniqueConstraints = @UniqueConstraint(name = "uk_activity_heatmap_user_month",
+        columnNames = {"user_id", "month_start"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ActivityHeatmap extends AuditedEntity {
+
+    public static final int DAYS_PER_WEEK = 7;
+    public static final int CELL_COUNT = DAYS_PER_WEEK * DailyActivityProfile.HOURS_PER_DAY;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate monthStart;  // First day of the month
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    @Builder.Default
+    private int[] stepCells = new int[CELL_COUNT];
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    @Builder.Default
+    private int[] activeSecondCells = new int[CELL_COUNT];
+
+    // Number of profiled days per day of week, used to turn cell totals into averages
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    @Builder.Default
+    private int[] dayCounts = new int[DAYS_PER_WEEK];
+
+    /**
+     * Get the cell index for a day of week and local hour.
+     */
+    public static int cellIndex(DayOfWeek dayOfWeek, int hour) {
+        return (dayOfWeek.getValue() - 1) * DailyActivityProfile.HOURS_PER_DAY + hour;
+    }
+}
@@ -1,10 +1,13 @@
 package com.worktime.model;
 
+import com.worktime.model.converter.TimeSegmentTypeConverter;
 import com.worktime.model.enums.TimeSegmentType;
 import com.worktime.shared.BaseEntity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Duration;
 import java.time.Instant;
@@ -17,8 +20,6 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "activity_segments", indexes = {
-    @Index(name = "idx_activity_segment_date", columnList = "activityDate"),
-    @Index(name = "idx_activity_segment_type", columnList = "segmentType"),
     @Index(name = "idx_activity_segment_session", columnList = "session_id")
 })
 @Data
@@ -32,7 +33,11 @@ public class ActivitySegment extends BaseEntity {
     @JoinColumn(name = "session_id", nullable = false)
     private ActivitySession session;
 
-    @Enumerated(EnumType.STRING)
+    // Copied from the session, so segments stay queryable once their session is archived
+    @Column(nullable = false)
+    private String userId;
+
+    @Convert(converter = TimeSegmentTypeConverter.class)
     @Column(nullable = false)
     private TimeSegmentType segmentType;
 
@@ -59,6 +64,16 @@ public class ActivitySegment extends BaseEntity {
 
     private Integer maxHeartRate;
 
+    // Share of the allocated metrics left after cross-source overlap resolution
+    // (STEPS and CALORIES_BURNED only; null means no resolution applies)
+    private Long attributedStepCount;
+
+    private Double attributedCalories;
+
+    // Seconds spent in each heart rate zone (HEART_RATE sessions only)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private int[] heartRateZoneSeconds;
+
     // Calculation metadata
     @Column(nullable = false)
     private Double allocationRatio;  // What % of original session is this segment?
@@ -66,6 +81,20 @@ public class ActivitySegment extends BaseEntity {
     @Column(nullable = false)
     private Boolean isSplit;  // Was this split from a larger session?
 
+    /**
+     * Get the steps counted towards aggregates: the attributed share when resolved.
+     */
+    public Long getCountedStepCount() {
+        return attributedStepCount != null ? attributedStepCount : stepCount;
+    }
+
+    /**
+     * Get the calories counted towards aggregates: the attributed share when resolved.
+     */
+    public Double getCountedCalories() {
+        return attributedCalories != null ? attributedCalories : caloriesBurned;
+    }
+
     /**
      * Get duration as Duration object.
      */
@@ -1,5 +1,8 @@
 package com.worktime.model;
 
+import com.worktime.model.converter.ActivityTypeConverter;
+import com.worktime.model.converter.DataSourceConverter;
+import com.worktime.model.converter.TimezoneConverter;
 import com.worktime.model.enums.ActivityType;
 import com.worktime.shared.BaseEntity;
 import jakarta.persistence.*;
@@ -14,14 +17,14 @@ import java.util.UUID;
 /**
  * Entity representing a raw activity session from Health Connect.
  * This is the source of truth for all ingested activity data before segmentation.
+ * The table is partitioned by month of start time, so unique keys include it.
+ * Partial, covering and BRIN indexes are defined in the migrations (V17).
  */
 @Entity
-@Table(name = "activity_sessions", indexes = {
-    @Index(name = "idx_activity_session_start_time", columnList = "startTime"),
-    @Index(name = "idx_activity_session_end_time", columnList = "endTime"),
-    @Index(name = "idx_activity_session_type", columnList = "activityType"),
-    @Index(name = "idx_activity_session_user", columnList = "userId"),
-    @Index(name = "idx_activity_session_processed", columnList = "processed")
+@Table(name = "activity_sessions", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_activity_session_record", columnNames = {"health_connect_record_id", "start_time"})
+}, indexes = {
+    @Index(name = "idx_activity_session_user_start", columnList = "userId, startTime, id")
 })
 @Data
 @EqualsAndHashCode(callSuper = false)
@@ -33,7 +36,7 @@ public class ActivitySession extends BaseEntity {
     @Column(nullable = false)
     private String userId;
 
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ActivityTypeConverter.class)
     @Column(nullable = false)
     private ActivityType activityType;
 
@@ -43,8 +46,9 @@ public class ActivitySession extends BaseEntity {
     @Column(nullable = false)
     private Instant endTime;
 
-    @Column(nullable = false)
-    private String timezone;  // Store as String, convert to ZoneId when needed
+    @Convert(converter = TimezoneConverter.class)
+    @Column(name = "timezone_id", nullable = false)
+    private String timezone;  // Stored as a dictionary id, convert to ZoneId when needed
 
     // Metrics - nullable based on activity type
     private Long stepCount;
@@ -63,10 +67,10 @@ public class ActivitySession extends BaseEntity {
     private String exerciseTitle;
 
     // Metadata
-    @Column(nullable = false)
+    @Convert(converter = DataSourceConverter.class)
+    @Column(name = "data_source_id", nullable = false)
     private String dataSource;  // "Samsung Health", "Google Fit", etc.
 
-    @Column(unique = true)
     private String healthConnectRecordId;  // Original Health Connect record ID
 
     @Column(nullable = false)
@@ -0,0 +1,44 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing the intraday activity profile of a single day.
+ * Holds a 24-bucket histogram (one bucket per local hour) of steps and active seconds,
+ * built incrementally as sessions are split.
+ */
+@Entity
+@Table(name = "daily_activity_profiles",
+    uniqueConstraints = @UniqueConstraint(name = "uk_daily_activity_profile_user_date",
+        columnNames = {"user_id", "date"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailyActivityProfile extends AuditedEntity {
+
+    public static final int HOURS_PER_DAY = 24;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate date;  // Local date in the session's timezone
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    @Builder.Default
+    private int[] hourlySteps = new int[HOURS_PER_DAY];
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    @Builder.Default
+    private int[] hourlyActiveSeconds = new int[HOURS_PER_DAY];
+}
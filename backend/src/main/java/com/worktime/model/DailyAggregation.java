@@ -1,10 +1,13 @@
 package com.worktime.model;
 
+import com.worktime.model.enums.AggregationMetric;
 import com.worktime.model.enums.DayType;
-import com.worktime.shared.BaseEntity;
+import com.worktime.shared.AuditedEntity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 
 import java.time.Instant;
 import java.time.LocalDate;
@@ -13,24 +16,23 @@ import java.util.UUID;
 /**
  * Entity representing pre-computed daily aggregations.
  * Used for fast analytics queries without scanning all segments.
+ * Partial and BRIN indexes are defined in the migrations (V17).
  */
 @Entity
-@Table(name = "daily_aggregations", indexes = {
-    @Index(name = "idx_daily_agg_date", columnList = "date"),
-    @Index(name = "idx_daily_agg_user", columnList = "userId"),
-    @Index(name = "idx_daily_agg_day_type", columnList = "dayType")
+@Table(name = "daily_aggregations", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_daily_aggregation_user_date", columnNames = {"user_id", "date"})
 })
 @Data
 @EqualsAndHashCode(callSuper = false)
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
-public class DailyAggregation extends BaseEntity {
+public class DailyAggregation extends AuditedEntity {
 
     @Column(nullable = false)
     private String userId;
 
-    @Column(nullable = false, unique = true)
+    @Column(nullable = false)
     private LocalDate date;
 
     @Enumerated(EnumType.STRING)
@@ -58,6 +60,27 @@ public class DailyAggregation extends BaseEntity {
     private Long sleepDurationSeconds;  // Store as seconds
     private Double sleepQualityScore;
 
+    // Heart rate metrics (seconds spent in each zone)
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    private int[] heartRateZoneSeconds;
+
+    // Sedentary bouts during work hours (from the day's minute bitmaps)
+    private Integer workHoursSedentaryMinutes;
+    private Integer longestSedentaryBoutMinutes;
+    private Integer sedentaryBoutCount;
+
+    // Data completeness (from the day's coverage bitmap; null if the day has none)
+    private Boolean hasCompleteData;
+
+    // Anomaly detection (z-score of the most deviating metric against its baseline)
+    @Column(nullable = false)
+    @Builder.Default
+    private Boolean anomalous = false;
+    private Double anomalyScore;
+
+    @Enumerated(EnumType.STRING)
+    private AggregationMetric anomalousMetric;
+
     @Column(nullable = false)
     private Instant computedAt;
 }
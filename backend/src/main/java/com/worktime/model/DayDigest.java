@@ -0,0 +1,41 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing an order-independent fingerprint of a user's sessions on one day.
+ * The day of a session is the local date of its start time in its own timezone.
+ *
+ * <p>The digest is the XOR of {@link com.worktime.service.DayDigestService#hashOf} over the
+ * Health Connect record IDs of the day's live sessions, so adding and removing a session
+ * are the same O(1) operation and clients can compute it without the server's order.
+ */
+@Entity
+@Table(name = "day_digests",
+    uniqueConstraints = @UniqueConstraint(name = "uk_day_digest_user_date",
+        columnNames = {"user_id", "date"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayDigest extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long sessionCount = 0L;  // Includes sessions without a record ID
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long digest = 0L;
+}
@@ -0,0 +1,46 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing per-minute activity and data coverage of a user's local day.
+ * Each bitmap is a serialized {@link com.worktime.shared.MinuteBitmap}, built by OR-ing
+ * in the segments of every split session.
+ */
+@Entity
+@Table(name = "day_minute_bitmaps",
+    uniqueConstraints = @UniqueConstraint(name = "uk_day_minute_bitmap_user_date",
+        columnNames = {"user_id", "date"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayMinuteBitmap extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    // Minutes with steps or exercise
+    @Column(nullable = false)
+    private byte[] activityMinutes;
+
+    // Subset of activityMinutes falling in work hours
+    @Column(nullable = false)
+    private byte[] workActivityMinutes;
+
+    // Minutes within the day's scheduled work hours
+    @Column(nullable = false)
+    private byte[] workMinutes;
+
+    // Minutes covered by any ingested record
+    @Column(nullable = false)
+    private byte[] coverageMinutes;
+}
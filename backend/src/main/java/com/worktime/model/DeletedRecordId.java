@@ -0,0 +1,38 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Entity representing the Health Connect record ID of a deleted session whose row was
+ * purged. Duplicate detection checks it, so the record is not ingested again.
+ *
+ * @see com.worktime.service.TombstonePurgeService
+ */
+@Entity
+@Table(name = "deleted_record_ids",
+    uniqueConstraints = @UniqueConstraint(name = "uk_deleted_record_id_record",
+        columnNames = {"health_connect_record_id"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DeletedRecordId extends BaseEntity {
+
+    @Column(nullable = false)
+    private String healthConnectRecordId;
+
+    @Column(nullable = false)
+    private UUID sessionId;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private Instant deletedAt;  // When the session was soft deleted
+}
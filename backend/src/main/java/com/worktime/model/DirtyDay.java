@@ -0,0 +1,31 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing a user's day whose daily aggregation is stale, e.g. because
+ * sessions of the day were deleted. The update time is the last time the day was marked.
+ *
+ * @see com.worktime.service.DirtyDayService
+ */
+@Entity
+@Table(name = "dirty_days",
+    uniqueConstraints = @UniqueConstraint(name = "uk_dirty_day_user_date",
+        columnNames = {"user_id", "date"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DirtyDay extends BaseEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate date;
+}
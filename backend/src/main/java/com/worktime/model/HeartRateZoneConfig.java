@@ -0,0 +1,36 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+/**
+ * Entity representing a user's heart rate zone configuration.
+ * Zones are defined as lower bounds in percent of the user's maximum heart rate;
+ * zone {@code i} covers {@code [lower[i], lower[i + 1])} and the last zone is open-ended.
+ */
+@Entity
+@Table(name = "heart_rate_zone_configs")
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HeartRateZoneConfig extends AuditedEntity {
+
+    public static final int ZONE_COUNT = 5;
+    public static final int DEFAULT_MAX_HEART_RATE = 190;
+    public static final int[] DEFAULT_ZONE_LOWER_PERCENTS = {50, 60, 70, 80, 90};
+
+    @Column(nullable = false, unique = true)
+    private String userId;
+
+    @Column(nullable = false)
+    private Integer maxHeartRate;
+
+    @JdbcTypeCode(SqlTypes.ARRAY)
+    @Column(nullable = false)
+    private int[] zoneLowerPercents;
+}
@@ -0,0 +1,67 @@
+package com.worktime.model;
+
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.DayType;
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Entity representing the online anomaly-detection state of one daily metric.
+ * Holds an exponentially weighted mean and variance per user, metric and day type,
+ * plus the state before the latest day was applied so that day can be replaced in O(1).
+ */
+@Entity
+@Table(name = "metric_baselines",
+    uniqueConstraints = @UniqueConstraint(name = "uk_metric_baseline_key",
+        columnNames = {"user_id", "metric", "day_type"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricBaseline extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AggregationMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayType dayType;
+
+    // Current state (including lastDate)
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer sampleCount = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double mean = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double variance = 0.0;
+
+    private LocalDate lastDate;
+
+    // State before lastDate was applied
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer previousSampleCount = 0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double previousMean = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double previousVariance = 0.0;
+
+    private LocalDate previousLastDate;
+}
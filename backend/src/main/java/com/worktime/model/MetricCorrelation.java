@@ -0,0 +1,60 @@
+package com.worktime.model;
+
+import com.worktime.model.enums.CorrelationPair;
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity representing the running co-moments of one metric pair.
+ * Kept per user and pair, in monthly buckets ("yyyy-MM") of the observation day
+ * plus one all-time bucket ("ALL"); rolling windows merge the monthly buckets.
+ *
+ * @see com.worktime.shared.CovarianceAccumulator
+ */
+@Entity
+@Table(name = "metric_correlations",
+    uniqueConstraints = @UniqueConstraint(name = "uk_metric_correlation_key",
+        columnNames = {"user_id", "pair", "period"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricCorrelation extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private CorrelationPair pair;
+
+    @Column(nullable = false)
+    private String period;  // "yyyy-MM" or "ALL"
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long sampleCount = 0L;
+
+    @Column(name = "mean_x", nullable = false)
+    @Builder.Default
+    private Double meanX = 0.0;
+
+    @Column(name = "mean_y", nullable = false)
+    @Builder.Default
+    private Double meanY = 0.0;
+
+    // Sums of squared deviations and of products of deviations
+    @Column(name = "m2_x", nullable = false)
+    @Builder.Default
+    private Double m2X = 0.0;
+
+    @Column(name = "m2_y", nullable = false)
+    @Builder.Default
+    private Double m2Y = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double coMoment = 0.0;
+}
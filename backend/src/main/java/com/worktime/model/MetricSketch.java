@@ -0,0 +1,46 @@
+package com.worktime.model;
+
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.DayType;
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity representing a serialized quantile sketch of one daily metric.
+ * Sketches are kept per user, metric and day type, in monthly buckets ("yyyy-MM")
+ * plus one all-time bucket ("ALL"); rolling windows merge the monthly buckets.
+ *
+ * @see com.worktime.shared.QuantileSketch
+ */
+@Entity
+@Table(name = "metric_sketches",
+    uniqueConstraints = @UniqueConstraint(name = "uk_metric_sketch_key",
+        columnNames = {"user_id", "metric", "day_type", "period"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class MetricSketch extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private AggregationMetric metric;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private DayType dayType;
+
+    @Column(nullable = false)
+    private String period;  // "yyyy-MM" or "ALL"
+
+    @Column(nullable = false)
+    private byte[] sketch;
+
+    @Column(nullable = false)
+    private Long sampleCount;
+}
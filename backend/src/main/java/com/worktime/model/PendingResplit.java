@@ -0,0 +1,31 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.util.UUID;
+
+/**
+ * Entity representing a session to split again because the schedule it was split
+ * against changed. The update time is the last time the session was queued.
+ *
+ * @see com.worktime.service.SessionResplitService
+ */
+@Entity
+@Table(name = "pending_resplits",
+    uniqueConstraints = @UniqueConstraint(name = "uk_pending_resplit_session",
+        columnNames = {"session_id"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PendingResplit extends BaseEntity {
+
+    @Column(nullable = false)
+    private UUID sessionId;
+
+    @Column(nullable = false)
+    private String userId;
+}
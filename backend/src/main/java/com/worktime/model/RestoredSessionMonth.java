@@ -0,0 +1,36 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Entity representing one user's month of raw sessions restored from its archive file.
+ * The scheduled archival leaves the month in the database until it is archived again
+ * explicitly.
+ *
+ * @see com.worktime.service.SessionArchiveService
+ */
+@Entity
+@Table(name = "restored_session_months",
+    uniqueConstraints = @UniqueConstraint(name = "uk_restored_session_month_user_month",
+        columnNames = {"user_id", "month"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RestoredSessionMonth extends BaseEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate month;  // First day of the UTC month of the sessions' start times
+
+    @Column(nullable = false)
+    private Instant restoredAt;
+}
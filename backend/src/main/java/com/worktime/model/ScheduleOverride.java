@@ -1,7 +1,7 @@
 package com.worktime.model;
 
 import com.worktime.model.enums.OverrideType;
-import com.worktime.shared.BaseEntity;
+import com.worktime.shared.AuditedEntity;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,15 +13,13 @@ import java.time.LocalDate;
  * Used for holidays, PTO, irregular work days, etc.
  */
 @Entity
-@Table(name = "schedule_overrides", indexes = {
-    @Index(name = "idx_schedule_override_date", columnList = "date")
-})
+@Table(name = "schedule_overrides")
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class ScheduleOverride extends BaseEntity {
+public class ScheduleOverride extends AuditedEntity {
 
     @Column(nullable = false, unique = true)
     private LocalDate date;
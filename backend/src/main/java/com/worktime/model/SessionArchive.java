@@ -0,0 +1,47 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Entity representing one user's raw sessions of one month, moved out of
+ * activity_sessions into a compressed Arrow IPC file.
+ *
+ * <p>The segments, profiles and aggregations derived from the sessions stay in
+ * the database; only the raw rows live in the file.
+ *
+ * @see com.worktime.service.SessionArchiveService
+ */
+@Entity
+@Table(name = "session_archives",
+    uniqueConstraints = @UniqueConstraint(name = "uk_session_archive_user_month",
+        columnNames = {"user_id", "month"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionArchive extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate month;  // First day of the UTC month of the sessions' start times
+
+    @Column(nullable = false)
+    private String filePath;  // Relative to the archive directory
+
+    @Column(nullable = false)
+    private Integer sessionCount;
+
+    @Column(nullable = false)
+    private Long fileSizeBytes;
+
+    @Column(nullable = false)
+    private Instant archivedAt;
+}
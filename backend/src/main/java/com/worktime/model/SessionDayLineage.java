@@ -0,0 +1,88 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Entity representing the days a split session contributes to. The days are a bitmap
+ * relative to the first one: bit i set means the session has segments on firstDate + i.
+ * A session spanning {@link #MAX_DAYS} days or more covers every day from firstDate to
+ * lastDate, and its bitmap has all bits set.
+ * Written on every split, so it outlives compacted segments and archived sessions.
+ *
+ * @see com.worktime.service.SessionLineageService
+ */
+@Entity
+@Table(name = "session_day_lineage",
+    uniqueConstraints = @UniqueConstraint(name = "uk_session_day_lineage_session",
+        columnNames = {"session_id"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionDayLineage extends BaseEntity {
+
+    public static final int MAX_DAYS = Integer.SIZE;
+
+    @Column(nullable = false)
+    private UUID sessionId;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private LocalDate firstDate;
+
+    @Column(nullable = false)
+    private LocalDate lastDate;
+
+    @Column(nullable = false)
+    private Integer dayMask;
+
+    /**
+     * Build the bitmap of a set of days relative to the earliest one; all bits are set
+     * when the days span MAX_DAYS or more.
+     *
+     * @param firstDate the earliest of the days
+     * @param dates the days
+     * @throws IllegalArgumentException if a day is before firstDate
+     */
+    public static int maskOf(LocalDate firstDate, Collection<LocalDate> dates) {
+        int mask = 0;
+        for (LocalDate date : dates) {
+            long offset = date.toEpochDay() - firstDate.toEpochDay();
+            if (offset < 0) {
+                throw new IllegalArgumentException("Day " + date + " is out of lineage range from " + firstDate);
+            }
+            if (offset >= MAX_DAYS) {
+                return -1;
+            }
+            mask |= 1 << offset;
+        }
+        return mask;
+    }
+
+    /**
+     * Get the days of the lineage, in order.
+     */
+    public List<LocalDate> getDates() {
+        if (lastDate.toEpochDay() - firstDate.toEpochDay() >= MAX_DAYS) {
+            return firstDate.datesUntil(lastDate.plusDays(1)).toList();
+        }
+        List<LocalDate> dates = new ArrayList<>(Integer.bitCount(dayMask));
+        for (int offset = 0; offset < MAX_DAYS; offset++) {
+            if ((dayMask & (1 << offset)) != 0) {
+                dates.add(firstDate.plusDays(offset));
+            }
+        }
+        return dates;
+    }
+}
@@ -0,0 +1,29 @@
+package com.worktime.model;
+
+import com.worktime.shared.BaseEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Entity representing the longest session duration of a user. Overlap queries look
+ * back this far before their range start, so sessions of any length are found.
+ *
+ * @see com.worktime.service.SessionDurationBoundService
+ */
+@Entity
+@Table(name = "session_duration_bounds",
+    uniqueConstraints = @UniqueConstraint(name = "uk_session_duration_bound_user",
+        columnNames = {"user_id"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionDurationBound extends BaseEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private Long maxDurationSeconds;  // Never lowered, so it covers deleted sessions too
+}
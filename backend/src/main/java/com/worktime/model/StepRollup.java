@@ -0,0 +1,64 @@
+package com.worktime.model;
+
+import com.worktime.model.enums.TimeSegmentType;
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Entity representing compacted step segments of one user, source and segment type
+ * within one fixed-size time bucket.
+ * Replaces the fine-grained segments it was built from; totals are exact sums.
+ *
+ * @see com.worktime.service.StepCompactionService
+ */
+@Entity
+@Table(name = "step_rollups",
+    uniqueConstraints = @UniqueConstraint(name = "uk_step_rollup_bucket",
+        columnNames = {"user_id", "data_source", "segment_type", "bucket_start"}),
+    indexes = @Index(name = "idx_step_rollup_user_date", columnList = "userId, activityDate"))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StepRollup extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String dataSource;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private TimeSegmentType segmentType;
+
+    @Column(nullable = false)
+    private LocalDate activityDate;
+
+    @Column(nullable = false)
+    private Instant bucketStart;
+
+    @Column(nullable = false)
+    private Instant bucketEnd;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long stepCount = 0L;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Double caloriesBurned = 0.0;
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long durationSeconds = 0L;  // Sum of the compacted segments' durations
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Integer segmentCount = 0;
+}
@@ -0,0 +1,46 @@
+package com.worktime.model;
+
+import com.worktime.shared.AuditedEntity;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Entity representing how far a user's data from one source has been ingested.
+ * The sync client reads it to upload only records newer than the high-water mark.
+ *
+ * <p>Rows are advanced by an atomic upsert in the ingestion transaction and never
+ * move backwards, so concurrent uploads of the same source cannot lose progress.
+ *
+ * @see com.worktime.repository.SyncStateRepository#advance
+ */
+@Entity
+@Table(name = "sync_states",
+    uniqueConstraints = @UniqueConstraint(name = "uk_sync_state_user_source",
+        columnNames = {"user_id", "data_source"}))
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncState extends AuditedEntity {
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false)
+    private String dataSource;  // Same value as ActivitySession.dataSource
+
+    @Column(nullable = false)
+    private Instant maxEndTime;  // Latest end time of any ingested session
+
+    private String changeToken;  // Last Health Connect changes token fully ingested
+
+    @Column(nullable = false)
+    @Builder.Default
+    private Long recordCount = 0L;
+
+    @Column(nullable = false)
+    private Instant lastSyncedAt;
+}
@@ -1,6 +1,6 @@
 package com.worktime.model;
 
-import com.worktime.shared.BaseEntity;
+import com.worktime.shared.AuditedEntity;
 import jakarta.persistence.*;
 import lombok.*;
 import org.hibernate.annotations.GenericGenerator;
@@ -17,16 +17,14 @@ import java.util.UUID;
  */
 @Entity
 @Table(name = "working_schedules", indexes = {
-    @Index(name = "idx_working_schedule_user", columnList = "userId"),
-    @Index(name = "idx_working_schedule_day", columnList = "dayOfWeek"),
-    @Index(name = "idx_working_schedule_active", columnList = "isActive")
+    @Index(name = "idx_working_schedule_user_day", columnList = "userId, dayOfWeek")
 })
 @Data
 @EqualsAndHashCode(callSuper = false)
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-public class WorkingSchedule extends BaseEntity {
+public class WorkingSchedule extends AuditedEntity {
 
     @Column(nullable = false)
     private String userId;
@@ -0,0 +1,25 @@
+package com.worktime.model.converter;
+
+import com.worktime.model.enums.ActivityType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link ActivityType} as its smallint code.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Converter
+public class ActivityTypeConverter implements AttributeConverter<ActivityType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(ActivityType type) {
+        return type != null ? type.getCode() : null;
+    }
+
+    @Override
+    public ActivityType convertToEntityAttribute(Short code) {
+        return code != null ? ActivityType.fromCode(code) : null;
+    }
+}
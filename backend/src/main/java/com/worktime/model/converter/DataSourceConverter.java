@@ -0,0 +1,29 @@
+package com.worktime.model.converter;
+
+import com.worktime.service.DictionaryService;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores a data source name (e.g. "Samsung Health") as its id in the data_sources dictionary.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Converter
+@RequiredArgsConstructor
+public class DataSourceConverter implements AttributeConverter<String, Short> {
+
+    private final DictionaryService dictionaryService;
+
+    @Override
+    public Short convertToDatabaseColumn(String dataSource) {
+        return dataSource != null ? dictionaryService.idOf(DictionaryService.Dictionary.DATA_SOURCES, dataSource) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id != null ? dictionaryService.nameOf(DictionaryService.Dictionary.DATA_SOURCES, id) : null;
+    }
+}
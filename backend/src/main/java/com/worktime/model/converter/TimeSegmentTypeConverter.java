@@ -0,0 +1,25 @@
+package com.worktime.model.converter;
+
+import com.worktime.model.enums.TimeSegmentType;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+
+/**
+ * Stores {@link TimeSegmentType} as its smallint code.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Converter
+public class TimeSegmentTypeConverter implements AttributeConverter<TimeSegmentType, Short> {
+
+    @Override
+    public Short convertToDatabaseColumn(TimeSegmentType type) {
+        return type != null ? type.getCode() : null;
+    }
+
+    @Override
+    public TimeSegmentType convertToEntityAttribute(Short code) {
+        return code != null ? TimeSegmentType.fromCode(code) : null;
+    }
+}
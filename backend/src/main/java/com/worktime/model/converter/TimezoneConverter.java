@@ -0,0 +1,29 @@
+package com.worktime.model.converter;
+
+import com.worktime.service.DictionaryService;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Stores a timezone name as its id in the timezones dictionary.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Converter
+@RequiredArgsConstructor
+public class TimezoneConverter implements AttributeConverter<String, Short> {
+
+    private final DictionaryService dictionaryService;
+
+    @Override
+    public Short convertToDatabaseColumn(String timezone) {
+        return timezone != null ? dictionaryService.idOf(DictionaryService.Dictionary.TIMEZONES, timezone) : null;
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return id != null ? dictionaryService.nameOf(DictionaryService.Dictionary.TIMEZONES, id) : null;
+    }
+}
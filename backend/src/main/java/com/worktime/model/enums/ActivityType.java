@@ -2,11 +2,39 @@ package com.worktime.model.enums;
 
 /**
  * Enumeration of activity types supported by the system.
+ * Stored as a stable smallint code; never reuse or renumber a code.
  */
 public enum ActivityType {
-    STEPS,
-    HEART_RATE,
-    EXERCISE_SESSION,
-    SLEEP_SESSION,
-    CALORIES_BURNED
+    STEPS(1),
+    HEART_RATE(2),
+    EXERCISE_SESSION(3),
+    SLEEP_SESSION(4),
+    CALORIES_BURNED(5);
+
+    private final short code;
+
+    ActivityType(int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * Get the stored code of this type.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Get the type of a stored code.
+     *
+     * @throws IllegalArgumentException if no type has the code
+     */
+    public static ActivityType fromCode(short code) {
+        for (ActivityType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown activity type code: " + code);
+    }
 }
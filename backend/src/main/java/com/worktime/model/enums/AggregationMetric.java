@@ -0,0 +1,29 @@
+package com.worktime.model.enums;
+
+import com.worktime.model.DailyAggregation;
+
+/**
+ * Enumeration of daily aggregation metrics tracked by distribution and trend analytics.
+ */
+public enum AggregationMetric {
+    WORK_HOURS_STEPS,
+    OFF_HOURS_STEPS,
+    TOTAL_STEPS,
+    SLEEP_DURATION_SECONDS;
+
+    /**
+     * Extract this metric from a daily aggregation.
+     *
+     * @param aggregation the daily aggregation
+     * @return the metric value, or null if the day has no value for it
+     */
+    public Double extract(DailyAggregation aggregation) {
+        Long value = switch (this) {
+            case WORK_HOURS_STEPS -> aggregation.getWorkHoursSteps();
+            case OFF_HOURS_STEPS -> aggregation.getOffHoursSteps();
+            case TOTAL_STEPS -> aggregation.getTotalSteps();
+            case SLEEP_DURATION_SECONDS -> aggregation.getSleepDurationSeconds();
+        };
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -0,0 +1,54 @@
+package com.worktime.model.enums;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Enumeration of look-back windows for distribution and correlation analytics.
+ * Rolling windows are served from monthly buckets, so they are rounded outward to whole months.
+ */
+public enum AnalyticsWindow {
+    LAST_90_DAYS(90),
+    LAST_365_DAYS(365),
+    ALL_TIME(0);
+
+    /**
+     * Bucket key of the all-time bucket.
+     */
+    public static final String ALL_TIME_PERIOD = "ALL";
+
+    private final int days;
+
+    AnalyticsWindow(int days) {
+        this.days = days;
+    }
+
+    /**
+     * Get the monthly bucket key ("yyyy-MM") of a date.
+     */
+    public static String periodOf(LocalDate date) {
+        return YearMonth.from(date).toString();
+    }
+
+    /**
+     * Get the bucket keys that make up this window when it ends on a date.
+     *
+     * @param endDate the last date of the window (inclusive)
+     * @return the all-time key, or the monthly keys overlapping the window
+     */
+    public List<String> periodsEndingAt(LocalDate endDate) {
+        if (this == ALL_TIME) {
+            return List.of(ALL_TIME_PERIOD);
+        }
+
+        List<String> periods = new ArrayList<>();
+        YearMonth last = YearMonth.from(endDate);
+        for (YearMonth month = YearMonth.from(endDate.minusDays(days - 1L));
+             !month.isAfter(last); month = month.plusMonths(1)) {
+            periods.add(month.toString());
+        }
+        return periods;
+    }
+}
@@ -0,0 +1,65 @@
+package com.worktime.model.enums;
+
+import com.worktime.model.DailyAggregation;
+
+import java.util.function.Function;
+
+/**
+ * Enumeration of metric pairs tracked by correlation analytics.
+ *
+ * <p>Each observation pairs the x metric of day D with the y metric of day D + lag.
+ * Sleep is attributed to the date it ends on, so the activity following a night's
+ * sleep is on the same date (lag 0), while sleep after a day's activity is on the next date (lag 1).
+ */
+public enum CorrelationPair {
+    SLEEP_DURATION_VS_WORK_HOURS_STEPS(
+            DailyAggregation::getSleepDurationSeconds, DailyAggregation::getWorkHoursSteps, 0),
+    SLEEP_DURATION_VS_TOTAL_STEPS(
+            DailyAggregation::getSleepDurationSeconds, DailyAggregation::getTotalSteps, 0),
+    SLEEP_QUALITY_VS_TOTAL_ACTIVE_MINUTES(
+            DailyAggregation::getSleepQualityScore, DailyAggregation::getTotalActiveMinutes, 0),
+    TOTAL_STEPS_VS_NEXT_SLEEP_DURATION(
+            DailyAggregation::getTotalSteps, DailyAggregation::getSleepDurationSeconds, 1);
+
+    private final Function<DailyAggregation, ? extends Number> x;
+    private final Function<DailyAggregation, ? extends Number> y;
+    private final int lagDays;
+
+    CorrelationPair(Function<DailyAggregation, ? extends Number> x,
+                    Function<DailyAggregation, ? extends Number> y,
+                    int lagDays) {
+        this.x = x;
+        this.y = y;
+        this.lagDays = lagDays;
+    }
+
+    /**
+     * Get the number of days between the x day and the y day.
+     */
+    public int getLagDays() {
+        return lagDays;
+    }
+
+    /**
+     * Extract the x value from the day the observation is keyed on.
+     */
+    public Double extractX(DailyAggregation aggregation) {
+        return extract(x, aggregation);
+    }
+
+    /**
+     * Extract the y value from the day {@link #getLagDays()} after the observation day.
+     */
+    public Double extractY(DailyAggregation aggregation) {
+        return extract(y, aggregation);
+    }
+
+    private static Double extract(Function<DailyAggregation, ? extends Number> metric,
+                                  DailyAggregation aggregation) {
+        if (aggregation == null) {
+            return null;
+        }
+        Number value = metric.apply(aggregation);
+        return value != null ? value.doubleValue() : null;
+    }
+}
@@ -2,8 +2,36 @@ package com.worktime.model.enums;
 
 /**
  * Enumeration of time segment classifications.
+ * Stored as a stable smallint code on activity segments; never reuse or renumber a code.
  */
 public enum TimeSegmentType {
-    WORK_HOURS,
-    OFF_HOURS
+    WORK_HOURS(1),
+    OFF_HOURS(2);
+
+    private final short code;
+
+    TimeSegmentType(int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * Get the stored code of this type.
+     */
+    public short getCode() {
+        return code;
+    }
+
+    /**
+     * Get the type of a stored code.
+     *
+     * @throws IllegalArgumentException if no type has the code
+     */
+    public static TimeSegmentType fromCode(short code) {
+        for (TimeSegmentType type : values()) {
+            if (type.code == code) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Unknown segment type code: " + code);
+    }
 }
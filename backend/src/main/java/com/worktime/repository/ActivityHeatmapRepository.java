@@ -0,0 +1,42 @@
+package com.worktime.repository;
+
+import com.worktime.model.ActivityHeatmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for ActivityHeatmap entity.
+ * Provides data access operations for monthly day-of-week x hour heatmaps.
+ *
+ * @see ActivityHeatmap
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface ActivityHeatmapRepository extends JpaRepository<ActivityHeatmap, UUID> {
+
+    /**
+     * Find the heatmap for a specific user and month.
+     *
+     * @param userId the user ID to search for
+     * @param monthStart the first day of the month
+     * @return optional containing the heatmap if found
+     */
+    Optional<ActivityHeatmap> findByUserIdAndMonthStart(String userId, LocalDate monthStart);
+
+    /**
+     * Find all monthly heatmaps for a user within a month range.
+     * Used to fold several months into a single heatmap.
+     *
+     * @param userId the user ID to search for
+     * @param startMonth the first day of the first month (inclusive)
+     * @param endMonth the first day of the last month (inclusive)
+     * @return list of monthly heatmaps within the range
+     */
+    List<ActivityHeatmap> findByUserIdAndMonthStartBetween(String userId, LocalDate startMonth, LocalDate endMonth);
+}
@@ -1,13 +1,22 @@
 package com.worktime.repository;
 
 import com.worktime.model.ActivitySegment;
+import com.worktime.model.enums.ActivityType;
 import com.worktime.model.enums.TimeSegmentType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for ActivitySegment entity.
@@ -16,9 +25,13 @@ import java.util.UUID;
  * <p>This repository supports queries for:
  * <ul>
  *   <li>Finding segments by activity date</li>
+ *   <li>Finding a user's segments of a date</li>
  *   <li>Finding segments by segment type (work hours vs off hours)</li>
  *   <li>Finding segments by date and type combination</li>
  *   <li>Finding segments within a date range</li>
+ *   <li>Streaming a user's segments for export</li>
+ *   <li>Finding overlapping segments for cross-source attribution</li>
+ *   <li>Soft deleting the segments of a deleted session</li>
  * </ul>
  *
  * <p>These queries are essential for computing daily aggregations and analytics.
@@ -39,6 +52,16 @@ public interface ActivitySegmentRepository extends JpaRepository<ActivitySegment
      */
     List<ActivitySegment> findByActivityDate(LocalDate activityDate);
 
+    /**
+     * Find a user's live segments on a date.
+     * Does not touch activity_sessions, so it also covers archived months.
+     *
+     * @param userId the user ID
+     * @param activityDate the date
+     * @return list of the user's segments for the date
+     */
+    List<ActivitySegment> findByUserIdAndActivityDateAndIsDeletedFalse(String userId, LocalDate activityDate);
+
     /**
      * Find all activity segments of a specific type.
      *
@@ -66,4 +89,105 @@ public interface ActivitySegmentRepository extends JpaRepository<ActivitySegment
      * @return list of activity segments within the date range
      */
     List<ActivitySegment> findByActivityDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Stream a user's segments within a date range, oldest first.
+     * Rows are read through a server-side cursor, so the caller must consume the stream
+     * inside a transaction and close it; the parent sessions are not fetched.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return stream of the user's segments
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+           SELECT seg FROM ActivitySegment seg
+           WHERE seg.userId = :userId AND seg.isDeleted = false
+             AND seg.activityDate BETWEEN :startDate AND :endDate
+           ORDER BY seg.activityDate, seg.startTime, seg.id
+           """)
+    Stream<ActivitySegment> streamByUserIdAndActivityDateBetween(
+            @Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find a user's live segments of one activity type on a day that overlap a time window,
+     * with their sessions fetched (source priority needs the data source).
+     *
+     * @param userId the user ID
+     * @param activityType the activity type of the parent sessions
+     * @param activityDate the date
+     * @param start the start of the window (exclusive for segment end times)
+     * @param end the end of the window (exclusive for segment start times)
+     * @param earliestSessionStart lower bound on session start times, so session partitions are pruned
+     * @return list of overlapping segments
+     */
+    @Query("""
+           SELECT seg FROM ActivitySegment seg JOIN FETCH seg.session s
+           WHERE s.userId = :userId AND s.activityType = :activityType AND s.isDeleted = false
+             AND s.startTime >= :earliestSessionStart AND s.startTime < :end
+             AND seg.activityDate = :activityDate AND seg.isDeleted = false
+             AND seg.startTime < :end AND seg.endTime > :start
+           """)
+    List<ActivitySegment> findOverlappingForAttribution(
+            @Param("userId") String userId, @Param("activityType") ActivityType activityType,
+            @Param("activityDate") LocalDate activityDate,
+            @Param("start") Instant start, @Param("end") Instant end,
+            @Param("earliestSessionStart") Instant earliestSessionStart);
+
+    /**
+     * Find a session's live segments.
+     *
+     * @param sessionId the session ID
+     * @return list of the session's segments
+     */
+    List<ActivitySegment> findBySessionIdAndIsDeletedFalse(UUID sessionId);
+
+    /**
+     * Find the users with live segments on a date.
+     * Used by step compaction to visit each user's settled days.
+     *
+     * @param activityDate the date
+     * @return the distinct user IDs
+     */
+    @Query("""
+           SELECT DISTINCT seg.userId FROM ActivitySegment seg
+           WHERE seg.activityDate = :activityDate AND seg.isDeleted = false
+           """)
+    List<String> findUserIdsByActivityDate(@Param("activityDate") LocalDate activityDate);
+
+    /**
+     * Find a user's live segments of live sessions of one activity type on a date,
+     * with their sessions fetched. Segments of archived sessions are not returned.
+     *
+     * @param userId the user ID
+     * @param activityType the activity type of the parent sessions
+     * @param activityDate the date
+     * @return list of the segments
+     */
+    @Query("""
+           SELECT seg FROM ActivitySegment seg JOIN FETCH seg.session s
+           WHERE seg.userId = :userId AND seg.activityDate = :activityDate AND seg.isDeleted = false
+             AND s.activityType = :activityType AND s.isDeleted = false
+           """)
+    List<ActivitySegment> findByUserIdAndActivityTypeAndActivityDate(
+            @Param("userId") String userId, @Param("activityType") ActivityType activityType,
+            @Param("activityDate") LocalDate activityDate);
+
+    /**
+     * Soft delete all live segments of a session.
+     *
+     * @param sessionId the session ID
+     * @param now the deletion time
+     * @return the number of segments deleted
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("""
+           UPDATE ActivitySegment seg SET seg.isDeleted = true, seg.updatedAt = :now
+           WHERE seg.session.id = :sessionId AND seg.isDeleted = false
+           """)
+    int softDeleteBySessionId(@Param("sessionId") UUID sessionId, @Param("now") Instant now);
 }
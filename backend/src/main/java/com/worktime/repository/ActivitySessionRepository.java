@@ -1,14 +1,22 @@
 package com.worktime.repository;
 
+import com.worktime.dto.activitysession.ActivitySessionResponse;
 import com.worktime.model.ActivitySession;
 import com.worktime.model.enums.ActivityType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for ActivitySession entity.
@@ -21,6 +29,9 @@ import java.util.UUID;
  *   <li>Finding unprocessed sessions (not yet segmented)</li>
  *   <li>Finding sessions within a time range</li>
  *   <li>Finding unprocessed sessions for a specific user</li>
+ *   <li>Streaming a user's sessions for export</li>
+ *   <li>Keyset-paginating a user's sessions overlapping a time range</li>
+ *   <li>Projecting sessions straight into response records for read paths</li>
  * </ul>
  *
  * @see ActivitySession
@@ -30,6 +41,19 @@ import java.util.UUID;
 @Repository
 public interface ActivitySessionRepository extends JpaRepository<ActivitySession, UUID> {
 
+    /**
+     * Select clause projecting a session row straight into its response record,
+     * skipping entity hydration and the persistence context.
+     */
+    String RESPONSE_SELECT = """
+            SELECT new com.worktime.dto.activitysession.ActivitySessionResponse(
+                s.id, s.userId, s.activityType, s.startTime, s.endTime, s.timezone,
+                s.stepCount, s.caloriesBurned, s.averageHeartRate, s.minHeartRate, s.maxHeartRate,
+                s.exerciseType, s.exerciseTitle,
+                s.dataSource, s.healthConnectRecordId, s.ingestedAt, s.processed, s.version,
+                s.createdAt, s.updatedAt, s.isDeleted)
+            """;
+
     /**
      * Find all activity sessions for a specific user.
      *
@@ -47,12 +71,13 @@ public interface ActivitySessionRepository extends JpaRepository<ActivitySession
     List<ActivitySession> findByActivityType(ActivityType activityType);
 
     /**
-     * Find all unprocessed activity sessions.
+     * Find all live unprocessed activity sessions.
      * Useful for batch processing sessions that haven't been segmented yet.
+     * Served by the partial index on unprocessed, non-deleted sessions.
      *
      * @return list of unprocessed activity sessions
      */
-    List<ActivitySession> findByProcessedFalse();
+    List<ActivitySession> findByProcessedFalseAndIsDeletedFalse();
 
     /**
      * Find activity sessions within a specific time range.
@@ -64,13 +89,32 @@ public interface ActivitySessionRepository extends JpaRepository<ActivitySession
     List<ActivitySession> findByStartTimeBetween(Instant start, Instant end);
 
     /**
-     * Find unprocessed activity sessions for a specific user.
+     * Find live unprocessed activity sessions for a specific user.
      * Combines user filtering with processed status for targeted batch processing.
      *
      * @param userId the user ID to search for
      * @return list of unprocessed activity sessions for the user
      */
-    List<ActivitySession> findByUserIdAndProcessedFalse(String userId);
+    List<ActivitySession> findByUserIdAndProcessedFalseAndIsDeletedFalse(String userId);
+
+    /**
+     * Find a user's live sessions of one activity type starting within a time range.
+     * Bounding the start time lets the planner prune session partitions.
+     *
+     * @param userId the user ID
+     * @param activityType the activity type
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return list of matching sessions
+     */
+    @Query("""
+           SELECT s FROM ActivitySession s
+           WHERE s.userId = :userId AND s.activityType = :activityType AND s.isDeleted = false
+             AND s.startTime >= :start AND s.startTime < :end
+           """)
+    List<ActivitySession> findByUserIdAndActivityTypeStartingBetween(
+            @Param("userId") String userId, @Param("activityType") ActivityType activityType,
+            @Param("start") Instant start, @Param("end") Instant end);
 
     /**
      * Find activity session by Health Connect record ID.
@@ -89,4 +133,76 @@ public interface ActivitySessionRepository extends JpaRepository<ActivitySession
      * @return true if a session with the record ID exists, false otherwise
      */
     boolean existsByHealthConnectRecordId(String healthConnectRecordId);
+
+    /**
+     * Stream a user's sessions starting within a time range, oldest first.
+     * Rows are read through a server-side cursor, so the caller must consume the stream
+     * inside a transaction and close it; entities are loaded read-only.
+     *
+     * @param userId the user ID
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return stream of the user's sessions
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+           SELECT s FROM ActivitySession s
+           WHERE s.userId = :userId AND s.isDeleted = false
+             AND s.startTime >= :start AND s.startTime < :end
+           ORDER BY s.startTime, s.id
+           """)
+    Stream<ActivitySession> streamByUserIdAndStartTimeRange(
+            @Param("userId") String userId, @Param("start") Instant start, @Param("end") Instant end);
+
+    /**
+     * Find a session by ID as a response record.
+     *
+     * @param id the session ID
+     * @return optional containing the session response if found
+     */
+    @Query(RESPONSE_SELECT + "FROM ActivitySession s WHERE s.id = :id")
+    Optional<ActivitySessionResponse> findResponseById(@Param("id") UUID id);
+
+    /**
+     * Find all sessions of a user as response records, oldest first.
+     *
+     * @param userId the user ID
+     * @return list of session responses
+     */
+    @Query(RESPONSE_SELECT + "FROM ActivitySession s WHERE s.userId = :userId ORDER BY s.startTime, s.id")
+    List<ActivitySessionResponse> findResponsesByUserId(@Param("userId") String userId);
+
+    /**
+     * Find a page of a user's sessions overlapping a time range, ordered by start time and ID.
+     *
+     * <p>Served by the {@code (user_id, start_time, id)} index: the scan is bounded below by
+     * {@code earliestStart} (range start minus the user's longest session duration), so
+     * sessions that started before the range but still overlap it are included without a
+     * full user scan.
+     * Rows strictly after {@code (afterStart, afterId)} are returned.
+     *
+     * @param userId the user ID
+     * @param start the start of the range (exclusive for session end times)
+     * @param end the end of the range (exclusive for session start times)
+     * @param earliestStart the earliest start time an overlapping session can have
+     * @param afterStart the start time of the last row of the previous page
+     * @param afterId the ID of the last row of the previous page
+     * @param pageable the page size (page number must be 0)
+     * @return the session responses of the page
+     */
+    @Query(RESPONSE_SELECT + """
+           FROM ActivitySession s
+           WHERE s.userId = :userId AND s.isDeleted = false
+             AND s.startTime >= :earliestStart AND s.startTime < :end AND s.endTime > :start
+             AND (s.startTime, s.id) > (:afterStart, :afterId)
+           ORDER BY s.startTime, s.id
+           """)
+    List<ActivitySessionResponse> findResponsePageByUserIdOverlapping(
+            @Param("userId") String userId, @Param("start") Instant start, @Param("end") Instant end,
+            @Param("earliestStart") Instant earliestStart,
+            @Param("afterStart") Instant afterStart, @Param("afterId") UUID afterId,
+            Pageable pageable);
 }
@@ -0,0 +1,30 @@
+package com.worktime.repository;
+
+import com.worktime.model.DailyActivityProfile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for DailyActivityProfile entity.
+ * Provides data access operations for per-day hourly activity histograms.
+ *
+ * @see DailyActivityProfile
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface DailyActivityProfileRepository extends JpaRepository<DailyActivityProfile, UUID> {
+
+    /**
+     * Find the activity profile for a specific user and date.
+     *
+     * @param userId the user ID to search for
+     * @param date the local date to search for
+     * @return optional containing the profile if found
+     */
+    Optional<DailyActivityProfile> findByUserIdAndDate(String userId, LocalDate date);
+}
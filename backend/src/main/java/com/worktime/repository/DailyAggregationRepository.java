@@ -1,14 +1,22 @@
 package com.worktime.repository;
 
+import com.worktime.dto.dailyaggregation.DailyAggregationResponse;
 import com.worktime.model.DailyAggregation;
 import com.worktime.model.enums.DayType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Repository interface for DailyAggregation entity.
@@ -21,6 +29,9 @@ import java.util.UUID;
  *   <li>Finding aggregation for a specific user and date</li>
  *   <li>Finding aggregations by day type within a date range</li>
  *   <li>Finding aggregations within a date range, ordered by date descending</li>
+ *   <li>Finding days flagged as anomalous</li>
+ *   <li>Streaming a user's aggregations for export</li>
+ *   <li>Projecting aggregations straight into response records for read paths</li>
  * </ul>
  *
  * <p>These queries enable fast analytics without scanning individual activity segments.
@@ -33,6 +44,25 @@ import java.util.UUID;
 @Repository
 public interface DailyAggregationRepository extends JpaRepository<DailyAggregation, UUID> {
 
+    /**
+     * Select clause projecting an aggregation row straight into its response record,
+     * skipping entity hydration and the persistence context.
+     */
+    String RESPONSE_SELECT = """
+            SELECT new com.worktime.dto.dailyaggregation.DailyAggregationResponse(
+                a.id, a.userId, a.date, a.dayType,
+                a.workHoursSteps, a.workHoursCalories, a.workHoursActiveMinutes, a.workHoursAvgHeartRate,
+                a.offHoursSteps, a.offHoursCalories, a.offHoursActiveMinutes, a.offHoursAvgHeartRate,
+                a.totalSteps, a.totalCalories, a.totalActiveMinutes,
+                a.sleepDurationSeconds, a.sleepQualityScore,
+                a.heartRateZoneSeconds,
+                a.workHoursSedentaryMinutes, a.longestSedentaryBoutMinutes, a.sedentaryBoutCount,
+                a.hasCompleteData,
+                a.anomalous, a.anomalyScore, a.anomalousMetric,
+                a.computedAt,
+                a.createdAt, a.createdBy, a.updatedAt, a.updatedBy, a.isDeleted)
+            """;
+
     /**
      * Find daily aggregation for a specific date.
      * Used to retrieve pre-computed metrics for a single day.
@@ -79,4 +109,110 @@ public interface DailyAggregationRepository extends JpaRepository<DailyAggregati
      * @return list of daily aggregations within the range, ordered by date descending
      */
     List<DailyAggregation> findByDateBetweenOrderByDateDesc(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find daily aggregations of a user within a date range, ordered by date ascending.
+     * Used for weekly and monthly rollups.
+     *
+     * @param userId the user ID to search for
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of the user's daily aggregations within the range, oldest first
+     */
+    List<DailyAggregation> findByUserIdAndDateBetweenOrderByDateAsc(String userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Stream a user's daily aggregations within a date range, oldest first.
+     * Rows are read through a server-side cursor, so the caller must consume the stream
+     * inside a transaction and close it; entities are loaded read-only.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return stream of the user's daily aggregations
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("""
+           SELECT a FROM DailyAggregation a
+           WHERE a.userId = :userId AND a.isDeleted = false
+             AND a.date BETWEEN :startDate AND :endDate
+           ORDER BY a.date
+           """)
+    Stream<DailyAggregation> streamByUserIdAndDateBetween(
+            @Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find the aggregation of a user and date as a response record.
+     *
+     * @param userId the user ID
+     * @param date the date
+     * @return optional containing the aggregation response if found
+     */
+    @Query(RESPONSE_SELECT + "FROM DailyAggregation a WHERE a.userId = :userId AND a.date = :date")
+    Optional<DailyAggregationResponse> findResponseByUserIdAndDate(
+            @Param("userId") String userId, @Param("date") LocalDate date);
+
+    /**
+     * Find aggregations within a date range as response records, most recent first.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of aggregation responses
+     */
+    @Query(RESPONSE_SELECT + "FROM DailyAggregation a WHERE a.date BETWEEN :startDate AND :endDate ORDER BY a.date DESC")
+    List<DailyAggregationResponse> findResponsesByDateBetween(
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find a user's days flagged as anomalous within a date range, most recent first.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of anomalous aggregation responses
+     */
+    @Query(RESPONSE_SELECT + """
+           FROM DailyAggregation a
+           WHERE a.userId = :userId AND a.anomalous = true AND a.date BETWEEN :startDate AND :endDate
+           ORDER BY a.date DESC
+           """)
+    List<DailyAggregationResponse> findAnomalousResponses(
+            @Param("userId") String userId, @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
+
+    /**
+     * Find a user's comparable days of one day type within a date range, most recent first.
+     * A comparable day is not flagged as anomalous, has steps and sleep data,
+     * and is not known to have coverage gaps.
+     *
+     * @param userId the user ID
+     * @param dayType the type of day
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @param pageable the number of days to return
+     * @return list of comparable aggregation responses
+     */
+    @Query(RESPONSE_SELECT + """
+           FROM DailyAggregation a
+           WHERE a.userId = :userId AND a.dayType = :dayType AND a.date BETWEEN :startDate AND :endDate
+             AND a.anomalous = false AND a.totalSteps IS NOT NULL AND a.sleepDurationSeconds IS NOT NULL
+             AND COALESCE(a.hasCompleteData, true) = true
+           ORDER BY a.date DESC
+           """)
+    List<DailyAggregationResponse> findComparableResponses(
+            @Param("userId") String userId, @Param("dayType") DayType dayType,
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate,
+            Pageable pageable);
+
+    /**
+     * Find the day type of a user's date without loading the aggregation.
+     *
+     * @param userId the user ID
+     * @param date the date
+     * @return optional containing the day type if the day has an aggregation
+     */
+    @Query("SELECT a.dayType FROM DailyAggregation a WHERE a.userId = :userId AND a.date = :date")
+    Optional<DayType> findDayTypeByUserIdAndDate(@Param("userId") String userId, @Param("date") LocalDate date);
 }
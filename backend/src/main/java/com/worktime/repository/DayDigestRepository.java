@@ -0,0 +1,68 @@
+package com.worktime.repository;
+
+import com.worktime.dto.daydigest.DayDigestResponse;
+import com.worktime.model.DayDigest;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for DayDigest entity.
+ * Provides data access operations for per-day session fingerprints used in reconciliation.
+ *
+ * @see DayDigest
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface DayDigestRepository extends JpaRepository<DayDigest, UUID> {
+
+    /**
+     * Find a user's non-empty day digests within a date range as response records.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of day digest responses ordered by date
+     */
+    @Query("""
+           SELECT new com.worktime.dto.daydigest.DayDigestResponse(d.date, d.sessionCount, d.digest)
+           FROM DayDigest d
+           WHERE d.userId = :userId AND d.date BETWEEN :startDate AND :endDate AND d.sessionCount > 0
+           ORDER BY d.date
+           """)
+    List<DayDigestResponse> findResponsesByUserIdAndDateBetween(
+            @Param("userId") String userId,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate);
+
+    /**
+     * Toggle a session hash into a day digest, creating the day if needed.
+     * XOR is its own inverse, so the same statement adds ({@code countDelta = 1})
+     * and removes ({@code countDelta = -1}) a session.
+     *
+     * @param userId the user ID
+     * @param date the session's day
+     * @param countDelta the change in session count
+     * @param hash the session's record ID hash (0 if it has none)
+     * @param now the update time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO day_digests (user_id, date, session_count, digest, created_at, updated_at, is_deleted)
+           VALUES (:userId, :date, :countDelta, :hash, :now, :now, FALSE)
+           ON CONFLICT (user_id, date) DO UPDATE SET
+               session_count = day_digests.session_count + EXCLUDED.session_count,
+               digest = day_digests.digest # EXCLUDED.digest,
+               updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    void toggle(@Param("userId") String userId, @Param("date") LocalDate date,
+                @Param("countDelta") long countDelta, @Param("hash") long hash, @Param("now") Instant now);
+}
@@ -0,0 +1,30 @@
+package com.worktime.repository;
+
+import com.worktime.model.DayMinuteBitmap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for DayMinuteBitmap entity.
+ * Provides data access operations for per-day minute activity and coverage bitmaps.
+ *
+ * @see DayMinuteBitmap
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface DayMinuteBitmapRepository extends JpaRepository<DayMinuteBitmap, UUID> {
+
+    /**
+     * Find the bitmaps of a user's day.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @return optional containing the bitmaps if any session touched the day
+     */
+    Optional<DayMinuteBitmap> findByUserIdAndDate(String userId, LocalDate date);
+}
@@ -0,0 +1,29 @@
+package com.worktime.repository;
+
+import com.worktime.model.DeletedRecordId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for DeletedRecordId entity.
+ * Provides access to the record IDs of purged sessions.
+ *
+ * @see DeletedRecordId
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface DeletedRecordIdRepository extends JpaRepository<DeletedRecordId, UUID> {
+
+    /**
+     * Find the purged session of a Health Connect record ID.
+     * Used for duplicate detection during ingestion, after the session row is gone.
+     *
+     * @param healthConnectRecordId the Health Connect record ID
+     * @return optional containing the record if its session was deleted and purged
+     */
+    Optional<DeletedRecordId> findByHealthConnectRecordId(String healthConnectRecordId);
+}
@@ -0,0 +1,70 @@
+package com.worktime.repository;
+
+import com.worktime.model.DirtyDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for DirtyDay entity.
+ * Provides the queue of days awaiting re-aggregation.
+ *
+ * @see DirtyDay
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface DirtyDayRepository extends JpaRepository<DirtyDay, UUID> {
+
+    /**
+     * Mark a user's day for re-aggregation, or move an already marked day to the back
+     * of the queue. Waits while the day is being drained, so a mark made during
+     * re-aggregation is never lost.
+     *
+     * @param userId the user ID
+     * @param date the day
+     * @param now the mark time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO dirty_days (user_id, date, created_at, updated_at, is_deleted)
+           VALUES (:userId, :date, :now, :now, FALSE)
+           ON CONFLICT (user_id, date) DO UPDATE SET updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    void mark(@Param("userId") String userId, @Param("date") LocalDate date, @Param("now") Instant now);
+
+    /**
+     * Claim the least recently marked day not already claimed by another transaction.
+     * The row stays locked until the claiming transaction ends.
+     *
+     * @return optional containing the claimed day, empty if the queue is drained
+     */
+    @Query(value = """
+           SELECT * FROM dirty_days
+           ORDER BY updated_at
+           LIMIT 1
+           FOR UPDATE SKIP LOCKED
+           """, nativeQuery = true)
+    Optional<DirtyDay> claimNext();
+
+    /**
+     * Claim a specific day if it is queued and not already claimed by another transaction.
+     *
+     * @param userId the user ID
+     * @param date the day
+     * @return optional containing the claimed day, empty if it is not queued or already claimed
+     */
+    @Query(value = """
+           SELECT * FROM dirty_days
+           WHERE user_id = :userId AND date = :date
+           FOR UPDATE SKIP LOCKED
+           """, nativeQuery = true)
+    Optional<DirtyDay> claim(@Param("userId") String userId, @Param("date") LocalDate date);
+}
@@ -0,0 +1,28 @@
+package com.worktime.repository;
+
+import com.worktime.model.HeartRateZoneConfig;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for HeartRateZoneConfig entity.
+ * Provides data access operations for per-user heart rate zone settings.
+ *
+ * @see HeartRateZoneConfig
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface HeartRateZoneConfigRepository extends JpaRepository<HeartRateZoneConfig, UUID> {
+
+    /**
+     * Find the heart rate zone configuration of a user.
+     *
+     * @param userId the user ID to search for
+     * @return optional containing the configuration if the user has one
+     */
+    Optional<HeartRateZoneConfig> findByUserId(String userId);
+}
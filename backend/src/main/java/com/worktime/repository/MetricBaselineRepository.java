@@ -0,0 +1,32 @@
+package com.worktime.repository;
+
+import com.worktime.model.MetricBaseline;
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.DayType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for MetricBaseline entity.
+ * Provides data access operations for per-user anomaly-detection state.
+ *
+ * @see MetricBaseline
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface MetricBaselineRepository extends JpaRepository<MetricBaseline, UUID> {
+
+    /**
+     * Find the baseline of a user's metric for a day type.
+     *
+     * @param userId the user ID
+     * @param metric the metric
+     * @param dayType the day type
+     * @return optional containing the baseline if found
+     */
+    Optional<MetricBaseline> findByUserIdAndMetricAndDayType(String userId, AggregationMetric metric, DayType dayType);
+}
@@ -0,0 +1,43 @@
+package com.worktime.repository;
+
+import com.worktime.model.MetricCorrelation;
+import com.worktime.model.enums.CorrelationPair;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for MetricCorrelation entity.
+ * Provides data access operations for per-user metric pair co-moments.
+ *
+ * @see MetricCorrelation
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface MetricCorrelationRepository extends JpaRepository<MetricCorrelation, UUID> {
+
+    /**
+     * Find a single correlation bucket.
+     *
+     * @param userId the user ID
+     * @param pair the metric pair
+     * @param period the bucket key ("yyyy-MM" or "ALL")
+     * @return optional containing the bucket if found
+     */
+    Optional<MetricCorrelation> findByUserIdAndPairAndPeriod(String userId, CorrelationPair pair, String period);
+
+    /**
+     * Find the correlation buckets of a user for a set of periods.
+     * Used to merge monthly buckets into a rolling window.
+     *
+     * @param userId the user ID
+     * @param periods the bucket keys
+     * @return list of matching buckets (all pairs)
+     */
+    List<MetricCorrelation> findByUserIdAndPeriodIn(String userId, Collection<String> periods);
+}
@@ -0,0 +1,48 @@
+package com.worktime.repository;
+
+import com.worktime.model.MetricSketch;
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.DayType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for MetricSketch entity.
+ * Provides data access operations for per-user metric distribution sketches.
+ *
+ * @see MetricSketch
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface MetricSketchRepository extends JpaRepository<MetricSketch, UUID> {
+
+    /**
+     * Find a single sketch bucket.
+     *
+     * @param userId the user ID
+     * @param metric the metric
+     * @param dayType the day type
+     * @param period the bucket key ("yyyy-MM" or "ALL")
+     * @return optional containing the sketch if found
+     */
+    Optional<MetricSketch> findByUserIdAndMetricAndDayTypeAndPeriod(
+            String userId, AggregationMetric metric, DayType dayType, String period);
+
+    /**
+     * Find the sketch buckets of a user and day type for a set of periods.
+     * Used to merge monthly buckets into a rolling window.
+     *
+     * @param userId the user ID
+     * @param dayType the day type
+     * @param periods the bucket keys
+     * @return list of matching sketches (all metrics)
+     */
+    List<MetricSketch> findByUserIdAndDayTypeAndPeriodIn(
+            String userId, DayType dayType, Collection<String> periods);
+}
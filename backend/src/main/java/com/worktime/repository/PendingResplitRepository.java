@@ -0,0 +1,68 @@
+package com.worktime.repository;
+
+import com.worktime.model.PendingResplit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for PendingResplit entity.
+ * Provides the queue of sessions awaiting a resplit.
+ *
+ * @see PendingResplit
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface PendingResplitRepository extends JpaRepository<PendingResplit, UUID> {
+
+    /**
+     * Queue a session for a resplit, or move an already queued session to the back of
+     * the queue. Waits while the session is being resplit, so a schedule change made
+     * during the resplit is never lost.
+     *
+     * @param sessionId the session ID
+     * @param userId the user ID
+     * @param now the queue time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO pending_resplits (session_id, user_id, created_at, updated_at, is_deleted)
+           VALUES (:sessionId, :userId, :now, :now, FALSE)
+           ON CONFLICT (session_id) DO UPDATE SET updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    void mark(@Param("sessionId") UUID sessionId, @Param("userId") String userId, @Param("now") Instant now);
+
+    /**
+     * Claim the least recently queued session not already claimed by another transaction.
+     * The row stays locked until the claiming transaction ends.
+     *
+     * @return optional containing the claimed session, empty if the queue is drained
+     */
+    @Query(value = """
+           SELECT * FROM pending_resplits
+           ORDER BY updated_at
+           LIMIT 1
+           FOR UPDATE SKIP LOCKED
+           """, nativeQuery = true)
+    Optional<PendingResplit> claimNext();
+
+    /**
+     * Claim a specific session if it is queued and not already claimed by another transaction.
+     *
+     * @param sessionId the session ID
+     * @return optional containing the claimed session, empty if it is not queued or already claimed
+     */
+    @Query(value = """
+           SELECT * FROM pending_resplits
+           WHERE session_id = :sessionId
+           FOR UPDATE SKIP LOCKED
+           """, nativeQuery = true)
+    Optional<PendingResplit> claim(@Param("sessionId") UUID sessionId);
+}
@@ -0,0 +1,38 @@
+package com.worktime.repository;
+
+import com.worktime.model.RestoredSessionMonth;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for RestoredSessionMonth entity.
+ * Provides access to the user months restored from session archives.
+ *
+ * @see RestoredSessionMonth
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface RestoredSessionMonthRepository extends JpaRepository<RestoredSessionMonth, UUID> {
+
+    /**
+     * Find the restore record of a user's month.
+     *
+     * @param userId the user ID
+     * @param month the first day of the month
+     * @return optional containing the record if the month was restored and not archived again
+     */
+    Optional<RestoredSessionMonth> findByUserIdAndMonth(String userId, LocalDate month);
+
+    /**
+     * Check whether any user's sessions of a month are restored.
+     *
+     * @param month the first day of the month
+     * @return true if the month is restored for at least one user
+     */
+    boolean existsByMonth(LocalDate month);
+}
@@ -1,7 +1,10 @@
 package com.worktime.repository;
 
+import com.worktime.dto.scheduleoverride.ScheduleOverrideResponse;
 import com.worktime.model.ScheduleOverride;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
@@ -57,4 +60,22 @@ public interface ScheduleOverrideRepository extends JpaRepository<ScheduleOverri
      * @return list of non-deleted schedule overrides within the date range
      */
     List<ScheduleOverride> findByDateBetweenAndIsDeletedFalse(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find the non-deleted overrides within a date range as response records.
+     * Projects rows straight into the response, skipping entity hydration.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of schedule override responses
+     */
+    @Query("""
+           SELECT new com.worktime.dto.scheduleoverride.ScheduleOverrideResponse(
+               o.id, o.date, o.overrideType, o.customStartTime, o.customEndTime, o.reason,
+               o.createdAt, o.createdBy, o.updatedAt, o.updatedBy, o.isDeleted)
+           FROM ScheduleOverride o
+           WHERE o.date BETWEEN :startDate AND :endDate AND o.isDeleted = false
+           """)
+    List<ScheduleOverrideResponse> findResponsesByDateBetween(
+            @Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
 }
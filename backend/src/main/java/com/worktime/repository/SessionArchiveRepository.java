@@ -0,0 +1,51 @@
+package com.worktime.repository;
+
+import com.worktime.model.SessionArchive;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for SessionArchive entity.
+ * Provides access to the manifest of archived session months.
+ *
+ * @see SessionArchive
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface SessionArchiveRepository extends JpaRepository<SessionArchive, UUID> {
+
+    /**
+     * Find the archive of a user's month.
+     *
+     * @param userId the user ID
+     * @param month the first day of the month
+     * @return optional containing the archive if the month is archived
+     */
+    Optional<SessionArchive> findByUserIdAndMonth(String userId, LocalDate month);
+
+    /**
+     * Find a user's archived months within a range, oldest first.
+     *
+     * @param userId the user ID
+     * @param startMonth the first day of the first month (inclusive)
+     * @param endMonth the first day of the last month (inclusive)
+     * @return list of archives ordered by month
+     */
+    List<SessionArchive> findByUserIdAndMonthBetweenOrderByMonthAsc(
+            String userId, LocalDate startMonth, LocalDate endMonth);
+
+    /**
+     * Check whether a user's sessions of a month are archived.
+     *
+     * @param userId the user ID
+     * @param month the first day of the month
+     * @return true if the month is archived for the user
+     */
+    boolean existsByUserIdAndMonth(String userId, LocalDate month);
+}
@@ -0,0 +1,78 @@
+package com.worktime.repository;
+
+import com.worktime.model.SessionDayLineage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for SessionDayLineage entity.
+ * Provides the days each split session contributes to, for targeted invalidation.
+ *
+ * @see SessionDayLineage
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface SessionDayLineageRepository extends JpaRepository<SessionDayLineage, UUID> {
+
+    /**
+     * Find the lineage of a session.
+     *
+     * @param sessionId the session ID
+     * @return optional containing the lineage, empty if the session was never split
+     */
+    Optional<SessionDayLineage> findBySessionId(UUID sessionId);
+
+    /**
+     * Find the lineage of a user's sessions whose first day is within a range.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of lineage rows
+     */
+    List<SessionDayLineage> findByUserIdAndFirstDateBetween(String userId, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Find the lineage of all users' sessions whose first day is within a range.
+     *
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of lineage rows
+     */
+    List<SessionDayLineage> findByFirstDateBetween(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Record the days of a session, replacing those of an earlier split.
+     *
+     * @param sessionId the session ID
+     * @param userId the user ID
+     * @param firstDate the first day
+     * @param lastDate the last day
+     * @param dayMask the days as a bitmap from the first day
+     * @param now the split time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO session_day_lineage (session_id, user_id, first_date, last_date, day_mask,
+                                            created_at, updated_at, is_deleted)
+           VALUES (:sessionId, :userId, :firstDate, :lastDate, :dayMask, :now, :now, FALSE)
+           ON CONFLICT (session_id) DO UPDATE SET
+               first_date = EXCLUDED.first_date,
+               last_date = EXCLUDED.last_date,
+               day_mask = EXCLUDED.day_mask,
+               updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    void record(@Param("sessionId") UUID sessionId, @Param("userId") String userId,
+                @Param("firstDate") LocalDate firstDate, @Param("lastDate") LocalDate lastDate,
+                @Param("dayMask") int dayMask, @Param("now") Instant now);
+}
@@ -0,0 +1,59 @@
+package com.worktime.repository;
+
+import com.worktime.model.SessionDurationBound;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for SessionDurationBound entity.
+ * Provides access to the longest session duration of each user.
+ *
+ * @see SessionDurationBound
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface SessionDurationBoundRepository extends JpaRepository<SessionDurationBound, UUID> {
+
+    /**
+     * Find the duration bound of a user.
+     *
+     * @param userId the user ID
+     * @return optional containing the bound, empty if the user has no sessions
+     */
+    Optional<SessionDurationBound> findByUserId(String userId);
+
+    /**
+     * Find the longest session duration of all users.
+     *
+     * @return the duration in seconds, null if there are no bounds
+     */
+    @Query("SELECT MAX(b.maxDurationSeconds) FROM SessionDurationBound b")
+    Long findLongestDurationSeconds();
+
+    /**
+     * Raise a user's duration bound to a session duration, creating it if needed.
+     * A single statement, so concurrent raises cannot lower the bound.
+     *
+     * @param userId the user ID
+     * @param durationSeconds the session duration in seconds
+     * @param now the update time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO session_duration_bounds (user_id, max_duration_seconds, created_at, updated_at, is_deleted)
+           VALUES (:userId, :durationSeconds, :now, :now, FALSE)
+           ON CONFLICT (user_id) DO UPDATE
+           SET max_duration_seconds = EXCLUDED.max_duration_seconds, updated_at = EXCLUDED.updated_at
+           WHERE session_duration_bounds.max_duration_seconds < EXCLUDED.max_duration_seconds
+           """, nativeQuery = true)
+    void raise(@Param("userId") String userId, @Param("durationSeconds") long durationSeconds,
+               @Param("now") Instant now);
+}
@@ -0,0 +1,141 @@
+package com.worktime.repository;
+
+import com.worktime.model.StepRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for StepRollup entity.
+ * Provides data access operations for compacted step segments.
+ *
+ * @see StepRollup
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface StepRollupRepository extends JpaRepository<StepRollup, UUID> {
+
+    /**
+     * Find a user's rollups for a specific date.
+     * Used for daily aggregation computation alongside the uncompacted segments.
+     *
+     * @param userId the user ID
+     * @param activityDate the date
+     * @return list of rollups for the date
+     */
+    List<StepRollup> findByUserIdAndActivityDateAndIsDeletedFalse(String userId, LocalDate activityDate);
+
+    /**
+     * Add a session's compacted segments to a rollup bucket, creating it if needed,
+     * and record the session's contribution so it can be retracted.
+     *
+     * @param userId the user ID
+     * @param dataSource the data source of the compacted session
+     * @param segmentType the segment type
+     * @param activityDate the local date of the bucket
+     * @param bucketStart the bucket start (inclusive)
+     * @param bucketEnd the bucket end (exclusive)
+     * @param sessionId the compacted session
+     * @param stepCount the steps to add
+     * @param caloriesBurned the calories to add
+     * @param durationSeconds the segment seconds to add
+     * @param segmentCount the number of segments compacted
+     * @param minuteMask the minutes of the bucket the segments cover (bit i: minute i)
+     * @param now the update time
+     */
+    @Modifying
+    @Query(value = """
+           WITH rollup AS (
+               INSERT INTO step_rollups (user_id, data_source, segment_type, activity_date, bucket_start, bucket_end,
+                                         step_count, calories_burned, duration_seconds, segment_count,
+                                         created_at, updated_at, is_deleted)
+               VALUES (:userId, :dataSource, :segmentType, :activityDate, :bucketStart, :bucketEnd,
+                       :stepCount, :caloriesBurned, :durationSeconds, :segmentCount, :now, :now, FALSE)
+               ON CONFLICT (user_id, data_source, segment_type, bucket_start) DO UPDATE SET
+                   step_count = step_rollups.step_count + EXCLUDED.step_count,
+                   calories_burned = step_rollups.calories_burned + EXCLUDED.calories_burned,
+                   duration_seconds = step_rollups.duration_seconds + EXCLUDED.duration_seconds,
+                   segment_count = step_rollups.segment_count + EXCLUDED.segment_count,
+                   updated_at = EXCLUDED.updated_at
+               RETURNING id
+           )
+           INSERT INTO step_rollup_contributions (rollup_id, session_id, step_count, calories_burned,
+                                                  duration_seconds, segment_count, minute_mask)
+           SELECT id, :sessionId, :stepCount, :caloriesBurned, :durationSeconds, :segmentCount, :minuteMask
+           FROM rollup
+           ON CONFLICT (rollup_id, session_id) DO UPDATE SET
+               step_count = step_rollup_contributions.step_count + EXCLUDED.step_count,
+               calories_burned = step_rollup_contributions.calories_burned + EXCLUDED.calories_burned,
+               duration_seconds = step_rollup_contributions.duration_seconds + EXCLUDED.duration_seconds,
+               segment_count = step_rollup_contributions.segment_count + EXCLUDED.segment_count,
+               minute_mask = step_rollup_contributions.minute_mask | EXCLUDED.minute_mask
+           """, nativeQuery = true)
+    void accumulate(@Param("userId") String userId, @Param("dataSource") String dataSource,
+                    @Param("segmentType") String segmentType, @Param("activityDate") LocalDate activityDate,
+                    @Param("bucketStart") Instant bucketStart, @Param("bucketEnd") Instant bucketEnd,
+                    @Param("sessionId") UUID sessionId,
+                    @Param("stepCount") long stepCount, @Param("caloriesBurned") double caloriesBurned,
+                    @Param("durationSeconds") long durationSeconds, @Param("segmentCount") int segmentCount,
+                    @Param("minuteMask") long minuteMask, @Param("now") Instant now);
+
+    /**
+     * Subtract a session's contributions from its rollups and forget them.
+     *
+     * @param sessionId the session ID
+     * @param now the update time
+     * @return the number of rollups updated
+     */
+    @Modifying
+    @Query(value = """
+           WITH retracted AS (
+               DELETE FROM step_rollup_contributions WHERE session_id = :sessionId
+               RETURNING rollup_id, step_count, calories_burned, duration_seconds, segment_count
+           )
+           UPDATE step_rollups r SET
+               step_count = r.step_count - c.step_count,
+               calories_burned = r.calories_burned - c.calories_burned,
+               duration_seconds = r.duration_seconds - c.duration_seconds,
+               segment_count = r.segment_count - c.segment_count,
+               updated_at = :now
+           FROM retracted c
+           WHERE r.id = c.rollup_id
+           """, nativeQuery = true)
+    int retract(@Param("sessionId") UUID sessionId, @Param("now") Instant now);
+
+    /**
+     * Delete a user's rollups left without segments by retraction.
+     *
+     * @param userId the user ID
+     * @return the number of rollups deleted
+     */
+    @Modifying
+    @Query(value = "DELETE FROM step_rollups WHERE user_id = :userId AND segment_count = 0", nativeQuery = true)
+    int deleteEmpty(@Param("userId") String userId);
+
+    /**
+     * Find the sessions contributing to a user's rollups on a day that overlap a time window.
+     *
+     * @param userId the user ID
+     * @param activityDate the date
+     * @param start the start of the window (exclusive for bucket ends)
+     * @param end the end of the window (exclusive for bucket starts)
+     * @return the IDs of the contributing sessions
+     */
+    @Query(value = """
+           SELECT DISTINCT c.session_id FROM step_rollups r
+           JOIN step_rollup_contributions c ON c.rollup_id = r.id
+           WHERE r.user_id = :userId AND r.activity_date = :activityDate
+             AND r.bucket_start < :end AND r.bucket_end > :start
+           """, nativeQuery = true)
+    List<UUID> findContributingSessionIds(@Param("userId") String userId,
+                                          @Param("activityDate") LocalDate activityDate,
+                                          @Param("start") Instant start, @Param("end") Instant end);
+}
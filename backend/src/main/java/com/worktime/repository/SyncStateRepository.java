@@ -0,0 +1,72 @@
+package com.worktime.repository;
+
+import com.worktime.dto.syncstate.SyncStateResponse;
+import com.worktime.model.SyncState;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository interface for SyncState entity.
+ * Provides data access operations for per-user, per-source ingestion high-water marks.
+ *
+ * @see SyncState
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Repository
+public interface SyncStateRepository extends JpaRepository<SyncState, UUID> {
+
+    /**
+     * Find the sync states of a user as response records, one per data source.
+     *
+     * @param userId the user ID
+     * @return list of sync state responses ordered by data source
+     */
+    @Query("""
+           SELECT new com.worktime.dto.syncstate.SyncStateResponse(
+               s.userId, s.dataSource, s.maxEndTime, s.changeToken, s.recordCount, s.lastSyncedAt)
+           FROM SyncState s
+           WHERE s.userId = :userId AND s.isDeleted = false
+           ORDER BY s.dataSource
+           """)
+    List<SyncStateResponse> findResponsesByUserId(@Param("userId") String userId);
+
+    /**
+     * Advance the sync state of a user and data source, creating it if needed.
+     *
+     * <p>A single upsert statement: the high-water mark only moves forward, the record
+     * count accumulates and the change token is replaced only when one is given.
+     * It joins the caller's transaction, so the state advances exactly when the
+     * ingested sessions commit.
+     *
+     * @param userId the user ID
+     * @param dataSource the data source
+     * @param maxEndTime the latest end time among the ingested sessions
+     * @param changeToken the changes token the upload completes, or null to keep the current one
+     * @param recordCount the number of sessions ingested
+     * @param now the sync time
+     */
+    @Modifying
+    @Query(value = """
+           INSERT INTO sync_states (user_id, data_source, max_end_time, change_token, record_count,
+                                    last_synced_at, created_at, updated_at, is_deleted)
+           VALUES (:userId, :dataSource, :maxEndTime, CAST(:changeToken AS VARCHAR), :recordCount,
+                   :now, :now, :now, FALSE)
+           ON CONFLICT (user_id, data_source) DO UPDATE SET
+               max_end_time = GREATEST(sync_states.max_end_time, EXCLUDED.max_end_time),
+               change_token = COALESCE(EXCLUDED.change_token, sync_states.change_token),
+               record_count = sync_states.record_count + EXCLUDED.record_count,
+               last_synced_at = EXCLUDED.last_synced_at,
+               updated_at = EXCLUDED.updated_at
+           """, nativeQuery = true)
+    void advance(@Param("userId") String userId, @Param("dataSource") String dataSource,
+                 @Param("maxEndTime") Instant maxEndTime, @Param("changeToken") String changeToken,
+                 @Param("recordCount") long recordCount, @Param("now") Instant now);
+}
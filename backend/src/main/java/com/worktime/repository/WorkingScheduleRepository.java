@@ -1,7 +1,10 @@
 package com.worktime.repository;
 
+import com.worktime.dto.workingschedule.WorkingScheduleResponse;
 import com.worktime.model.WorkingSchedule;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.DayOfWeek;
@@ -65,4 +68,21 @@ public interface WorkingScheduleRepository extends JpaRepository<WorkingSchedule
      * @return list of active, non-deleted working schedules for the user
      */
     List<WorkingSchedule> findByUserIdAndIsActiveTrueAndIsDeletedFalse(String userId);
+
+    /**
+     * Find the active, non-deleted schedules of a user as response records.
+     * Projects rows straight into the response, skipping entity hydration.
+     *
+     * @param userId the user ID to search for
+     * @return list of active working schedule responses
+     */
+    @Query("""
+           SELECT new com.worktime.dto.workingschedule.WorkingScheduleResponse(
+               w.id, w.userId, w.dayOfWeek, w.startTime, w.endTime, w.timezone,
+               w.isActive, w.effectiveFrom, w.effectiveTo,
+               w.createdAt, w.createdBy, w.updatedAt, w.updatedBy, w.isDeleted)
+           FROM WorkingSchedule w
+           WHERE w.userId = :userId AND w.isActive = true AND w.isDeleted = false
+           """)
+    List<WorkingScheduleResponse> findActiveResponsesByUserId(@Param("userId") String userId);
 }
@@ -1,20 +1,36 @@
 package com.worktime.service;
 
+import com.worktime.dto.activitysession.ActivitySessionPageResponse;
+import com.worktime.dto.activitysession.BatchIngestionSummaryResponse;
 import com.worktime.dto.activitysession.ActivitySessionRequest;
 import com.worktime.dto.activitysession.ActivitySessionResponse;
 import com.worktime.mapper.DtoMapper;
 import com.worktime.model.ActivitySegment;
 import com.worktime.model.ActivitySession;
+import com.worktime.model.DeletedRecordId;
+import com.worktime.repository.ActivitySegmentRepository;
 import com.worktime.repository.ActivitySessionRepository;
+import com.worktime.repository.DeletedRecordIdRepository;
+import com.worktime.service.DictionaryService.Dictionary;
+import com.worktime.shared.KeysetCursor;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.Duration;
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * Service for ingesting activity data from the Android application.
@@ -23,8 +39,9 @@ import java.util.UUID;
  * <ul>
  *   <li>Receiving activity sessions from Health Connect via Android app</li>
  *   <li>Deduplication using healthConnectRecordId</li>
- *   <li>Persisting raw activity sessions</li>
+ *   <li>Persisting raw activity sessions into their monthly partitions</li>
  *   <li>Triggering session splitting into work-time and off-hours segments</li>
+ *   <li>Recording split segments into hourly activity profiles</li>
  *   <li>Managing processed status of sessions</li>
  * </ul>
  *
@@ -38,6 +55,27 @@ public class ActivityIngestionService {
 
     private final ActivitySessionRepository activitySessionRepository;
     private final SessionSplitterService sessionSplitterService;
+    private final ActivityProfileService activityProfileService;
+    private final SyncStateService syncStateService;
+    private final DayDigestService dayDigestService;
+    private final StepCompactionService stepCompactionService;
+    private final OverlapResolverService overlapResolverService;
+    private final MinuteBitmapService minuteBitmapService;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final SessionArchiveService sessionArchiveService;
+    private final ActivitySegmentRepository activitySegmentRepository;
+    private final DirtyDayService dirtyDayService;
+    private final SessionLineageService sessionLineageService;
+    private final DeletedRecordIdRepository deletedRecordIdRepository;
+    private final DictionaryService dictionaryService;
+    private final SessionDurationBoundService sessionDurationBoundService;
+    private final Validator validator;
+
+    @Value("${worktime.sessions.max-duration:P7D}")
+    private Duration maxSessionDuration;
+
+    @Value("${worktime.sessions.max-page-size:5000}")
+    private int maxPageSize;
 
     /**
      * Ingest a single activity session from the Android app.
@@ -47,9 +85,129 @@ public class ActivityIngestionService {
      */
     @Transactional
     public ActivitySessionResponse ingestSession(ActivitySessionRequest request) {
+        ActivitySession session = ingest(request).session();
+        syncStateService.recordIngested(List.of(request), null);
+        return DtoMapper.toDto(session);
+    }
+
+    /**
+     * Ingest multiple activity sessions in batch.
+     * The sync states of the batch advance only if every session is accepted.
+     *
+     * @param requests list of activity session requests
+     * @param changeToken the Health Connect changes token the batch completes, or null
+     * @return list of saved activity session responses
+     */
+    @Transactional
+    public List<ActivitySessionResponse> ingestSessionsBatch(List<ActivitySessionRequest> requests,
+                                                             String changeToken) {
+        log.info("Ingesting batch of {} activity sessions", requests.size());
+
+        // Reject the whole batch before anything is stored
+        for (int i = 0; i < requests.size(); i++) {
+            try {
+                validateRecord(requests.get(i));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Record " + i + ": " + e.getMessage(), e);
+            }
+        }
+
+        List<ActivitySessionResponse> responses = requests.stream()
+                .map(request -> DtoMapper.toDto(ingest(request).session()))
+                .toList();
+
+        syncStateService.recordIngested(requests, changeToken);
+        return responses;
+    }
+
+    /**
+     * Ingest multiple activity sessions in batch, returning only counts and the
+     * records that were not stored. Rejected records do not fail the batch and do
+     * not advance the sync states. Records are rejected before any transactional
+     * call can fail on them, so a rejection never marks the batch for rollback.
+     *
+     * @param requests list of activity session requests
+     * @param changeToken the Health Connect changes token the batch completes, or null
+     * @return the batch summary
+     */
+    @Transactional
+    public BatchIngestionSummaryResponse ingestSessionsBatchSummary(List<ActivitySessionRequest> requests,
+                                                                    String changeToken) {
+        log.info("Ingesting batch of {} activity sessions (summary mode)", requests.size());
+
+        int ingested = 0;
+        List<ActivitySessionRequest> accepted = new ArrayList<>(requests.size());
+        List<String> duplicateRecordIds = new ArrayList<>();
+        List<BatchIngestionSummaryResponse.RejectedRecord> rejectedRecords = new ArrayList<>();
+
+        for (int i = 0; i < requests.size(); i++) {
+            ActivitySessionRequest request = requests.get(i);
+            try {
+                validateRecord(request);
+                if (ingest(request).duplicate()) {
+                    duplicateRecordIds.add(request.healthConnectRecordId());
+                } else {
+                    ingested++;
+                }
+                accepted.add(request);
+            } catch (IllegalArgumentException e) {
+                log.warn("Rejected session {} of batch: {}", i, e.getMessage());
+                rejectedRecords.add(new BatchIngestionSummaryResponse.RejectedRecord(
+                        i, request != null ? request.healthConnectRecordId() : null, e.getMessage()));
+            }
+        }
+
+        syncStateService.recordIngested(accepted, changeToken);
+
+        return BatchIngestionSummaryResponse.builder()
+                .received(requests.size())
+                .ingested(ingested)
+                .duplicates(duplicateRecordIds.size())
+                .rejected(rejectedRecords.size())
+                .duplicateRecordIds(duplicateRecordIds)
+                .rejectedRecords(rejectedRecords)
+                .build();
+    }
+
+    /**
+     * Validate a record of a batch against the request constraints; {@code @Valid} on
+     * the request body does not reach the elements of a list.
+     *
+     * @param request the record
+     * @throws IllegalArgumentException listing the record's constraint violations
+     */
+    private void validateRecord(ActivitySessionRequest request) {
+        if (request == null) {
+            throw new IllegalArgumentException("Record must not be null");
+        }
+        Set<ConstraintViolation<ActivitySessionRequest>> violations = validator.validate(request);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining("; ")));
+        }
+    }
+
+    /**
+     * Store a session unless it is a duplicate, then split it.
+     *
+     * @param request the activity session request
+     * @return the stored (or previously stored) session and whether it was a duplicate
+     * @throws IllegalArgumentException if the session's time range, timezone or data source is invalid
+     */
+    private IngestionOutcome ingest(ActivitySessionRequest request) {
         log.info("Ingesting activity session for user {} (type: {}, healthConnectId: {})",
                 request.userId(), request.activityType(), request.healthConnectRecordId());
 
+        validateTimeRange(request);
+        // Checked before saving: the dictionary converters would only fail while flushing
+        dictionaryService.validateName(Dictionary.TIMEZONES, request.timezone());
+        dictionaryService.validateName(Dictionary.DATA_SOURCES, request.dataSource());
+        sessionArchiveService.checkNotArchived(request);
+        partitionMaintenanceService.checkRetained(request);
+        partitionMaintenanceService.ensureCovering(request);
+
         // Check for duplicate
         if (request.healthConnectRecordId() != null) {
             Optional<ActivitySession> existing = activitySessionRepository
@@ -58,7 +216,19 @@ public class ActivityIngestionService {
             if (existing.isPresent()) {
                 log.warn("Duplicate session detected with healthConnectRecordId: {}. Skipping ingestion.",
                         request.healthConnectRecordId());
-                return DtoMapper.toDto(existing.get());
+                return new IngestionOutcome(existing.get(), true);
+            }
+
+            // The session was deleted and its row purged; answer as before the purge
+            Optional<DeletedRecordId> purged = deletedRecordIdRepository
+                    .findByHealthConnectRecordId(request.healthConnectRecordId());
+            if (purged.isPresent()) {
+                log.warn("Session with healthConnectRecordId {} was deleted. Skipping ingestion.",
+                        request.healthConnectRecordId());
+                ActivitySession deleted = DtoMapper.toEntity(request);
+                deleted.setId(purged.get().getSessionId());
+                deleted.softDelete();
+                return new IngestionOutcome(deleted, true);
             }
         }
 
@@ -68,6 +238,9 @@ public class ActivityIngestionService {
         // Save session
         ActivitySession savedSession = activitySessionRepository.save(session);
         log.info("Activity session saved with ID: {}", savedSession.getId());
+        sessionDurationBoundService.record(List.of(savedSession));
+
+        dayDigestService.recordAdded(savedSession);
 
         // Process session asynchronously (split into segments)
         try {
@@ -77,22 +250,7 @@ public class ActivityIngestionService {
             // Don't rollback transaction - session is saved, processing can be retried
         }
 
-        return DtoMapper.toDto(savedSession);
-    }
-
-    /**
-     * Ingest multiple activity sessions in batch.
-     *
-     * @param requests list of activity session requests
-     * @return list of saved activity session responses
-     */
-    @Transactional
-    public List<ActivitySessionResponse> ingestSessionsBatch(List<ActivitySessionRequest> requests) {
-        log.info("Ingesting batch of {} activity sessions", requests.size());
-
-        return requests.stream()
-                .map(this::ingestSession)
-                .toList();
+        return new IngestionOutcome(savedSession, false);
     }
 
     /**
@@ -114,6 +272,15 @@ public class ActivityIngestionService {
             // Split session into segments
             List<ActivitySegment> segments = sessionSplitterService.splitSession(session);
 
+            // Attribute time covered by several sources to exactly one of them
+            overlapResolverService.resolve(session, segments);
+
+            // Fold segments into the hourly activity profile and heatmap
+            activityProfileService.recordSegments(session, segments);
+
+            // Mark the minutes the session covers in the per-day bitmaps
+            minuteBitmapService.recordSegments(session, segments);
+
             // Mark session as processed
             session.setProcessed(true);
             activitySessionRepository.save(session);
@@ -139,7 +306,7 @@ public class ActivityIngestionService {
         log.info("Reprocessing unprocessed sessions for user {}", userId);
 
         List<ActivitySession> unprocessedSessions = activitySessionRepository
-                .findByUserIdAndProcessedFalse(userId);
+                .findByUserIdAndProcessedFalseAndIsDeletedFalse(userId);
 
         log.info("Found {} unprocessed sessions for user {}", unprocessedSessions.size(), userId);
 
@@ -170,7 +337,7 @@ public class ActivityIngestionService {
     public int reprocessAllUnprocessedSessions() {
         log.info("Reprocessing all unprocessed sessions");
 
-        List<ActivitySession> unprocessedSessions = activitySessionRepository.findByProcessedFalse();
+        List<ActivitySession> unprocessedSessions = activitySessionRepository.findByProcessedFalseAndIsDeletedFalse();
 
         log.info("Found {} unprocessed sessions", unprocessedSessions.size());
 
@@ -201,10 +368,8 @@ public class ActivityIngestionService {
     public ActivitySessionResponse getSessionById(UUID sessionId) {
         log.debug("Fetching session with ID: {}", sessionId);
 
-        ActivitySession session = activitySessionRepository.findById(sessionId)
+        return activitySessionRepository.findResponseById(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
-
-        return DtoMapper.toDto(session);
     }
 
     /**
@@ -217,34 +382,56 @@ public class ActivityIngestionService {
     public List<ActivitySessionResponse> getSessionsByUser(String userId) {
         log.debug("Fetching sessions for user: {}", userId);
 
-        List<ActivitySession> sessions = activitySessionRepository.findByUserId(userId);
-
-        return sessions.stream()
-                .map(DtoMapper::toDto)
-                .toList();
+        return activitySessionRepository.findResponsesByUserId(userId);
     }
 
     /**
-     * Get all activity sessions for a user within a time range.
+     * Get a page of a user's activity sessions overlapping a time range.
+     * Sessions that started before the range but end inside it are included.
      *
      * @param userId the user ID
      * @param startTime the start time
      * @param endTime the end time
-     * @return list of activity session responses
+     * @param cursor the cursor returned with the previous page, or null for the first page
+     * @param limit the maximum number of sessions to return
+     * @return the page of activity session responses, ordered by start time
+     * @throws IllegalArgumentException if the cursor is malformed or the limit is out of range
      */
     @Transactional(readOnly = true)
-    public List<ActivitySessionResponse> getSessionsByUserAndTimeRange(
-            String userId, Instant startTime, Instant endTime) {
-        log.debug("Fetching sessions for user: {} from {} to {}", userId, startTime, endTime);
+    public ActivitySessionPageResponse getSessionsByUserAndTimeRange(
+            String userId, Instant startTime, Instant endTime, String cursor, int limit) {
+        log.debug("Fetching sessions for user: {} from {} to {} (cursor: {}, limit: {})",
+                userId, startTime, endTime, cursor, limit);
 
-        return activitySessionRepository.findByStartTimeBetween(startTime, endTime).stream()
-                .filter(session -> session.getUserId().equals(userId))
-                .map(DtoMapper::toDto)
-                .toList();
+        if (limit < 1 || limit > maxPageSize) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + maxPageSize);
+        }
+
+        Instant earliestStart = startTime.minus(sessionDurationBoundService.maxDurationOf(userId));
+        KeysetCursor after = cursor != null
+                ? KeysetCursor.decode(cursor)
+                : new KeysetCursor(earliestStart, KeysetCursor.MIN_ID);
+
+        // Fetch one extra row to know whether another page follows
+        List<ActivitySessionResponse> sessions = activitySessionRepository.findResponsePageByUserIdOverlapping(
+                userId, startTime, endTime, earliestStart, after.startTime(), after.id(),
+                PageRequest.of(0, limit + 1));
+
+        boolean hasMore = sessions.size() > limit;
+        List<ActivitySessionResponse> page = hasMore ? sessions.subList(0, limit) : sessions;
+        ActivitySessionResponse last = page.isEmpty() ? null : page.getLast();
+
+        return ActivitySessionPageResponse.builder()
+                .sessions(page)
+                .nextCursor(hasMore ? new KeysetCursor(last.startTime(), last.id()).encode() : null)
+                .hasMore(hasMore)
+                .build();
     }
 
     /**
-     * Delete an activity session by ID (soft delete).
+     * Delete an activity session by ID (soft delete), together with its segments.
+     * Overlaps on the days the session contributed to are resolved again, then the days
+     * are queued for re-aggregation.
      *
      * @param sessionId the session ID
      */
@@ -255,9 +442,40 @@ public class ActivityIngestionService {
         ActivitySession session = activitySessionRepository.findById(sessionId)
                 .orElseThrow(() -> new IllegalArgumentException("Session not found: " + sessionId));
 
+        if (session.isDeleted()) {
+            log.debug("Session {} already deleted. Skipping.", sessionId);
+            return;
+        }
+
         session.softDelete();
         activitySessionRepository.save(session);
+        dayDigestService.recordRemoved(session);
+
+        List<LocalDate> affectedDates = sessionLineageService.datesOf(sessionId);
+        stepCompactionService.retract(session);
+        int deletedSegments = activitySegmentRepository.softDeleteBySessionId(sessionId, Instant.now());
+        overlapResolverService.resolveDays(session.getUserId(), session.getActivityType(), affectedDates);
+        dirtyDayService.markDirty(session.getUserId(), affectedDates);
 
-        log.info("Session {} soft deleted", sessionId);
+        log.info("Session {} soft deleted with {} segments; {} days queued for re-aggregation",
+                sessionId, deletedSegments, affectedDates.size());
+    }
+
+    /**
+     * Validate the time range of an incoming session. Overlap lookups scan back by the
+     * user's longest session, which is never lowered, so a bogus multi-month record
+     * would widen them for good; longer sessions are rejected.
+     *
+     * @throws IllegalArgumentException if the session ends before it starts or is too long
+     */
+    private void validateTimeRange(ActivitySessionRequest request) {
+        if (request.endTime().isBefore(request.startTime())) {
+            throw new IllegalArgumentException("Session end time must not be before its start time");
+        }
+        if (Duration.between(request.startTime(), request.endTime()).compareTo(maxSessionDuration) > 0) {
+            throw new IllegalArgumentException("Session must not be longer than " + maxSessionDuration);
+        }
     }
+
+    private record IngestionOutcome(ActivitySession session, boolean duplicate) {}
 }
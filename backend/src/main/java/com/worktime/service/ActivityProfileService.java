@@ -0,0 +1,337 @@
+package com.worktime.service;
+
+import com.worktime.dto.activityprofile.ActivityHeatmapResponse;
+import com.worktime.dto.activityprofile.DailyActivityProfileResponse;
+import com.worktime.mapper.DtoMapper;
+import com.worktime.model.ActivityHeatmap;
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.DailyActivityProfile;
+import com.worktime.repository.ActivityHeatmapRepository;
+import com.worktime.repository.DailyActivityProfileRepository;
+import com.worktime.service.StepCompactionService.RollupShare;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.*;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Service maintaining intraday activity profiles and monthly heatmaps.
+ *
+ * <p>Runs as a stage after session splitting:
+ * <ul>
+ *   <li>Distributes each segment's steps and active seconds over local hours</li>
+ *   <li>Adds the result to the per-day 24-bucket profile</li>
+ *   <li>Adds the same deltas to the monthly day-of-week x hour heatmap</li>
+ * </ul>
+ *
+ * <p>Heatmaps are therefore maintained incrementally and never require
+ * rescanning sessions or segments. When a day is re-aggregated its profile is rebuilt
+ * from the live segments and rollups, and the heatmap moves by the difference, so
+ * removed sessions are subtracted again.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivityProfileService {
+
+    private final DailyActivityProfileRepository dailyActivityProfileRepository;
+    private final ActivityHeatmapRepository activityHeatmapRepository;
+
+    /**
+     * Record the segments of a split session into the daily profiles and heatmaps.
+     * Only step and exercise sessions contribute; heart rate, sleep and calorie
+     * records do not describe activity on their own.
+     *
+     * @param session the split session
+     * @param segments the segments produced for the session
+     */
+    @Transactional
+    public void recordSegments(ActivitySession session, List<ActivitySegment> segments) {
+        if (!isProfiled(session)) {
+            return;
+        }
+
+        ZoneId zone = session.getZoneId();
+
+        // Bucket all segments by local date first, so each profile is loaded once
+        Map<LocalDate, HourlyBuckets> bucketsByDate = new TreeMap<>();
+        for (ActivitySegment segment : segments) {
+            HourlyBuckets buckets = bucketsByDate.computeIfAbsent(
+                    segment.getActivityDate(), date -> new HourlyBuckets());
+            distributeOverHours(segment, zone, buckets);
+        }
+
+        bucketsByDate.forEach((date, buckets) -> applyToDay(session.getUserId(), date, buckets));
+
+        log.debug("Recorded {} segments of session {} into activity profiles ({} days)",
+                segments.size(), session.getId(), bucketsByDate.size());
+    }
+
+    /**
+     * Rebuild a day's profile from its live segments and rollup shares, and move the day's
+     * heatmap cells by the difference to the stored profile. Sessions deleted, purged or
+     * resplit since they were recorded drop out; a day left without activity loses its
+     * profile and its count in the heatmap.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @param segments the day's live segments
+     * @param shares the sessions' shares of the day's step rollups
+     * @param sessions the sessions of the day by ID, archived ones included
+     */
+    @Transactional
+    public void rebuildDay(String userId, LocalDate date, List<ActivitySegment> segments,
+                           List<RollupShare> shares, Map<UUID, ActivitySession> sessions) {
+        HourlyBuckets rebuilt = new HourlyBuckets();
+        boolean profiled = false;
+        for (ActivitySegment segment : segments) {
+            ActivitySession session = sessions.get(segment.getSession().getId());
+            if (session != null && isProfiled(session)) {
+                distributeOverHours(segment, session.getZoneId(), rebuilt);
+                profiled = true;
+            }
+        }
+        // Each share is placed in its session's zone, over the minutes it covered
+        for (RollupShare share : shares) {
+            if (share.stepCount() > 0) {
+                Instant bucketStart = share.rollup().getBucketStart();
+                long minuteMask = share.minuteMask();
+                distribute(bucketStart.plus(Duration.ofMinutes(Long.numberOfTrailingZeros(minuteMask))),
+                        bucketStart.plus(Duration.ofMinutes(Long.SIZE - Long.numberOfLeadingZeros(minuteMask))),
+                        share.stepCount(), share.durationSeconds(), share.session().getZoneId(), rebuilt);
+                profiled = true;
+            }
+        }
+
+        DailyActivityProfile profile = dailyActivityProfileRepository
+                .findByUserIdAndDate(userId, date)
+                .orElse(null);
+        if (profile == null) {
+            if (profiled) {
+                applyToDay(userId, date, rebuilt);
+            }
+            return;
+        }
+
+        HourlyBuckets delta = new HourlyBuckets();
+        for (int hour = 0; hour < DailyActivityProfile.HOURS_PER_DAY; hour++) {
+            delta.steps[hour] = rebuilt.steps[hour] - profile.getHourlySteps()[hour];
+            delta.activeSeconds[hour] = rebuilt.activeSeconds[hour] - profile.getHourlyActiveSeconds()[hour];
+        }
+        ActivityHeatmap heatmap = heatmapOf(userId, date);
+        addToHeatmap(heatmap, date.getDayOfWeek(), delta);
+
+        if (profiled) {
+            profile.setHourlySteps(rebuilt.steps);
+            profile.setHourlyActiveSeconds(rebuilt.activeSeconds);
+            dailyActivityProfileRepository.save(profile);
+        } else {
+            heatmap.getDayCounts()[date.getDayOfWeek().getValue() - 1]--;
+            dailyActivityProfileRepository.delete(profile);
+        }
+        activityHeatmapRepository.save(heatmap);
+
+        log.debug("Rebuilt activity profile of user {} on {} from {} segments and {} rollup shares",
+                userId, date, segments.size(), shares.size());
+    }
+
+    /**
+     * Get the activity profile for a specific user and date.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @return the profile response
+     * @throws IllegalArgumentException if no profile exists for the date
+     */
+    @Transactional(readOnly = true)
+    public DailyActivityProfileResponse getDailyProfile(String userId, LocalDate date) {
+        log.debug("Fetching activity profile for user {} on {}", userId, date);
+
+        DailyActivityProfile profile = dailyActivityProfileRepository
+                .findByUserIdAndDate(userId, date)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Activity profile not found for user " + userId + " on " + date));
+
+        return DtoMapper.toDto(profile);
+    }
+
+    /**
+     * Fold the monthly heatmaps of a month range into a single 7x24 heatmap.
+     *
+     * @param userId the user ID
+     * @param startMonth the first month (inclusive)
+     * @param endMonth the last month (inclusive)
+     * @return the folded heatmap
+     */
+    @Transactional(readOnly = true)
+    public ActivityHeatmapResponse getHeatmap(String userId, YearMonth startMonth, YearMonth endMonth) {
+        if (endMonth.isBefore(startMonth)) {
+            throw new IllegalArgumentException("End month must not be before start month");
+        }
+
+        log.debug("Folding heatmaps for user {} from {} to {}", userId, startMonth, endMonth);
+
+        List<ActivityHeatmap> months = activityHeatmapRepository.findByUserIdAndMonthStartBetween(
+                userId, startMonth.atDay(1), endMonth.atDay(1));
+
+        long[][] steps = new long[ActivityHeatmap.DAYS_PER_WEEK][DailyActivityProfile.HOURS_PER_DAY];
+        long[][] activeSeconds = new long[ActivityHeatmap.DAYS_PER_WEEK][DailyActivityProfile.HOURS_PER_DAY];
+        int[] dayCounts = new int[ActivityHeatmap.DAYS_PER_WEEK];
+
+        for (ActivityHeatmap month : months) {
+            for (int cell = 0; cell < ActivityHeatmap.CELL_COUNT; cell++) {
+                int day = cell / DailyActivityProfile.HOURS_PER_DAY;
+                int hour = cell % DailyActivityProfile.HOURS_PER_DAY;
+                steps[day][hour] += month.getStepCells()[cell];
+                activeSeconds[day][hour] += month.getActiveSecondCells()[cell];
+            }
+            for (int day = 0; day < ActivityHeatmap.DAYS_PER_WEEK; day++) {
+                dayCounts[day] += month.getDayCounts()[day];
+            }
+        }
+
+        return ActivityHeatmapResponse.builder()
+                .userId(userId)
+                .startMonth(startMonth)
+                .endMonth(endMonth)
+                .steps(steps)
+                .activeSeconds(activeSeconds)
+                .dayCounts(dayCounts)
+                .build();
+    }
+
+    /**
+     * Add hourly buckets to a day's profile and to its month's heatmap.
+     */
+    private void applyToDay(String userId, LocalDate date, HourlyBuckets buckets) {
+        DailyActivityProfile profile = dailyActivityProfileRepository
+                .findByUserIdAndDate(userId, date)
+                .orElse(null);
+
+        boolean newDay = profile == null;
+        if (newDay) {
+            profile = DailyActivityProfile.builder()
+                    .userId(userId)
+                    .date(date)
+                    .build();
+        }
+
+        ActivityHeatmap heatmap = heatmapOf(userId, date);
+
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        for (int hour = 0; hour < DailyActivityProfile.HOURS_PER_DAY; hour++) {
+            profile.getHourlySteps()[hour] += buckets.steps[hour];
+            profile.getHourlyActiveSeconds()[hour] += buckets.activeSeconds[hour];
+        }
+        addToHeatmap(heatmap, dayOfWeek, buckets);
+
+        if (newDay) {
+            heatmap.getDayCounts()[dayOfWeek.getValue() - 1]++;
+        }
+
+        dailyActivityProfileRepository.save(profile);
+        activityHeatmapRepository.save(heatmap);
+    }
+
+    /**
+     * Get the heatmap of a day's month, creating it if needed.
+     */
+    private ActivityHeatmap heatmapOf(String userId, LocalDate date) {
+        LocalDate monthStart = date.withDayOfMonth(1);
+        return activityHeatmapRepository
+                .findByUserIdAndMonthStart(userId, monthStart)
+                .orElseGet(() -> ActivityHeatmap.builder()
+                        .userId(userId)
+                        .monthStart(monthStart)
+                        .build());
+    }
+
+    /**
+     * Add hourly buckets to the heatmap cells of a day of the week.
+     */
+    private void addToHeatmap(ActivityHeatmap heatmap, DayOfWeek dayOfWeek, HourlyBuckets buckets) {
+        for (int hour = 0; hour < DailyActivityProfile.HOURS_PER_DAY; hour++) {
+            int cell = ActivityHeatmap.cellIndex(dayOfWeek, hour);
+            heatmap.getStepCells()[cell] += buckets.steps[hour];
+            heatmap.getActiveSecondCells()[cell] += buckets.activeSeconds[hour];
+        }
+    }
+
+    /**
+     * Distribute a segment's metrics over the local hours it covers. Steps are the counted
+     * ones, as in daily aggregates and rollups, so overlapping sources count once.
+     */
+    private void distributeOverHours(ActivitySegment segment, ZoneId zone, HourlyBuckets buckets) {
+        distribute(segment.getStartTime(), segment.getEndTime(),
+                segment.getCountedStepCount() != null ? segment.getCountedStepCount() : 0,
+                segment.getDurationSeconds(), zone, buckets);
+    }
+
+    /**
+     * Distribute steps and active seconds over the local hours of a time range.
+     * Both are allocated proportionally to time using cumulative rounding,
+     * so the hourly values always add up to the totals.
+     */
+    private void distribute(Instant startTime, Instant endTime, long totalSteps, long totalActiveSeconds,
+                            ZoneId zone, HourlyBuckets buckets) {
+        ZonedDateTime start = startTime.atZone(zone);
+        ZonedDateTime end = endTime.atZone(zone);
+        long totalSeconds = Duration.between(start, end).getSeconds();
+
+        if (totalSeconds <= 0) {
+            return;
+        }
+
+        long elapsedSeconds = 0;
+        long allocatedSteps = 0;
+        long allocatedActiveSeconds = 0;
+        ZonedDateTime pieceStart = start;
+
+        while (pieceStart.isBefore(end)) {
+            ZonedDateTime nextHour = pieceStart.truncatedTo(ChronoUnit.HOURS).plusHours(1);
+            ZonedDateTime pieceEnd = nextHour.isBefore(end) ? nextHour : end;
+
+            elapsedSeconds += Duration.between(pieceStart, pieceEnd).getSeconds();
+            long stepsSoFar = Math.round((double) totalSteps * elapsedSeconds / totalSeconds);
+            long activeSecondsSoFar = Math.round((double) totalActiveSeconds * elapsedSeconds / totalSeconds);
+
+            int hour = pieceStart.getHour();
+            buckets.steps[hour] += (int) (stepsSoFar - allocatedSteps);
+            buckets.activeSeconds[hour] += (int) (activeSecondsSoFar - allocatedActiveSeconds);
+
+            allocatedSteps = stepsSoFar;
+            allocatedActiveSeconds = activeSecondsSoFar;
+            pieceStart = pieceEnd;
+        }
+    }
+
+    /**
+     * Check whether a session contributes to activity profiles.
+     */
+    private boolean isProfiled(ActivitySession session) {
+        return switch (session.getActivityType()) {
+            case STEPS -> session.getStepCount() != null && session.getStepCount() > 0;
+            case EXERCISE_SESSION -> true;
+            case HEART_RATE, SLEEP_SESSION, CALORIES_BURNED -> false;
+        };
+    }
+
+    /**
+     * Mutable per-day hourly accumulator used while distributing segments.
+     */
+    private static final class HourlyBuckets {
+        private final int[] steps = new int[DailyActivityProfile.HOURS_PER_DAY];
+        private final int[] activeSeconds = new int[DailyActivityProfile.HOURS_PER_DAY];
+    }
+}
@@ -0,0 +1,140 @@
+package com.worktime.service;
+
+import com.worktime.dto.summary.PeriodSummaryResponse;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.HeartRateZoneConfig;
+import com.worktime.repository.DailyAggregationRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.temporal.TemporalAdjusters;
+import java.util.List;
+
+/**
+ * Service for weekly and monthly activity rollups.
+ *
+ * <p>Rollups are folded from pre-computed daily aggregations (at most 31 rows per
+ * request), so they never read activity sessions or segments.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ActivitySummaryService {
+
+    private final DailyAggregationRepository dailyAggregationRepository;
+
+    /**
+     * Get the rollup of the ISO week (Monday to Sunday) containing a date.
+     *
+     * @param userId the user ID
+     * @param dateInWeek any date within the week
+     * @return the weekly summary
+     */
+    @Transactional(readOnly = true)
+    public PeriodSummaryResponse getWeeklySummary(String userId, LocalDate dateInWeek) {
+        LocalDate weekStart = dateInWeek.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        return summarize(userId, weekStart, weekStart.plusDays(6));
+    }
+
+    /**
+     * Get the rollup of a calendar month.
+     *
+     * @param userId the user ID
+     * @param month the month
+     * @return the monthly summary
+     */
+    @Transactional(readOnly = true)
+    public PeriodSummaryResponse getMonthlySummary(String userId, YearMonth month) {
+        return summarize(userId, month.atDay(1), month.atEndOfMonth());
+    }
+
+    /**
+     * Fold the daily aggregations of a date range into a summary.
+     */
+    private PeriodSummaryResponse summarize(String userId, LocalDate startDate, LocalDate endDate) {
+        log.debug("Summarizing aggregations for user {} from {} to {}", userId, startDate, endDate);
+
+        List<DailyAggregation> days = dailyAggregationRepository
+                .findByUserIdAndDateBetweenOrderByDateAsc(userId, startDate, endDate);
+
+        long workSteps = 0;
+        long offSteps = 0;
+        long totalSteps = 0;
+        double totalCalories = 0.0;
+        int workActiveMinutes = 0;
+        int offActiveMinutes = 0;
+        int totalActiveMinutes = 0;
+        int sedentaryMinutes = 0;
+        int longestSedentaryBout = 0;
+        int sedentaryBouts = 0;
+        long sleepSeconds = 0;
+        int sleepDays = 0;
+        long[] zoneSeconds = new long[HeartRateZoneConfig.ZONE_COUNT];
+
+        for (DailyAggregation day : days) {
+            workSteps += valueOrZero(day.getWorkHoursSteps());
+            offSteps += valueOrZero(day.getOffHoursSteps());
+            totalSteps += valueOrZero(day.getTotalSteps());
+            totalCalories += day.getTotalCalories() != null ? day.getTotalCalories() : 0.0;
+            workActiveMinutes += valueOrZero(day.getWorkHoursActiveMinutes());
+            offActiveMinutes += valueOrZero(day.getOffHoursActiveMinutes());
+            totalActiveMinutes += valueOrZero(day.getTotalActiveMinutes());
+            sedentaryMinutes += valueOrZero(day.getWorkHoursSedentaryMinutes());
+            longestSedentaryBout = Math.max(longestSedentaryBout, valueOrZero(day.getLongestSedentaryBoutMinutes()));
+            sedentaryBouts += valueOrZero(day.getSedentaryBoutCount());
+
+            if (day.getSleepDurationSeconds() != null) {
+                sleepSeconds += day.getSleepDurationSeconds();
+                sleepDays++;
+            }
+
+            // Zone seconds are already duration-weighted, so they simply add up
+            int[] dayZones = day.getHeartRateZoneSeconds();
+            if (dayZones != null) {
+                for (int zone = 0; zone < zoneSeconds.length && zone < dayZones.length; zone++) {
+                    zoneSeconds[zone] += dayZones[zone];
+                }
+            }
+        }
+
+        double[] zoneMinutes = new double[zoneSeconds.length];
+        for (int zone = 0; zone < zoneSeconds.length; zone++) {
+            zoneMinutes[zone] = zoneSeconds[zone] / 60.0;
+        }
+
+        return PeriodSummaryResponse.builder()
+                .userId(userId)
+                .startDate(startDate)
+                .endDate(endDate)
+                .daysWithData(days.size())
+                .workHoursSteps(workSteps)
+                .offHoursSteps(offSteps)
+                .totalSteps(totalSteps)
+                .totalCalories(totalCalories)
+                .workHoursActiveMinutes(workActiveMinutes)
+                .offHoursActiveMinutes(offActiveMinutes)
+                .totalActiveMinutes(totalActiveMinutes)
+                .workHoursSedentaryMinutes(sedentaryMinutes)
+                .longestSedentaryBoutMinutes(longestSedentaryBout)
+                .sedentaryBoutCount(sedentaryBouts)
+                .averageSleepDurationSeconds(sleepDays > 0 ? sleepSeconds / sleepDays : null)
+                .heartRateZoneMinutes(zoneMinutes)
+                .build();
+    }
+
+    private long valueOrZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -0,0 +1,180 @@
+package com.worktime.service;
+
+import com.worktime.dto.dailyaggregation.DailyAggregationResponse;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.MetricBaseline;
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.repository.DailyAggregationRepository;
+import com.worktime.repository.MetricBaselineRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service for incremental anomaly detection over daily aggregations.
+ *
+ * <p>Keeps an exponentially weighted moving mean and variance per user, metric and
+ * day type. Each computed day is scored against the baseline of the days before it and
+ * flagged when its z-score exceeds the threshold for any metric. Updates are O(1):
+ * <ul>
+ *   <li>A new latest day is scored, then folded into the baseline</li>
+ *   <li>A recomputed latest day rolls the baseline back one step and is re-applied</li>
+ *   <li>A recomputed older day (backfill) is scored without changing the baseline</li>
+ * </ul>
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class AnomalyDetectionService implements DailyAggregationListener {
+
+    private final MetricBaselineRepository metricBaselineRepository;
+    private final DailyAggregationRepository dailyAggregationRepository;
+
+    @Value("${worktime.anomaly.smoothing:0.1}")
+    private double smoothing;
+
+    @Value("${worktime.anomaly.z-threshold:3.0}")
+    private double zThreshold;
+
+    @Value("${worktime.anomaly.min-samples:14}")
+    private int minSamples;
+
+    @Override
+    public void onAggregationComputed(DailyAggregation previous, DailyAggregation current) {
+        LocalDate date = current.getDate();
+        Double maxScore = null;
+        AggregationMetric maxMetric = null;
+
+        for (AggregationMetric metric : AggregationMetric.values()) {
+            // A day that moved to another day type no longer belongs to its old baseline
+            if (previous != null && previous.getDayType() != current.getDayType()) {
+                metricBaselineRepository.findByUserIdAndMetricAndDayType(
+                                current.getUserId(), metric, previous.getDayType())
+                        .filter(baseline -> date.equals(baseline.getLastDate()))
+                        .ifPresent(baseline -> {
+                            rollback(baseline);
+                            metricBaselineRepository.save(baseline);
+                        });
+            }
+
+            Optional<MetricBaseline> existing = metricBaselineRepository
+                    .findByUserIdAndMetricAndDayType(current.getUserId(), metric, current.getDayType());
+            Double value = metric.extract(current);
+
+            // A recomputed day's earlier value leaves the baseline even if the day lost the metric
+            if (value == null) {
+                existing.filter(baseline -> date.equals(baseline.getLastDate()))
+                        .ifPresent(baseline -> {
+                            rollback(baseline);
+                            metricBaselineRepository.save(baseline);
+                        });
+                continue;
+            }
+
+            MetricBaseline baseline = existing.orElseGet(() -> MetricBaseline.builder()
+                    .userId(current.getUserId())
+                    .metric(metric)
+                    .dayType(current.getDayType())
+                    .build());
+
+            if (date.equals(baseline.getLastDate())) {
+                rollback(baseline);
+            }
+
+            Double score = zScore(baseline, value);
+            if (score != null && (maxScore == null || Math.abs(score) > Math.abs(maxScore))) {
+                maxScore = score;
+                maxMetric = metric;
+            }
+
+            if (baseline.getLastDate() == null || date.isAfter(baseline.getLastDate())) {
+                apply(baseline, value, date);
+            }
+
+            metricBaselineRepository.save(baseline);
+        }
+
+        boolean anomalous = maxScore != null && Math.abs(maxScore) >= zThreshold;
+
+        current.setAnomalous(anomalous);
+        current.setAnomalyScore(maxScore);
+        current.setAnomalousMetric(anomalous ? maxMetric : null);
+
+        if (anomalous) {
+            log.info("Day {} of user {} flagged as anomalous (metric: {}, z-score: {})",
+                    date, current.getUserId(), maxMetric, maxScore);
+        }
+    }
+
+    /**
+     * Get the days flagged as anomalous within a date range.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of flagged daily aggregations, most recent first
+     */
+    @Transactional(readOnly = true)
+    public List<DailyAggregationResponse> getAnomalousDays(String userId, LocalDate startDate, LocalDate endDate) {
+        log.debug("Fetching anomalous days for user {} from {} to {}", userId, startDate, endDate);
+
+        return dailyAggregationRepository.findAnomalousResponses(userId, startDate, endDate);
+    }
+
+    /**
+     * Score a value against the baseline.
+     *
+     * @return the z-score, or null while the baseline is still warming up
+     */
+    private Double zScore(MetricBaseline baseline, double value) {
+        if (baseline.getSampleCount() < minSamples) {
+            return null;
+        }
+        // Floor the deviation so near-constant histories do not flag every small change
+        double deviation = Math.max(Math.sqrt(baseline.getVariance()),
+                Math.max(0.05 * Math.abs(baseline.getMean()), 1.0));
+        return (value - baseline.getMean()) / deviation;
+    }
+
+    /**
+     * Fold a new latest day into the baseline, remembering the state before it.
+     */
+    private void apply(MetricBaseline baseline, double value, LocalDate date) {
+        baseline.setPreviousSampleCount(baseline.getSampleCount());
+        baseline.setPreviousMean(baseline.getMean());
+        baseline.setPreviousVariance(baseline.getVariance());
+        baseline.setPreviousLastDate(baseline.getLastDate());
+
+        if (baseline.getSampleCount() == 0) {
+            baseline.setMean(value);
+            baseline.setVariance(0.0);
+        } else {
+            double diff = value - baseline.getMean();
+            double increment = smoothing * diff;
+            baseline.setMean(baseline.getMean() + increment);
+            baseline.setVariance((1 - smoothing) * (baseline.getVariance() + diff * increment));
+        }
+
+        baseline.setSampleCount(baseline.getSampleCount() + 1);
+        baseline.setLastDate(date);
+    }
+
+    /**
+     * Undo the latest applied day.
+     */
+    private void rollback(MetricBaseline baseline) {
+        baseline.setSampleCount(baseline.getPreviousSampleCount());
+        baseline.setMean(baseline.getPreviousMean());
+        baseline.setVariance(baseline.getPreviousVariance());
+        baseline.setLastDate(baseline.getPreviousLastDate());
+    }
+}
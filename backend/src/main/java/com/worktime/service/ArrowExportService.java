@@ -0,0 +1,401 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.enums.ActivityType;
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.DayType;
+import com.worktime.model.enums.TimeSegmentType;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.impl.UnionListWriter;
+import org.apache.arrow.vector.dictionary.Dictionary;
+import org.apache.arrow.vector.dictionary.DictionaryProvider;
+import org.apache.arrow.vector.ipc.ArrowStreamWriter;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.*;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+/**
+ * Service writing exports as Apache Arrow IPC streams for notebook analysis.
+ *
+ * <p>Rows are pulled from the cursor in batches and each batch is filled column by column
+ * into Arrow vectors, then written as one record batch. Enum columns ({@link ActivityType},
+ * {@link TimeSegmentType}, {@link DayType}, {@link AggregationMetric}) are dictionary
+ * encoded: the dictionary of enum names is written once and each row stores the ordinal
+ * as an 8-bit index. Timestamps are UTC microseconds and dates are days since the epoch,
+ * so they load as native types in pandas, polars and DuckDB.
+ *
+ * <p>Requires {@code --add-opens=java.base/java.nio=ALL-UNNAMED} (set in the jar manifest).
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class ArrowExportService {
+
+    private static final int BATCH_SIZE = 4096;
+
+    private static final ArrowType.Int DICTIONARY_INDEX_TYPE = new ArrowType.Int(8, true);
+
+    // Dictionary IDs are fixed per enum so every export uses the same encoding
+    private static final Map<Class<? extends Enum<?>>, Long> DICTIONARY_IDS = Map.of(
+            ActivityType.class, 1L,
+            TimeSegmentType.class, 2L,
+            DayType.class, 3L,
+            AggregationMetric.class, 4L
+    );
+
+    private static final List<ArrowColumn<ActivitySession>> SESSION_COLUMNS = List.of(
+            uuid("id", ActivitySession::getId),
+            dictionary("activityType", ActivityType.class, ActivitySession::getActivityType),
+            timestamp("startTime", ActivitySession::getStartTime),
+            timestamp("endTime", ActivitySession::getEndTime),
+            utf8("timezone", ActivitySession::getTimezone),
+            int64("stepCount", ActivitySession::getStepCount),
+            float64("caloriesBurned", ActivitySession::getCaloriesBurned),
+            int32("averageHeartRate", ActivitySession::getAverageHeartRate),
+            int32("minHeartRate", ActivitySession::getMinHeartRate),
+            int32("maxHeartRate", ActivitySession::getMaxHeartRate),
+            utf8("exerciseType", ActivitySession::getExerciseType),
+            utf8("exerciseTitle", ActivitySession::getExerciseTitle),
+            utf8("dataSource", ActivitySession::getDataSource),
+            utf8("healthConnectRecordId", ActivitySession::getHealthConnectRecordId),
+            timestamp("ingestedAt", ActivitySession::getIngestedAt),
+            bool("processed", ActivitySession::getProcessed)
+    );
+
+    private static final List<ArrowColumn<ActivitySegment>> SEGMENT_COLUMNS = List.of(
+            uuid("id", ActivitySegment::getId),
+            // Reading the id of the lazy session proxy does not load the session
+            uuid("sessionId", segment -> segment.getSession().getId()),
+            dictionary("segmentType", TimeSegmentType.class, ActivitySegment::getSegmentType),
+            date("activityDate", ActivitySegment::getActivityDate),
+            timestamp("startTime", ActivitySegment::getStartTime),
+            timestamp("endTime", ActivitySegment::getEndTime),
+            int64("durationSeconds", ActivitySegment::getDurationSeconds),
+            int64("stepCount", ActivitySegment::getStepCount),
+            float64("caloriesBurned", ActivitySegment::getCaloriesBurned),
+            int32("averageHeartRate", ActivitySegment::getAverageHeartRate),
+            int32("minHeartRate", ActivitySegment::getMinHeartRate),
+            int32("maxHeartRate", ActivitySegment::getMaxHeartRate),
+            int32List("heartRateZoneSeconds", ActivitySegment::getHeartRateZoneSeconds),
+            int64("attributedStepCount", ActivitySegment::getAttributedStepCount),
+            float64("attributedCalories", ActivitySegment::getAttributedCalories),
+            float64("allocationRatio", ActivitySegment::getAllocationRatio),
+            bool("isSplit", ActivitySegment::getIsSplit)
+    );
+
+    private static final List<ArrowColumn<DailyAggregation>> AGGREGATION_COLUMNS = List.of(
+            date("date", DailyAggregation::getDate),
+            dictionary("dayType", DayType.class, DailyAggregation::getDayType),
+            int64("workHoursSteps", DailyAggregation::getWorkHoursSteps),
+            float64("workHoursCalories", DailyAggregation::getWorkHoursCalories),
+            int32("workHoursActiveMinutes", DailyAggregation::getWorkHoursActiveMinutes),
+            int32("workHoursAvgHeartRate", DailyAggregation::getWorkHoursAvgHeartRate),
+            int64("offHoursSteps", DailyAggregation::getOffHoursSteps),
+            float64("offHoursCalories", DailyAggregation::getOffHoursCalories),
+            int32("offHoursActiveMinutes", DailyAggregation::getOffHoursActiveMinutes),
+            int32("offHoursAvgHeartRate", DailyAggregation::getOffHoursAvgHeartRate),
+            int64("totalSteps", DailyAggregation::getTotalSteps),
+            float64("totalCalories", DailyAggregation::getTotalCalories),
+            int32("totalActiveMinutes", DailyAggregation::getTotalActiveMinutes),
+            int64("sleepDurationSeconds", DailyAggregation::getSleepDurationSeconds),
+            float64("sleepQualityScore", DailyAggregation::getSleepQualityScore),
+            int32List("heartRateZoneSeconds", DailyAggregation::getHeartRateZoneSeconds),
+            int32("workHoursSedentaryMinutes", DailyAggregation::getWorkHoursSedentaryMinutes),
+            int32("longestSedentaryBoutMinutes", DailyAggregation::getLongestSedentaryBoutMinutes),
+            int32("sedentaryBoutCount", DailyAggregation::getSedentaryBoutCount),
+            bool("hasCompleteData", DailyAggregation::getHasCompleteData),
+            bool("anomalous", DailyAggregation::getAnomalous),
+            float64("anomalyScore", DailyAggregation::getAnomalyScore),
+            dictionary("anomalousMetric", AggregationMetric.class, DailyAggregation::getAnomalousMetric),
+            timestamp("computedAt", DailyAggregation::getComputedAt)
+    );
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Write activity sessions as an Arrow IPC stream.
+     *
+     * @param rows the sessions, consumed in order
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    public long writeSessions(Stream<ActivitySession> rows, OutputStream out) throws IOException {
+        return write(rows, SESSION_COLUMNS, out);
+    }
+
+    /**
+     * Write activity segments as an Arrow IPC stream.
+     *
+     * @param rows the segments, consumed in order
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    public long writeSegments(Stream<ActivitySegment> rows, OutputStream out) throws IOException {
+        return write(rows, SEGMENT_COLUMNS, out);
+    }
+
+    /**
+     * Write daily aggregations as an Arrow IPC stream.
+     *
+     * @param rows the daily aggregations, consumed in order
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    public long writeAggregations(Stream<DailyAggregation> rows, OutputStream out) throws IOException {
+        return write(rows, AGGREGATION_COLUMNS, out);
+    }
+
+    private <T> long write(Stream<T> rows, List<ArrowColumn<T>> columns, OutputStream out) throws IOException {
+        Schema schema = new Schema(columns.stream().map(ArrowColumn::field).toList());
+
+        try (BufferAllocator allocator = new RootAllocator()) {
+            List<Dictionary> dictionaries = createDictionaries(columns, allocator);
+            try (VectorSchemaRoot root = VectorSchemaRoot.create(schema, allocator)) {
+                DictionaryProvider provider = new DictionaryProvider.MapDictionaryProvider(
+                        dictionaries.toArray(Dictionary[]::new));
+                // The writer is not closed: closing it would close the caller's stream
+                ArrowStreamWriter writer = new ArrowStreamWriter(root, provider, Channels.newChannel(out));
+                writer.start();
+
+                long count = 0;
+                List<T> batch = new ArrayList<>(BATCH_SIZE);
+                Iterator<T> iterator = rows.iterator();
+                while (iterator.hasNext()) {
+                    batch.add(iterator.next());
+                    if (batch.size() == BATCH_SIZE) {
+                        count += writeBatch(root, writer, columns, batch);
+                    }
+                }
+                if (!batch.isEmpty()) {
+                    count += writeBatch(root, writer, columns, batch);
+                }
+
+                writer.end();
+                out.flush();
+
+                log.info("Exported {} rows as Arrow IPC stream", count);
+                return count;
+            } finally {
+                dictionaries.forEach(dictionary -> dictionary.getVector().close());
+            }
+        }
+    }
+
+    /**
+     * Fill one record batch column by column, write it and release its rows.
+     */
+    private <T> int writeBatch(VectorSchemaRoot root, ArrowStreamWriter writer,
+                               List<ArrowColumn<T>> columns, List<T> batch) throws IOException {
+        root.allocateNew();
+        for (int i = 0; i < columns.size(); i++) {
+            columns.get(i).filler().fill(root.getVector(i), batch);
+        }
+        root.setRowCount(batch.size());
+        writer.writeBatch();
+
+        int size = batch.size();
+        batch.forEach(entityManager::detach);
+        batch.clear();
+        return size;
+    }
+
+    /**
+     * Create the dictionaries (enum names in ordinal order) used by the columns.
+     */
+    private <T> List<Dictionary> createDictionaries(List<ArrowColumn<T>> columns, BufferAllocator allocator) {
+        List<Dictionary> dictionaries = new ArrayList<>();
+        for (ArrowColumn<T> column : columns) {
+            if (column.dictionaryEnum() == null) {
+                continue;
+            }
+            Enum<?>[] constants = column.dictionaryEnum().getEnumConstants();
+            VarCharVector values = new VarCharVector(column.field().getName() + "_dictionary", allocator);
+            values.allocateNew(constants.length);
+            for (Enum<?> constant : constants) {
+                values.setSafe(constant.ordinal(), constant.name().getBytes(StandardCharsets.UTF_8));
+            }
+            values.setValueCount(constants.length);
+            dictionaries.add(new Dictionary(values, column.field().getDictionary()));
+        }
+        return dictionaries;
+    }
+
+    // Column factories
+
+    private static <T> ArrowColumn<T> utf8(String name, Function<T, String> getter) {
+        return new ArrowColumn<>(Field.nullable(name, ArrowType.Utf8.INSTANCE), null, (vector, rows) -> {
+            VarCharVector values = (VarCharVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                String value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> uuid(String name, Function<T, UUID> getter) {
+        return utf8(name, row -> {
+            UUID value = getter.apply(row);
+            return value != null ? value.toString() : null;
+        });
+    }
+
+    private static <T> ArrowColumn<T> int64(String name, Function<T, Long> getter) {
+        return new ArrowColumn<>(Field.nullable(name, new ArrowType.Int(64, true)), null, (vector, rows) -> {
+            BigIntVector values = (BigIntVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                Long value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value);
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> int32(String name, Function<T, Integer> getter) {
+        return new ArrowColumn<>(Field.nullable(name, new ArrowType.Int(32, true)), null, (vector, rows) -> {
+            IntVector values = (IntVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                Integer value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value);
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> float64(String name, Function<T, Double> getter) {
+        ArrowType type = new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE);
+        return new ArrowColumn<>(Field.nullable(name, type), null, (vector, rows) -> {
+            Float8Vector values = (Float8Vector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                Double value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value);
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> bool(String name, Function<T, Boolean> getter) {
+        return new ArrowColumn<>(Field.nullable(name, ArrowType.Bool.INSTANCE), null, (vector, rows) -> {
+            BitVector values = (BitVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                Boolean value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value ? 1 : 0);
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> date(String name, Function<T, LocalDate> getter) {
+        return new ArrowColumn<>(Field.nullable(name, new ArrowType.Date(DateUnit.DAY)), null, (vector, rows) -> {
+            DateDayVector values = (DateDayVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                LocalDate value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, (int) value.toEpochDay());
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> timestamp(String name, Function<T, Instant> getter) {
+        ArrowType type = new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC");
+        return new ArrowColumn<>(Field.nullable(name, type), null, (vector, rows) -> {
+            TimeStampMicroTZVector values = (TimeStampMicroTZVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                Instant value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                } else {
+                    values.setSafe(i, value.getEpochSecond() * 1_000_000L + value.getNano() / 1_000);
+                }
+            }
+        });
+    }
+
+    private static <T> ArrowColumn<T> int32List(String name, Function<T, int[]> getter) {
+        Field item = Field.notNullable("item", new ArrowType.Int(32, true));
+        Field field = new Field(name, FieldType.nullable(ArrowType.List.INSTANCE), List.of(item));
+        return new ArrowColumn<>(field, null, (vector, rows) -> {
+            ListVector values = (ListVector) vector;
+            UnionListWriter writer = values.getWriter();
+            for (int i = 0; i < rows.size(); i++) {
+                int[] value = getter.apply(rows.get(i));
+                if (value == null) {
+                    values.setNull(i);
+                    continue;
+                }
+                writer.setPosition(i);
+                writer.startList();
+                for (int element : value) {
+                    writer.writeInt(element);
+                }
+                writer.endList();
+            }
+        });
+    }
+
+    private static <T, E extends Enum<E>> ArrowColumn<T> dictionary(String name, Class<E> enumType,
+                                                                   Function<T, E> getter) {
+        DictionaryEncoding encoding = new DictionaryEncoding(
+                DICTIONARY_IDS.get(enumType), false, DICTIONARY_INDEX_TYPE);
+        Field field = new Field(name, new FieldType(true, DICTIONARY_INDEX_TYPE, encoding), null);
+        return new ArrowColumn<>(field, enumType, (vector, rows) -> {
+            TinyIntVector indices = (TinyIntVector) vector;
+            for (int i = 0; i < rows.size(); i++) {
+                E value = getter.apply(rows.get(i));
+                if (value == null) {
+                    indices.setNull(i);
+                } else {
+                    indices.setSafe(i, value.ordinal());
+                }
+            }
+        });
+    }
+
+    @FunctionalInterface
+    private interface ColumnFiller<T> {
+        void fill(FieldVector vector, List<T> rows);
+    }
+
+    private record ArrowColumn<T>(Field field, Class<? extends Enum<?>> dictionaryEnum, ColumnFiller<T> filler) {}
+}
@@ -0,0 +1,242 @@
+package com.worktime.service;
+
+import com.worktime.dto.activitysession.BulkDeleteRequest;
+import com.worktime.dto.activitysession.BulkDeleteResponse;
+import com.worktime.model.enums.ActivityType;
+import com.worktime.repository.SessionArchiveRepository;
+import com.worktime.service.DayDigestService.DigestEntry;
+import com.worktime.service.DictionaryService.Dictionary;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeSet;
+
+/**
+ * Service soft-deleting a user's sessions matching a filter (data source, activity
+ * type, start time range) with set-based statements instead of one request per session.
+ *
+ * <p>Each chunk is one statement in its own transaction that, for up to chunk-size
+ * sessions in start time order:
+ * <ul>
+ *   <li>Soft deletes the sessions and their segments</li>
+ *   <li>Retracts the sessions from the step rollups they were compacted into</li>
+ *   <li>Queues the days their lineage covers for re-aggregation</li>
+ * </ul>
+ * In the same transaction, the sessions are toggled out of their day digests, dated in
+ * Java as on ingestion, and overlaps on the queued days are resolved again, so the
+ * remaining sources win back the deleted sessions' time. Chunks keep locks and
+ * transactions short. Once all chunks are done, each affected day is recomputed once;
+ * days not reached (e.g. after a failure) stay queued for the background drain.
+ * Archived months must be restored before they can be deleted from.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class BulkDeletionService {
+
+    // Lineage days per V22 and V28; digests are toggled in Java, by the same rule as ingestion
+    private static final String DELETE_CHUNK_SQL = """
+            WITH doomed AS (
+                SELECT s.id, s.start_time FROM activity_sessions s
+                WHERE s.user_id = ? AND s.is_deleted = false
+                  AND s.start_time >= ? AND s.start_time < ? %s
+                ORDER BY s.start_time, s.id
+                LIMIT ?
+                FOR UPDATE
+            ), deleted_sessions AS (
+                UPDATE activity_sessions s SET is_deleted = true, updated_at = NOW()
+                FROM doomed
+                WHERE s.id = doomed.id AND s.start_time = doomed.start_time
+                RETURNING s.id, s.start_time, s.timezone_id, s.health_connect_record_id
+            ), deleted_segments AS (
+                UPDATE activity_segments seg SET is_deleted = true, updated_at = NOW()
+                FROM doomed
+                WHERE seg.session_id = doomed.id AND seg.is_deleted = false
+                RETURNING 1
+            ), retracted AS (
+                DELETE FROM step_rollup_contributions c USING doomed
+                WHERE c.session_id = doomed.id
+                RETURNING c.rollup_id, c.step_count, c.calories_burned, c.duration_seconds, c.segment_count
+            ), rollups AS (
+                UPDATE step_rollups r SET
+                    step_count = r.step_count - t.step_count,
+                    calories_burned = r.calories_burned - t.calories_burned,
+                    duration_seconds = r.duration_seconds - t.duration_seconds,
+                    segment_count = r.segment_count - t.segment_count,
+                    updated_at = NOW()
+                FROM (SELECT rollup_id, SUM(step_count) AS step_count, SUM(calories_burned) AS calories_burned,
+                             SUM(duration_seconds) AS duration_seconds, SUM(segment_count) AS segment_count
+                      FROM retracted GROUP BY rollup_id) t
+                WHERE r.id = t.rollup_id
+            ), marked AS (
+                INSERT INTO dirty_days (user_id, date, created_at, updated_at, is_deleted)
+                SELECT DISTINCT l.user_id, l.first_date + days.n, NOW(), NOW(), FALSE
+                FROM session_day_lineage l JOIN doomed ON l.session_id = doomed.id
+                CROSS JOIN LATERAL generate_series(0, l.last_date - l.first_date) AS days(n)
+                WHERE CASE WHEN l.last_date - l.first_date >= 32 THEN TRUE
+                           ELSE l.day_mask & (1 << days.n) <> 0 END
+                ON CONFLICT (user_id, date) DO UPDATE SET updated_at = EXCLUDED.updated_at
+                RETURNING date
+            )
+            SELECT (SELECT COUNT(*) FROM deleted_sessions),
+                   (SELECT COUNT(*) FROM deleted_segments),
+                   ARRAY(SELECT date FROM marked),
+                   ARRAY(SELECT start_time FROM deleted_sessions ORDER BY id),
+                   ARRAY(SELECT timezone_id FROM deleted_sessions ORDER BY id),
+                   ARRAY(SELECT health_connect_record_id FROM deleted_sessions ORDER BY id)
+            """;
+
+    // Runs after the chunk statement, which cannot see its own rollup updates
+    private static final String DELETE_EMPTY_ROLLUPS_SQL =
+            "DELETE FROM step_rollups WHERE user_id = ? AND segment_count = 0";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DictionaryService dictionaryService;
+    private final DayDigestService dayDigestService;
+    private final DirtyDayService dirtyDayService;
+    private final SessionArchiveRepository sessionArchiveRepository;
+    private final OverlapResolverService overlapResolverService;
+
+    @Value("${worktime.bulk-delete.chunk-size:5000}")
+    private int chunkSize;
+
+    public BulkDeletionService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               DictionaryService dictionaryService, DayDigestService dayDigestService,
+                               DirtyDayService dirtyDayService,
+                               SessionArchiveRepository sessionArchiveRepository,
+                               OverlapResolverService overlapResolverService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dictionaryService = dictionaryService;
+        this.dayDigestService = dayDigestService;
+        this.dirtyDayService = dirtyDayService;
+        this.sessionArchiveRepository = sessionArchiveRepository;
+        this.overlapResolverService = overlapResolverService;
+    }
+
+    /**
+     * Soft delete a user's live sessions matching a filter, with their segments.
+     *
+     * @param request the filter
+     * @return the numbers of deleted sessions and segments and of recomputed days
+     * @throws IllegalArgumentException if the time range is empty or covers an archived month
+     */
+    public BulkDeleteResponse deleteSessions(BulkDeleteRequest request) {
+        if (!request.endTime().isAfter(request.startTime())) {
+            throw new IllegalArgumentException("End time must be after start time");
+        }
+        LocalDate firstMonth = YearMonth.from(request.startTime().atOffset(ZoneOffset.UTC)).atDay(1);
+        LocalDate lastMonth = YearMonth.from(request.endTime().minusNanos(1).atOffset(ZoneOffset.UTC)).atDay(1);
+        if (!sessionArchiveRepository.findByUserIdAndMonthBetweenOrderByMonthAsc(
+                request.userId(), firstMonth, lastMonth).isEmpty()) {
+            throw new IllegalArgumentException("The time range covers archived months; restore them first");
+        }
+        log.info("Bulk deleting sessions of user {} (source: {}, type: {}) from {} to {}",
+                request.userId(), request.dataSource(), request.activityType(),
+                request.startTime(), request.endTime());
+
+        List<Object> parameters = new ArrayList<>(List.of(request.userId(),
+                Timestamp.from(request.startTime()), Timestamp.from(request.endTime())));
+        StringBuilder filters = new StringBuilder();
+        if (request.dataSource() != null) {
+            Optional<Short> dataSourceId = dictionaryService.findId(Dictionary.DATA_SOURCES, request.dataSource());
+            if (dataSourceId.isEmpty()) {
+                log.info("No sessions from data source {}", request.dataSource());
+                return BulkDeleteResponse.builder().build();
+            }
+            filters.append(" AND s.data_source_id = ?");
+            parameters.add(dataSourceId.get());
+        }
+        if (request.activityType() != null) {
+            filters.append(" AND s.activity_type = ?");
+            parameters.add(request.activityType().getCode());
+        }
+        parameters.add(chunkSize);
+
+        String sql = DELETE_CHUNK_SQL.formatted(filters);
+        List<ActivityType> resolvedTypes = request.activityType() != null
+                ? List.of(request.activityType())
+                : List.of(ActivityType.STEPS, ActivityType.CALORIES_BURNED);
+        Object[] arguments = parameters.toArray();
+
+        long sessions = 0;
+        long segments = 0;
+        TreeSet<LocalDate> affectedDates = new TreeSet<>();
+        int chunks = 0;
+
+        while (true) {
+            ChunkResult chunk = transactionTemplate.execute(status -> {
+                ChunkResult result = deleteChunk(sql, arguments);
+                dayDigestService.recordRemoved(request.userId(), result.digestEntries());
+                jdbcTemplate.update(DELETE_EMPTY_ROLLUPS_SQL, request.userId());
+                resolvedTypes.forEach(type -> overlapResolverService.resolveDays(
+                        request.userId(), type, result.dates()));
+                return result;
+            });
+            if (chunk == null || chunk.sessions() == 0) {
+                break;
+            }
+            chunks++;
+            sessions += chunk.sessions();
+            segments += chunk.segments();
+            affectedDates.addAll(chunk.dates());
+            log.debug("Bulk delete chunk {}: {} sessions, {} segments", chunks, chunk.sessions(), chunk.segments());
+
+            if (chunk.sessions() < chunkSize) {
+                break;
+            }
+        }
+
+        int recomputed = dirtyDayService.recomputeNow(request.userId(), affectedDates);
+
+        log.info("Bulk deleted {} sessions and {} segments of user {} in {} chunks; recomputed {} of {} days",
+                sessions, segments, request.userId(), chunks, recomputed, affectedDates.size());
+
+        return BulkDeleteResponse.builder()
+                .sessionsDeleted(sessions)
+                .segmentsDeleted(segments)
+                .daysRecomputed(recomputed)
+                .build();
+    }
+
+    private ChunkResult deleteChunk(String sql, Object[] arguments) {
+        return jdbcTemplate.queryForObject(sql, (resultSet, rowNum) -> {
+            List<LocalDate> dates = new ArrayList<>();
+            for (Object date : (Object[]) resultSet.getArray(3).getArray()) {
+                dates.add(((Date) date).toLocalDate());
+            }
+
+            // Deleted sessions, for their day digests
+            Object[] startTimes = (Object[]) resultSet.getArray(4).getArray();
+            Object[] timezoneIds = (Object[]) resultSet.getArray(5).getArray();
+            Object[] recordIds = (Object[]) resultSet.getArray(6).getArray();
+            List<DigestEntry> digestEntries = new ArrayList<>(startTimes.length);
+            for (int i = 0; i < startTimes.length; i++) {
+                ZoneId zone = ZoneId.of(dictionaryService.nameOf(
+                        Dictionary.TIMEZONES, ((Number) timezoneIds[i]).shortValue()));
+                digestEntries.add(new DigestEntry(((Timestamp) startTimes[i]).toInstant(), zone,
+                        (String) recordIds[i]));
+            }
+            return new ChunkResult(resultSet.getLong(1), resultSet.getLong(2), dates, digestEntries);
+        }, arguments);
+    }
+
+    private record ChunkResult(long sessions, long segments, List<LocalDate> dates,
+                               List<DigestEntry> digestEntries) {}
+}
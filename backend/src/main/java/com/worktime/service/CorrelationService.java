@@ -0,0 +1,196 @@
+package com.worktime.service;
+
+import com.worktime.dto.correlation.MetricCorrelationsResponse;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.MetricCorrelation;
+import com.worktime.model.enums.AnalyticsWindow;
+import com.worktime.model.enums.CorrelationPair;
+import com.worktime.repository.DailyAggregationRepository;
+import com.worktime.repository.MetricCorrelationRepository;
+import com.worktime.shared.CovarianceAccumulator;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Service maintaining per-user correlations between daily metrics.
+ *
+ * <p>Each {@link CorrelationPair} observation combines day D with day D + lag, and is
+ * stored in the buckets of day D: its calendar month and the all-time bucket. When a
+ * day is recomputed, every observation it takes part in (as the x day or the y day)
+ * retracts its old values and adds its new ones, so the running co-moments stay exact
+ * without rescanning history. Correlation queries merge at most 13 monthly buckets.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CorrelationService implements DailyAggregationListener {
+
+    private final MetricCorrelationRepository metricCorrelationRepository;
+    private final DailyAggregationRepository dailyAggregationRepository;
+
+    @Override
+    public void onAggregationComputed(DailyAggregation previous, DailyAggregation current) {
+        String userId = current.getUserId();
+        LocalDate date = current.getDate();
+        Map<LocalDate, Optional<DailyAggregation>> neighbours = new HashMap<>();
+        Map<BucketKey, LoadedBucket> touched = new HashMap<>();
+
+        for (CorrelationPair pair : CorrelationPair.values()) {
+            int lag = pair.getLagDays();
+            if (lag == 0) {
+                update(touched, userId, pair, date,
+                        pair.extractX(previous), pair.extractY(previous),
+                        pair.extractX(current), pair.extractY(current));
+                continue;
+            }
+
+            // The day is the x day of the observation keyed on it...
+            DailyAggregation next = neighbour(neighbours, userId, date.plusDays(lag));
+            update(touched, userId, pair, date,
+                    pair.extractX(previous), pair.extractY(next),
+                    pair.extractX(current), pair.extractY(next));
+
+            // ...and the y day of the observation keyed on the day lag days before it
+            LocalDate priorDate = date.minusDays(lag);
+            DailyAggregation prior = neighbour(neighbours, userId, priorDate);
+            update(touched, userId, pair, priorDate,
+                    pair.extractX(prior), pair.extractY(previous),
+                    pair.extractX(prior), pair.extractY(current));
+        }
+
+        for (LoadedBucket loaded : touched.values()) {
+            CovarianceAccumulator accumulator = loaded.accumulator();
+            MetricCorrelation entity = loaded.entity();
+            entity.setSampleCount(accumulator.count());
+            entity.setMeanX(accumulator.meanX());
+            entity.setMeanY(accumulator.meanY());
+            entity.setM2X(accumulator.m2X());
+            entity.setM2Y(accumulator.m2Y());
+            entity.setCoMoment(accumulator.coMoment());
+            metricCorrelationRepository.save(entity);
+        }
+
+        log.debug("Updated {} correlation buckets for user {} on {}", touched.size(), userId, date);
+    }
+
+    /**
+     * Get the correlations of a user's metric pairs over a look-back window.
+     *
+     * @param userId the user ID
+     * @param endDate the last observation day of the window (inclusive)
+     * @param window the look-back window
+     * @param pair the metric pair, or null for all pairs
+     * @return the correlation coefficient and sample count per pair
+     */
+    @Transactional(readOnly = true)
+    public MetricCorrelationsResponse getCorrelations(String userId, LocalDate endDate,
+                                                      AnalyticsWindow window, CorrelationPair pair) {
+        log.debug("Fetching correlations for user {} ending {} (window: {}, pair: {})",
+                userId, endDate, window, pair);
+
+        Map<CorrelationPair, CovarianceAccumulator> merged = new EnumMap<>(CorrelationPair.class);
+        for (MetricCorrelation bucket : metricCorrelationRepository.findByUserIdAndPeriodIn(
+                userId, window.periodsEndingAt(endDate))) {
+            merged.computeIfAbsent(bucket.getPair(), key -> new CovarianceAccumulator())
+                    .merge(toAccumulator(bucket));
+        }
+
+        List<CorrelationPair> pairs = pair != null ? List.of(pair) : List.of(CorrelationPair.values());
+        List<MetricCorrelationsResponse.PairCorrelation> results = new ArrayList<>();
+        for (CorrelationPair current : pairs) {
+            CovarianceAccumulator accumulator = merged.getOrDefault(current, new CovarianceAccumulator());
+            boolean hasSamples = accumulator.count() > 0;
+
+            results.add(MetricCorrelationsResponse.PairCorrelation.builder()
+                    .pair(current)
+                    .lagDays(current.getLagDays())
+                    .coefficient(accumulator.correlation())
+                    .covariance(accumulator.covariance())
+                    .meanX(hasSamples ? accumulator.meanX() : null)
+                    .meanY(hasSamples ? accumulator.meanY() : null)
+                    .sampleCount(accumulator.count())
+                    .build());
+        }
+
+        return MetricCorrelationsResponse.builder()
+                .userId(userId)
+                .endDate(endDate)
+                .window(window)
+                .pairs(results)
+                .build();
+    }
+
+    /**
+     * Replace one observation in the buckets of its observation day.
+     * Values are skipped when either side is missing, and unchanged observations are not touched.
+     */
+    private void update(Map<BucketKey, LoadedBucket> touched, String userId, CorrelationPair pair,
+                        LocalDate observationDate, Double oldX, Double oldY, Double newX, Double newY) {
+        boolean hadObservation = oldX != null && oldY != null;
+        boolean hasObservation = newX != null && newY != null;
+        if (hadObservation == hasObservation
+                && Objects.equals(oldX, newX) && Objects.equals(oldY, newY)) {
+            return;
+        }
+
+        for (String period : bucketsOf(observationDate)) {
+            CovarianceAccumulator accumulator = load(touched, userId, pair, period).accumulator();
+            if (hadObservation) {
+                accumulator.remove(oldX, oldY);
+            }
+            if (hasObservation) {
+                accumulator.add(newX, newY);
+            }
+        }
+    }
+
+    /**
+     * Load a neighbouring day of the user, caching lookups within this update.
+     */
+    private DailyAggregation neighbour(Map<LocalDate, Optional<DailyAggregation>> neighbours,
+                                       String userId, LocalDate date) {
+        return neighbours.computeIfAbsent(date,
+                key -> dailyAggregationRepository.findByUserIdAndDate(userId, key)).orElse(null);
+    }
+
+    /**
+     * Get the bucket keys an observation day contributes to.
+     */
+    private List<String> bucketsOf(LocalDate date) {
+        return List.of(AnalyticsWindow.ALL_TIME_PERIOD, AnalyticsWindow.periodOf(date));
+    }
+
+    /**
+     * Load (or create) a correlation bucket, reusing buckets already loaded in this update.
+     */
+    private LoadedBucket load(Map<BucketKey, LoadedBucket> touched, String userId,
+                              CorrelationPair pair, String period) {
+        return touched.computeIfAbsent(new BucketKey(pair, period), key -> {
+            MetricCorrelation entity = metricCorrelationRepository
+                    .findByUserIdAndPairAndPeriod(userId, pair, period)
+                    .orElseGet(() -> MetricCorrelation.builder()
+                            .userId(userId)
+                            .pair(pair)
+                            .period(period)
+                            .build());
+            return new LoadedBucket(entity, toAccumulator(entity));
+        });
+    }
+
+    private CovarianceAccumulator toAccumulator(MetricCorrelation entity) {
+        return new CovarianceAccumulator(entity.getSampleCount(), entity.getMeanX(), entity.getMeanY(),
+                entity.getM2X(), entity.getM2Y(), entity.getCoMoment());
+    }
+
+    private record BucketKey(CorrelationPair pair, String period) {}
+
+    private record LoadedBucket(MetricCorrelation entity, CovarianceAccumulator accumulator) {}
+}
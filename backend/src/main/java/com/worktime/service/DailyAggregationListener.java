@@ -0,0 +1,24 @@
+package com.worktime.service;
+
+import com.worktime.model.DailyAggregation;
+
+/**
+ * Callback for incrementally maintained analytics that depend on daily aggregations.
+ *
+ * <p>Implementations are invoked by {@link DailyAggregationService} inside the same
+ * transaction every time a day is computed or recomputed. They receive the previous
+ * values of the day so they can retract them before applying the new ones.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+public interface DailyAggregationListener {
+
+    /**
+     * Handle a computed daily aggregation.
+     *
+     * @param previous a detached copy of the day before recomputation, or null if the day is new
+     * @param current the saved aggregation
+     */
+    void onAggregationComputed(DailyAggregation previous, DailyAggregation current);
+}
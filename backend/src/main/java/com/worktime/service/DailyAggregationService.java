@@ -1,6 +1,7 @@
 package com.worktime.service;
 
 import com.worktime.dto.dailyaggregation.DailyAggregationResponse;
+import com.worktime.dto.minutebitmap.DayMinuteSummaryResponse;
 import com.worktime.mapper.DtoMapper;
 import com.worktime.model.*;
 import com.worktime.model.enums.ActivityType;
@@ -8,29 +9,43 @@ import com.worktime.model.enums.DayType;
 import com.worktime.model.enums.OverrideType;
 import com.worktime.model.enums.TimeSegmentType;
 import com.worktime.repository.*;
+import com.worktime.service.StepCompactionService.RollupShare;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Stream;
 
 /**
  * Service for computing and managing daily activity aggregations.
  *
  * <p>This service handles:
  * <ul>
- *   <li>Computing daily summaries from activity segments</li>
+ *   <li>Computing daily summaries from activity segments and compacted step rollups</li>
  *   <li>Separating work hours and off hours metrics</li>
  *   <li>Calculating total daily metrics</li>
  *   <li>Processing sleep session data</li>
  *   <li>Determining day type (WORKDAY, NON_WORKDAY, HOLIDAY, etc.)</li>
  *   <li>Storing pre-computed aggregations for fast analytics</li>
+ *   <li>Notifying incrementally maintained analytics of every recomputed day</li>
+ *   <li>Counting distinct active minutes and flagging coverage gaps from minute bitmaps</li>
+ *   <li>Rebuilding the day's minute bitmaps and activity profile from its live data</li>
+ *   <li>Finding the most recent comparable day for a date</li>
  * </ul>
  *
  * @author Thang
@@ -41,11 +56,24 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class DailyAggregationService {
 
+    private static final int COMPARABLE_DAY_LOOKBACK_DAYS = 14;
+
+    // Widest UTC offset, used to bound session start times for a local date
+    private static final Duration MAX_ZONE_OFFSET = Duration.ofHours(14);
+
     private final DailyAggregationRepository dailyAggregationRepository;
     private final ActivitySegmentRepository activitySegmentRepository;
     private final ActivitySessionRepository activitySessionRepository;
+    private final StepRollupRepository stepRollupRepository;
     private final WorkingScheduleRepository workingScheduleRepository;
     private final ScheduleOverrideRepository scheduleOverrideRepository;
+    private final MinuteBitmapService minuteBitmapService;
+    private final ActivityProfileService activityProfileService;
+    private final SessionArchiveService sessionArchiveService;
+    private final SessionLineageService sessionLineageService;
+    private final SessionDurationBoundService sessionDurationBoundService;
+    private final StepCompactionService stepCompactionService;
+    private final List<DailyAggregationListener> aggregationListeners;
 
     /**
      * Compute daily aggregation for a specific user and date.
@@ -59,16 +87,15 @@ public class DailyAggregationService {
     public DailyAggregationResponse computeDailyAggregation(String userId, LocalDate date) {
         log.info("Computing daily aggregation for user {} on {}", userId, date);
 
-        // Get all segments for the date
-        List<ActivitySegment> segments = activitySegmentRepository.findByActivityDate(date);
+        // Get the user's segments for the date
+        List<ActivitySegment> userSegments = activitySegmentRepository
+                .findByUserIdAndActivityDateAndIsDeletedFalse(userId, date);
 
-        // Filter segments by user ID
-        List<ActivitySegment> userSegments = segments.stream()
-                .filter(segment -> segment.getSession().getUserId().equals(userId))
-                .filter(segment -> !segment.getIsDeleted())
-                .toList();
+        // Compacted step segments live in rollups
+        List<StepRollup> rollups = stepRollupRepository.findByUserIdAndActivityDateAndIsDeletedFalse(userId, date);
 
-        log.debug("Found {} segments for user {} on {}", userSegments.size(), userId, date);
+        log.debug("Found {} segments and {} step rollups for user {} on {}",
+                userSegments.size(), rollups.size(), userId, date);
 
         // Separate work hours and off hours segments
         List<ActivitySegment> workHoursSegments = userSegments.stream()
@@ -80,13 +107,33 @@ public class DailyAggregationService {
                 .toList();
 
         // Calculate metrics
-        AggregatedMetrics workMetrics = aggregateSegments(workHoursSegments);
-        AggregatedMetrics offMetrics = aggregateSegments(offHoursSegments);
+        AggregatedMetrics workMetrics = aggregateSegments(
+                workHoursSegments, rollupsOfType(rollups, TimeSegmentType.WORK_HOURS));
+        AggregatedMetrics offMetrics = aggregateSegments(
+                offHoursSegments, rollupsOfType(rollups, TimeSegmentType.OFF_HOURS));
 
         // Calculate totals
         Long totalSteps = safeAdd(workMetrics.steps(), offMetrics.steps());
         Double totalCalories = safeAdd(workMetrics.calories(), offMetrics.calories());
-        Integer totalActiveMinutes = safeAdd(workMetrics.activeMinutes(), offMetrics.activeMinutes());
+        Integer workActiveMinutes = workMetrics.activeMinutes();
+        Integer offActiveMinutes = offMetrics.activeMinutes();
+
+        // Rebuild the day's bitmaps and profile, so sessions removed since they were split drop out
+        Map<UUID, ActivitySession> sessions = sessionsOf(userId, date, userSegments);
+        List<RollupShare> shares = stepCompactionService.sharesOf(userId, date, rollups, sessions);
+        minuteBitmapService.rebuildDay(userId, date, userSegments, shares, sessions);
+        activityProfileService.rebuildDay(userId, date, userSegments, shares, sessions);
+
+        // Distinct active minutes from the day's bitmaps, so overlapping sessions count once
+        Optional<DayMinuteSummaryResponse> minutes = minuteBitmapService.summarize(userId, date);
+        if (minutes.isPresent()) {
+            workActiveMinutes = minutes.get().workHoursActiveMinutes();
+            offActiveMinutes = minutes.get().activeMinutes() - minutes.get().workHoursActiveMinutes();
+        }
+        Integer totalActiveMinutes = safeAdd(workActiveMinutes, offActiveMinutes);
+
+        // Sum time in heart rate zones across the whole day
+        int[] heartRateZoneSeconds = sumHeartRateZoneSeconds(userSegments);
 
         // Get sleep metrics
         SleepMetrics sleepMetrics = calculateSleepMetrics(userId, date);
@@ -99,9 +146,12 @@ public class DailyAggregationService {
                 .findByUserIdAndDate(userId, date);
 
         DailyAggregation aggregation;
+        DailyAggregation previous = null;
         if (existingAgg.isPresent()) {
             log.debug("Updating existing aggregation for {} on {}", userId, date);
             aggregation = existingAgg.get();
+            // Detached copy of the old values, so listeners can retract them
+            previous = aggregation.toBuilder().build();
         } else {
             log.debug("Creating new aggregation for {} on {}", userId, date);
             aggregation = new DailyAggregation();
@@ -113,22 +163,34 @@ public class DailyAggregationService {
         aggregation.setDayType(dayType);
         aggregation.setWorkHoursSteps(workMetrics.steps());
         aggregation.setWorkHoursCalories(workMetrics.calories());
-        aggregation.setWorkHoursActiveMinutes(workMetrics.activeMinutes());
+        aggregation.setWorkHoursActiveMinutes(workActiveMinutes);
         aggregation.setWorkHoursAvgHeartRate(workMetrics.avgHeartRate());
         aggregation.setOffHoursSteps(offMetrics.steps());
         aggregation.setOffHoursCalories(offMetrics.calories());
-        aggregation.setOffHoursActiveMinutes(offMetrics.activeMinutes());
+        aggregation.setOffHoursActiveMinutes(offActiveMinutes);
         aggregation.setOffHoursAvgHeartRate(offMetrics.avgHeartRate());
         aggregation.setTotalSteps(totalSteps);
         aggregation.setTotalCalories(totalCalories);
         aggregation.setTotalActiveMinutes(totalActiveMinutes);
         aggregation.setSleepDurationSeconds(sleepMetrics.durationSeconds());
         aggregation.setSleepQualityScore(sleepMetrics.qualityScore());
+        aggregation.setHeartRateZoneSeconds(heartRateZoneSeconds);
+        aggregation.setHasCompleteData(minutes.map(DayMinuteSummaryResponse::hasCompleteData).orElse(null));
+        aggregation.setWorkHoursSedentaryMinutes(
+                minutes.map(DayMinuteSummaryResponse::workHoursSedentaryMinutes).orElse(null));
+        aggregation.setLongestSedentaryBoutMinutes(
+                minutes.map(DayMinuteSummaryResponse::longestSedentaryBoutMinutes).orElse(null));
+        aggregation.setSedentaryBoutCount(minutes.map(DayMinuteSummaryResponse::sedentaryBoutCount).orElse(null));
         aggregation.setComputedAt(Instant.now());
 
         // Save aggregation
         DailyAggregation savedAggregation = dailyAggregationRepository.save(aggregation);
 
+        // Update incrementally maintained analytics
+        for (DailyAggregationListener listener : aggregationListeners) {
+            listener.onAggregationComputed(previous, savedAggregation);
+        }
+
         log.info("Daily aggregation computed for {} on {}: {} steps, {} calories, day type: {}",
                 userId, date, totalSteps, totalCalories, dayType);
 
@@ -136,31 +198,71 @@ public class DailyAggregationService {
     }
 
     /**
-     * Aggregate metrics from a list of activity segments.
+     * Load the sessions contributing to a day, by ID: those of its segments and, through
+     * their lineage, those compacted into rollups. Archived sessions are read from the archive.
+     */
+    private Map<UUID, ActivitySession> sessionsOf(String userId, LocalDate date, List<ActivitySegment> segments) {
+        Set<UUID> sessionIds = new HashSet<>();
+        segments.forEach(segment -> sessionIds.add(segment.getSession().getId()));
+        sessionLineageService.findCovering(userId, date, date, day -> true)
+                .forEach(lineage -> sessionIds.add(lineage.getSessionId()));
+
+        Map<UUID, ActivitySession> sessions = new HashMap<>();
+        activitySessionRepository.findAllById(sessionIds)
+                .forEach(session -> sessions.put(session.getId(), session));
+        if (sessions.size() < sessionIds.size()) {
+            sessionArchiveService.findArchivedSessions(
+                            userId, earliestSessionStartFor(userId, date), latestSessionStartFor(date)).stream()
+                    .filter(session -> sessionIds.contains(session.getId()))
+                    .forEach(session -> sessions.putIfAbsent(session.getId(), session));
+        }
+        return sessions;
+    }
+
+    /**
+     * Select the rollups of one segment type.
+     */
+    private List<StepRollup> rollupsOfType(List<StepRollup> rollups, TimeSegmentType segmentType) {
+        return rollups.stream()
+                .filter(rollup -> rollup.getSegmentType() == segmentType)
+                .toList();
+    }
+
+    /**
+     * Aggregate metrics from a list of activity segments and step rollups.
      *
      * @param segments the activity segments
+     * @param rollups the step rollups of the same segment type
      * @return aggregated metrics
      */
-    private AggregatedMetrics aggregateSegments(List<ActivitySegment> segments) {
+    private AggregatedMetrics aggregateSegments(List<ActivitySegment> segments, List<StepRollup> rollups) {
         long totalSteps = 0;
         double totalCalories = 0.0;
         long totalDurationSeconds = 0;
-        int heartRateSum = 0;
-        int heartRateCount = 0;
+        long weightedHeartRateSum = 0;
+        long heartRateSeconds = 0;
+
+        for (StepRollup rollup : rollups) {
+            totalSteps += rollup.getStepCount();
+            totalCalories += rollup.getCaloriesBurned();
+            totalDurationSeconds += rollup.getDurationSeconds();
+        }
 
         for (ActivitySegment segment : segments) {
-            if (segment.getStepCount() != null) {
-                totalSteps += segment.getStepCount();
+            // Overlapping sources are already resolved into the counted values
+            if (segment.getCountedStepCount() != null) {
+                totalSteps += segment.getCountedStepCount();
             }
-            if (segment.getCaloriesBurned() != null) {
-                totalCalories += segment.getCaloriesBurned();
+            if (segment.getCountedCalories() != null) {
+                totalCalories += segment.getCountedCalories();
             }
             if (segment.getDurationSeconds() != null) {
                 totalDurationSeconds += segment.getDurationSeconds();
             }
-            if (segment.getAverageHeartRate() != null) {
-                heartRateSum += segment.getAverageHeartRate();
-                heartRateCount++;
+            if (segment.getAverageHeartRate() != null && segment.getDurationSeconds() != null) {
+                // Weight each average by the time it covers
+                weightedHeartRateSum += (long) segment.getAverageHeartRate() * segment.getDurationSeconds();
+                heartRateSeconds += segment.getDurationSeconds();
             }
         }
 
@@ -169,9 +271,9 @@ public class DailyAggregationService {
                 ? (int) (totalDurationSeconds / 60)
                 : null;
 
-        // Calculate average heart rate
-        Integer avgHeartRate = heartRateCount > 0
-                ? heartRateSum / heartRateCount
+        // Calculate duration-weighted average heart rate
+        Integer avgHeartRate = heartRateSeconds > 0
+                ? (int) Math.round((double) weightedHeartRateSum / heartRateSeconds)
                 : null;
 
         return new AggregatedMetrics(
@@ -182,6 +284,29 @@ public class DailyAggregationService {
         );
     }
 
+    /**
+     * Sum the per-segment heart rate zone seconds.
+     *
+     * @param segments the activity segments
+     * @return seconds per zone, or null if no segment carries zone data
+     */
+    private int[] sumHeartRateZoneSeconds(List<ActivitySegment> segments) {
+        int[] total = null;
+        for (ActivitySegment segment : segments) {
+            int[] zoneSeconds = segment.getHeartRateZoneSeconds();
+            if (zoneSeconds == null) {
+                continue;
+            }
+            if (total == null) {
+                total = new int[HeartRateZoneConfig.ZONE_COUNT];
+            }
+            for (int zone = 0; zone < total.length && zone < zoneSeconds.length; zone++) {
+                total[zone] += zoneSeconds[zone];
+            }
+        }
+        return total;
+    }
+
     /**
      * Calculate sleep metrics for a specific date.
      * Sleep sessions are typically recorded the night before.
@@ -191,11 +316,14 @@ public class DailyAggregationService {
      * @return sleep metrics
      */
     private SleepMetrics calculateSleepMetrics(String userId, LocalDate date) {
-        // Get sleep sessions for the user
-        List<ActivitySession> sleepSessions = activitySessionRepository
-                .findByUserId(userId).stream()
-                .filter(session -> session.getActivityType() == ActivityType.SLEEP_SESSION)
-                .filter(session -> !session.getIsDeleted())
+        // Get sleep sessions for the user that can end on the date, archived ones included
+        Instant from = earliestSessionStartFor(userId, date);
+        Instant to = latestSessionStartFor(date);
+        List<ActivitySession> sleepSessions = Stream.concat(
+                        activitySessionRepository.findByUserIdAndActivityTypeStartingBetween(
+                                userId, ActivityType.SLEEP_SESSION, from, to).stream(),
+                        sessionArchiveService.findArchivedSessions(userId, from, to).stream()
+                                .filter(session -> session.getActivityType() == ActivityType.SLEEP_SESSION))
                 .filter(session -> {
                     // Sleep session typically ends on the target date
                     LocalDate endDate = session.getEndTime()
@@ -221,6 +349,22 @@ public class DailyAggregationService {
         return new SleepMetrics(totalSleepSeconds, qualityScore);
     }
 
+    /**
+     * Earliest start of a user's session that can reach a local date in any timezone.
+     */
+    private Instant earliestSessionStartFor(String userId, LocalDate date) {
+        return date.atStartOfDay(ZoneOffset.UTC).toInstant()
+                .minus(MAX_ZONE_OFFSET)
+                .minus(sessionDurationBoundService.maxDurationOf(userId));
+    }
+
+    /**
+     * Latest start (exclusive) of a session that can reach a local date in any timezone.
+     */
+    private Instant latestSessionStartFor(LocalDate date) {
+        return date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().plus(MAX_ZONE_OFFSET);
+    }
+
     /**
      * Calculate sleep quality score based on duration.
      * Optimal sleep: 7-9 hours (25200-32400 seconds) = 100 score
@@ -294,12 +438,38 @@ public class DailyAggregationService {
     public DailyAggregationResponse getDailyAggregation(String userId, LocalDate date) {
         log.debug("Fetching daily aggregation for user {} on {}", userId, date);
 
-        DailyAggregation aggregation = dailyAggregationRepository
-                .findByUserIdAndDate(userId, date)
+        return dailyAggregationRepository
+                .findResponseByUserIdAndDate(userId, date)
                 .orElseThrow(() -> new IllegalArgumentException(
                         "Daily aggregation not found for user " + userId + " on " + date));
+    }
 
-        return DtoMapper.toDto(aggregation);
+    /**
+     * Find the most recent comparable day for a date.
+     *
+     * <p>A comparable day has the same day type, lies within the previous 14 days,
+     * is not flagged as anomalous and has complete data (steps and sleep).
+     *
+     * @param userId the user ID
+     * @param date the target date
+     * @return the comparable day's aggregation, if any
+     * @throws IllegalArgumentException if the target day has no aggregation
+     */
+    @Transactional(readOnly = true)
+    public Optional<DailyAggregationResponse> findComparableDay(String userId, LocalDate date) {
+        log.debug("Finding comparable day for user {} on {}", userId, date);
+
+        DayType dayType = dailyAggregationRepository
+                .findDayTypeByUserIdAndDate(userId, date)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Daily aggregation not found for user " + userId + " on " + date));
+
+        return dailyAggregationRepository
+                .findComparableResponses(userId, dayType,
+                        date.minusDays(COMPARABLE_DAY_LOOKBACK_DAYS), date.minusDays(1),
+                        PageRequest.of(0, 1))
+                .stream()
+                .findFirst();
     }
 
     /**
@@ -314,12 +484,7 @@ public class DailyAggregationService {
             LocalDate startDate, LocalDate endDate) {
         log.debug("Fetching daily aggregations from {} to {}", startDate, endDate);
 
-        List<DailyAggregation> aggregations = dailyAggregationRepository
-                .findByDateBetweenOrderByDateDesc(startDate, endDate);
-
-        return aggregations.stream()
-                .map(DtoMapper::toDto)
-                .toList();
+        return dailyAggregationRepository.findResponsesByDateBetween(startDate, endDate);
     }
 
     /**
@@ -0,0 +1,266 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.enums.ExportFormat;
+import com.worktime.repository.ActivitySegmentRepository;
+import com.worktime.repository.ActivitySessionRepository;
+import com.worktime.repository.DailyAggregationRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.ObjectMapper;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Service for exporting a user's raw and derived data as CSV, NDJSON or Arrow IPC.
+ *
+ * <p>Rows are read through server-side cursors and written one at a time, each entity
+ * being detached from the persistence context once written, so heap use does not grow
+ * with the size of the export and the first bytes are sent as soon as the query returns.
+ * Sessions of archived months are read from their archive files one month at a time
+ * and merged in start time order. Arrow output is delegated to {@link ArrowExportService}.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DataExportService {
+
+    private static final int FLUSH_INTERVAL_ROWS = 1000;
+
+    private static final List<ExportColumn<ActivitySession>> SESSION_COLUMNS = List.of(
+            new ExportColumn<>("id", ActivitySession::getId),
+            new ExportColumn<>("activityType", ActivitySession::getActivityType),
+            new ExportColumn<>("startTime", ActivitySession::getStartTime),
+            new ExportColumn<>("endTime", ActivitySession::getEndTime),
+            new ExportColumn<>("timezone", ActivitySession::getTimezone),
+            new ExportColumn<>("stepCount", ActivitySession::getStepCount),
+            new ExportColumn<>("caloriesBurned", ActivitySession::getCaloriesBurned),
+            new ExportColumn<>("averageHeartRate", ActivitySession::getAverageHeartRate),
+            new ExportColumn<>("minHeartRate", ActivitySession::getMinHeartRate),
+            new ExportColumn<>("maxHeartRate", ActivitySession::getMaxHeartRate),
+            new ExportColumn<>("exerciseType", ActivitySession::getExerciseType),
+            new ExportColumn<>("exerciseTitle", ActivitySession::getExerciseTitle),
+            new ExportColumn<>("dataSource", ActivitySession::getDataSource),
+            new ExportColumn<>("healthConnectRecordId", ActivitySession::getHealthConnectRecordId),
+            new ExportColumn<>("ingestedAt", ActivitySession::getIngestedAt),
+            new ExportColumn<>("processed", ActivitySession::getProcessed)
+    );
+
+    private static final List<ExportColumn<ActivitySegment>> SEGMENT_COLUMNS = List.of(
+            new ExportColumn<>("id", ActivitySegment::getId),
+            // Reading the id of the lazy session proxy does not load the session
+            new ExportColumn<>("sessionId", segment -> segment.getSession().getId()),
+            new ExportColumn<>("segmentType", ActivitySegment::getSegmentType),
+            new ExportColumn<>("activityDate", ActivitySegment::getActivityDate),
+            new ExportColumn<>("startTime", ActivitySegment::getStartTime),
+            new ExportColumn<>("endTime", ActivitySegment::getEndTime),
+            new ExportColumn<>("durationSeconds", ActivitySegment::getDurationSeconds),
+            new ExportColumn<>("stepCount", ActivitySegment::getStepCount),
+            new ExportColumn<>("caloriesBurned", ActivitySegment::getCaloriesBurned),
+            new ExportColumn<>("averageHeartRate", ActivitySegment::getAverageHeartRate),
+            new ExportColumn<>("minHeartRate", ActivitySegment::getMinHeartRate),
+            new ExportColumn<>("maxHeartRate", ActivitySegment::getMaxHeartRate),
+            new ExportColumn<>("heartRateZoneSeconds", ActivitySegment::getHeartRateZoneSeconds),
+            new ExportColumn<>("attributedStepCount", ActivitySegment::getAttributedStepCount),
+            new ExportColumn<>("attributedCalories", ActivitySegment::getAttributedCalories),
+            new ExportColumn<>("allocationRatio", ActivitySegment::getAllocationRatio),
+            new ExportColumn<>("isSplit", ActivitySegment::getIsSplit)
+    );
+
+    private static final List<ExportColumn<DailyAggregation>> AGGREGATION_COLUMNS = List.of(
+            new ExportColumn<>("date", DailyAggregation::getDate),
+            new ExportColumn<>("dayType", DailyAggregation::getDayType),
+            new ExportColumn<>("workHoursSteps", DailyAggregation::getWorkHoursSteps),
+            new ExportColumn<>("workHoursCalories", DailyAggregation::getWorkHoursCalories),
+            new ExportColumn<>("workHoursActiveMinutes", DailyAggregation::getWorkHoursActiveMinutes),
+            new ExportColumn<>("workHoursAvgHeartRate", DailyAggregation::getWorkHoursAvgHeartRate),
+            new ExportColumn<>("offHoursSteps", DailyAggregation::getOffHoursSteps),
+            new ExportColumn<>("offHoursCalories", DailyAggregation::getOffHoursCalories),
+            new ExportColumn<>("offHoursActiveMinutes", DailyAggregation::getOffHoursActiveMinutes),
+            new ExportColumn<>("offHoursAvgHeartRate", DailyAggregation::getOffHoursAvgHeartRate),
+            new ExportColumn<>("totalSteps", DailyAggregation::getTotalSteps),
+            new ExportColumn<>("totalCalories", DailyAggregation::getTotalCalories),
+            new ExportColumn<>("totalActiveMinutes", DailyAggregation::getTotalActiveMinutes),
+            new ExportColumn<>("sleepDurationSeconds", DailyAggregation::getSleepDurationSeconds),
+            new ExportColumn<>("sleepQualityScore", DailyAggregation::getSleepQualityScore),
+            new ExportColumn<>("heartRateZoneSeconds", DailyAggregation::getHeartRateZoneSeconds),
+            new ExportColumn<>("workHoursSedentaryMinutes", DailyAggregation::getWorkHoursSedentaryMinutes),
+            new ExportColumn<>("longestSedentaryBoutMinutes", DailyAggregation::getLongestSedentaryBoutMinutes),
+            new ExportColumn<>("sedentaryBoutCount", DailyAggregation::getSedentaryBoutCount),
+            new ExportColumn<>("hasCompleteData", DailyAggregation::getHasCompleteData),
+            new ExportColumn<>("anomalous", DailyAggregation::getAnomalous),
+            new ExportColumn<>("anomalyScore", DailyAggregation::getAnomalyScore),
+            new ExportColumn<>("anomalousMetric", DailyAggregation::getAnomalousMetric),
+            new ExportColumn<>("computedAt", DailyAggregation::getComputedAt)
+    );
+
+    private final ActivitySessionRepository activitySessionRepository;
+    private final ActivitySegmentRepository activitySegmentRepository;
+    private final DailyAggregationRepository dailyAggregationRepository;
+    private final ArrowExportService arrowExportService;
+    private final SessionArchiveService sessionArchiveService;
+    private final ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    /**
+     * Export a user's activity sessions starting within a time range, archived months included.
+     *
+     * @param userId the user ID
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @param format the output format
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportSessions(String userId, Instant start, Instant end,
+                               ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting sessions for user {} from {} to {} as {}", userId, start, end, format);
+
+        try (Stream<ActivitySession> rows = sessionArchiveService.withArchivedSessions(userId, start, end,
+                activitySessionRepository.streamByUserIdAndStartTimeRange(userId, start, end))) {
+            return format == ExportFormat.ARROW
+                    ? arrowExportService.writeSessions(rows, out)
+                    : write(rows, SESSION_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Export a user's activity segments within a date range.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @param format the output format
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportSegments(String userId, LocalDate startDate, LocalDate endDate,
+                               ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting segments for user {} from {} to {} as {}", userId, startDate, endDate, format);
+
+        try (Stream<ActivitySegment> rows = activitySegmentRepository
+                .streamByUserIdAndActivityDateBetween(userId, startDate, endDate)) {
+            return format == ExportFormat.ARROW
+                    ? arrowExportService.writeSegments(rows, out)
+                    : write(rows, SEGMENT_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Export a user's daily aggregations within a date range.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @param format the output format
+     * @param out the stream to write to (not closed)
+     * @return the number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportAggregations(String userId, LocalDate startDate, LocalDate endDate,
+                                   ExportFormat format, OutputStream out) throws IOException {
+        log.info("Exporting daily aggregations for user {} from {} to {} as {}",
+                userId, startDate, endDate, format);
+
+        try (Stream<DailyAggregation> rows = dailyAggregationRepository
+                .streamByUserIdAndDateBetween(userId, startDate, endDate)) {
+            return format == ExportFormat.ARROW
+                    ? arrowExportService.writeAggregations(rows, out)
+                    : write(rows, AGGREGATION_COLUMNS, format, out);
+        }
+    }
+
+    /**
+     * Write rows as CSV or NDJSON one at a time, detaching each entity once written.
+     */
+    private <T> long write(Stream<T> rows, List<ExportColumn<T>> columns,
+                           ExportFormat format, OutputStream out) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+
+        if (format == ExportFormat.CSV) {
+            writer.write(columns.stream().map(ExportColumn::name).collect(Collectors.joining(",")));
+            writer.write('\n');
+        }
+        writer.flush();
+
+        long count = 0;
+        for (T row : (Iterable<T>) rows::iterator) {
+            switch (format) {
+                case CSV -> writeCsvRow(writer, row, columns);
+                case NDJSON -> writeJsonRow(writer, row, columns);
+            }
+            entityManager.detach(row);
+
+            if (++count % FLUSH_INTERVAL_ROWS == 0) {
+                writer.flush();
+            }
+        }
+
+        writer.flush();
+        log.info("Exported {} rows as {}", count, format);
+        return count;
+    }
+
+    private <T> void writeCsvRow(Writer writer, T row, List<ExportColumn<T>> columns) throws IOException {
+        for (int i = 0; i < columns.size(); i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            Object value = columns.get(i).value().apply(row);
+            if (value != null) {
+                writer.write(csvField(value instanceof int[] array
+                        ? Arrays.stream(array).mapToObj(String::valueOf).collect(Collectors.joining(";"))
+                        : value.toString()));
+            }
+        }
+        writer.write('\n');
+    }
+
+    private <T> void writeJsonRow(Writer writer, T row, List<ExportColumn<T>> columns) throws IOException {
+        Map<String, Object> values = new LinkedHashMap<>();
+        for (ExportColumn<T> column : columns) {
+            Object value = column.value().apply(row);
+            // Keep numbers, booleans and arrays native; render everything else as its string form
+            values.put(column.name(), value == null || value instanceof Number
+                    || value instanceof Boolean || value instanceof int[] ? value : value.toString());
+        }
+        writer.write(objectMapper.writeValueAsString(values));
+        writer.write('\n');
+    }
+
+    /**
+     * Quote a CSV field if it contains a delimiter, quote or line break.
+     */
+    private String csvField(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0
+                && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    private record ExportColumn<T>(String name, Function<T, Object> value) {}
+}
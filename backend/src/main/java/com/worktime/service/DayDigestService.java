@@ -0,0 +1,139 @@
+package com.worktime.service;
+
+import com.worktime.dto.daydigest.DayDigestResponse;
+import com.worktime.model.ActivitySession;
+import com.worktime.repository.DayDigestRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Service maintaining per-day session digests for client reconciliation.
+ *
+ * <p>Each stored session toggles its hash into the digest of its day, and a soft delete
+ * toggles it out again. The client computes the same digest over the records it holds
+ * for each day, compares against {@link #getDigests} and re-uploads only the days that
+ * differ.
+ *
+ * <p>Hash of a record ID: the first 8 bytes (big-endian) of the SHA-256 of its UTF-8
+ * bytes. Sessions without a record ID count towards the session count only.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DayDigestService {
+
+    private final DayDigestRepository dayDigestRepository;
+
+    /**
+     * Add a newly stored session to its day digest.
+     *
+     * @param session the stored session
+     */
+    @Transactional
+    public void recordAdded(ActivitySession session) {
+        toggle(session, 1);
+    }
+
+    /**
+     * Remove a soft-deleted session from its day digest.
+     *
+     * @param session the deleted session
+     */
+    @Transactional
+    public void recordRemoved(ActivitySession session) {
+        toggle(session, -1);
+    }
+
+    /**
+     * Remove bulk soft-deleted sessions from their day digests, toggling each day once.
+     *
+     * @param userId the user ID
+     * @param sessions the deleted sessions
+     */
+    @Transactional
+    public void recordRemoved(String userId, List<DigestEntry> sessions) {
+        Map<LocalDate, long[]> deltasByDate = new TreeMap<>();
+        for (DigestEntry session : sessions) {
+            long[] delta = deltasByDate.computeIfAbsent(dayOf(session.startTime(), session.zone()),
+                    date -> new long[2]);
+            delta[0]--;
+            delta[1] ^= hashOf(session.recordId());
+        }
+        Instant now = Instant.now();
+        deltasByDate.forEach((date, delta) -> dayDigestRepository.toggle(userId, date, delta[0], delta[1], now));
+    }
+
+    /**
+     * Get the digests of a user's days within a date range.
+     * Days without sessions are omitted; clients treat them as count 0 and digest 0.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @return list of day digests ordered by date
+     * @throws IllegalArgumentException if the end date is before the start date
+     */
+    @Transactional(readOnly = true)
+    public List<DayDigestResponse> getDigests(String userId, LocalDate startDate, LocalDate endDate) {
+        if (endDate.isBefore(startDate)) {
+            throw new IllegalArgumentException("End date must not be before start date");
+        }
+        log.debug("Fetching day digests for user {} from {} to {}", userId, startDate, endDate);
+
+        return dayDigestRepository.findResponsesByUserIdAndDateBetween(userId, startDate, endDate);
+    }
+
+    /**
+     * Hash a Health Connect record ID for the day digest.
+     *
+     * @param recordId the record ID, or null
+     * @return the 64-bit hash, 0 for a null ID
+     */
+    public static long hashOf(String recordId) {
+        if (recordId == null) {
+            return 0L;
+        }
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(recordId.getBytes(StandardCharsets.UTF_8));
+            return ByteBuffer.wrap(sha, 0, Long.BYTES).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private void toggle(ActivitySession session, long countDelta) {
+        LocalDate date = dayOf(session.getStartTime(), session.getZoneId());
+        dayDigestRepository.toggle(session.getUserId(), date, countDelta,
+                hashOf(session.getHealthConnectRecordId()), Instant.now());
+    }
+
+    // The day of a session is the local date of its start
+    private static LocalDate dayOf(Instant startTime, ZoneId zone) {
+        return startTime.atZone(zone).toLocalDate();
+    }
+
+    /**
+     * A session toggled out of its day digest.
+     *
+     * @param startTime the session start
+     * @param zone the session's timezone
+     * @param recordId the Health Connect record ID, or null
+     */
+    public record DigestEntry(Instant startTime, ZoneId zone, String recordId) {}
+}
@@ -0,0 +1,213 @@
+package com.worktime.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Service mapping repeated strings of the hot tables (timezones, data sources) to
+ * smallint ids in small dictionary tables.
+ *
+ * <p>Both directions are cached in memory. An unknown name is validated and inserted
+ * on first use in the caller's transaction, and its id is cached only once that transaction
+ * commits. Uses plain JDBC because it is called from JPA attribute converters
+ * while the persistence context is flushing.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DictionaryService {
+
+    /**
+     * Dictionary tables, each with a smallint identity id and a unique name.
+     */
+    public enum Dictionary {
+        TIMEZONES("timezones"),
+        DATA_SOURCES("data_sources");
+
+        private final String table;
+
+        Dictionary(String table) {
+            this.table = table;
+        }
+    }
+
+    // Region IDs; ZoneId.getAvailableZoneIds copies the set on every call
+    private static final Set<String> REGION_IDS = Set.copyOf(ZoneId.getAvailableZoneIds());
+
+    private static final Pattern DATA_SOURCE_NAME = Pattern.compile("[\\p{L}\\p{N}][\\p{L}\\p{N} ._()-]*");
+    private static final int MAX_DATA_SOURCE_LENGTH = 100;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Value("${worktime.dictionaries.max-data-sources:1000}")
+    private int maxDataSources;
+
+    private final Map<Dictionary, Map<String, Short>> idsByName = new EnumMap<>(Map.of(
+            Dictionary.TIMEZONES, new ConcurrentHashMap<>(),
+            Dictionary.DATA_SOURCES, new ConcurrentHashMap<>()));
+
+    private final Map<Dictionary, Map<Short, String>> namesById = new EnumMap<>(Map.of(
+            Dictionary.TIMEZONES, new ConcurrentHashMap<>(),
+            Dictionary.DATA_SOURCES, new ConcurrentHashMap<>()));
+
+    /**
+     * Get the id of a name, adding the name to the dictionary if it is new.
+     *
+     * @param dictionary the dictionary
+     * @param name the name
+     * @return the id
+     * @throws IllegalArgumentException if the name is new and not accepted
+     */
+    public short idOf(Dictionary dictionary, String name) {
+        Short cached = idsByName.get(dictionary).get(name);
+        if (cached != null) {
+            return cached;
+        }
+        // Names stored before validation existed keep their ids
+        Optional<Short> existing = findId(dictionary, name);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        String stored = validateName(dictionary, name);
+        jdbcTemplate.update("INSERT INTO " + dictionary.table + " (name) VALUES (?) ON CONFLICT (name) DO NOTHING",
+                stored);
+        Short id = jdbcTemplate.queryForObject("SELECT id FROM " + dictionary.table + " WHERE name = ?",
+                Short.class, stored);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    remember(dictionary, id, stored);
+                    idsByName.get(dictionary).put(name, id);
+                }
+            });
+        } else {
+            remember(dictionary, id, stored);
+            idsByName.get(dictionary).put(name, id);
+        }
+        return id;
+    }
+
+    /**
+     * Check that a name may be added to a dictionary, and get the form it is stored in.
+     * Timezones must be zone IDs and are stored as region IDs or whole-minute offsets,
+     * so spellings of one offset share an entry. Data sources must look like app names,
+     * and their number is capped, since ids are smallints. Call it before saving: the
+     * attribute converters would only fail while flushing.
+     *
+     * @param dictionary the dictionary
+     * @param name the name
+     * @return the name as stored
+     * @throws IllegalArgumentException if the name is not accepted
+     */
+    public String validateName(Dictionary dictionary, String name) {
+        if (name == null) {
+            throw new IllegalArgumentException(dictionary + " name must not be null");
+        }
+        return switch (dictionary) {
+            case TIMEZONES -> timezoneName(name);
+            case DATA_SOURCES -> dataSourceName(name);
+        };
+    }
+
+    /**
+     * Find the id of a name without adding it to the dictionary.
+     *
+     * @param dictionary the dictionary
+     * @param name the name
+     * @return optional containing the id, empty if the name was never stored
+     */
+    public Optional<Short> findId(Dictionary dictionary, String name) {
+        Short cached = idsByName.get(dictionary).get(name);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+
+        List<Short> ids = jdbcTemplate.queryForList("SELECT id FROM " + dictionary.table + " WHERE name = ?",
+                Short.class, name);
+        ids.forEach(id -> remember(dictionary, id, name));
+        return ids.stream().findFirst();
+    }
+
+    /**
+     * Get the name of an id.
+     *
+     * @param dictionary the dictionary
+     * @param id the id
+     * @return the name
+     * @throws IllegalStateException if the id is not in the dictionary
+     */
+    public String nameOf(Dictionary dictionary, short id) {
+        String cached = namesById.get(dictionary).get(id);
+        if (cached != null) {
+            return cached;
+        }
+
+        // Dictionaries are tiny; load them whole instead of one id at a time
+        jdbcTemplate.query("SELECT id, name FROM " + dictionary.table, row -> {
+            namesById.get(dictionary).put(row.getShort("id"), row.getString("name"));
+        });
+        log.debug("Loaded {} entries of dictionary {}", namesById.get(dictionary).size(), dictionary);
+
+        String name = namesById.get(dictionary).get(id);
+        if (name == null) {
+            throw new IllegalStateException("Unknown " + dictionary + " id: " + id);
+        }
+        return name;
+    }
+
+    private String timezoneName(String name) {
+        ZoneId zone;
+        try {
+            zone = ZoneId.of(name);
+        } catch (DateTimeException e) {
+            throw new IllegalArgumentException("Unknown timezone: " + name, e);
+        }
+        if (REGION_IDS.contains(zone.getId())) {
+            return zone.getId();
+        }
+        if (zone.normalized() instanceof ZoneOffset offset && offset.getTotalSeconds() % 60 == 0) {
+            return offset.getId();
+        }
+        throw new IllegalArgumentException("Unsupported timezone: " + name);
+    }
+
+    private String dataSourceName(String name) {
+        if (name.length() > MAX_DATA_SOURCE_LENGTH || !DATA_SOURCE_NAME.matcher(name).matches()) {
+            throw new IllegalArgumentException("Invalid data source: " + name);
+        }
+        if (findId(Dictionary.DATA_SOURCES, name).isEmpty()) {
+            Integer count = jdbcTemplate.queryForObject("SELECT count(*) FROM data_sources", Integer.class);
+            if (count != null && count >= maxDataSources) {
+                throw new IllegalArgumentException("Too many data sources; " + name + " cannot be added");
+            }
+        }
+        return name;
+    }
+
+    private void remember(Dictionary dictionary, short id, String name) {
+        idsByName.get(dictionary).put(name, id);
+        namesById.get(dictionary).put(id, name);
+    }
+}
@@ -0,0 +1,124 @@
+package com.worktime.service;
+
+import com.worktime.model.DirtyDay;
+import com.worktime.repository.DirtyDayRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Service queueing days whose daily aggregation is stale and recomputing them in
+ * the background.
+ *
+ * <p>Days are marked in the transaction that changes their data, so a committed
+ * change always has its day queued. Each day is recomputed once however many times
+ * it was marked, in its own transaction on its user's lane, while its queue row stays
+ * locked; a day that fails is moved to the back of the queue and retried by the next run.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DirtyDayService {
+
+    private final DirtyDayRepository dirtyDayRepository;
+    private final DailyAggregationService dailyAggregationService;
+    private final PlatformTransactionManager transactionManager;
+    private final UserLaneService userLaneService;
+
+    @Value("${worktime.dirty-days.batch-size:200}")
+    private int batchSize;
+
+    /**
+     * Mark a user's days for re-aggregation.
+     *
+     * @param userId the user ID
+     * @param dates the days
+     */
+    @Transactional
+    public void markDirty(String userId, Collection<LocalDate> dates) {
+        Instant now = Instant.now();
+        for (LocalDate date : dates) {
+            dirtyDayRepository.mark(userId, date, now);
+        }
+        log.debug("Marked {} days of user {} for re-aggregation", dates.size(), userId);
+    }
+
+    /**
+     * Recompute queued days of a user right away, each once, instead of waiting for
+     * the background drain. Days being drained concurrently are left to the drain.
+     *
+     * @param userId the user ID
+     * @param dates the days
+     * @return the number of days recomputed
+     */
+    public int recomputeNow(String userId, Collection<LocalDate> dates) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        return userLaneService.call(userId, () -> {
+            int recomputed = 0;
+            for (LocalDate date : dates) {
+                Boolean done = transaction.execute(status -> dirtyDayRepository.claim(userId, date)
+                        .map(day -> {
+                            dailyAggregationService.computeDailyAggregation(userId, date);
+                            dirtyDayRepository.delete(day);
+                            return true;
+                        })
+                        .orElse(false));
+                if (Boolean.TRUE.equals(done)) {
+                    recomputed++;
+                }
+            }
+            return recomputed;
+        });
+    }
+
+    /**
+     * Recompute up to one batch of queued days, oldest mark first.
+     *
+     * @return the number of days recomputed
+     */
+    @Scheduled(fixedDelayString = "${worktime.dirty-days.drain-delay:PT1M}")
+    public int drain() {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        int recomputed = 0;
+
+        for (int attempt = 0; attempt < batchSize; attempt++) {
+            // Only picks the day; it is claimed again on its user's lane
+            Optional<DirtyDay> next = transaction.execute(status -> dirtyDayRepository.claimNext());
+            if (next == null || next.isEmpty()) {
+                break;
+            }
+
+            DirtyDay day = next.get();
+            try {
+                recomputed += recomputeNow(day.getUserId(), List.of(day.getDate()));
+            } catch (RuntimeException e) {
+                log.error("Failed to re-aggregate {} of user {}: {}",
+                        day.getDate(), day.getUserId(), e.getMessage(), e);
+                // Move the day to the back of the queue so it does not block the others
+                transaction.executeWithoutResult(status ->
+                        dirtyDayRepository.mark(day.getUserId(), day.getDate(), Instant.now()));
+                break;
+            }
+        }
+
+        if (recomputed > 0) {
+            log.info("Re-aggregated {} dirty days", recomputed);
+        }
+        return recomputed;
+    }
+}
@@ -0,0 +1,140 @@
+package com.worktime.service;
+
+import com.worktime.dto.heartratezone.HeartRateZoneConfigRequest;
+import com.worktime.dto.heartratezone.HeartRateZoneConfigResponse;
+import com.worktime.model.HeartRateZoneConfig;
+import com.worktime.repository.HeartRateZoneConfigRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Service for managing per-user heart rate zones.
+ *
+ * <p>Zones are derived from the user's maximum heart rate and a set of percentage
+ * lower bounds. Users without a stored configuration get the default zones
+ * (50/60/70/80/90 % of 190 bpm).
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class HeartRateZoneService {
+
+    private final HeartRateZoneConfigRepository heartRateZoneConfigRepository;
+
+    /**
+     * Resolve the heart rate zones of a user.
+     *
+     * @param userId the user ID
+     * @return the user's zones, or the default zones if none are configured
+     */
+    @Transactional(readOnly = true)
+    public HeartRateZones zonesFor(String userId) {
+        return heartRateZoneConfigRepository.findByUserId(userId)
+                .map(config -> HeartRateZones.of(config.getMaxHeartRate(), config.getZoneLowerPercents()))
+                .orElseGet(HeartRateZones::defaults);
+    }
+
+    /**
+     * Get the heart rate zone configuration of a user.
+     *
+     * @param userId the user ID
+     * @return the configuration response (defaults if not configured)
+     */
+    @Transactional(readOnly = true)
+    public HeartRateZoneConfigResponse getZoneConfig(String userId) {
+        log.debug("Fetching heart rate zone config for user {}", userId);
+
+        return heartRateZoneConfigRepository.findByUserId(userId)
+                .map(config -> toResponse(userId, config.getMaxHeartRate(), config.getZoneLowerPercents(), false))
+                .orElseGet(() -> toResponse(userId, HeartRateZoneConfig.DEFAULT_MAX_HEART_RATE,
+                        HeartRateZoneConfig.DEFAULT_ZONE_LOWER_PERCENTS, true));
+    }
+
+    /**
+     * Create or replace the heart rate zone configuration of a user.
+     * Only sessions split after the change use the new zones.
+     *
+     * @param request the configuration request
+     * @return the saved configuration response
+     * @throws IllegalArgumentException if the percentages are not strictly ascending within 1-100
+     */
+    @Transactional
+    public HeartRateZoneConfigResponse saveZoneConfig(HeartRateZoneConfigRequest request) {
+        log.info("Saving heart rate zone config for user {} (max HR: {})",
+                request.userId(), request.maxHeartRate());
+
+        validatePercents(request.zoneLowerPercents());
+
+        HeartRateZoneConfig config = heartRateZoneConfigRepository.findByUserId(request.userId())
+                .orElseGet(() -> HeartRateZoneConfig.builder()
+                        .userId(request.userId())
+                        .build());
+
+        config.setMaxHeartRate(request.maxHeartRate());
+        config.setZoneLowerPercents(request.zoneLowerPercents().clone());
+
+        HeartRateZoneConfig saved = heartRateZoneConfigRepository.save(config);
+
+        return toResponse(saved.getUserId(), saved.getMaxHeartRate(), saved.getZoneLowerPercents(), false);
+    }
+
+    private void validatePercents(int[] percents) {
+        int previous = 0;
+        for (int percent : percents) {
+            if (percent <= previous || percent > 100) {
+                throw new IllegalArgumentException(
+                        "Zone lower percents must be strictly ascending and within 1-100");
+            }
+            previous = percent;
+        }
+    }
+
+    private HeartRateZoneConfigResponse toResponse(
+            String userId, int maxHeartRate, int[] percents, boolean isDefault) {
+        return HeartRateZoneConfigResponse.builder()
+                .userId(userId)
+                .maxHeartRate(maxHeartRate)
+                .zoneLowerPercents(percents.clone())
+                .zoneLowerBoundsBpm(HeartRateZones.of(maxHeartRate, percents).lowerBoundsBpm())
+                .isDefault(isDefault)
+                .build();
+    }
+
+    /**
+     * Resolved heart rate zones as lower bounds in beats per minute.
+     */
+    public record HeartRateZones(int[] lowerBoundsBpm) {
+
+        static HeartRateZones of(int maxHeartRate, int[] lowerPercents) {
+            int[] bounds = new int[lowerPercents.length];
+            for (int i = 0; i < lowerPercents.length; i++) {
+                bounds[i] = (int) Math.round(maxHeartRate * lowerPercents[i] / 100.0);
+            }
+            return new HeartRateZones(bounds);
+        }
+
+        static HeartRateZones defaults() {
+            return of(HeartRateZoneConfig.DEFAULT_MAX_HEART_RATE, HeartRateZoneConfig.DEFAULT_ZONE_LOWER_PERCENTS);
+        }
+
+        /**
+         * Get the zone index of a heart rate.
+         *
+         * @param bpm the heart rate in beats per minute
+         * @return zone index (0-based), or -1 if below the first zone
+         */
+        public int zoneOf(int bpm) {
+            for (int zone = lowerBoundsBpm.length - 1; zone >= 0; zone--) {
+                if (bpm >= lowerBoundsBpm[zone]) {
+                    return zone;
+                }
+            }
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,157 @@
+package com.worktime.service;
+
+import com.worktime.dto.distribution.MetricPercentilesResponse;
+import com.worktime.model.DailyAggregation;
+import com.worktime.model.MetricSketch;
+import com.worktime.model.enums.AggregationMetric;
+import com.worktime.model.enums.AnalyticsWindow;
+import com.worktime.model.enums.DayType;
+import com.worktime.repository.DailyAggregationRepository;
+import com.worktime.repository.MetricSketchRepository;
+import com.worktime.shared.QuantileSketch;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Service maintaining per-user metric distributions as quantile sketches.
+ *
+ * <p>Every computed daily aggregation updates the sketches of its day type in two
+ * buckets: its calendar month and the all-time bucket. A recomputed day first retracts
+ * its previous value (from its previous day type), so sketches stay exact under
+ * recomputation. Percentile queries merge at most 13 monthly buckets and never
+ * read the daily aggregations of the window.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MetricDistributionService implements DailyAggregationListener {
+
+    private static final double[] REPORTED_QUANTILES = {0.10, 0.50, 0.90};
+
+    private final MetricSketchRepository metricSketchRepository;
+    private final DailyAggregationRepository dailyAggregationRepository;
+
+    @Override
+    public void onAggregationComputed(DailyAggregation previous, DailyAggregation current) {
+        Map<SketchKey, LoadedSketch> touched = new HashMap<>();
+
+        for (AggregationMetric metric : AggregationMetric.values()) {
+            if (previous != null) {
+                Double oldValue = metric.extract(previous);
+                if (oldValue != null) {
+                    for (String period : bucketsOf(previous.getDate())) {
+                        load(touched, previous.getUserId(), metric, previous.getDayType(), period)
+                                .sketch().remove(oldValue);
+                    }
+                }
+            }
+
+            Double newValue = metric.extract(current);
+            if (newValue != null) {
+                for (String period : bucketsOf(current.getDate())) {
+                    load(touched, current.getUserId(), metric, current.getDayType(), period)
+                            .sketch().add(newValue);
+                }
+            }
+        }
+
+        for (LoadedSketch loaded : touched.values()) {
+            loaded.entity().setSketch(loaded.sketch().toBytes());
+            loaded.entity().setSampleCount(loaded.sketch().count());
+            metricSketchRepository.save(loaded.entity());
+        }
+
+        log.debug("Updated {} metric sketches for user {} on {}",
+                touched.size(), current.getUserId(), current.getDate());
+    }
+
+    /**
+     * Get the percentile ranks of a day's metrics among days of the same day type.
+     *
+     * @param userId the user ID
+     * @param date the date to rank
+     * @param window the look-back window
+     * @return the percentile ranks and distribution summary per metric
+     * @throws IllegalArgumentException if the day has no aggregation
+     */
+    @Transactional(readOnly = true)
+    public MetricPercentilesResponse getPercentiles(String userId, LocalDate date, AnalyticsWindow window) {
+        log.debug("Ranking metrics for user {} on {} (window: {})", userId, date, window);
+
+        DailyAggregation day = dailyAggregationRepository.findByUserIdAndDate(userId, date)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Daily aggregation not found for user " + userId + " on " + date));
+
+        Map<AggregationMetric, QuantileSketch> merged = new EnumMap<>(AggregationMetric.class);
+        for (MetricSketch bucket : metricSketchRepository.findByUserIdAndDayTypeAndPeriodIn(
+                userId, day.getDayType(), window.periodsEndingAt(date))) {
+            merged.computeIfAbsent(bucket.getMetric(), metric -> new QuantileSketch())
+                    .merge(QuantileSketch.fromBytes(bucket.getSketch()));
+        }
+
+        List<MetricPercentilesResponse.MetricPercentile> metrics = new ArrayList<>();
+        for (AggregationMetric metric : AggregationMetric.values()) {
+            QuantileSketch sketch = merged.getOrDefault(metric, new QuantileSketch());
+            Double value = metric.extract(day);
+            Double rank = value != null ? sketch.rank(value) : null;
+
+            metrics.add(MetricPercentilesResponse.MetricPercentile.builder()
+                    .metric(metric)
+                    .value(value)
+                    .percentileRank(rank != null ? rank * 100.0 : null)
+                    .p10(sketch.quantile(REPORTED_QUANTILES[0]))
+                    .p50(sketch.quantile(REPORTED_QUANTILES[1]))
+                    .p90(sketch.quantile(REPORTED_QUANTILES[2]))
+                    .sampleCount(sketch.count())
+                    .build());
+        }
+
+        return MetricPercentilesResponse.builder()
+                .userId(userId)
+                .date(date)
+                .dayType(day.getDayType())
+                .window(window)
+                .metrics(metrics)
+                .build();
+    }
+
+    /**
+     * Get the bucket keys a day contributes to.
+     */
+    private List<String> bucketsOf(LocalDate date) {
+        return List.of(AnalyticsWindow.ALL_TIME_PERIOD, AnalyticsWindow.periodOf(date));
+    }
+
+    /**
+     * Load (or create) a sketch bucket, reusing buckets already loaded in this update.
+     */
+    private LoadedSketch load(Map<SketchKey, LoadedSketch> touched, String userId,
+                              AggregationMetric metric, DayType dayType, String period) {
+        return touched.computeIfAbsent(new SketchKey(metric, dayType, period), key -> {
+            MetricSketch entity = metricSketchRepository
+                    .findByUserIdAndMetricAndDayTypeAndPeriod(userId, metric, dayType, period)
+                    .orElseGet(() -> MetricSketch.builder()
+                            .userId(userId)
+                            .metric(metric)
+                            .dayType(dayType)
+                            .period(period)
+                            .build());
+            QuantileSketch sketch = entity.getSketch() != null
+                    ? QuantileSketch.fromBytes(entity.getSketch())
+                    : new QuantileSketch();
+            return new LoadedSketch(entity, sketch);
+        });
+    }
+
+    private record SketchKey(AggregationMetric metric, DayType dayType, String period) {}
+
+    private record LoadedSketch(MetricSketch entity, QuantileSketch sketch) {}
+}
@@ -0,0 +1,291 @@
+package com.worktime.service;
+
+import com.worktime.dto.minutebitmap.DayMinuteSummaryResponse;
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.DayMinuteBitmap;
+import com.worktime.model.enums.TimeSegmentType;
+import com.worktime.repository.DayMinuteBitmapRepository;
+import com.worktime.service.StepCompactionService.RollupShare;
+import com.worktime.shared.MinuteBitmap;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+
+/**
+ * Service maintaining per-day minute bitmaps of activity and data coverage.
+ *
+ * <p>Runs as a stage after session splitting. Every segment marks the local minutes it
+ * touches in the coverage bitmap of its day; segments of step and exercise sessions also
+ * mark the activity bitmap, and work-hours segments the work-hours activity bitmap.
+ * Bitmaps are OR-ed together, so overlapping sessions count once and active minutes are
+ * a popcount. Splits only OR in minutes; when a day is re-aggregated its bitmaps are
+ * rebuilt from the live segments and rollups, so removed sessions drop out. A day has
+ * complete data when no uncovered stretch exceeds {@code worktime.coverage.max-gap}.
+ *
+ * <p>The scheduled work hours of each day are kept as a fourth bitmap. Work minutes
+ * without activity are sedentary; run-length scanning yields the longest sedentary bout
+ * and the number of bouts of at least {@code worktime.sedentary.min-bout}.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MinuteBitmapService {
+
+    private final DayMinuteBitmapRepository dayMinuteBitmapRepository;
+    private final SessionSplitterService sessionSplitterService;
+
+    @Value("${worktime.coverage.max-gap:PT4H}")
+    private Duration maxCoverageGap;
+
+    @Value("${worktime.sedentary.min-bout:PT60M}")
+    private Duration minSedentaryBout;
+
+    /**
+     * Record the segments of a split session into the bitmaps of their days.
+     *
+     * @param session the split session
+     * @param segments the segments produced for the session
+     */
+    @Transactional
+    public void recordSegments(ActivitySession session, List<ActivitySegment> segments) {
+        ZoneId zone = session.getZoneId();
+        boolean active = isActive(session);
+
+        Map<LocalDate, DayBitmaps> bitmapsByDate = new TreeMap<>();
+        for (ActivitySegment segment : segments) {
+            LocalDate date = segment.getActivityDate();
+            DayBitmaps day = bitmapsByDate.computeIfAbsent(date, d -> newDay(session.getUserId(), d, zone));
+            mark(day, date.atStartOfDay(zone).toInstant(), segment.getStartTime(), segment.getEndTime(),
+                    active, segment.getSegmentType());
+        }
+
+        bitmapsByDate.forEach((date, day) -> applyToDay(session.getUserId(), date, day));
+
+        log.debug("Recorded {} segments of session {} into minute bitmaps ({} days)",
+                segments.size(), session.getId(), bitmapsByDate.size());
+    }
+
+    /**
+     * Rebuild the bitmaps of a day from its live segments and rollup shares, replacing what
+     * earlier splits OR-ed in. Minutes of deleted, purged or resplit sessions and the
+     * work hours of an old schedule are dropped; a day left without data loses its bitmaps.
+     * Work hours are placed in the zone of the day's earliest session.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @param segments the day's live segments
+     * @param shares the sessions' shares of the day's step rollups
+     * @param sessions the sessions of the day by ID, archived ones included
+     */
+    @Transactional
+    public void rebuildDay(String userId, LocalDate date, List<ActivitySegment> segments,
+                           List<RollupShare> shares, Map<UUID, ActivitySession> sessions) {
+        Optional<DayMinuteBitmap> stored = dayMinuteBitmapRepository.findByUserIdAndDate(userId, date);
+        Optional<ZoneId> dayZone = sessions.values().stream()
+                .min(Comparator.comparing(ActivitySession::getStartTime).thenComparing(ActivitySession::getId))
+                .map(ActivitySession::getZoneId);
+        if ((segments.isEmpty() && shares.isEmpty()) || dayZone.isEmpty()) {
+            stored.ifPresent(dayMinuteBitmapRepository::delete);
+            return;
+        }
+
+        DayBitmaps day = newDay(userId, date, dayZone.get());
+        for (ActivitySegment segment : segments) {
+            ActivitySession session = sessions.get(segment.getSession().getId());
+            if (session == null) {
+                log.warn("Session of segment {} not found. Skipping.", segment.getId());
+                continue;
+            }
+            mark(day, date.atStartOfDay(session.getZoneId()).toInstant(), segment.getStartTime(),
+                    segment.getEndTime(), isActive(session), segment.getSegmentType());
+        }
+        // Each share marks the minutes its session's compacted segments covered
+        for (RollupShare share : shares) {
+            Instant midnight = date.atStartOfDay(share.session().getZoneId()).toInstant();
+            Instant bucketStart = share.rollup().getBucketStart();
+            long minuteMask = share.minuteMask();
+            while (minuteMask != 0) {
+                int from = Long.numberOfTrailingZeros(minuteMask);
+                int to = from + Long.numberOfTrailingZeros(~(minuteMask >>> from));
+                mark(day, midnight, bucketStart.plus(Duration.ofMinutes(from)),
+                        bucketStart.plus(Duration.ofMinutes(to)), isActive(share.session()),
+                        share.rollup().getSegmentType());
+                minuteMask = to == Long.SIZE ? 0 : minuteMask & (-1L << to);
+            }
+        }
+
+        DayMinuteBitmap entity = stored.orElseGet(() -> DayMinuteBitmap.builder()
+                .userId(userId)
+                .date(date)
+                .build());
+        entity.setActivityMinutes(day.activity().toBytes());
+        entity.setWorkActivityMinutes(day.workActivity().toBytes());
+        entity.setWorkMinutes(day.work().toBytes());
+        entity.setCoverageMinutes(day.coverage().toBytes());
+        dayMinuteBitmapRepository.save(entity);
+
+        log.debug("Rebuilt minute bitmaps of user {} on {} from {} segments and {} rollup shares",
+                userId, date, segments.size(), shares.size());
+    }
+
+    /**
+     * Summarize the minute bitmaps of a day.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @return the summary, or empty if no session touched the day
+     */
+    @Transactional(readOnly = true)
+    public Optional<DayMinuteSummaryResponse> summarize(String userId, LocalDate date) {
+        return dayMinuteBitmapRepository.findByUserIdAndDate(userId, date)
+                .map(this::toSummary);
+    }
+
+    /**
+     * Get the minute summary and bitmaps of a day.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @return the summary response
+     * @throws IllegalArgumentException if no session touched the day
+     */
+    @Transactional(readOnly = true)
+    public DayMinuteSummaryResponse getDaySummary(String userId, LocalDate date) {
+        log.debug("Fetching minute bitmaps for user {} on {}", userId, date);
+
+        return summarize(userId, date)
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Minute bitmaps not found for user " + userId + " on " + date));
+    }
+
+    private DayMinuteSummaryResponse toSummary(DayMinuteBitmap entity) {
+        MinuteBitmap activity = MinuteBitmap.fromBytes(entity.getActivityMinutes());
+        MinuteBitmap workActivity = MinuteBitmap.fromBytes(entity.getWorkActivityMinutes());
+        MinuteBitmap coverage = MinuteBitmap.fromBytes(entity.getCoverageMinutes());
+        int longestGap = coverage.longestGap(0, MinuteBitmap.MINUTES_PER_DAY);
+
+        // Sedentary: scheduled work minutes without steps or exercise
+        MinuteBitmap sedentary = MinuteBitmap.fromBytes(entity.getWorkMinutes()).andNot(activity);
+        List<Integer> bouts = sedentary.runLengths();
+        long minBoutMinutes = minSedentaryBout.toMinutes();
+
+        return DayMinuteSummaryResponse.builder()
+                .userId(entity.getUserId())
+                .date(entity.getDate())
+                .activeMinutes(activity.cardinality())
+                .workHoursActiveMinutes(workActivity.cardinality())
+                .coveredMinutes(coverage.cardinality())
+                .longestGapMinutes(longestGap)
+                .hasCompleteData(longestGap <= maxCoverageGap.toMinutes())
+                .workHoursSedentaryMinutes(sedentary.cardinality())
+                .longestSedentaryBoutMinutes(bouts.stream().mapToInt(Integer::intValue).max().orElse(0))
+                .sedentaryBoutCount((int) bouts.stream().filter(length -> length >= minBoutMinutes).count())
+                .activityBitmap(entity.getActivityMinutes())
+                .coverageBitmap(entity.getCoverageMinutes())
+                .build();
+    }
+
+    /**
+     * Create the bitmaps of a day, with the work hours of its schedule set.
+     */
+    private DayBitmaps newDay(String userId, LocalDate date, ZoneId zone) {
+        DayBitmaps day = new DayBitmaps();
+        Instant midnight = date.atStartOfDay(zone).toInstant();
+        sessionSplitterService.getWorkHoursForDate(userId, date, zone)
+                .ifPresent(work -> day.work().set(
+                        minuteFloor(midnight, work.startTime().toInstant()),
+                        minuteCeiling(midnight, work.endTime().toInstant())));
+        return day;
+    }
+
+    /**
+     * Mark the local minutes of a time range in the bitmaps of its day.
+     */
+    private void mark(DayBitmaps day, Instant midnight, Instant start, Instant end,
+                      boolean active, TimeSegmentType segmentType) {
+        int fromMinute = minuteFloor(midnight, start);
+        // Instantaneous records still mark the minute they fall in
+        int toMinute = Math.max(minuteCeiling(midnight, end), fromMinute + 1);
+
+        day.coverage().set(fromMinute, toMinute);
+        if (active) {
+            day.activity().set(fromMinute, toMinute);
+            if (segmentType == TimeSegmentType.WORK_HOURS) {
+                day.workActivity().set(fromMinute, toMinute);
+            }
+        }
+    }
+
+    /**
+     * OR a session's minutes into the stored bitmaps of a day.
+     */
+    private void applyToDay(String userId, LocalDate date, DayBitmaps day) {
+        DayMinuteBitmap entity = dayMinuteBitmapRepository.findByUserIdAndDate(userId, date)
+                .orElseGet(() -> DayMinuteBitmap.builder()
+                        .userId(userId)
+                        .date(date)
+                        .build());
+
+        entity.setActivityMinutes(merge(entity.getActivityMinutes(), day.activity()));
+        entity.setWorkActivityMinutes(merge(entity.getWorkActivityMinutes(), day.workActivity()));
+        entity.setWorkMinutes(merge(entity.getWorkMinutes(), day.work()));
+        entity.setCoverageMinutes(merge(entity.getCoverageMinutes(), day.coverage()));
+
+        dayMinuteBitmapRepository.save(entity);
+    }
+
+    private byte[] merge(byte[] stored, MinuteBitmap delta) {
+        MinuteBitmap bitmap = MinuteBitmap.fromBytes(stored);
+        bitmap.or(delta);
+        return bitmap.toBytes();
+    }
+
+    /**
+     * Get the minute of the local day an instant falls in.
+     */
+    private int minuteFloor(Instant midnight, Instant instant) {
+        return (int) Math.floorDiv(Duration.between(midnight, instant).toSeconds(), 60);
+    }
+
+    /**
+     * Get the first minute of the local day starting at or after an instant.
+     */
+    private int minuteCeiling(Instant midnight, Instant instant) {
+        return (int) -Math.floorDiv(-Duration.between(midnight, instant).toSeconds(), 60);
+    }
+
+    /**
+     * Whether a session's time counts as activity (matches the activity profile stage).
+     */
+    private boolean isActive(ActivitySession session) {
+        return switch (session.getActivityType()) {
+            case STEPS -> session.getStepCount() != null && session.getStepCount() > 0;
+            case EXERCISE_SESSION -> true;
+            case HEART_RATE, SLEEP_SESSION, CALORIES_BURNED -> false;
+        };
+    }
+
+    private record DayBitmaps(MinuteBitmap activity, MinuteBitmap workActivity,
+                              MinuteBitmap work, MinuteBitmap coverage) {
+        DayBitmaps() {
+            this(new MinuteBitmap(), new MinuteBitmap(), new MinuteBitmap(), new MinuteBitmap());
+        }
+    }
+}
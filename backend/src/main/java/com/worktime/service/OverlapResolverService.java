@@ -0,0 +1,246 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.enums.ActivityType;
+import com.worktime.repository.ActivitySegmentRepository;
+import com.worktime.repository.ActivitySessionRepository;
+import com.worktime.repository.StepRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Service attributing overlapping step and calorie data to exactly one source.
+ *
+ * <p>When several apps write the same activity to Health Connect, their sessions cover
+ * the same time. After a session is split, this stage re-resolves the cluster of segments
+ * of the same user, activity type and day that overlap it (transitively), with a sorted
+ * sweep over their boundaries:
+ * <ul>
+ *   <li>Between two consecutive boundaries, the active segment of the highest-priority
+ *       source wins that time</li>
+ *   <li>Each segment keeps the share of its steps and calories proportional to the
+ *       time it won</li>
+ * </ul>
+ * The sweep is O(n log n) in the size of the cluster. Aggregation then sums the
+ * attributed values without further overlap handling. When sessions are deleted, the
+ * days they touched are resolved again, so the remaining sources get their time back.
+ *
+ * <p>Step sessions compacted into rollups overlapping a new session are split into
+ * segments again first, so late sources never count on top of a compacted day.
+ *
+ * <p>Sources are ranked by {@code worktime.dedup.source-priority}; unlisted sources rank
+ * below listed ones, then by name. Ties go to the session ingested first.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OverlapResolverService {
+
+    private static final Set<ActivityType> RESOLVED_TYPES = EnumSet.of(
+            ActivityType.STEPS, ActivityType.CALORIES_BURNED);
+
+    // Widest UTC offset, used to bound the segments of a local date
+    private static final Duration MAX_ZONE_OFFSET = Duration.ofHours(14);
+
+    private final ActivitySegmentRepository activitySegmentRepository;
+    private final ActivitySessionRepository activitySessionRepository;
+    private final StepRollupRepository stepRollupRepository;
+    private final StepCompactionService stepCompactionService;
+    private final SessionSplitterService sessionSplitterService;
+    private final SessionDurationBoundService sessionDurationBoundService;
+
+    @Value("${worktime.dedup.source-priority:}")
+    private List<String> sourcePriority;
+
+    /**
+     * Resolve the overlaps of a newly split session with the user's other sessions.
+     *
+     * @param session the split session
+     * @param segments the segments produced for the session
+     */
+    @Transactional
+    public void resolve(ActivitySession session, List<ActivitySegment> segments) {
+        if (!RESOLVED_TYPES.contains(session.getActivityType())) {
+            return;
+        }
+
+        Map<LocalDate, List<ActivitySegment>> segmentsByDate = new TreeMap<>();
+        for (ActivitySegment segment : segments) {
+            segmentsByDate.computeIfAbsent(segment.getActivityDate(), date -> new ArrayList<>()).add(segment);
+        }
+        if (session.getActivityType() == ActivityType.STEPS) {
+            decompactOverlapping(session, segmentsByDate);
+        }
+
+        segmentsByDate.forEach((date, daySegments) -> {
+            List<ActivitySegment> cluster = loadCluster(session, date, daySegments);
+            attribute(cluster);
+            log.debug("Resolved overlaps of session {} on {} across {} segments",
+                    session.getId(), date, cluster.size());
+        });
+    }
+
+    /**
+     * Resolve the overlaps of a user's remaining segments on days again, after sessions
+     * were removed from them, so the sessions they overlapped win back the time they held.
+     *
+     * @param userId the user ID
+     * @param activityType the activity type of the removed sessions
+     * @param dates the days the removed sessions contributed to
+     */
+    @Transactional
+    public void resolveDays(String userId, ActivityType activityType, Collection<LocalDate> dates) {
+        if (!RESOLVED_TYPES.contains(activityType)) {
+            return;
+        }
+
+        Duration maxSessionDuration = sessionDurationBoundService.maxDurationOf(userId);
+        for (LocalDate date : dates) {
+            Instant start = date.atStartOfDay(ZoneOffset.UTC).toInstant().minus(MAX_ZONE_OFFSET);
+            Instant end = date.plusDays(1).atStartOfDay(ZoneOffset.UTC).toInstant().plus(MAX_ZONE_OFFSET);
+            List<ActivitySegment> segments = activitySegmentRepository.findOverlappingForAttribution(
+                    userId, activityType, date, start, end, start.minus(maxSessionDuration));
+            attribute(segments);
+            log.debug("Resolved overlaps of user {} on {} again across {} {} segments",
+                    userId, date, segments.size(), activityType);
+        }
+    }
+
+    /**
+     * Turn compacted sessions whose rollups overlap the given segments back into segments,
+     * so they take part in the attribution again. Their own overlaps are resolved in turn.
+     * Archived sessions cannot be split again and keep their rollups.
+     */
+    private void decompactOverlapping(ActivitySession session,
+                                      Map<LocalDate, List<ActivitySegment>> segmentsByDate) {
+        Set<UUID> sessionIds = new LinkedHashSet<>();
+        segmentsByDate.forEach((date, daySegments) -> {
+            Instant start = daySegments.stream().map(ActivitySegment::getStartTime)
+                    .min(Comparator.naturalOrder()).orElseThrow();
+            Instant end = daySegments.stream().map(ActivitySegment::getEndTime)
+                    .max(Comparator.naturalOrder()).orElseThrow();
+            sessionIds.addAll(stepRollupRepository.findContributingSessionIds(session.getUserId(), date, start, end));
+        });
+        sessionIds.remove(session.getId());
+
+        for (UUID sessionId : sessionIds) {
+            ActivitySession compacted = activitySessionRepository.findById(sessionId).orElse(null);
+            if (compacted == null || compacted.isDeleted()) {
+                continue;
+            }
+            stepCompactionService.retract(compacted);
+            activitySegmentRepository.findBySessionIdAndIsDeletedFalse(sessionId).forEach(ActivitySegment::softDelete);
+            List<ActivitySegment> segments = sessionSplitterService.splitSession(compacted);
+
+            log.info("Decompacted session {} overlapping session {}", sessionId, session.getId());
+            resolve(compacted, segments);
+        }
+    }
+
+    /**
+     * Load the segments transitively overlapping the given ones on a day.
+     * The window grows until the loaded segments no longer extend it.
+     */
+    private List<ActivitySegment> loadCluster(ActivitySession session, LocalDate date,
+                                              List<ActivitySegment> seeds) {
+        Instant start = seeds.stream().map(ActivitySegment::getStartTime).min(Comparator.naturalOrder()).orElseThrow();
+        Instant end = seeds.stream().map(ActivitySegment::getEndTime).max(Comparator.naturalOrder()).orElseThrow();
+        Duration maxSessionDuration = sessionDurationBoundService.maxDurationOf(session.getUserId());
+
+        while (true) {
+            List<ActivitySegment> cluster = activitySegmentRepository.findOverlappingForAttribution(
+                    session.getUserId(), session.getActivityType(), date, start, end,
+                    start.minus(maxSessionDuration));
+
+            Instant clusterStart = start;
+            Instant clusterEnd = end;
+            for (ActivitySegment segment : cluster) {
+                if (segment.getStartTime().isBefore(clusterStart)) {
+                    clusterStart = segment.getStartTime();
+                }
+                if (segment.getEndTime().isAfter(clusterEnd)) {
+                    clusterEnd = segment.getEndTime();
+                }
+            }
+
+            if (clusterStart.equals(start) && clusterEnd.equals(end)) {
+                return cluster;
+            }
+            start = clusterStart;
+            end = clusterEnd;
+        }
+    }
+
+    /**
+     * Attribute each instant covered by the cluster to its highest-priority segment.
+     */
+    private void attribute(List<ActivitySegment> cluster) {
+        Comparator<ActivitySegment> byPriority = Comparator
+                .comparingInt((ActivitySegment segment) -> rankOf(segment.getSession().getDataSource()))
+                .thenComparing(segment -> segment.getSession().getDataSource())
+                .thenComparing(segment -> segment.getSession().getIngestedAt())
+                .thenComparing(ActivitySegment::getId);
+
+        // Boundary events, ends before starts at the same instant
+        List<Boundary> boundaries = new ArrayList<>(cluster.size() * 2);
+        for (ActivitySegment segment : cluster) {
+            boundaries.add(new Boundary(segment.getStartTime().toEpochMilli(), true, segment));
+            boundaries.add(new Boundary(segment.getEndTime().toEpochMilli(), false, segment));
+        }
+        boundaries.sort(Comparator.comparingLong(Boundary::time).thenComparing(Boundary::start));
+
+        Map<ActivitySegment, Long> wonMillis = new IdentityHashMap<>();
+        TreeSet<ActivitySegment> active = new TreeSet<>(byPriority);
+        long previous = Long.MIN_VALUE;
+
+        for (Boundary boundary : boundaries) {
+            if (!active.isEmpty() && boundary.time() > previous) {
+                wonMillis.merge(active.first(), boundary.time() - previous, Long::sum);
+            }
+            if (boundary.start()) {
+                active.add(boundary.segment());
+            } else {
+                active.remove(boundary.segment());
+            }
+            previous = boundary.time();
+        }
+
+        for (ActivitySegment segment : cluster) {
+            long totalMillis = segment.getEndTime().toEpochMilli() - segment.getStartTime().toEpochMilli();
+            // Instantaneous records cannot overlap anything
+            double share = totalMillis > 0
+                    ? (double) wonMillis.getOrDefault(segment, 0L) / totalMillis
+                    : 1.0;
+
+            segment.setAttributedStepCount(segment.getStepCount() != null
+                    ? Math.round(segment.getStepCount() * share)
+                    : null);
+            segment.setAttributedCalories(segment.getCaloriesBurned() != null
+                    ? segment.getCaloriesBurned() * share
+                    : null);
+        }
+    }
+
+    /**
+     * Get the priority rank of a data source (lower wins).
+     */
+    private int rankOf(String dataSource) {
+        int index = sourcePriority.indexOf(dataSource);
+        return index >= 0 ? index : sourcePriority.size();
+    }
+
+    private record Boundary(long time, boolean start, ActivitySegment segment) {}
+}
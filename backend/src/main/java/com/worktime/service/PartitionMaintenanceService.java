@@ -0,0 +1,211 @@
+package com.worktime.service;
+
+import com.worktime.dto.activitysession.ActivitySessionRequest;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Service maintaining the monthly partitions of activity_sessions (by start_time, UTC)
+ * and activity_segments (by activity_date).
+ *
+ * <p>This service handles:
+ * <ul>
+ *   <li>Creating partitions a few months ahead on a daily schedule</li>
+ *   <li>Creating the partitions an ingested session needs (e.g. a history backfill)</li>
+ *   <li>Detaching partitions older than the retention window, for archiving</li>
+ * </ul>
+ *
+ * <p>Partition DDL runs in the caller's transaction; months known to exist are cached
+ * once that transaction commits, so steady-state ingestion issues no extra statements.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class PartitionMaintenanceService {
+
+    private static final String SESSIONS_TABLE = "activity_sessions";
+    private static final String SEGMENTS_TABLE = "activity_segments";
+
+    // Widest UTC offset, so the local activity dates of a session are always covered
+    private static final Duration MAX_ZONE_OFFSET = Duration.ofHours(14);
+
+    private final Set<YearMonth> sessionMonths = ConcurrentHashMap.newKeySet();
+    private final Set<YearMonth> segmentMonths = ConcurrentHashMap.newKeySet();
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${worktime.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${worktime.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    /**
+     * Create the partitions of the coming months and, if a retention window is
+     * configured, detach the partitions that fell out of it.
+     */
+    @Scheduled(cron = "${worktime.partitions.maintenance-cron:0 15 3 * * *}")
+    @Transactional
+    public void maintain() {
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+        YearMonth last = current.plusMonths(monthsAhead);
+
+        int created = createPartitions(SESSIONS_TABLE, current, last, sessionMonths)
+                + createPartitions(SEGMENTS_TABLE, current, last, segmentMonths);
+        log.info("Partition maintenance: {} partitions created through {}", created, last);
+
+        if (retentionMonths > 0) {
+            detachBefore(current.minusMonths(retentionMonths));
+        }
+    }
+
+    /**
+     * Reject a session that falls into a detached month. Not transactional, so the
+     * rejection does not mark the caller's transaction rollback-only.
+     *
+     * @param request the activity session request (time range already validated)
+     * @throws IllegalArgumentException if the session falls into a detached month
+     */
+    public void checkRetained(ActivitySessionRequest request) {
+        if (retentionMonths <= 0) {
+            return;
+        }
+        YearMonth firstKept = YearMonth.now(ZoneOffset.UTC).minusMonths(retentionMonths);
+        if (firstSegmentMonth(request).isBefore(firstKept)) {
+            throw new IllegalArgumentException("Sessions before " + firstKept + " are archived");
+        }
+    }
+
+    /**
+     * Make sure the partitions a session and its segments will be stored in exist.
+     * Callers check {@link #checkRetained} first.
+     *
+     * @param request the activity session request (time range already validated)
+     */
+    @Transactional
+    public void ensureCovering(ActivitySessionRequest request) {
+        YearMonth sessionMonth = YearMonth.from(request.startTime().atOffset(ZoneOffset.UTC));
+        YearMonth lastSegmentMonth = YearMonth.from(
+                request.endTime().plus(MAX_ZONE_OFFSET).atOffset(ZoneOffset.UTC));
+
+        createPartitions(SESSIONS_TABLE, sessionMonth, sessionMonth, sessionMonths);
+        createPartitions(SEGMENTS_TABLE, firstSegmentMonth(request), lastSegmentMonth, segmentMonths);
+    }
+
+    /**
+     * Make sure the session partition of a month exists, e.g. before restoring
+     * archived sessions into it.
+     *
+     * @param month the UTC month
+     */
+    @Transactional
+    public void ensureSessionMonth(YearMonth month) {
+        createPartitions(SESSIONS_TABLE, month, month, sessionMonths);
+    }
+
+    /**
+     * Get the name of the session partition of a month, as created by
+     * create_monthly_partitions (V16).
+     *
+     * @param month the UTC month
+     * @return the partition table name
+     */
+    static String sessionPartitionName(YearMonth month) {
+        return String.format("%s_%04d_%02d", SESSIONS_TABLE, month.getYear(), month.getMonthValue());
+    }
+
+    /**
+     * Detach the partitions of months before the given one. Detached partitions remain
+     * as plain tables that can be archived (e.g. with pg_dump) and dropped.
+     *
+     * @param month the first month to keep
+     * @return names of the detached tables
+     */
+    @Transactional
+    public List<String> detachBefore(YearMonth month) {
+        List<String> detached = new ArrayList<>();
+        for (String table : List.of(SEGMENTS_TABLE, SESSIONS_TABLE)) {
+            @SuppressWarnings("unchecked")
+            List<String> names = entityManager
+                    .createNativeQuery("SELECT detach_monthly_partitions_before(:parent, :beforeMonth)")
+                    .setParameter("parent", table)
+                    .setParameter("beforeMonth", month.atDay(1))
+                    .getResultList();
+            detached.addAll(names);
+        }
+
+        sessionMonths.removeIf(known -> known.isBefore(month));
+        segmentMonths.removeIf(known -> known.isBefore(month));
+
+        if (!detached.isEmpty()) {
+            log.info("Detached {} partitions before {}: {}", detached.size(), month, detached);
+        }
+        return detached;
+    }
+
+    /**
+     * Create the missing partitions of a table for a month range.
+     *
+     * @return the number of partitions created
+     */
+    private int createPartitions(String table, YearMonth from, YearMonth to, Set<YearMonth> known) {
+        TreeSet<YearMonth> months = new TreeSet<>();
+        for (YearMonth month = from; !month.isAfter(to); month = month.plusMonths(1)) {
+            if (!known.contains(month)) {
+                months.add(month);
+            }
+        }
+        if (months.isEmpty()) {
+            return 0;
+        }
+
+        LocalDate fromMonth = months.first().atDay(1);
+        LocalDate toMonth = months.last().atDay(1);
+        Number created = (Number) entityManager
+                .createNativeQuery("SELECT create_monthly_partitions(:parent, :fromMonth, :toMonth)")
+                .setParameter("parent", table)
+                .setParameter("fromMonth", fromMonth)
+                .setParameter("toMonth", toMonth)
+                .getSingleResult();
+
+        // Only trust the partitions once the DDL is committed
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                known.addAll(months);
+            }
+        });
+
+        if (created.intValue() > 0) {
+            log.info("Created {} partitions of {} from {} to {}", created, table, fromMonth, toMonth);
+        }
+        return created.intValue();
+    }
+
+    /**
+     * Get the first month a session's segments can fall into, in any timezone.
+     */
+    private YearMonth firstSegmentMonth(ActivitySessionRequest request) {
+        return YearMonth.from(request.startTime().minus(MAX_ZONE_OFFSET).atOffset(ZoneOffset.UTC));
+    }
+}
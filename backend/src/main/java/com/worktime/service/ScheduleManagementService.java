@@ -14,15 +14,17 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.DayOfWeek;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
 
 /**
  * Service for managing working schedules and schedule overrides.
+ * Sessions on the days a change applies to are queued for a resplit with the change.
  *
  * @author Thang
  * @since 2026-01-02
@@ -34,6 +36,7 @@ public class ScheduleManagementService {
 
     private final WorkingScheduleRepository scheduleRepository;
     private final ScheduleOverrideRepository overrideRepository;
+    private final SessionResplitService sessionResplitService;
 
     // ==================== Working Schedules ====================
 
@@ -44,6 +47,7 @@ public class ScheduleManagementService {
 
         WorkingSchedule schedule = DtoMapper.toEntity(request);
         WorkingSchedule saved = scheduleRepository.save(schedule);
+        sessionResplitService.queueWeekdays(saved.getUserId(), EnumSet.of(saved.getDayOfWeek()));
 
         log.info("Created working schedule: {}", saved.getId());
         return DtoMapper.toDto(saved);
@@ -53,10 +57,7 @@ public class ScheduleManagementService {
     public List<WorkingScheduleResponse> getActiveWorkingSchedules(String userId) {
         log.info("Fetching active working schedules for user: {}", userId);
 
-        return scheduleRepository.findByUserIdAndIsActiveTrueAndIsDeletedFalse(userId)
-            .stream()
-            .map(DtoMapper::toDto)
-            .collect(Collectors.toList());
+        return scheduleRepository.findActiveResponsesByUserId(userId);
     }
 
     @Transactional
@@ -66,6 +67,8 @@ public class ScheduleManagementService {
         WorkingSchedule schedule = scheduleRepository.findById(id)
             .orElseThrow(() -> new IllegalArgumentException("Working schedule not found: " + id));
 
+        DayOfWeek previousDayOfWeek = schedule.getDayOfWeek();
+
         // Update fields
         schedule.setDayOfWeek(request.dayOfWeek());
         schedule.setStartTime(request.startTime());
@@ -76,6 +79,8 @@ public class ScheduleManagementService {
         schedule.setEffectiveTo(request.effectiveTo());
 
         WorkingSchedule saved = scheduleRepository.save(schedule);
+        sessionResplitService.queueWeekdays(saved.getUserId(),
+            EnumSet.of(previousDayOfWeek, saved.getDayOfWeek()));
 
         log.info("Updated working schedule: {}", id);
         return DtoMapper.toDto(saved);
@@ -90,6 +95,7 @@ public class ScheduleManagementService {
 
         schedule.softDelete();
         scheduleRepository.save(schedule);
+        sessionResplitService.queueWeekdays(schedule.getUserId(), EnumSet.of(schedule.getDayOfWeek()));
 
         log.info("Soft deleted working schedule: {}", id);
     }
@@ -102,6 +108,7 @@ public class ScheduleManagementService {
 
         ScheduleOverride override = DtoMapper.toEntity(request);
         ScheduleOverride saved = overrideRepository.save(override);
+        sessionResplitService.queueDate(saved.getDate());
 
         log.info("Created schedule override: {}", saved.getId());
         return DtoMapper.toDto(saved);
@@ -115,10 +122,7 @@ public class ScheduleManagementService {
         LocalDate startLocalDate = startDate.atZone(ZoneId.systemDefault()).toLocalDate();
         LocalDate endLocalDate = endDate.atZone(ZoneId.systemDefault()).toLocalDate();
 
-        return overrideRepository.findByDateBetweenAndIsDeletedFalse(startLocalDate, endLocalDate)
-            .stream()
-            .map(DtoMapper::toDto)
-            .collect(Collectors.toList());
+        return overrideRepository.findResponsesByDateBetween(startLocalDate, endLocalDate);
     }
 
     @Transactional
@@ -130,6 +134,7 @@ public class ScheduleManagementService {
 
         override.softDelete();
         overrideRepository.save(override);
+        sessionResplitService.queueDate(override.getDate());
 
         log.info("Soft deleted schedule override: {}", id);
     }
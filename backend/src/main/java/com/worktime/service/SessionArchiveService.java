@@ -0,0 +1,725 @@
+package com.worktime.service;
+
+import com.worktime.dto.activitysession.ActivitySessionRequest;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.RestoredSessionMonth;
+import com.worktime.model.SessionArchive;
+import com.worktime.model.enums.ActivityType;
+import com.worktime.repository.RestoredSessionMonthRepository;
+import com.worktime.repository.SessionArchiveRepository;
+import com.worktime.service.DictionaryService.Dictionary;
+import com.worktime.shared.MappedReadChannel;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.*;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.ipc.ArrowFileReader;
+import org.apache.arrow.vector.ipc.ArrowFileWriter;
+import org.apache.arrow.vector.ipc.message.IpcOption;
+import org.apache.arrow.vector.types.FloatingPointPrecision;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.*;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Service moving raw activity sessions older than a configurable age out of
+ * activity_sessions into compressed Arrow IPC files on local disk.
+ *
+ * <p>This service handles:
+ * <ul>
+ *   <li>Archiving whole months on a schedule: one ZSTD-compressed file per user and
+ *       month, recorded in the session_archives manifest, then truncating the month's
+ *       session partition</li>
+ *   <li>Reading archived sessions back through memory-mapped files, for aggregation
+ *       and export</li>
+ *   <li>Restoring a user's archived month into the database, e.g. to resegment it, and
+ *       archiving it again on request</li>
+ *   <li>Rejecting ingestion into a user's archived month</li>
+ * </ul>
+ *
+ * <p>Segments and everything derived from them stay in the database, so aggregations
+ * of archived days can still be recomputed. A month is archived only once all of its
+ * live sessions are processed. Restored months are left out of the scheduled archival
+ * until they are archived again explicitly; the other users' sessions of the month are
+ * then deleted from its partition instead of truncating it.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionArchiveService {
+
+    private static final int BATCH_SIZE = 4096;
+    private static final int FETCH_SIZE = 1000;
+
+    private static final Schema SCHEMA = new Schema(List.of(
+            Field.nullable("id", ArrowType.Utf8.INSTANCE),
+            Field.nullable("activityType", new ArrowType.Int(8, true)),  // ActivityType code
+            Field.nullable("startTime", timestampType()),
+            Field.nullable("endTime", timestampType()),
+            Field.nullable("timezone", ArrowType.Utf8.INSTANCE),
+            Field.nullable("stepCount", new ArrowType.Int(64, true)),
+            Field.nullable("caloriesBurned", new ArrowType.FloatingPoint(FloatingPointPrecision.DOUBLE)),
+            Field.nullable("averageHeartRate", new ArrowType.Int(32, true)),
+            Field.nullable("minHeartRate", new ArrowType.Int(32, true)),
+            Field.nullable("maxHeartRate", new ArrowType.Int(32, true)),
+            Field.nullable("exerciseType", ArrowType.Utf8.INSTANCE),
+            Field.nullable("exerciseTitle", ArrowType.Utf8.INSTANCE),
+            Field.nullable("dataSource", ArrowType.Utf8.INSTANCE),
+            Field.nullable("healthConnectRecordId", ArrowType.Utf8.INSTANCE),
+            Field.nullable("ingestedAt", timestampType()),
+            Field.nullable("processed", ArrowType.Bool.INSTANCE),
+            Field.nullable("version", new ArrowType.Int(64, true)),
+            Field.nullable("createdAt", timestampType()),
+            Field.nullable("updatedAt", timestampType()),
+            Field.nullable("isDeleted", ArrowType.Bool.INSTANCE)
+    ));
+
+    private static final String SELECT_PARTITION_SQL = """
+            SELECT s.id, s.user_id, s.activity_type, s.start_time, s.end_time, tz.name AS timezone,
+                   s.step_count, s.calories_burned, s.average_heart_rate, s.min_heart_rate, s.max_heart_rate,
+                   s.exercise_type, s.exercise_title, ds.name AS data_source, s.health_connect_record_id,
+                   s.ingested_at, s.processed, s.version, s.created_at, s.updated_at, s.is_deleted
+            FROM %s s
+            JOIN timezones tz ON tz.id = s.timezone_id
+            JOIN data_sources ds ON ds.id = s.data_source_id
+            WHERE %s
+            ORDER BY s.user_id, s.start_time, s.id
+            """;
+
+    // Sessions of users whose month was not restored; takes the month's first day
+    private static final String NOT_RESTORED_SQL =
+            "NOT EXISTS (SELECT 1 FROM restored_session_months r WHERE r.user_id = s.user_id AND r.month = ?)";
+
+    private static final String INSERT_SQL = """
+            INSERT INTO activity_sessions (id, user_id, activity_type, start_time, end_time, timezone_id,
+                step_count, calories_burned, average_heart_rate, min_heart_rate, max_heart_rate,
+                exercise_type, exercise_title, data_source_id, health_connect_record_id,
+                ingested_at, processed, version, created_at, updated_at, is_deleted)
+            VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)
+            """;
+
+    private static final String SESSION_PARTITIONS_SQL = """
+            SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid
+            WHERE i.inhparent = 'activity_sessions'::regclass
+            ORDER BY c.relname
+            """;
+
+    private static final Comparator<ActivitySession> BY_START_TIME =
+            Comparator.comparing(ActivitySession::getStartTime).thenComparing(ActivitySession::getId);
+
+    private final SessionArchiveRepository sessionArchiveRepository;
+    private final RestoredSessionMonthRepository restoredSessionMonthRepository;
+    private final PartitionMaintenanceService partitionMaintenanceService;
+    private final DictionaryService dictionaryService;
+    private final SessionDurationBoundService sessionDurationBoundService;
+    private final JdbcTemplate jdbcTemplate;
+    private final PlatformTransactionManager transactionManager;
+
+    @Value("${worktime.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${worktime.archive.min-age:P400D}")
+    private Duration minAge;
+
+    @Value("${worktime.archive.directory:./archive}")
+    private Path directory;
+
+    /**
+     * Archive every month whose sessions all started more than the minimum age ago.
+     * Each month is archived in its own transaction; a failed month is retried by the
+     * next run.
+     */
+    @Scheduled(cron = "${worktime.archive.cron:0 45 3 * * *}")
+    public void archiveOldMonths() {
+        if (!enabled) {
+            return;
+        }
+
+        YearMonth cutoff = YearMonth.from(Instant.now().minus(minAge).atOffset(ZoneOffset.UTC));
+        List<YearMonth> months = jdbcTemplate.queryForList(SESSION_PARTITIONS_SQL, String.class).stream()
+                .map(SessionArchiveService::monthOfPartition)
+                .filter(month -> month.isBefore(cutoff))
+                .toList();
+
+        for (YearMonth month : months) {
+            try {
+                archiveMonth(month);
+            } catch (RuntimeException e) {
+                log.error("Failed to archive sessions of {}", month, e);
+            }
+        }
+    }
+
+    /**
+     * Archive all sessions of a month, one file per user, then empty the month's
+     * session partition. Skipped while the month has unprocessed sessions.
+     *
+     * @param month the UTC month of the sessions' start times
+     * @return the number of sessions archived
+     */
+    public int archiveMonth(YearMonth month) {
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer archived = transaction.execute(status -> archiveMonthInTransaction(month));
+        return archived != null ? archived : 0;
+    }
+
+    /**
+     * Read the sessions of an archive file.
+     *
+     * @param archive the manifest row
+     * @return the archived sessions (detached), ordered by start time
+     */
+    public List<ActivitySession> readSessions(SessionArchive archive) {
+        Path path = directory.resolve(archive.getFilePath());
+        List<ActivitySession> sessions = new ArrayList<>(archive.getSessionCount());
+
+        try (BufferAllocator allocator = new RootAllocator();
+             ArrowFileReader reader = new ArrowFileReader(MappedReadChannel.open(path), allocator,
+                     CommonsCompressionFactory.INSTANCE)) {
+            while (reader.loadNextBatch()) {
+                VectorSchemaRoot root = reader.getVectorSchemaRoot();
+                for (int i = 0; i < root.getRowCount(); i++) {
+                    sessions.add(readRow(root, i, archive.getUserId()));
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read session archive " + path, e);
+        }
+        return sessions;
+    }
+
+    /**
+     * Find a user's live archived sessions starting within a time range.
+     *
+     * @param userId the user ID
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @return the archived sessions (detached), ordered by start time
+     */
+    @Transactional(readOnly = true)
+    public List<ActivitySession> findArchivedSessions(String userId, Instant start, Instant end) {
+        return streamArchivedSessions(userId, start, end).toList();
+    }
+
+    /**
+     * Merge a user's archived sessions into a stream of database sessions, both ordered
+     * by start time. Archive files are read one month at a time as the stream advances.
+     *
+     * @param userId the user ID
+     * @param start the start of the range (inclusive)
+     * @param end the end of the range (exclusive)
+     * @param live the user's database sessions in the range, ordered by start time
+     * @return all of the user's sessions in the range, ordered by start time
+     */
+    public Stream<ActivitySession> withArchivedSessions(String userId, Instant start, Instant end,
+                                                        Stream<ActivitySession> live) {
+        Iterator<ActivitySession> archived = streamArchivedSessions(userId, start, end).iterator();
+        Iterator<ActivitySession> current = live.iterator();
+
+        Iterator<ActivitySession> merged = new Iterator<>() {
+            private ActivitySession nextArchived = archived.hasNext() ? archived.next() : null;
+            private ActivitySession nextLive = current.hasNext() ? current.next() : null;
+
+            @Override
+            public boolean hasNext() {
+                return nextArchived != null || nextLive != null;
+            }
+
+            @Override
+            public ActivitySession next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                ActivitySession result;
+                if (nextLive == null || (nextArchived != null && BY_START_TIME.compare(nextArchived, nextLive) <= 0)) {
+                    result = nextArchived;
+                    nextArchived = archived.hasNext() ? archived.next() : null;
+                } else {
+                    result = nextLive;
+                    nextLive = current.hasNext() ? current.next() : null;
+                }
+                return result;
+            }
+        };
+
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(merged, Spliterator.ORDERED), false)
+                .onClose(live::close);
+    }
+
+    /**
+     * Move a user's archived month back into the database, keeping the sessions' IDs,
+     * so it can be resegmented. The archive file is deleted once the transaction commits.
+     * The month stays in the database until {@link #rearchiveMonth} is called.
+     *
+     * @param userId the user ID
+     * @param month the UTC month
+     * @return the number of sessions restored
+     * @throws IllegalArgumentException if the month is not archived for the user
+     */
+    @Transactional
+    public int restoreMonth(String userId, YearMonth month) {
+        SessionArchive archive = sessionArchiveRepository.findByUserIdAndMonth(userId, month.atDay(1))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No archived sessions for user " + userId + " in " + month));
+
+        List<ActivitySession> sessions = readSessions(archive);
+        partitionMaintenanceService.ensureSessionMonth(month);
+        sessionDurationBoundService.record(sessions);
+
+        jdbcTemplate.batchUpdate(INSERT_SQL, sessions, BATCH_SIZE, (ps, session) -> {
+            ps.setObject(1, session.getId());
+            ps.setString(2, session.getUserId());
+            ps.setShort(3, session.getActivityType().getCode());
+            ps.setObject(4, utc(session.getStartTime()));
+            ps.setObject(5, utc(session.getEndTime()));
+            ps.setShort(6, dictionaryService.idOf(Dictionary.TIMEZONES, session.getTimezone()));
+            ps.setObject(7, session.getStepCount(), Types.BIGINT);
+            ps.setObject(8, session.getCaloriesBurned(), Types.DOUBLE);
+            ps.setObject(9, session.getAverageHeartRate(), Types.INTEGER);
+            ps.setObject(10, session.getMinHeartRate(), Types.INTEGER);
+            ps.setObject(11, session.getMaxHeartRate(), Types.INTEGER);
+            ps.setString(12, session.getExerciseType());
+            ps.setString(13, session.getExerciseTitle());
+            ps.setShort(14, dictionaryService.idOf(Dictionary.DATA_SOURCES, session.getDataSource()));
+            ps.setString(15, session.getHealthConnectRecordId());
+            ps.setObject(16, utc(session.getIngestedAt()));
+            ps.setBoolean(17, session.getProcessed());
+            ps.setObject(18, session.getVersion(), Types.BIGINT);
+            ps.setObject(19, utc(session.getCreatedAt()));
+            ps.setObject(20, utc(session.getUpdatedAt()));
+            ps.setBoolean(21, session.isDeleted());
+        });
+
+        sessionArchiveRepository.delete(archive);
+        restoredSessionMonthRepository.save(RestoredSessionMonth.builder()
+                .userId(userId)
+                .month(month.atDay(1))
+                .restoredAt(Instant.now())
+                .build());
+
+        Path path = directory.resolve(archive.getFilePath());
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    Files.deleteIfExists(path);
+                } catch (IOException e) {
+                    log.warn("Failed to delete restored session archive {}", path, e);
+                }
+            }
+        });
+
+        log.info("Restored {} archived sessions of user {} in {}", sessions.size(), userId, month);
+        return sessions.size();
+    }
+
+    /**
+     * Archive a user's restored month again, e.g. once it is resegmented.
+     *
+     * @param userId the user ID
+     * @param month the UTC month
+     * @return the number of sessions archived
+     * @throws IllegalArgumentException if the month was not restored for the user or
+     *         has sessions that are not processed yet
+     */
+    public int rearchiveMonth(String userId, YearMonth month) {
+        RestoredSessionMonth restored = restoredSessionMonthRepository.findByUserIdAndMonth(userId, month.atDay(1))
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No restored sessions for user " + userId + " in " + month));
+        String partition = PartitionMaintenanceService.sessionPartitionName(month);
+
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+        Integer archived = transaction.execute(status -> {
+            jdbcTemplate.execute("LOCK TABLE " + partition + " IN EXCLUSIVE MODE");
+
+            Integer unprocessed = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition
+                    + " WHERE user_id = ? AND processed = false AND is_deleted = false", Integer.class, userId);
+            if (unprocessed != null && unprocessed > 0) {
+                throw new IllegalArgumentException(unprocessed + " sessions of user " + userId + " in "
+                        + month + " are not processed yet");
+            }
+
+            List<ActivitySession> sessions = new ArrayList<>();
+            queryPartition(partition, "s.user_id = ?", userId, resultSet -> sessions.add(mapRow(resultSet)));
+
+            int count = sessions.isEmpty() ? 0 : archiveUserMonth(month, sessions);
+            jdbcTemplate.update("DELETE FROM " + partition + " WHERE user_id = ?", userId);
+            restoredSessionMonthRepository.delete(restored);
+            return count;
+        });
+
+        log.info("Archived {} restored sessions of user {} in {} again", archived, userId, month);
+        return archived != null ? archived : 0;
+    }
+
+    /**
+     * Reject a session whose month is archived for its user.
+     *
+     * @param request the activity session request
+     * @throws IllegalArgumentException if the month must be restored first
+     */
+    public void checkNotArchived(ActivitySessionRequest request) {
+        YearMonth month = YearMonth.from(request.startTime().atOffset(ZoneOffset.UTC));
+        if (sessionArchiveRepository.existsByUserIdAndMonth(request.userId(), month.atDay(1))) {
+            throw new IllegalArgumentException("Sessions of " + month
+                    + " are archived; restore the month before ingesting into it");
+        }
+    }
+
+    private int archiveMonthInTransaction(YearMonth month) {
+        String partition = PartitionMaintenanceService.sessionPartitionName(month);
+
+        // Blocks writes to the month (but not reads) until the partition is truncated
+        jdbcTemplate.execute("LOCK TABLE " + partition + " IN EXCLUSIVE MODE");
+
+        Date monthStart = Date.valueOf(month.atDay(1));
+        Integer unprocessed = jdbcTemplate.queryForObject("SELECT count(*) FROM " + partition
+                + " s WHERE s.processed = false AND s.is_deleted = false AND " + NOT_RESTORED_SQL,
+                Integer.class, monthStart);
+        if (unprocessed != null && unprocessed > 0) {
+            log.warn("Skipping archival of {}: {} sessions are not processed yet", month, unprocessed);
+            return 0;
+        }
+
+        List<ActivitySession> userSessions = new ArrayList<>();
+        int[] archived = new int[2];  // sessions, files
+
+        queryPartition(partition, NOT_RESTORED_SQL, monthStart, resultSet -> {
+            ActivitySession session = mapRow(resultSet);
+            if (!userSessions.isEmpty() && !userSessions.getFirst().getUserId().equals(session.getUserId())) {
+                archived[0] += archiveUserMonth(month, userSessions);
+                archived[1]++;
+                userSessions.clear();
+            }
+            userSessions.add(session);
+        });
+
+        if (!userSessions.isEmpty()) {
+            archived[0] += archiveUserMonth(month, userSessions);
+            archived[1]++;
+        }
+        if (archived[1] == 0) {
+            return 0;
+        }
+
+        // Restored users' sessions stay in the partition
+        if (restoredSessionMonthRepository.existsByMonth(month.atDay(1))) {
+            jdbcTemplate.update("DELETE FROM " + partition + " s WHERE " + NOT_RESTORED_SQL, monthStart);
+        } else {
+            jdbcTemplate.execute("TRUNCATE TABLE " + partition);
+        }
+
+        log.info("Archived {} sessions of {} into {} files", archived[0], month, archived[1]);
+        return archived[0];
+    }
+
+    /**
+     * Read the sessions of a session partition matching a filter with one parameter,
+     * ordered by user and start time, through a server-side cursor.
+     */
+    private void queryPartition(String partition, String filter, Object parameter, RowCallbackHandler handler) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    SELECT_PARTITION_SQL.formatted(partition, filter));
+            statement.setObject(1, parameter);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, handler);
+    }
+
+    /**
+     * Write one user's sessions of a month to its archive file and record it in the manifest.
+     *
+     * @return the number of sessions archived
+     */
+    private int archiveUserMonth(YearMonth month, List<ActivitySession> sessions) {
+        String userId = sessions.getFirst().getUserId();
+        Path relativePath = Path.of(month.toString(), fileNameOf(userId));
+
+        long size;
+        try {
+            size = writeFile(directory.resolve(relativePath), sessions, userId, month);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive sessions of user " + userId + " in " + month, e);
+        }
+
+        sessionArchiveRepository.save(SessionArchive.builder()
+                .userId(userId)
+                .month(month.atDay(1))
+                .filePath(relativePath.toString())
+                .sessionCount(sessions.size())
+                .fileSizeBytes(size)
+                .archivedAt(Instant.now())
+                .build());
+        return sessions.size();
+    }
+
+    /**
+     * Write sessions as a ZSTD-compressed Arrow IPC file, replacing the target atomically.
+     *
+     * @return the size of the file in bytes
+     */
+    private long writeFile(Path target, List<ActivitySession> sessions, String userId, YearMonth month)
+            throws IOException {
+        Files.createDirectories(target.getParent());
+        Path temp = Files.createTempFile(target.getParent(), ".archive-", ".tmp");
+
+        try (BufferAllocator allocator = new RootAllocator();
+             VectorSchemaRoot root = VectorSchemaRoot.create(SCHEMA, allocator);
+             FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE);
+             ArrowFileWriter writer = new ArrowFileWriter(root, null, channel,
+                     Map.of("userId", userId, "month", month.toString()), IpcOption.DEFAULT,
+                     CommonsCompressionFactory.INSTANCE, CompressionUtil.CodecType.ZSTD)) {
+            writer.start();
+            for (int from = 0; from < sessions.size(); from += BATCH_SIZE) {
+                List<ActivitySession> batch = sessions.subList(from, Math.min(from + BATCH_SIZE, sessions.size()));
+                root.allocateNew();
+                for (int i = 0; i < batch.size(); i++) {
+                    writeRow(root, i, batch.get(i));
+                }
+                root.setRowCount(batch.size());
+                writer.writeBatch();
+            }
+            writer.end();
+            channel.force(true);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return Files.size(target);
+    }
+
+    /**
+     * Lazily read a user's live archived sessions starting within a time range, one
+     * archived month at a time.
+     */
+    private Stream<ActivitySession> streamArchivedSessions(String userId, Instant start, Instant end) {
+        YearMonth first = YearMonth.from(start.atOffset(ZoneOffset.UTC));
+        YearMonth last = YearMonth.from(end.minusNanos(1).atOffset(ZoneOffset.UTC));
+
+        return sessionArchiveRepository
+                .findByUserIdAndMonthBetweenOrderByMonthAsc(userId, first.atDay(1), last.atDay(1))
+                .stream()
+                .flatMap(archive -> readSessions(archive).stream())
+                .filter(session -> !session.isDeleted()
+                        && !session.getStartTime().isBefore(start) && session.getStartTime().isBefore(end));
+    }
+
+    private ActivitySession mapRow(ResultSet resultSet) throws SQLException {
+        ActivitySession session = ActivitySession.builder()
+                .userId(resultSet.getString("user_id"))
+                .activityType(ActivityType.fromCode(resultSet.getShort("activity_type")))
+                .startTime(instant(resultSet, "start_time"))
+                .endTime(instant(resultSet, "end_time"))
+                .timezone(resultSet.getString("timezone"))
+                .stepCount(resultSet.getObject("step_count", Long.class))
+                .caloriesBurned(resultSet.getObject("calories_burned", Double.class))
+                .averageHeartRate(resultSet.getObject("average_heart_rate", Integer.class))
+                .minHeartRate(resultSet.getObject("min_heart_rate", Integer.class))
+                .maxHeartRate(resultSet.getObject("max_heart_rate", Integer.class))
+                .exerciseType(resultSet.getString("exercise_type"))
+                .exerciseTitle(resultSet.getString("exercise_title"))
+                .dataSource(resultSet.getString("data_source"))
+                .healthConnectRecordId(resultSet.getString("health_connect_record_id"))
+                .ingestedAt(instant(resultSet, "ingested_at"))
+                .processed(resultSet.getBoolean("processed"))
+                .version(resultSet.getObject("version", Long.class))
+                .build();
+        session.setId(resultSet.getObject("id", UUID.class));
+        session.setCreatedAt(instant(resultSet, "created_at"));
+        session.setUpdatedAt(instant(resultSet, "updated_at"));
+        session.setIsDeleted(resultSet.getBoolean("is_deleted"));
+        return session;
+    }
+
+    private void writeRow(VectorSchemaRoot root, int i, ActivitySession session) {
+        setString(root, "id", i, session.getId().toString());
+        ((TinyIntVector) root.getVector("activityType")).setSafe(i, session.getActivityType().getCode());
+        setInstant(root, "startTime", i, session.getStartTime());
+        setInstant(root, "endTime", i, session.getEndTime());
+        setString(root, "timezone", i, session.getTimezone());
+        setLong(root, "stepCount", i, session.getStepCount());
+        Float8Vector calories = (Float8Vector) root.getVector("caloriesBurned");
+        if (session.getCaloriesBurned() == null) {
+            calories.setNull(i);
+        } else {
+            calories.setSafe(i, session.getCaloriesBurned());
+        }
+        setInt(root, "averageHeartRate", i, session.getAverageHeartRate());
+        setInt(root, "minHeartRate", i, session.getMinHeartRate());
+        setInt(root, "maxHeartRate", i, session.getMaxHeartRate());
+        setString(root, "exerciseType", i, session.getExerciseType());
+        setString(root, "exerciseTitle", i, session.getExerciseTitle());
+        setString(root, "dataSource", i, session.getDataSource());
+        setString(root, "healthConnectRecordId", i, session.getHealthConnectRecordId());
+        setInstant(root, "ingestedAt", i, session.getIngestedAt());
+        ((BitVector) root.getVector("processed")).setSafe(i, session.getProcessed() ? 1 : 0);
+        setLong(root, "version", i, session.getVersion());
+        setInstant(root, "createdAt", i, session.getCreatedAt());
+        setInstant(root, "updatedAt", i, session.getUpdatedAt());
+        ((BitVector) root.getVector("isDeleted")).setSafe(i, session.isDeleted() ? 1 : 0);
+    }
+
+    private ActivitySession readRow(VectorSchemaRoot root, int i, String userId) {
+        Float8Vector calories = (Float8Vector) root.getVector("caloriesBurned");
+        ActivitySession session = ActivitySession.builder()
+                .userId(userId)
+                .activityType(ActivityType.fromCode(((TinyIntVector) root.getVector("activityType")).get(i)))
+                .startTime(getInstant(root, "startTime", i))
+                .endTime(getInstant(root, "endTime", i))
+                .timezone(getString(root, "timezone", i))
+                .stepCount(getLong(root, "stepCount", i))
+                .caloriesBurned(calories.isNull(i) ? null : calories.get(i))
+                .averageHeartRate(getInt(root, "averageHeartRate", i))
+                .minHeartRate(getInt(root, "minHeartRate", i))
+                .maxHeartRate(getInt(root, "maxHeartRate", i))
+                .exerciseType(getString(root, "exerciseType", i))
+                .exerciseTitle(getString(root, "exerciseTitle", i))
+                .dataSource(getString(root, "dataSource", i))
+                .healthConnectRecordId(getString(root, "healthConnectRecordId", i))
+                .ingestedAt(getInstant(root, "ingestedAt", i))
+                .processed(((BitVector) root.getVector("processed")).get(i) == 1)
+                .version(getLong(root, "version", i))
+                .build();
+        session.setId(UUID.fromString(getString(root, "id", i)));
+        session.setCreatedAt(getInstant(root, "createdAt", i));
+        session.setUpdatedAt(getInstant(root, "updatedAt", i));
+        session.setIsDeleted(((BitVector) root.getVector("isDeleted")).get(i) == 1);
+        return session;
+    }
+
+    // Vector accessors
+
+    private static void setString(VectorSchemaRoot root, String name, int i, String value) {
+        VarCharVector vector = (VarCharVector) root.getVector(name);
+        if (value == null) {
+            vector.setNull(i);
+        } else {
+            vector.setSafe(i, value.getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    private static void setLong(VectorSchemaRoot root, String name, int i, Long value) {
+        BigIntVector vector = (BigIntVector) root.getVector(name);
+        if (value == null) {
+            vector.setNull(i);
+        } else {
+            vector.setSafe(i, value);
+        }
+    }
+
+    private static void setInt(VectorSchemaRoot root, String name, int i, Integer value) {
+        IntVector vector = (IntVector) root.getVector(name);
+        if (value == null) {
+            vector.setNull(i);
+        } else {
+            vector.setSafe(i, value);
+        }
+    }
+
+    private static void setInstant(VectorSchemaRoot root, String name, int i, Instant value) {
+        TimeStampMicroTZVector vector = (TimeStampMicroTZVector) root.getVector(name);
+        if (value == null) {
+            vector.setNull(i);
+        } else {
+            vector.setSafe(i, ChronoUnit.MICROS.between(Instant.EPOCH, value));
+        }
+    }
+
+    private static String getString(VectorSchemaRoot root, String name, int i) {
+        VarCharVector vector = (VarCharVector) root.getVector(name);
+        return vector.isNull(i) ? null : new String(vector.get(i), StandardCharsets.UTF_8);
+    }
+
+    private static Long getLong(VectorSchemaRoot root, String name, int i) {
+        BigIntVector vector = (BigIntVector) root.getVector(name);
+        return vector.isNull(i) ? null : vector.get(i);
+    }
+
+    private static Integer getInt(VectorSchemaRoot root, String name, int i) {
+        IntVector vector = (IntVector) root.getVector(name);
+        return vector.isNull(i) ? null : vector.get(i);
+    }
+
+    private static Instant getInstant(VectorSchemaRoot root, String name, int i) {
+        TimeStampMicroTZVector vector = (TimeStampMicroTZVector) root.getVector(name);
+        return vector.isNull(i) ? null : Instant.EPOCH.plus(vector.get(i), ChronoUnit.MICROS);
+    }
+
+    private static ArrowType timestampType() {
+        return new ArrowType.Timestamp(TimeUnit.MICROSECOND, "UTC");
+    }
+
+    private static Instant instant(ResultSet resultSet, String column) throws SQLException {
+        OffsetDateTime value = resultSet.getObject(column, OffsetDateTime.class);
+        return value != null ? value.toInstant() : null;
+    }
+
+    private static OffsetDateTime utc(Instant instant) {
+        return instant != null ? instant.atOffset(ZoneOffset.UTC) : null;
+    }
+
+    /**
+     * Get the month of a partition named like activity_sessions_2025_01.
+     */
+    private static YearMonth monthOfPartition(String partition) {
+        String suffix = partition.substring(partition.length() - "yyyy_MM".length());
+        return YearMonth.of(Integer.parseInt(suffix.substring(0, 4)), Integer.parseInt(suffix.substring(5)));
+    }
+
+    /**
+     * Name a user's archive file by a hash of the user ID, so IDs never end up in paths.
+     */
+    private static String fileNameOf(String userId) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(userId.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, 16) + ".arrow";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySession;
+import com.worktime.repository.SessionDurationBoundRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.stream.Collectors;
+
+/**
+ * Service keeping the longest session duration of each user.
+ *
+ * <p>Overlap lookups on the {@code (user_id, start_time, id)} index scan back from their
+ * range start by this bound, so sessions that started earlier but still overlap are
+ * found without capping how long a session may be. The bound is raised in the
+ * transaction storing a session and never lowered.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionDurationBoundService {
+
+    private final SessionDurationBoundRepository sessionDurationBoundRepository;
+
+    /**
+     * Get the longest session duration of a user.
+     *
+     * @param userId the user ID
+     * @return the bound, zero if the user has no sessions
+     */
+    @Transactional(readOnly = true)
+    public Duration maxDurationOf(String userId) {
+        return sessionDurationBoundRepository.findByUserId(userId)
+                .map(bound -> Duration.ofSeconds(bound.getMaxDurationSeconds()))
+                .orElse(Duration.ZERO);
+    }
+
+    /**
+     * Get the longest session duration of all users.
+     *
+     * @return the bound, zero if there are no sessions
+     */
+    @Transactional(readOnly = true)
+    public Duration maxDuration() {
+        Long seconds = sessionDurationBoundRepository.findLongestDurationSeconds();
+        return seconds != null ? Duration.ofSeconds(seconds) : Duration.ZERO;
+    }
+
+    /**
+     * Raise the bounds of the users of sessions being stored.
+     *
+     * @param sessions the sessions
+     */
+    @Transactional
+    public void record(Collection<ActivitySession> sessions) {
+        Instant now = Instant.now();
+        sessions.stream()
+                .collect(Collectors.toMap(ActivitySession::getUserId,
+                        SessionDurationBoundService::secondsOf, Math::max))
+                .forEach((userId, seconds) -> {
+                    sessionDurationBoundRepository.raise(userId, seconds, now);
+                    log.debug("Recorded session duration of {}s for user {}", seconds, userId);
+                });
+    }
+
+    // Rounded up, so the bound covers sub-second remainders
+    private static long secondsOf(ActivitySession session) {
+        Duration duration = Duration.between(session.getStartTime(), session.getEndTime());
+        return duration.getNano() > 0 ? duration.getSeconds() + 1 : duration.getSeconds();
+    }
+}
@@ -0,0 +1,118 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.SessionDayLineage;
+import com.worktime.repository.SessionDayLineageRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+/**
+ * Service recording which days each split session contributes to, so deletes, schedule
+ * changes and resplits recompute exactly those days instead of guessing from segments.
+ *
+ * <p>The lineage is written when a session is split and kept when segments are
+ * compacted away or the session is archived. Finding the sessions on a day is one
+ * indexed range lookup on the first day, reaching back as far as the longest session
+ * of the user (or of all users) can span.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SessionLineageService {
+
+    private final SessionDayLineageRepository sessionDayLineageRepository;
+    private final SessionDurationBoundService sessionDurationBoundService;
+
+    /**
+     * Record the days of a session's segments, replacing those of an earlier split.
+     *
+     * @param session the split session
+     * @param segments the segments produced for the session
+     */
+    @Transactional
+    public void record(ActivitySession session, List<ActivitySegment> segments) {
+        if (segments.isEmpty()) {
+            return;
+        }
+        TreeSet<LocalDate> dates = new TreeSet<>();
+        segments.forEach(segment -> dates.add(segment.getActivityDate()));
+
+        sessionDayLineageRepository.record(session.getId(), session.getUserId(), dates.first(), dates.last(),
+                SessionDayLineage.maskOf(dates.first(), dates), Instant.now());
+        log.debug("Recorded lineage of session {}: {}", session.getId(), dates);
+    }
+
+    /**
+     * Get the days a session contributes to.
+     *
+     * @param sessionId the session ID
+     * @return the days in order, empty if the session was never split
+     */
+    @Transactional(readOnly = true)
+    public List<LocalDate> datesOf(UUID sessionId) {
+        return sessionDayLineageRepository.findBySessionId(sessionId)
+                .map(SessionDayLineage::getDates)
+                .orElse(List.of());
+    }
+
+    /**
+     * Find the lineage of a user's sessions contributing to any matching day in a range.
+     *
+     * @param userId the user ID
+     * @param startDate the start date (inclusive)
+     * @param endDate the end date (inclusive)
+     * @param affected the days of the range that matter
+     * @return list of matching lineage rows
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDayLineage> findCovering(String userId, LocalDate startDate, LocalDate endDate,
+                                                Predicate<LocalDate> affected) {
+        return sessionDayLineageRepository
+                .findByUserIdAndFirstDateBetween(userId, earliestFirstDate(startDate,
+                        sessionDurationBoundService.maxDurationOf(userId)), endDate).stream()
+                .filter(lineage -> covers(lineage, startDate, endDate, affected))
+                .toList();
+    }
+
+    /**
+     * Find the lineage of all users' sessions contributing to a day.
+     *
+     * @param date the day
+     * @return list of matching lineage rows
+     */
+    @Transactional(readOnly = true)
+    public List<SessionDayLineage> findCovering(LocalDate date) {
+        return sessionDayLineageRepository.findByFirstDateBetween(earliestFirstDate(date,
+                        sessionDurationBoundService.maxDuration()), date).stream()
+                .filter(lineage -> lineage.getDates().contains(date))
+                .toList();
+    }
+
+    /**
+     * Earliest first day of a session reaching a day. A session of n whole days touches
+     * at most n + 2 local days; one more day is allowed for short DST days.
+     */
+    private LocalDate earliestFirstDate(LocalDate date, Duration maxSessionDuration) {
+        return date.minusDays(maxSessionDuration.toDays() + 2);
+    }
+
+    private boolean covers(SessionDayLineage lineage, LocalDate startDate, LocalDate endDate,
+                           Predicate<LocalDate> affected) {
+        return lineage.getDates().stream()
+                .anyMatch(date -> !date.isBefore(startDate) && !date.isAfter(endDate) && affected.test(date));
+    }
+}
@@ -0,0 +1,195 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.PendingResplit;
+import com.worktime.model.SessionDayLineage;
+import com.worktime.repository.ActivitySegmentRepository;
+import com.worktime.repository.ActivitySessionRepository;
+import com.worktime.repository.PendingResplitRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/**
+ * Service splitting sessions again after the schedule they were split against changed,
+ * so their work-hours and off-hours segments match the new schedule.
+ *
+ * <p>The sessions to resplit are found through their day lineage and queued in the
+ * transaction that changes the schedule, so a committed change always has its sessions
+ * queued and the request does not wait for them. The queue is drained in the
+ * background, as {@link DirtyDayService} drains re-aggregations: each session is
+ * resplit once however many times it was queued, in its own transaction on its user's
+ * lane, while its queue row stays locked. The session is retracted from step rollups
+ * and its live segments are soft deleted, it is split and its overlaps are resolved
+ * again, and the days of the old and new segments are queued for re-aggregation. A
+ * session that fails is moved to the back of the queue and retried by the next run.
+ *
+ * <p>Sessions that are archived, deleted or not split yet are skipped.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class SessionResplitService {
+
+    private final ActivitySessionRepository activitySessionRepository;
+    private final ActivitySegmentRepository activitySegmentRepository;
+    private final PendingResplitRepository pendingResplitRepository;
+    private final SessionSplitterService sessionSplitterService;
+    private final OverlapResolverService overlapResolverService;
+    private final StepCompactionService stepCompactionService;
+    private final SessionLineageService sessionLineageService;
+    private final DirtyDayService dirtyDayService;
+    private final UserLaneService userLaneService;
+    private final TransactionTemplate transactionTemplate;
+
+    @Value("${worktime.resplit.lookback:P90D}")
+    private Duration lookback;
+
+    @Value("${worktime.resplit.batch-size:200}")
+    private int batchSize;
+
+    public SessionResplitService(ActivitySessionRepository activitySessionRepository,
+                                 ActivitySegmentRepository activitySegmentRepository,
+                                 PendingResplitRepository pendingResplitRepository,
+                                 SessionSplitterService sessionSplitterService,
+                                 OverlapResolverService overlapResolverService,
+                                 StepCompactionService stepCompactionService,
+                                 SessionLineageService sessionLineageService,
+                                 DirtyDayService dirtyDayService,
+                                 UserLaneService userLaneService,
+                                 PlatformTransactionManager transactionManager) {
+        this.activitySessionRepository = activitySessionRepository;
+        this.activitySegmentRepository = activitySegmentRepository;
+        this.pendingResplitRepository = pendingResplitRepository;
+        this.sessionSplitterService = sessionSplitterService;
+        this.overlapResolverService = overlapResolverService;
+        this.stepCompactionService = stepCompactionService;
+        this.sessionLineageService = sessionLineageService;
+        this.dirtyDayService = dirtyDayService;
+        this.userLaneService = userLaneService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Queue a user's sessions on the given days of the week within the lookback period
+     * for a resplit.
+     *
+     * @param userId the user ID
+     * @param daysOfWeek the days of the week whose schedule changed
+     */
+    @Transactional
+    public void queueWeekdays(String userId, Set<DayOfWeek> daysOfWeek) {
+        LocalDate endDate = LocalDate.now(ZoneOffset.UTC).plusDays(1);
+        LocalDate startDate = endDate.minusDays(lookback.toDays());
+        List<SessionDayLineage> lineages = sessionLineageService.findCovering(
+                userId, startDate, endDate, date -> daysOfWeek.contains(date.getDayOfWeek()));
+
+        queue(lineages);
+        log.info("Queued {} sessions of user {} on {} from {} to {} for a resplit",
+                lineages.size(), userId, daysOfWeek, startDate, endDate);
+    }
+
+    /**
+     * Queue all users' sessions on a day for a resplit.
+     *
+     * @param date the day whose schedule changed
+     */
+    @Transactional
+    public void queueDate(LocalDate date) {
+        List<SessionDayLineage> lineages = sessionLineageService.findCovering(date);
+
+        queue(lineages);
+        log.info("Queued {} sessions on {} for a resplit", lineages.size(), date);
+    }
+
+    /**
+     * Resplit up to one batch of queued sessions, oldest queued first.
+     *
+     * @return the number of sessions resplit
+     */
+    @Scheduled(fixedDelayString = "${worktime.resplit.drain-delay:PT1M}")
+    public int drain() {
+        int resplit = 0;
+
+        for (int attempt = 0; attempt < batchSize; attempt++) {
+            // Only picks the session; it is claimed again on its user's lane
+            Optional<PendingResplit> next = transactionTemplate.execute(status ->
+                    pendingResplitRepository.claimNext());
+            if (next == null || next.isEmpty()) {
+                break;
+            }
+
+            PendingResplit pending = next.get();
+            try {
+                Boolean done = userLaneService.call(pending.getUserId(),
+                        () -> transactionTemplate.execute(status ->
+                                pendingResplitRepository.claim(pending.getSessionId())
+                                        .map(claimed -> {
+                                            pendingResplitRepository.delete(claimed);
+                                            return resplitSession(claimed.getSessionId());
+                                        })
+                                        .orElse(false)));
+                if (Boolean.TRUE.equals(done)) {
+                    resplit++;
+                }
+            } catch (RuntimeException e) {
+                log.error("Failed to resplit session {}: {}", pending.getSessionId(), e.getMessage(), e);
+                // Move the session to the back of the queue so it does not block the others
+                transactionTemplate.executeWithoutResult(status -> pendingResplitRepository.mark(
+                        pending.getSessionId(), pending.getUserId(), Instant.now()));
+                break;
+            }
+        }
+
+        if (resplit > 0) {
+            log.info("Resplit {} queued sessions", resplit);
+        }
+        return resplit;
+    }
+
+    private void queue(List<SessionDayLineage> lineages) {
+        Instant now = Instant.now();
+        for (SessionDayLineage lineage : lineages) {
+            pendingResplitRepository.mark(lineage.getSessionId(), lineage.getUserId(), now);
+        }
+    }
+
+    private boolean resplitSession(UUID sessionId) {
+        ActivitySession session = activitySessionRepository.findById(sessionId).orElse(null);
+        if (session == null || session.isDeleted() || !session.getProcessed()) {
+            log.debug("Session {} is archived, deleted or not split yet. Skipping.", sessionId);
+            return false;
+        }
+
+        TreeSet<LocalDate> affectedDates = new TreeSet<>(sessionLineageService.datesOf(sessionId));
+        stepCompactionService.retract(session);
+        activitySegmentRepository.softDeleteBySessionId(sessionId, Instant.now());
+
+        // The bulk update cleared the persistence context
+        session = activitySessionRepository.findById(sessionId).orElseThrow();
+        List<ActivitySegment> segments = sessionSplitterService.splitSession(session);
+        overlapResolverService.resolve(session, segments);
+
+        segments.forEach(segment -> affectedDates.add(segment.getActivityDate()));
+        dirtyDayService.markDirty(session.getUserId(), affectedDates);
+        return true;
+    }
+}
@@ -1,6 +1,7 @@
 package com.worktime.service;
 
 import com.worktime.model.*;
+import com.worktime.model.enums.ActivityType;
 import com.worktime.model.enums.OverrideType;
 import com.worktime.model.enums.TimeSegmentType;
 import com.worktime.repository.ActivitySegmentRepository;
@@ -26,6 +27,8 @@ import java.util.Optional;
  *   <li>Splits sessions that cross work hour boundaries</li>
  *   <li>Handles sessions spanning multiple days</li>
  *   <li>Proportionally allocates metrics to each segment</li>
+ *   <li>Accounts heart rate time in the user's heart rate zones</li>
+ *   <li>Records the days the session contributes to (lineage)</li>
  * </ul>
  *
  * @author Thang
@@ -39,6 +42,8 @@ public class SessionSplitterService {
     private final WorkingScheduleRepository workingScheduleRepository;
     private final ScheduleOverrideRepository scheduleOverrideRepository;
     private final ActivitySegmentRepository activitySegmentRepository;
+    private final HeartRateZoneService heartRateZoneService;
+    private final SessionLineageService sessionLineageService;
 
     /**
      * Split an activity session into work-time and off-hours segments.
@@ -86,9 +91,20 @@ public class SessionSplitterService {
             currentSegmentStart = currentDate.atStartOfDay(userZone);
         }
 
+        // Account heart rate time in zones
+        if (session.getActivityType() == ActivityType.HEART_RATE && session.getAverageHeartRate() != null) {
+            HeartRateZoneService.HeartRateZones zones = heartRateZoneService.zonesFor(session.getUserId());
+            int zone = zones.zoneOf(session.getAverageHeartRate());
+            segments.forEach(segment -> segment.setHeartRateZoneSeconds(
+                    zoneSeconds(zone, segment.getDurationSeconds())));
+        }
+
         // Save all segments
         List<ActivitySegment> savedSegments = activitySegmentRepository.saveAll(segments);
 
+        // Remember the days the session contributes to, for targeted invalidation
+        sessionLineageService.record(session, savedSegments);
+
         log.info("Session {} split into {} segments", session.getId(), savedSegments.size());
         return savedSegments;
     }
@@ -196,6 +212,7 @@ public class SessionSplitterService {
         // Allocate metrics proportionally
         return ActivitySegment.builder()
                 .session(session)
+                .userId(session.getUserId())
                 .segmentType(segmentType)
                 .activityDate(date)
                 .startTime(start.toInstant())
@@ -211,15 +228,33 @@ public class SessionSplitterService {
                 .build();
     }
 
+    /**
+     * Build a fixed-width zone array attributing a duration to one zone.
+     * Heart rate records carry a single average, so the whole segment is
+     * attributed to the zone of that average.
+     *
+     * @param zone the zone index, or -1 if below the first zone
+     * @param durationSeconds the segment duration
+     * @return seconds per zone
+     */
+    private int[] zoneSeconds(int zone, long durationSeconds) {
+        int[] seconds = new int[HeartRateZoneConfig.ZONE_COUNT];
+        if (zone >= 0) {
+            seconds[zone] = (int) durationSeconds;
+        }
+        return seconds;
+    }
+
     /**
      * Get work hours boundaries for a specific date.
+     * Also used by the minute bitmap stage to mark the day's work-hours minutes.
      *
      * @param userId the user ID
      * @param date the date to check
      * @param zone the timezone
      * @return optional work hours boundary
      */
-    private Optional<WorkHoursBoundary> getWorkHoursForDate(
+    Optional<WorkHoursBoundary> getWorkHoursForDate(
             String userId, LocalDate date, ZoneId zone) {
 
         // Check for schedule override first
@@ -307,5 +342,5 @@ public class SessionSplitterService {
     /**
      * Record class to hold work hours boundary times.
      */
-    private record WorkHoursBoundary(ZonedDateTime startTime, ZonedDateTime endTime) {}
+    record WorkHoursBoundary(ZonedDateTime startTime, ZonedDateTime endTime) {}
 }
@@ -0,0 +1,343 @@
+package com.worktime.service;
+
+import com.worktime.model.ActivitySegment;
+import com.worktime.model.ActivitySession;
+import com.worktime.model.StepRollup;
+import com.worktime.model.enums.ActivityType;
+import com.worktime.model.enums.TimeSegmentType;
+import com.worktime.repository.ActivitySegmentRepository;
+import com.worktime.repository.StepRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Service compacting fine-grained step segments into fixed-size rollup buckets.
+ *
+ * <p>Runs on schedule over settled days: days older than
+ * {@code worktime.compaction.settle-after}, whose overlaps are resolved for good. A
+ * segment of a STEPS session is compacted when it lies entirely within one bucket
+ * (aligned to the epoch, 15 minutes by default): its attributed totals are added to the
+ * rollup of its user, data source, segment type and bucket, and the segment row is
+ * deleted. Longer segments are kept as they are. Daily aggregation reads rollups and
+ * remaining segments together, so totals are unchanged.
+ *
+ * <p>Each session's share of a rollup is recorded, with the minutes of the bucket its
+ * segments covered, so deleting or resplitting the session retracts it, minute bitmaps
+ * and profiles rebuilt from rollups keep the session's minutes and zone, and a late
+ * session overlapping a rollup turns the sessions in it back into segments before
+ * overlaps are resolved.
+ *
+ * <p>Raw sessions remain the source of truth; rollups only replace derived segment rows.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class StepCompactionService {
+
+    private static final String CONTRIBUTIONS_SQL = """
+            SELECT c.rollup_id, c.session_id, c.step_count, c.duration_seconds, c.segment_count, c.minute_mask
+            FROM step_rollup_contributions c JOIN step_rollups r ON r.id = c.rollup_id
+            WHERE r.user_id = ? AND r.activity_date = ?
+            ORDER BY c.rollup_id, c.session_id
+            """;
+
+    private final StepRollupRepository stepRollupRepository;
+    private final ActivitySegmentRepository activitySegmentRepository;
+    private final UserLaneService userLaneService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration bucket;
+    private final int bucketMinutes;
+
+    @Value("${worktime.compaction.enabled:false}")
+    private boolean enabled;
+
+    @Value("${worktime.compaction.settle-after:P7D}")
+    private Duration settleAfter;
+
+    @Value("${worktime.compaction.catch-up:P7D}")
+    private Duration catchUp;
+
+    public StepCompactionService(StepRollupRepository stepRollupRepository,
+                                 ActivitySegmentRepository activitySegmentRepository,
+                                 UserLaneService userLaneService,
+                                 JdbcTemplate jdbcTemplate,
+                                 PlatformTransactionManager transactionManager,
+                                 @Value("${worktime.compaction.bucket:PT15M}") Duration bucket) {
+        // Minute masks of contributions are longs
+        if (bucket.isNegative() || bucket.isZero() || bucket.toSecondsPart() != 0 || bucket.toNanosPart() != 0
+                || bucket.toMinutes() > Long.SIZE) {
+            throw new IllegalArgumentException(
+                    "Compaction bucket must be whole minutes, at most " + Long.SIZE + ": " + bucket);
+        }
+        this.stepRollupRepository = stepRollupRepository;
+        this.activitySegmentRepository = activitySegmentRepository;
+        this.userLaneService = userLaneService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bucket = bucket;
+        this.bucketMinutes = (int) bucket.toMinutes();
+    }
+
+    /**
+     * Compact the days that settled since the last runs, catching up on missed runs.
+     * Each user's day is compacted in its own transaction on the user's lane.
+     */
+    @Scheduled(cron = "${worktime.compaction.cron:0 0 5 * * *}")
+    public void compactSettledDays() {
+        if (!enabled) {
+            return;
+        }
+
+        LocalDate cutoff = LocalDate.now(ZoneOffset.UTC).minusDays(settleAfter.toDays());
+        int compacted = 0;
+        for (LocalDate date = cutoff.minusDays(catchUp.toDays()); date.isBefore(cutoff); date = date.plusDays(1)) {
+            for (String userId : activitySegmentRepository.findUserIdsByActivityDate(date)) {
+                LocalDate day = date;
+                try {
+                    Integer count = userLaneService.call(userId,
+                            () -> transactionTemplate.execute(status -> compactDay(userId, day)));
+                    compacted += count != null ? count : 0;
+                } catch (RuntimeException e) {
+                    log.error("Failed to compact steps of user {} on {}: {}", userId, day, e.getMessage(), e);
+                }
+            }
+        }
+        log.info("Compacted {} step segments of days before {}", compacted, cutoff);
+    }
+
+    /**
+     * Subtract a session's compacted segments from their rollups, e.g. before it is
+     * deleted or split again. Rollups left empty are deleted.
+     *
+     * @param session the session
+     * @return the number of rollups the session contributed to
+     */
+    @Transactional
+    public int retract(ActivitySession session) {
+        int rollups = stepRollupRepository.retract(session.getId(), Instant.now());
+        if (rollups > 0) {
+            stepRollupRepository.deleteEmpty(session.getUserId());
+            log.debug("Retracted session {} from {} step rollups", session.getId(), rollups);
+        }
+        return rollups;
+    }
+
+    /**
+     * Split a day's rollups into the shares of their contributing sessions, so readers
+     * place each share in its session's zone and minutes. The part of a rollup compacted
+     * before shares were recorded is given to a session of the rollup's data source,
+     * preferably one running at the bucket start, and covers the whole bucket.
+     *
+     * @param userId the user ID
+     * @param date the local date
+     * @param rollups the day's rollups
+     * @param sessions the sessions of the day by ID, archived ones included
+     * @return the shares; those of sessions not found are left out
+     */
+    @Transactional(readOnly = true)
+    public List<RollupShare> sharesOf(String userId, LocalDate date, List<StepRollup> rollups,
+                                      Map<UUID, ActivitySession> sessions) {
+        Map<UUID, StepRollup> rollupsById = new HashMap<>();
+        rollups.forEach(rollup -> rollupsById.put(rollup.getId(), rollup));
+        Map<UUID, BucketTotals> recorded = new HashMap<>();
+        List<RollupShare> shares = new ArrayList<>();
+
+        jdbcTemplate.query(CONTRIBUTIONS_SQL, row -> {
+            StepRollup rollup = rollupsById.get(row.getObject("rollup_id", UUID.class));
+            if (rollup == null) {
+                return;
+            }
+            UUID sessionId = row.getObject("session_id", UUID.class);
+            long steps = row.getLong("step_count");
+            long seconds = row.getLong("duration_seconds");
+            Long minuteMask = row.getObject("minute_mask", Long.class);
+
+            BucketTotals totals = recorded.computeIfAbsent(rollup.getId(), id -> new BucketTotals());
+            totals.steps += steps;
+            totals.seconds += seconds;
+            totals.count += row.getInt("segment_count");
+
+            ActivitySession session = sessions.get(sessionId);
+            if (session == null) {
+                log.warn("Session {} of step rollup {} not found. Skipping its share.", sessionId, rollup.getId());
+                return;
+            }
+            // Shares recorded before minute masks cover the whole bucket
+            shares.add(new RollupShare(rollup, session, steps, seconds,
+                    minuteMask != null ? minuteMask : fullMask()));
+        }, userId, Date.valueOf(date));
+
+        for (StepRollup rollup : rollups) {
+            BucketTotals totals = recorded.getOrDefault(rollup.getId(), new BucketTotals());
+            if (rollup.getSegmentCount() <= totals.count) {
+                continue;
+            }
+            Optional<ActivitySession> session = unrecordedSessionOf(rollup, sessions);
+            if (session.isEmpty()) {
+                log.warn("No session of data source {} for step rollup {}. Skipping it.",
+                        rollup.getDataSource(), rollup.getId());
+                continue;
+            }
+            shares.add(new RollupShare(rollup, session.get(), rollup.getStepCount() - totals.steps,
+                    rollup.getDurationSeconds() - totals.seconds, fullMask()));
+        }
+        return shares;
+    }
+
+    /**
+     * Compact the eligible segments of a user's STEPS sessions on a settled day.
+     */
+    private int compactDay(String userId, LocalDate date) {
+        Map<UUID, List<ActivitySegment>> segmentsBySession = activitySegmentRepository
+                .findByUserIdAndActivityTypeAndActivityDate(userId, ActivityType.STEPS, date).stream()
+                .collect(Collectors.groupingBy(segment -> segment.getSession().getId(),
+                        LinkedHashMap::new, Collectors.toList()));
+
+        int compacted = 0;
+        for (List<ActivitySegment> sessionSegments : segmentsBySession.values()) {
+            compacted += compact(sessionSegments.getFirst().getSession(), sessionSegments);
+        }
+        return compacted;
+    }
+
+    /**
+     * Compact the eligible segments of a session.
+     */
+    private int compact(ActivitySession session, List<ActivitySegment> segments) {
+        Map<BucketKey, BucketTotals> buckets = new LinkedHashMap<>();
+        List<ActivitySegment> compacted = new ArrayList<>();
+
+        for (ActivitySegment segment : segments) {
+            if (segment.getAverageHeartRate() != null || segment.getHeartRateZoneSeconds() != null) {
+                continue;
+            }
+            Instant bucketStart = bucketStartOf(segment.getStartTime());
+            if (segment.getEndTime().isAfter(bucketStart.plus(bucket))) {
+                continue;
+            }
+
+            BucketTotals totals = buckets.computeIfAbsent(
+                    new BucketKey(segment.getSegmentType(), segment.getActivityDate(), bucketStart),
+                    key -> new BucketTotals());
+            totals.add(segment);
+            totals.minuteMask |= minuteMaskOf(bucketStart, segment.getStartTime(), segment.getEndTime());
+            compacted.add(segment);
+        }
+
+        if (compacted.isEmpty()) {
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        buckets.forEach((key, totals) -> stepRollupRepository.accumulate(
+                session.getUserId(), session.getDataSource(), key.segmentType().name(), key.activityDate(),
+                key.bucketStart(), key.bucketStart().plus(bucket), session.getId(),
+                totals.steps, totals.calories, totals.seconds, totals.count, totals.minuteMask, now));
+
+        activitySegmentRepository.deleteAllInBatch(compacted);
+
+        log.debug("Compacted {} segments of session {} into {} rollup buckets",
+                compacted.size(), session.getId(), buckets.size());
+        return compacted.size();
+    }
+
+    /**
+     * Align an instant down to the start of its bucket.
+     */
+    private Instant bucketStartOf(Instant instant) {
+        long bucketSeconds = bucket.getSeconds();
+        return Instant.ofEpochSecond(Math.floorDiv(instant.getEpochSecond(), bucketSeconds) * bucketSeconds);
+    }
+
+    /**
+     * Get the minutes of a bucket a time range touches, as a mask; instantaneous records
+     * still mark the minute they fall in.
+     */
+    private long minuteMaskOf(Instant bucketStart, Instant start, Instant end) {
+        int fromMinute = (int) Math.floorDiv(Duration.between(bucketStart, start).toSeconds(), 60);
+        int toMinute = (int) -Math.floorDiv(-Duration.between(bucketStart, end).toSeconds(), 60);
+        toMinute = Math.min(Math.max(toMinute, fromMinute + 1), bucketMinutes);
+        return maskOf(toMinute - fromMinute) << fromMinute;
+    }
+
+    private long fullMask() {
+        return maskOf(bucketMinutes);
+    }
+
+    private static long maskOf(int minutes) {
+        return minutes == Long.SIZE ? -1L : (1L << minutes) - 1;
+    }
+
+    /**
+     * Pick the session a rollup's unrecorded part is given to: a STEPS session of its
+     * data source, preferably running at the bucket start.
+     */
+    private Optional<ActivitySession> unrecordedSessionOf(StepRollup rollup, Map<UUID, ActivitySession> sessions) {
+        Instant bucketStart = rollup.getBucketStart();
+        return sessions.values().stream()
+                .filter(session -> session.getActivityType() == ActivityType.STEPS
+                        && rollup.getDataSource().equals(session.getDataSource()))
+                .min(Comparator.comparing((ActivitySession session) -> session.getStartTime().isAfter(bucketStart)
+                                || !session.getEndTime().isAfter(bucketStart))
+                        .thenComparing(ActivitySession::getId));
+    }
+
+    /**
+     * A session's share of a step rollup.
+     *
+     * @param rollup the rollup
+     * @param session the contributing session
+     * @param stepCount the steps of the share
+     * @param durationSeconds the segment seconds of the share
+     * @param minuteMask the minutes of the bucket covered; bit i is the minute i minutes after its start
+     */
+    public record RollupShare(StepRollup rollup, ActivitySession session, long stepCount,
+                              long durationSeconds, long minuteMask) {}
+
+    private record BucketKey(TimeSegmentType segmentType, LocalDate activityDate, Instant bucketStart) {}
+
+    private static class BucketTotals {
+        private long steps;
+        private double calories;
+        private long seconds;
+        private int count;
+        private long minuteMask;
+
+        void add(ActivitySegment segment) {
+            if (segment.getCountedStepCount() != null) {
+                steps += segment.getCountedStepCount();
+            }
+            if (segment.getCountedCalories() != null) {
+                calories += segment.getCountedCalories();
+            }
+            if (segment.getDurationSeconds() != null) {
+                seconds += segment.getDurationSeconds();
+            }
+            count++;
+        }
+    }
+}
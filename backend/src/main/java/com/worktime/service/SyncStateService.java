@@ -0,0 +1,82 @@
+package com.worktime.service;
+
+import com.worktime.dto.activitysession.ActivitySessionRequest;
+import com.worktime.dto.syncstate.SyncStateResponse;
+import com.worktime.repository.SyncStateRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Service tracking how far each user's data sources have been ingested.
+ *
+ * <p>Ingestion reports the sessions it accepted; they are grouped by user and data source
+ * and each group advances its sync state with one upsert in the ingestion transaction.
+ * Duplicates count as accepted, so a client re-syncing after a reinstall moves the
+ * high-water mark in a single round trip.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SyncStateService {
+
+    private final SyncStateRepository syncStateRepository;
+
+    /**
+     * Advance the sync states covered by a set of accepted sessions.
+     *
+     * @param accepted the sessions stored or recognised as duplicates
+     * @param changeToken the changes token the upload completes, or null
+     */
+    @Transactional
+    public void recordIngested(Collection<ActivitySessionRequest> accepted, String changeToken) {
+        Map<SyncKey, Progress> progress = new LinkedHashMap<>();
+        for (ActivitySessionRequest request : accepted) {
+            progress.computeIfAbsent(new SyncKey(request.userId(), request.dataSource()), key -> new Progress())
+                    .add(request.endTime());
+        }
+
+        Instant now = Instant.now();
+        progress.forEach((key, p) -> {
+            syncStateRepository.advance(key.userId(), key.dataSource(), p.maxEndTime, changeToken, p.count, now);
+            log.debug("Advanced sync state of user {} ({}) to {}", key.userId(), key.dataSource(), p.maxEndTime);
+        });
+    }
+
+    /**
+     * Get the sync states of a user, one per data source.
+     *
+     * @param userId the user ID
+     * @return list of sync state responses (empty if nothing was ingested yet)
+     */
+    @Transactional(readOnly = true)
+    public List<SyncStateResponse> getSyncStates(String userId) {
+        log.debug("Fetching sync states for user {}", userId);
+
+        return syncStateRepository.findResponsesByUserId(userId);
+    }
+
+    private record SyncKey(String userId, String dataSource) {}
+
+    private static class Progress {
+        private Instant maxEndTime;
+        private long count;
+
+        void add(Instant endTime) {
+            if (maxEndTime == null || endTime.isAfter(maxEndTime)) {
+                maxEndTime = endTime;
+            }
+            count++;
+        }
+    }
+}
@@ -0,0 +1,283 @@
+package com.worktime.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Builder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Service hard-deleting soft-deleted sessions and segments once they are older than
+ * a retention period, so dead rows stop occupying the hot tables and their indexes.
+ *
+ * <p>Rows are purged oldest deletion first in small batches, one transaction each:
+ * <ul>
+ *   <li>A purged session takes all of its segments and its day lineage with it; days
+ *       that still counted one of those segments are queued for re-aggregation in the
+ *       same statement, and its Health Connect record ID is kept in deleted_record_ids
+ *       so a full re-sync does not ingest the record again</li>
+ *   <li>Soft-deleted segments of live sessions are purged on their own</li>
+ * </ul>
+ *
+ * <p>The purge throttles itself: it waits while any replica lags behind by more than
+ * the allowed replication lag, halves the batch size when a batch is slower than the
+ * target duration (I/O pressure) and grows it back when batches are fast. Progress is
+ * logged per batch and counted in the {@code worktime.purge.rows} metric.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class TombstonePurgeService {
+
+    private static final int MIN_BATCH_SIZE = 50;
+
+    // Marks dirty days before the segments they counted are gone (V21 dirty_days), and
+    // keeps the record IDs for duplicate detection (V25 deleted_record_ids)
+    private static final String PURGE_SESSIONS_SQL = """
+            WITH doomed AS (
+                SELECT id, start_time FROM activity_sessions
+                WHERE is_deleted = true AND updated_at < ?
+                ORDER BY updated_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            ), removed_segments AS (
+                DELETE FROM activity_segments seg USING doomed
+                WHERE seg.session_id = doomed.id
+                RETURNING seg.user_id, seg.activity_date, seg.is_deleted
+            ), marked AS (
+                INSERT INTO dirty_days (user_id, date, created_at, updated_at, is_deleted)
+                SELECT DISTINCT user_id, activity_date, NOW(), NOW(), FALSE
+                FROM removed_segments WHERE is_deleted = false
+                ON CONFLICT (user_id, date) DO UPDATE SET updated_at = EXCLUDED.updated_at
+                RETURNING 1
+            ), kept_record_ids AS (
+                INSERT INTO deleted_record_ids (health_connect_record_id, session_id, user_id, deleted_at,
+                                                created_at, updated_at, is_deleted)
+                SELECT s.health_connect_record_id, s.id, s.user_id, s.updated_at, NOW(), NOW(), FALSE
+                FROM activity_sessions s JOIN doomed ON s.id = doomed.id AND s.start_time = doomed.start_time
+                WHERE s.health_connect_record_id IS NOT NULL
+                ON CONFLICT (health_connect_record_id) DO NOTHING
+            ), removed_lineage AS (
+                DELETE FROM session_day_lineage l USING doomed
+                WHERE l.session_id = doomed.id
+            ), removed_sessions AS (
+                DELETE FROM activity_sessions s USING doomed
+                WHERE s.id = doomed.id AND s.start_time = doomed.start_time
+                RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM removed_sessions),
+                   (SELECT count(*) FROM removed_segments),
+                   (SELECT count(*) FROM marked)
+            """;
+
+    private static final String PURGE_SEGMENTS_SQL = """
+            WITH doomed AS (
+                SELECT id, activity_date FROM activity_segments
+                WHERE is_deleted = true AND updated_at < ?
+                ORDER BY updated_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            DELETE FROM activity_segments seg USING doomed
+            WHERE seg.id = doomed.id AND seg.activity_date = doomed.activity_date
+            """;
+
+    private static final String REPLICATION_LAG_SQL = """
+            SELECT COALESCE(MAX(EXTRACT(EPOCH FROM replay_lag)), 0) FROM pg_stat_replication
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Counter purgedSessions;
+    private final Counter purgedSegments;
+
+    @Value("${worktime.purge.enabled:false}")
+    private boolean enabled;
+
+    @Value("${worktime.purge.retention:P30D}")
+    private Duration retention;
+
+    @Value("${worktime.purge.batch-size:1000}")
+    private int batchSize;
+
+    @Value("${worktime.purge.target-batch-duration:PT1S}")
+    private Duration targetBatchDuration;
+
+    @Value("${worktime.purge.pause:PT0.1S}")
+    private Duration pause;
+
+    @Value("${worktime.purge.max-replication-lag:PT10S}")
+    private Duration maxReplicationLag;
+
+    @Value("${worktime.purge.max-run-duration:PT30M}")
+    private Duration maxRunDuration;
+
+    public TombstonePurgeService(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.purgedSessions = meterRegistry.counter("worktime.purge.rows", "table", "activity_sessions");
+        this.purgedSegments = meterRegistry.counter("worktime.purge.rows", "table", "activity_segments");
+    }
+
+    /**
+     * Run the purge on schedule when enabled.
+     */
+    @Scheduled(cron = "${worktime.purge.cron:0 30 4 * * *}")
+    public void scheduledPurge() {
+        if (enabled) {
+            purge();
+        }
+    }
+
+    /**
+     * Purge tombstones older than the retention period until none are left or the
+     * run exceeds its maximum duration.
+     *
+     * @return the totals of the run
+     */
+    public PurgeResult purge() {
+        Instant cutoff = Instant.now().minus(retention);
+        Instant deadline = Instant.now().plus(maxRunDuration);
+        log.info("Purging tombstones deleted before {}", cutoff);
+
+        int currentBatchSize = batchSize;
+        long sessions = 0;
+        long segments = 0;
+        long dirtyDays = 0;
+        int batches = 0;
+        boolean complete = false;
+
+        while (Instant.now().isBefore(deadline) && awaitReplicas(deadline)) {
+            long started = System.nanoTime();
+            int size = currentBatchSize;
+            long[] purged = transactionTemplate.execute(status -> purgeBatch(cutoff, size));
+            Duration took = Duration.ofNanos(System.nanoTime() - started);
+
+            if (purged == null || purged[0] + purged[1] + purged[3] == 0) {
+                complete = true;
+                break;
+            }
+
+            batches++;
+            sessions += purged[0];
+            segments += purged[1] + purged[3];
+            dirtyDays += purged[2];
+            purgedSessions.increment(purged[0]);
+            purgedSegments.increment(purged[1] + purged[3]);
+
+            currentBatchSize = nextBatchSize(currentBatchSize, took);
+            log.info("Purge batch {}: {} sessions, {} segments in {} ms (total: {} sessions, {} segments, "
+                            + "{} days queued; next batch size {})",
+                    batches, purged[0], purged[1] + purged[3], took.toMillis(),
+                    sessions, segments, dirtyDays, currentBatchSize);
+
+            if (!sleep(pause)) {
+                break;
+            }
+        }
+
+        PurgeResult result = PurgeResult.builder()
+                .purgedSessions(sessions)
+                .purgedSegments(segments)
+                .dirtyDays(dirtyDays)
+                .batches(batches)
+                .complete(complete)
+                .build();
+        log.info("Tombstone purge {}: {}", complete ? "complete" : "stopped early", result);
+        return result;
+    }
+
+    /**
+     * Purge one batch of session tombstones (with their segments) and one batch of
+     * segment tombstones.
+     *
+     * @return sessions, their segments, dirty days marked, standalone segments
+     */
+    private long[] purgeBatch(Instant cutoff, int size) {
+        Timestamp before = Timestamp.from(cutoff);
+        long[] purged = new long[4];
+
+        jdbcTemplate.query(PURGE_SESSIONS_SQL, resultSet -> {
+            purged[0] = resultSet.getLong(1);
+            purged[1] = resultSet.getLong(2);
+            purged[2] = resultSet.getLong(3);
+        }, before, size);
+        purged[3] = jdbcTemplate.update(PURGE_SEGMENTS_SQL, before, size);
+
+        return purged;
+    }
+
+    /**
+     * Halve the batch size after a slow batch, grow it back after a fast one.
+     */
+    private int nextBatchSize(int current, Duration took) {
+        if (took.compareTo(targetBatchDuration) > 0) {
+            return Math.max(MIN_BATCH_SIZE, current / 2);
+        }
+        if (took.compareTo(targetBatchDuration.dividedBy(2)) < 0) {
+            return Math.min(batchSize, current * 2);
+        }
+        return current;
+    }
+
+    /**
+     * Wait until replicas are within the allowed lag.
+     *
+     * @return false if the deadline passed (or the thread was interrupted) while waiting
+     */
+    private boolean awaitReplicas(Instant deadline) {
+        while (true) {
+            Double lagSeconds = jdbcTemplate.queryForObject(REPLICATION_LAG_SQL, Double.class);
+            if (lagSeconds == null || lagSeconds * 1000 <= maxReplicationLag.toMillis()) {
+                return true;
+            }
+            if (!Instant.now().isBefore(deadline)) {
+                return false;
+            }
+            log.info("Purge paused: replication lag {} s exceeds {}", lagSeconds, maxReplicationLag);
+            if (!sleep(maxReplicationLag)) {
+                return false;
+            }
+        }
+    }
+
+    private boolean sleep(Duration duration) {
+        try {
+            Thread.sleep(duration);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    /**
+     * Totals of a purge run.
+     *
+     * @param purgedSessions the number of sessions hard-deleted
+     * @param purgedSegments the number of segments hard-deleted
+     * @param dirtyDays the number of days queued for re-aggregation
+     * @param batches the number of batches run
+     * @param complete whether no tombstones older than the retention period are left
+     */
+    @Builder
+    public record PurgeResult(
+            long purgedSessions,
+            long purgedSegments,
+            long dirtyDays,
+            int batches,
+            boolean complete
+    ) {}
+}
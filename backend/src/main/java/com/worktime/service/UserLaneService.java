@@ -0,0 +1,263 @@
+package com.worktime.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+
+/**
+ * Service running a user's write work (ingestion, reprocessing, recomputation) one unit
+ * at a time, in submission order, while work of other users runs in parallel.
+ *
+ * <p>Users are hashed onto a fixed number of lanes, each a single-threaded executor,
+ * so work of one user never races on session versions or on the find-then-save of its
+ * daily aggregations. Callers block until their work is done and get its result or
+ * exception. Work already running on the user's lane runs inline; work for a user of
+ * another lane from inside a lane is refused, since two lanes waiting on each other
+ * would deadlock.
+ *
+ * <p>In {@code advisory} mode each unit also holds a Postgres session-level advisory
+ * lock on its user, on a connection of its own, so instances sharing the database
+ * serialize too. Busy lanes then hold one extra pool connection each.
+ *
+ * <p>Queue depth per lane is exposed as the {@code worktime.lanes.queue.depth} gauge,
+ * time spent queued as the {@code worktime.lanes.wait} timer.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@Slf4j
+@Service
+public class UserLaneService {
+
+    // First key of the two-key advisory locks, so they do not collide with other locks
+    private static final int ADVISORY_LOCK_NAMESPACE = 0x57544C4E;
+
+    private static final ThreadLocal<Set<Integer>> HELD_LANES = ThreadLocal.withInitial(HashSet::new);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean advisory;
+    private final List<ThreadPoolExecutor> lanes;
+    private final Timer waitTimer;
+
+    public UserLaneService(JdbcTemplate jdbcTemplate, MeterRegistry meterRegistry,
+                           @Value("${worktime.lanes.count:4}") int count,
+                           @Value("${worktime.lanes.mode:local}") String mode) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Lane count must be positive: " + count);
+        }
+        if (!mode.equals("local") && !mode.equals("advisory")) {
+            throw new IllegalArgumentException("Lane mode must be local or advisory: " + mode);
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.advisory = mode.equals("advisory");
+        this.lanes = IntStream.range(0, count).mapToObj(this::newLane).toList();
+        this.waitTimer = meterRegistry.timer("worktime.lanes.wait");
+
+        for (int i = 0; i < count; i++) {
+            ThreadPoolExecutor lane = lanes.get(i);
+            Gauge.builder("worktime.lanes.queue.depth", lane, executor -> executor.getQueue().size())
+                    .tag("lane", String.valueOf(i))
+                    .register(meterRegistry);
+        }
+        log.info("Started {} user lanes ({} mode)", count, mode);
+    }
+
+    /**
+     * Run work on a user's lane and wait for its result.
+     *
+     * @param userId the user ID
+     * @param work the work
+     * @return the result of the work
+     * @throws IllegalStateException if called from the lane of another user
+     */
+    public <T> T call(String userId, Supplier<T> work) {
+        int lane = laneOf(userId);
+        Set<Integer> held = HELD_LANES.get();
+        if (held.contains(lane)) {
+            return work.get();
+        }
+        if (!held.isEmpty()) {
+            throw new IllegalStateException("Cannot wait for lane " + lane + " while holding lanes " + held);
+        }
+
+        long submitted = System.nanoTime();
+        Future<T> future = lanes.get(lane).submit(() -> {
+            waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            Set<Integer> laneHeld = HELD_LANES.get();
+            laneHeld.add(lane);
+            try {
+                return advisory ? withAdvisoryLocks(List.of(userId), work) : work.get();
+            } finally {
+                laneHeld.remove(lane);
+            }
+        });
+        return await(future);
+    }
+
+    /**
+     * Run work on a user's lane and wait for it to finish.
+     *
+     * @param userId the user ID
+     * @param work the work
+     */
+    public void run(String userId, Runnable work) {
+        call(userId, () -> {
+            work.run();
+            return null;
+        });
+    }
+
+    /**
+     * Run work spanning several users, e.g. a batch mixing users, and wait for its result.
+     * The work runs on the calling thread once the lanes of all users are parked, taken
+     * in lane order so that two such calls cannot deadlock.
+     *
+     * @param userIds the user IDs
+     * @param work the work
+     * @return the result of the work
+     * @throws IllegalStateException if called from a lane
+     */
+    public <T> T callAll(Collection<String> userIds, Supplier<T> work) {
+        Set<String> users = new TreeSet<>(userIds);
+        if (users.size() == 1) {
+            return call(users.iterator().next(), work);
+        }
+        Set<Integer> held = HELD_LANES.get();
+        if (!held.isEmpty()) {
+            throw new IllegalStateException("Cannot park lanes while holding lanes " + held);
+        }
+
+        TreeSet<Integer> laneIndexes = new TreeSet<>();
+        users.forEach(userId -> laneIndexes.add(laneOf(userId)));
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            for (int lane : laneIndexes) {
+                park(lane, release);
+                held.add(lane);
+            }
+            return advisory ? withAdvisoryLocks(users, work) : work.get();
+        } finally {
+            release.countDown();
+            held.clear();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        lanes.forEach(ThreadPoolExecutor::shutdown);
+    }
+
+    private ThreadPoolExecutor newLane(int index) {
+        return new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "user-lane-" + index);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private int laneOf(String userId) {
+        return Math.floorMod(keyOf(userId), lanes.size());
+    }
+
+    // String.hashCode is specified, so every instance derives the same lanes and lock keys
+    private int keyOf(String userId) {
+        int hash = userId.hashCode();
+        return hash ^ (hash >>> 16);
+    }
+
+    /**
+     * Block a lane until released, returning once the lane is reached.
+     */
+    private void park(int lane, CountDownLatch release) {
+        CountDownLatch parked = new CountDownLatch(1);
+        long submitted = System.nanoTime();
+        lanes.get(lane).execute(() -> {
+            waitTimer.record(System.nanoTime() - submitted, TimeUnit.NANOSECONDS);
+            parked.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        try {
+            parked.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for lane " + lane, e);
+        }
+    }
+
+    /**
+     * Run work holding the advisory locks of users, taken in key order on a connection
+     * of their own; the work's transactions use other connections.
+     */
+    private <T> T withAdvisoryLocks(Collection<String> userIds, Supplier<T> work) {
+        TreeSet<Integer> keys = new TreeSet<>();
+        userIds.forEach(userId -> keys.add(keyOf(userId)));
+
+        return jdbcTemplate.execute((ConnectionCallback<T>) connection -> {
+            List<Integer> locked = new ArrayList<>(keys.size());
+            try {
+                for (int key : keys) {
+                    advisoryLock(connection, "SELECT pg_advisory_lock(?, ?)", key);
+                    locked.add(key);
+                }
+                return work.get();
+            } finally {
+                for (int key : locked) {
+                    advisoryLock(connection, "SELECT pg_advisory_unlock(?, ?)", key);
+                }
+            }
+        });
+    }
+
+    private void advisoryLock(Connection connection, String sql, int key) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setInt(1, ADVISORY_LOCK_NAMESPACE);
+            statement.setInt(2, key);
+            statement.executeQuery().close();
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for user lane", e);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.worktime.shared;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.UUID;
+
+/**
+ * Base entity that also records which user created and last updated a row.
+ * The high-volume activity tables extend {@link BaseEntity} directly and do not
+ * carry these columns.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+@MappedSuperclass
+@Getter
+@Setter
+public abstract class AuditedEntity extends BaseEntity {
+
+    // TODO: Set from security context when authentication is implemented
+    @Column(name = "created_by")
+    private UUID createdBy;
+
+    @Column(name = "updated_by")
+    private UUID updatedBy;
+}
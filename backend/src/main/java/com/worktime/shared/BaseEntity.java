@@ -3,14 +3,18 @@ package com.worktime.shared;
 import jakarta.persistence.*;
 import lombok.Getter;
 import lombok.Setter;
-import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.UuidGenerator;
 
 import java.time.Instant;
 import java.util.UUID;
 
 /**
  * Base entity class providing common fields for all entities.
- * Includes UUID primary key and audit metadata.
+ * Includes UUID primary key and audit timestamps; entities that record who made a
+ * change extend {@link AuditedEntity}.
+ *
+ * <p>IDs are time-ordered UUIDv7 values generated client-side, so inserts append to
+ * the right edge of primary key indexes and can be JDBC-batched.
  *
  * @author Thang
  * @since 2026-01-02
@@ -21,23 +25,17 @@ import java.util.UUID;
 public abstract class BaseEntity {
 
     @Id
-    @GeneratedValue(generator = "UUID")
-    @GenericGenerator(name = "UUID", strategy = "org.hibernate.id.UUIDGenerator")
+    @GeneratedValue
+    @UuidGenerator(style = UuidGenerator.Style.VERSION_7)
     @Column(updatable = false, nullable = false)
     private UUID id;
 
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
 
-    @Column(name = "created_by")
-    private UUID createdBy;
-
     @Column(name = "updated_at", nullable = false)
     private Instant updatedAt;
 
-    @Column(name = "updated_by")
-    private UUID updatedBy;
-
     @Column(name = "is_deleted", nullable = false)
     private Boolean isDeleted = false;
 
@@ -46,13 +44,11 @@ public abstract class BaseEntity {
         this.createdAt = Instant.now();
         this.updatedAt = Instant.now();
         this.isDeleted = false;
-        // TODO: Set createdBy from security context when authentication is implemented
     }
 
     @PreUpdate
     protected void onUpdate() {
         this.updatedAt = Instant.now();
-        // TODO: Set updatedBy from security context when authentication is implemented
     }
 
     /**
@@ -0,0 +1,152 @@
+package com.worktime.shared;
+
+/**
+ * Running covariance and correlation of paired observations.
+ *
+ * <p>Uses Welford's update, which stays numerically stable where naive sums of squares
+ * cancel catastrophically. The update is reversible, so a recomputed day can retract
+ * the observation it added before; accumulators of disjoint buckets combine with
+ * Chan's parallel formula, so rolling windows are merged from monthly buckets.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+public final class CovarianceAccumulator {
+
+    private long count;
+    private double meanX;
+    private double meanY;
+    private double m2X;       // Sum of squared deviations of x
+    private double m2Y;       // Sum of squared deviations of y
+    private double coMoment;  // Sum of products of deviations
+
+    public CovarianceAccumulator() {
+    }
+
+    public CovarianceAccumulator(long count, double meanX, double meanY,
+                                 double m2X, double m2Y, double coMoment) {
+        this.count = count;
+        this.meanX = meanX;
+        this.meanY = meanY;
+        this.m2X = m2X;
+        this.m2Y = m2Y;
+        this.coMoment = coMoment;
+    }
+
+    /**
+     * Add an observation.
+     */
+    public void add(double x, double y) {
+        count++;
+        double dx = x - meanX;
+        meanX += dx / count;
+        double dy = y - meanY;
+        meanY += dy / count;
+        m2X += dx * (x - meanX);
+        m2Y += dy * (y - meanY);
+        coMoment += dx * (y - meanY);
+    }
+
+    /**
+     * Remove an observation previously added.
+     */
+    public void remove(double x, double y) {
+        if (count <= 1) {
+            reset();
+            return;
+        }
+        double dxNew = x - meanX;
+        double dyNew = y - meanY;
+        double previousMeanX = meanX - dxNew / (count - 1);
+        double previousMeanY = meanY - dyNew / (count - 1);
+        m2X = Math.max(0.0, m2X - (x - previousMeanX) * dxNew);
+        m2Y = Math.max(0.0, m2Y - (y - previousMeanY) * dyNew);
+        coMoment -= (x - previousMeanX) * dyNew;
+        meanX = previousMeanX;
+        meanY = previousMeanY;
+        count--;
+    }
+
+    /**
+     * Merge the accumulator of a disjoint set of observations into this one.
+     */
+    public void merge(CovarianceAccumulator other) {
+        if (other.count == 0) {
+            return;
+        }
+        if (count == 0) {
+            count = other.count;
+            meanX = other.meanX;
+            meanY = other.meanY;
+            m2X = other.m2X;
+            m2Y = other.m2Y;
+            coMoment = other.coMoment;
+            return;
+        }
+        long total = count + other.count;
+        double dx = other.meanX - meanX;
+        double dy = other.meanY - meanY;
+        double weight = (double) count * other.count / total;
+        meanX += dx * other.count / total;
+        meanY += dy * other.count / total;
+        m2X += other.m2X + dx * dx * weight;
+        m2Y += other.m2Y + dy * dy * weight;
+        coMoment += other.coMoment + dx * dy * weight;
+        count = total;
+    }
+
+    /**
+     * Get the Pearson correlation coefficient.
+     *
+     * @return the coefficient in [-1, 1], or null with fewer than two observations or no variance
+     */
+    public Double correlation() {
+        if (count < 2 || m2X <= 0 || m2Y <= 0) {
+            return null;
+        }
+        double r = coMoment / Math.sqrt(m2X * m2Y);
+        return Math.max(-1.0, Math.min(1.0, r));
+    }
+
+    /**
+     * Get the sample covariance.
+     *
+     * @return the covariance, or null with fewer than two observations
+     */
+    public Double covariance() {
+        return count < 2 ? null : coMoment / (count - 1);
+    }
+
+    private void reset() {
+        count = 0;
+        meanX = 0.0;
+        meanY = 0.0;
+        m2X = 0.0;
+        m2Y = 0.0;
+        coMoment = 0.0;
+    }
+
+    public long count() {
+        return count;
+    }
+
+    public double meanX() {
+        return meanX;
+    }
+
+    public double meanY() {
+        return meanY;
+    }
+
+    public double m2X() {
+        return m2X;
+    }
+
+    public double m2Y() {
+        return m2Y;
+    }
+
+    public double coMoment() {
+        return coMoment;
+    }
+}
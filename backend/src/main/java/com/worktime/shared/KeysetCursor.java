@@ -0,0 +1,55 @@
+package com.worktime.shared;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Position in a result ordered by {@code (startTime, id)}, encoded as an opaque token.
+ *
+ * <p>The next page starts strictly after this position, so pages stay stable while new
+ * rows are inserted and cost the same at any depth (no OFFSET scan).
+ *
+ * @param startTime the start time of the last returned row
+ * @param id the ID of the last returned row
+ * @author Thang
+ * @since 2026-10-18
+ */
+public record KeysetCursor(Instant startTime, UUID id) {
+
+    /**
+     * The lowest possible UUID, used to start a page at a given start time inclusive.
+     */
+    public static final UUID MIN_ID = new UUID(0L, 0L);
+
+    /**
+     * Encode this position as a URL-safe token.
+     */
+    public String encode() {
+        String raw = startTime + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Decode a token produced by {@link #encode()}.
+     *
+     * @param token the token
+     * @return the position
+     * @throws IllegalArgumentException if the token is malformed
+     */
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Invalid cursor: " + token);
+            }
+            return new KeysetCursor(Instant.parse(raw.substring(0, separator)),
+                    UUID.fromString(raw.substring(separator + 1)));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor: " + token, e);
+        }
+    }
+}
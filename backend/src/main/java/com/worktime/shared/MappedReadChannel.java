@@ -0,0 +1,101 @@
+package com.worktime.shared;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.NonWritableChannelException;
+import java.nio.channels.SeekableByteChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Read-only channel over a memory-mapped file.
+ *
+ * <p>Reads copy straight from the page cache without a system call per read, and
+ * only the pages actually read are loaded. Files must be smaller than 2 GB.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+public class MappedReadChannel implements SeekableByteChannel {
+
+    private final MappedByteBuffer buffer;
+    private boolean open = true;
+
+    private MappedReadChannel(MappedByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    /**
+     * Map a file for reading. The file handle is closed right away; the mapping
+     * stays valid until the channel is garbage collected.
+     *
+     * @param path the file
+     * @return the channel, positioned at the start of the file
+     */
+    public static MappedReadChannel open(Path path) throws IOException {
+        try (FileChannel file = FileChannel.open(path, StandardOpenOption.READ)) {
+            return new MappedReadChannel(file.map(FileChannel.MapMode.READ_ONLY, 0, file.size()));
+        }
+    }
+
+    @Override
+    public int read(ByteBuffer dst) throws IOException {
+        ensureOpen();
+        if (!buffer.hasRemaining()) {
+            return -1;
+        }
+        int length = Math.min(dst.remaining(), buffer.remaining());
+        dst.put(buffer.slice(buffer.position(), length));
+        buffer.position(buffer.position() + length);
+        return length;
+    }
+
+    @Override
+    public int write(ByteBuffer src) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public long position() throws IOException {
+        ensureOpen();
+        return buffer.position();
+    }
+
+    @Override
+    public SeekableByteChannel position(long newPosition) throws IOException {
+        ensureOpen();
+        // Like FileChannel, a position past the end reads as end of file
+        buffer.position((int) Math.min(newPosition, buffer.limit()));
+        return this;
+    }
+
+    @Override
+    public long size() throws IOException {
+        ensureOpen();
+        return buffer.limit();
+    }
+
+    @Override
+    public SeekableByteChannel truncate(long size) {
+        throw new NonWritableChannelException();
+    }
+
+    @Override
+    public boolean isOpen() {
+        return open;
+    }
+
+    @Override
+    public void close() {
+        open = false;
+    }
+
+    private void ensureOpen() throws ClosedChannelException {
+        if (!open) {
+            throw new ClosedChannelException();
+        }
+    }
+}
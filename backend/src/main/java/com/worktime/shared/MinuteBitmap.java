@@ -0,0 +1,122 @@
+package com.worktime.shared;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * One bit per minute of a local day (1,440 minutes, 180 bytes serialized).
+ *
+ * <p>Bitmaps of the same day combine with {@link #or}, so overlapping sessions mark a
+ * minute once and counting is a popcount; {@link #runLengths} scans stretches of
+ * consecutive minutes. Days longer than 1,440 minutes (DST fall-back)
+ * fold their extra minutes into the last minute.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+public final class MinuteBitmap {
+
+    public static final int MINUTES_PER_DAY = 1440;
+
+    private final BitSet bits;
+
+    public MinuteBitmap() {
+        this.bits = new BitSet(MINUTES_PER_DAY);
+    }
+
+    private MinuteBitmap(BitSet bits) {
+        this.bits = bits;
+    }
+
+    /**
+     * Mark a range of minutes.
+     *
+     * @param fromMinute the first minute (inclusive), clamped to the day
+     * @param toMinute the last minute (exclusive), clamped to the day
+     */
+    public void set(int fromMinute, int toMinute) {
+        int from = Math.clamp(fromMinute, 0, MINUTES_PER_DAY);
+        int to = Math.clamp(toMinute, 0, MINUTES_PER_DAY);
+        if (from < to) {
+            bits.set(from, to);
+        }
+    }
+
+    /**
+     * Check whether a minute is marked.
+     */
+    public boolean get(int minute) {
+        return bits.get(minute);
+    }
+
+    /**
+     * Mark every minute marked in another bitmap.
+     */
+    public void or(MinuteBitmap other) {
+        bits.or(other.bits);
+    }
+
+    /**
+     * Get the minutes marked here but not in another bitmap, as a new bitmap.
+     */
+    public MinuteBitmap andNot(MinuteBitmap other) {
+        BitSet result = (BitSet) bits.clone();
+        result.andNot(other.bits);
+        return new MinuteBitmap(result);
+    }
+
+    /**
+     * Get the lengths of the runs of consecutive marked minutes, in minute order.
+     */
+    public List<Integer> runLengths() {
+        List<Integer> runs = new ArrayList<>();
+        int start = bits.nextSetBit(0);
+        while (start >= 0) {
+            int end = bits.nextClearBit(start);
+            runs.add(end - start);
+            start = bits.nextSetBit(end);
+        }
+        return runs;
+    }
+
+    /**
+     * Get the number of marked minutes.
+     */
+    public int cardinality() {
+        return bits.cardinality();
+    }
+
+    /**
+     * Get the longest run of unmarked minutes within {@code [fromMinute, toMinute)}.
+     */
+    public int longestGap(int fromMinute, int toMinute) {
+        int longest = 0;
+        int minute = fromMinute;
+        while (minute < toMinute) {
+            int gapStart = bits.nextClearBit(minute);
+            if (gapStart >= toMinute) {
+                break;
+            }
+            int next = bits.nextSetBit(gapStart);
+            int gapEnd = next < 0 || next > toMinute ? toMinute : next;
+            longest = Math.max(longest, gapEnd - gapStart);
+            minute = gapEnd;
+        }
+        return longest;
+    }
+
+    /**
+     * Serialize the bitmap (little-endian bit order, trailing zero bytes trimmed).
+     */
+    public byte[] toBytes() {
+        return bits.toByteArray();
+    }
+
+    /**
+     * Deserialize a bitmap produced by {@link #toBytes}; null yields an empty bitmap.
+     */
+    public static MinuteBitmap fromBytes(byte[] bytes) {
+        return bytes != null ? new MinuteBitmap(BitSet.valueOf(bytes)) : new MinuteBitmap();
+    }
+}
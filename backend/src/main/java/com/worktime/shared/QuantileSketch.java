@@ -0,0 +1,270 @@
+package com.worktime.shared;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+/**
+ * Mergeable quantile sketch with bounded relative error for non-negative values.
+ *
+ * <p>Values are counted in logarithmically sized buckets: bucket {@code i} holds values in
+ * {@code (gamma^(i-1), gamma^i]} with {@code gamma = (1 + a) / (1 - a)}, so any quantile is
+ * returned within relative error {@code a}. Unlike t-digest or KLL, bucket counts can be
+ * decremented, which lets a recomputed day retract its previous value exactly.
+ *
+ * <p>Counts are held densely between the lowest and highest used bucket. For daily step
+ * counts (1 - 100,000) at 2% accuracy that is fewer than 300 buckets, so merges and rank
+ * lookups are bounded regardless of how many days were added.
+ *
+ * @author Thang
+ * @since 2026-10-18
+ */
+public final class QuantileSketch {
+
+    public static final double DEFAULT_RELATIVE_ACCURACY = 0.02;
+
+    private static final byte FORMAT_VERSION = 1;
+
+    private double gamma;
+    private double logGamma;
+
+    private long zeroCount;
+    private int minIndex;
+    private long[] counts = new long[0];
+    private long totalCount;
+
+    public QuantileSketch() {
+        this(DEFAULT_RELATIVE_ACCURACY);
+    }
+
+    public QuantileSketch(double relativeAccuracy) {
+        if (relativeAccuracy <= 0 || relativeAccuracy >= 1) {
+            throw new IllegalArgumentException("Relative accuracy must be between 0 and 1");
+        }
+        this.gamma = (1 + relativeAccuracy) / (1 - relativeAccuracy);
+        this.logGamma = Math.log(gamma);
+    }
+
+    /**
+     * Add a value to the sketch.
+     */
+    public void add(double value) {
+        adjust(value, 1);
+    }
+
+    /**
+     * Remove a value previously added to the sketch.
+     * Removing a value that was never added leaves the sketch unchanged.
+     */
+    public void remove(double value) {
+        adjust(value, -1);
+    }
+
+    /**
+     * Merge another sketch with the same accuracy into this one.
+     */
+    public void merge(QuantileSketch other) {
+        if (Double.compare(gamma, other.gamma) != 0) {
+            throw new IllegalArgumentException("Cannot merge sketches with different accuracy");
+        }
+        zeroCount += other.zeroCount;
+        totalCount += other.totalCount;
+        for (int i = 0; i < other.counts.length; i++) {
+            if (other.counts[i] != 0) {
+                int index = other.minIndex + i;
+                ensureCapacity(index);
+                counts[index - minIndex] += other.counts[i];
+            }
+        }
+    }
+
+    /**
+     * Get the number of values in the sketch.
+     */
+    public long count() {
+        return totalCount;
+    }
+
+    /**
+     * Get the approximate value at a quantile.
+     *
+     * @param quantile the quantile in [0, 1]
+     * @return the approximate value, or null if the sketch is empty
+     */
+    public Double quantile(double quantile) {
+        if (quantile < 0 || quantile > 1) {
+            throw new IllegalArgumentException("Quantile must be between 0 and 1");
+        }
+        if (totalCount == 0) {
+            return null;
+        }
+
+        long rank = (long) Math.floor(quantile * (totalCount - 1));
+        if (rank < zeroCount) {
+            return 0.0;
+        }
+
+        long seen = zeroCount;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen > rank) {
+                return bucketValue(minIndex + i);
+            }
+        }
+        return bucketValue(minIndex + counts.length - 1);
+    }
+
+    /**
+     * Get the percentile rank of a value: the fraction of values below it, counting
+     * values in the same bucket as half below.
+     *
+     * @param value the value
+     * @return the rank in [0, 1], or null if the sketch is empty
+     */
+    public Double rank(double value) {
+        if (totalCount == 0) {
+            return null;
+        }
+
+        double below;
+        if (value <= 0) {
+            below = zeroCount / 2.0;
+        } else {
+            int index = indexOf(value);
+            below = zeroCount;
+            for (int i = 0; i < counts.length && minIndex + i <= index; i++) {
+                below += minIndex + i < index ? counts[i] : counts[i] / 2.0;
+            }
+        }
+        return below / totalCount;
+    }
+
+    /**
+     * Serialize the sketch into a compact byte array (varint encoded).
+     */
+    public byte[] toBytes() {
+        int first = 0;
+        int last = counts.length - 1;
+        while (first <= last && counts[first] == 0) first++;
+        while (last >= first && counts[last] == 0) last--;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(16 + Math.max(0, last - first + 1));
+        out.write(FORMAT_VERSION);
+        writeLong(out, Double.doubleToLongBits(gamma));
+        writeVarLong(out, zeroCount);
+        writeVarLong(out, zigZag(minIndex + first));
+        writeVarLong(out, Math.max(0, last - first + 1));
+        for (int i = first; i <= last; i++) {
+            writeVarLong(out, counts[i]);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Deserialize a sketch written by {@link #toBytes()}.
+     */
+    public static QuantileSketch fromBytes(byte[] bytes) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        byte version = buffer.get();
+        if (version != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unsupported sketch format version: " + version);
+        }
+
+        // Restore gamma bit-for-bit so deserialized sketches stay mergeable
+        QuantileSketch sketch = new QuantileSketch();
+        sketch.gamma = Double.longBitsToDouble(buffer.getLong());
+        sketch.logGamma = Math.log(sketch.gamma);
+        sketch.zeroCount = readVarLong(buffer);
+        sketch.minIndex = (int) unZigZag(readVarLong(buffer));
+        sketch.counts = new long[(int) readVarLong(buffer)];
+        sketch.totalCount = sketch.zeroCount;
+        for (int i = 0; i < sketch.counts.length; i++) {
+            sketch.counts[i] = readVarLong(buffer);
+            sketch.totalCount += sketch.counts[i];
+        }
+        return sketch;
+    }
+
+    private void adjust(double value, int delta) {
+        if (Double.isNaN(value) || value < 0) {
+            throw new IllegalArgumentException("Sketch values must be non-negative");
+        }
+
+        if (value == 0) {
+            if (zeroCount + delta < 0) {
+                return;
+            }
+            zeroCount += delta;
+            totalCount += delta;
+            return;
+        }
+
+        int index = indexOf(value);
+        if (delta < 0 && (index < minIndex || index >= minIndex + counts.length
+                || counts[index - minIndex] == 0)) {
+            return;
+        }
+        ensureCapacity(index);
+        counts[index - minIndex] += delta;
+        totalCount += delta;
+    }
+
+    private int indexOf(double value) {
+        return (int) Math.ceil(Math.log(value) / logGamma);
+    }
+
+    private double bucketValue(int index) {
+        // Midpoint (in relative terms) of (gamma^(index-1), gamma^index]
+        return 2 * Math.pow(gamma, index) / (gamma + 1);
+    }
+
+    private void ensureCapacity(int index) {
+        if (counts.length == 0) {
+            minIndex = index;
+            counts = new long[1];
+            return;
+        }
+        if (index < minIndex) {
+            long[] grown = new long[counts.length + (minIndex - index)];
+            System.arraycopy(counts, 0, grown, minIndex - index, counts.length);
+            counts = grown;
+            minIndex = index;
+        } else if (index >= minIndex + counts.length) {
+            counts = Arrays.copyOf(counts, index - minIndex + 1);
+        }
+    }
+
+    private static void writeLong(ByteArrayOutputStream out, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out.write((int) (value >>> shift));
+        }
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static long readVarLong(ByteBuffer buffer) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buffer.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+}
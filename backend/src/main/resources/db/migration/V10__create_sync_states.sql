@@ -0,0 +1,42 @@
+-- =====================================================
+-- Flyway Migration V10: Create Sync States
+-- =====================================================
+-- Description: Adds per-user, per-data-source ingestion high-water marks
+--              for delta sync from the Android client
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: sync_states
+-- Description: Advanced by upsert in the same transaction as ingestion
+-- =====================================================
+CREATE TABLE sync_states (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    data_source VARCHAR(255) NOT NULL,
+    max_end_time TIMESTAMP WITH TIME ZONE NOT NULL,
+    change_token VARCHAR(255),
+    record_count BIGINT NOT NULL DEFAULT 0,
+    last_synced_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_sync_state_user_source UNIQUE (user_id, data_source),
+    CONSTRAINT chk_sync_state_record_count CHECK (record_count >= 0)
+);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE sync_states IS 'Per-user, per-data-source ingestion high-water marks for delta sync';
+
+-- =====================================================
+-- End of Migration V10
+-- =====================================================
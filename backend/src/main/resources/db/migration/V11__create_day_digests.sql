@@ -0,0 +1,72 @@
+-- =====================================================
+-- Flyway Migration V11: Create Day Digests
+-- =====================================================
+-- Description: Adds per-user, per-day fingerprints of ingested sessions
+--              so clients can re-upload only the days that differ
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: day_digests
+-- Description: XOR of record ID hashes plus session count, toggled on
+--              insert and soft delete
+-- =====================================================
+CREATE TABLE day_digests (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    session_count BIGINT NOT NULL DEFAULT 0,
+    digest BIGINT NOT NULL DEFAULT 0,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_day_digest_user_date UNIQUE (user_id, date),
+    CONSTRAINT chk_day_digest_session_count CHECK (session_count >= 0)
+);
+
+-- =====================================================
+-- Backfill from existing sessions
+-- Hash: first 8 bytes of SHA-256 of the record ID, as a signed bigint
+-- Day: local date of the start, as java.time computes it. Offset IDs
+-- (+07:00, UTC+07:00, GMT+7) are ISO offsets there, while AT TIME ZONE
+-- would read them with the POSIX sign, so they are added as intervals
+-- =====================================================
+INSERT INTO day_digests (user_id, date, session_count, digest, created_at, updated_at, is_deleted)
+SELECT s.user_id,
+       d.date,
+       COUNT(*),
+       COALESCE(bit_xor(('x' || substr(encode(sha256(convert_to(s.health_connect_record_id, 'UTF8')), 'hex'), 1, 16))::BIT(64)::BIGINT), 0),
+       NOW(), NOW(), FALSE
+FROM activity_sessions s
+CROSS JOIN LATERAL (
+    SELECT substring(s.timezone FROM '^(?:UTC|GMT|UT)?([+-])[0-9:]+$') AS sign,
+           replace(substring(s.timezone FROM '^(?:UTC|GMT|UT)?[+-]([0-9:]+)$'), ':', '') AS digits
+) o
+CROSS JOIN LATERAL (
+    SELECT CASE
+        WHEN s.timezone = 'Z' THEN (s.start_time AT TIME ZONE 'UTC')::DATE
+        WHEN o.sign IS NULL THEN (s.start_time AT TIME ZONE s.timezone)::DATE
+        ELSE ((s.start_time AT TIME ZONE 'UTC') + CASE o.sign WHEN '-' THEN -1 ELSE 1 END * make_interval(
+                hours => CASE length(o.digits) WHEN 1 THEN o.digits::INT ELSE substr(o.digits, 1, 2)::INT END,
+                mins => CASE WHEN length(o.digits) >= 4 THEN substr(o.digits, 3, 2)::INT ELSE 0 END,
+                secs => CASE WHEN length(o.digits) = 6 THEN substr(o.digits, 5, 2)::INT ELSE 0 END))::DATE
+    END AS date
+) d
+WHERE s.is_deleted = FALSE
+GROUP BY s.user_id, d.date;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE day_digests IS 'Per-user, per-day session fingerprints for client reconciliation';
+
+-- =====================================================
+-- End of Migration V11
+-- =====================================================
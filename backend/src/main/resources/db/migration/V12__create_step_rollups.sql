@@ -0,0 +1,53 @@
+-- =====================================================
+-- Flyway Migration V12: Create Step Rollups
+-- =====================================================
+-- Description: Adds fixed-size buckets replacing fine-grained STEPS segments
+--              when compaction is enabled
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: step_rollups
+-- Description: Exact sums of compacted segments per user, source,
+--              segment type and bucket
+-- =====================================================
+CREATE TABLE step_rollups (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    data_source VARCHAR(255) NOT NULL,
+    segment_type VARCHAR(50) NOT NULL,
+    activity_date DATE NOT NULL,
+    bucket_start TIMESTAMP WITH TIME ZONE NOT NULL,
+    bucket_end TIMESTAMP WITH TIME ZONE NOT NULL,
+    step_count BIGINT NOT NULL DEFAULT 0,
+    calories_burned DOUBLE PRECISION NOT NULL DEFAULT 0,
+    duration_seconds BIGINT NOT NULL DEFAULT 0,
+    segment_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_step_rollup_bucket UNIQUE (user_id, data_source, segment_type, bucket_start),
+    CONSTRAINT chk_step_rollup_segment_type CHECK (segment_type IN ('WORK_HOURS', 'OFF_HOURS')),
+    CONSTRAINT chk_step_rollup_bucket CHECK (bucket_end > bucket_start)
+);
+
+-- =====================================================
+-- Indexes
+-- =====================================================
+CREATE INDEX idx_step_rollup_user_date ON step_rollups(user_id, activity_date);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE step_rollups IS 'Compacted STEPS segments; read by daily aggregation together with activity_segments';
+
+-- =====================================================
+-- End of Migration V12
+-- =====================================================
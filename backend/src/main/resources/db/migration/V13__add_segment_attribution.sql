@@ -0,0 +1,27 @@
+-- =====================================================
+-- Flyway Migration V13: Add Segment Attribution
+-- =====================================================
+-- Description: Adds the steps and calories each segment keeps after
+--              cross-source overlap resolution
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- NULL means unresolved; aggregation then counts the allocated values
+ALTER TABLE activity_segments
+    ADD COLUMN attributed_step_count BIGINT,
+    ADD COLUMN attributed_calories DOUBLE PRECISION;
+
+ALTER TABLE activity_segments
+    ADD CONSTRAINT chk_activity_segment_attributed_steps CHECK (attributed_step_count IS NULL OR attributed_step_count >= 0),
+    ADD CONSTRAINT chk_activity_segment_attributed_calories CHECK (attributed_calories IS NULL OR attributed_calories >= 0);
+
+-- =====================================================
+-- Comments on Columns
+-- =====================================================
+COMMENT ON COLUMN activity_segments.attributed_step_count IS 'Steps left to this segment after overlapping sources are resolved';
+COMMENT ON COLUMN activity_segments.attributed_calories IS 'Calories left to this segment after overlapping sources are resolved';
+
+-- =====================================================
+-- End of Migration V13
+-- =====================================================
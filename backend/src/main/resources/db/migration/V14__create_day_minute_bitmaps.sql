@@ -0,0 +1,47 @@
+-- =====================================================
+-- Flyway Migration V14: Create Day Minute Bitmaps
+-- =====================================================
+-- Description: Adds per-user, per-day minute bitmaps of activity and data
+--              coverage, and the completeness flag on daily aggregations
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: day_minute_bitmaps
+-- Description: 1,440-bit bitmaps (bit i = minute i of the local day),
+--              OR-ed together as sessions are split
+-- =====================================================
+CREATE TABLE day_minute_bitmaps (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+    activity_minutes BYTEA NOT NULL,
+    work_activity_minutes BYTEA NOT NULL,
+    coverage_minutes BYTEA NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_day_minute_bitmap_user_date UNIQUE (user_id, date),
+    CONSTRAINT chk_day_minute_bitmap_size CHECK (
+        length(activity_minutes) <= 180 AND length(work_activity_minutes) <= 180 AND length(coverage_minutes) <= 180)
+);
+
+-- NULL for days computed before bitmaps existed
+ALTER TABLE daily_aggregations ADD COLUMN has_complete_data BOOLEAN;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE day_minute_bitmaps IS 'Per-day minute bitmaps of activity and data coverage';
+COMMENT ON COLUMN daily_aggregations.has_complete_data IS 'False when the day has an uncovered stretch longer than the configured maximum gap';
+
+-- =====================================================
+-- End of Migration V14
+-- =====================================================
@@ -0,0 +1,33 @@
+-- =====================================================
+-- Flyway Migration V15: Add Sedentary Bouts
+-- =====================================================
+-- Description: Adds the work-hours minute bitmap and the sedentary bout
+--              metrics derived from it on daily aggregations
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- Existing days have no work-hours minutes until their sessions are split again
+ALTER TABLE day_minute_bitmaps
+    ADD COLUMN work_minutes BYTEA NOT NULL DEFAULT ''::BYTEA;
+
+ALTER TABLE day_minute_bitmaps
+    DROP CONSTRAINT chk_day_minute_bitmap_size,
+    ADD CONSTRAINT chk_day_minute_bitmap_size CHECK (
+        length(activity_minutes) <= 180 AND length(work_activity_minutes) <= 180
+        AND length(work_minutes) <= 180 AND length(coverage_minutes) <= 180);
+
+ALTER TABLE daily_aggregations
+    ADD COLUMN work_hours_sedentary_minutes INTEGER,
+    ADD COLUMN longest_sedentary_bout_minutes INTEGER,
+    ADD COLUMN sedentary_bout_count INTEGER;
+
+-- =====================================================
+-- Comments on Columns
+-- =====================================================
+COMMENT ON COLUMN day_minute_bitmaps.work_minutes IS 'Bitmap of the scheduled work-hours minutes of the day';
+COMMENT ON COLUMN daily_aggregations.sedentary_bout_count IS 'Work-hours stretches without steps or exercise of at least the configured bout length';
+
+-- =====================================================
+-- End of Migration V15
+-- =====================================================
@@ -0,0 +1,139 @@
+-- =====================================================
+-- Flyway Migration V16: Partition Sessions and Segments by Month
+-- =====================================================
+-- Description: Rebuilds activity_sessions (by start_time) and activity_segments
+--              (by activity_date) as monthly range-partitioned tables, with
+--              functions to create future partitions and detach old ones
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Function: create_monthly_partitions
+-- Description: Creates the missing monthly partitions parent_YYYY_MM for
+--              every month from from_month to to_month (inclusive); bounds
+--              are UTC month starts. Returns the number of partitions created.
+-- =====================================================
+CREATE OR REPLACE FUNCTION create_monthly_partitions(parent TEXT, from_month DATE, to_month DATE)
+RETURNS INTEGER
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    month_start DATE := date_trunc('month', from_month)::DATE;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    WHILE month_start <= to_month LOOP
+        partition_name := parent || '_' || to_char(month_start, 'YYYY_MM');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, parent,
+                           to_char(month_start, 'YYYY-MM-DD') || ' 00:00:00+00',
+                           to_char((month_start + INTERVAL '1 month')::DATE, 'YYYY-MM-DD') || ' 00:00:00+00');
+            created := created + 1;
+        END IF;
+        month_start := (month_start + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- =====================================================
+-- Function: detach_monthly_partitions_before
+-- Description: Detaches the monthly partitions of parent for months before
+--              before_month. Detached partitions stay as plain tables for
+--              archiving (pg_dump) and dropping. Returns their names.
+-- =====================================================
+CREATE OR REPLACE FUNCTION detach_monthly_partitions_before(parent TEXT, before_month DATE)
+RETURNS SETOF TEXT
+LANGUAGE plpgsql
+AS $$
+DECLARE
+    child TEXT;
+BEGIN
+    FOR child IN
+        SELECT c.relname
+        FROM pg_inherits i
+        JOIN pg_class c ON c.oid = i.inhrelid
+        JOIN pg_class p ON p.oid = i.inhparent
+        WHERE p.relname = parent
+          AND c.relname ~ ('^' || parent || '_[0-9]{4}_[0-9]{2}$')
+          AND to_date(right(c.relname, 7), 'YYYY_MM') < before_month
+        ORDER BY c.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent, child);
+        RETURN NEXT child;
+    END LOOP;
+END;
+$$;
+
+-- =====================================================
+-- Rebuild tables as partitioned
+-- The segment -> session foreign key cannot reference a partitioned table
+-- without the partition key, so it is dropped; the application keeps the link.
+-- =====================================================
+ALTER TABLE activity_segments DROP CONSTRAINT fk_activity_segment_session;
+
+ALTER TABLE activity_sessions RENAME TO activity_sessions_unpartitioned;
+ALTER TABLE activity_segments RENAME TO activity_segments_unpartitioned;
+
+CREATE TABLE activity_sessions (
+    LIKE activity_sessions_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS
+) PARTITION BY RANGE (start_time);
+
+CREATE TABLE activity_segments (
+    LIKE activity_segments_unpartitioned INCLUDING DEFAULTS INCLUDING CONSTRAINTS INCLUDING COMMENTS
+) PARTITION BY RANGE (activity_date);
+
+-- Partitions covering existing data through three months ahead
+SELECT create_monthly_partitions('activity_sessions',
+    LEAST(COALESCE((SELECT MIN(start_time) FROM activity_sessions_unpartitioned), NOW()), NOW())::DATE,
+    GREATEST(COALESCE((SELECT MAX(start_time) FROM activity_sessions_unpartitioned), NOW()),
+             NOW() + INTERVAL '3 months')::DATE);
+
+SELECT create_monthly_partitions('activity_segments',
+    LEAST(COALESCE((SELECT MIN(activity_date) FROM activity_segments_unpartitioned), CURRENT_DATE), CURRENT_DATE),
+    GREATEST(COALESCE((SELECT MAX(activity_date) FROM activity_segments_unpartitioned), CURRENT_DATE),
+             (CURRENT_DATE + INTERVAL '3 months')::DATE));
+
+INSERT INTO activity_sessions SELECT * FROM activity_sessions_unpartitioned;
+INSERT INTO activity_segments SELECT * FROM activity_segments_unpartitioned;
+
+DROP TABLE activity_segments_unpartitioned;
+DROP TABLE activity_sessions_unpartitioned;
+
+-- =====================================================
+-- Keys (unique constraints must include the partition key)
+-- =====================================================
+ALTER TABLE activity_sessions ADD CONSTRAINT activity_sessions_pkey PRIMARY KEY (id, start_time);
+
+-- A re-sent Health Connect record has the same start time, so this still rejects duplicates
+ALTER TABLE activity_sessions
+    ADD CONSTRAINT uk_activity_session_record UNIQUE (health_connect_record_id, start_time);
+
+ALTER TABLE activity_segments ADD CONSTRAINT activity_segments_pkey PRIMARY KEY (id, activity_date);
+
+-- =====================================================
+-- Indexes (created on every partition)
+-- =====================================================
+CREATE INDEX idx_activity_session_start_time ON activity_sessions(start_time);
+CREATE INDEX idx_activity_session_end_time ON activity_sessions(end_time);
+CREATE INDEX idx_activity_session_type ON activity_sessions(activity_type);
+CREATE INDEX idx_activity_session_user_start ON activity_sessions(user_id, start_time, id);
+CREATE INDEX idx_activity_session_processed ON activity_sessions(processed);
+CREATE INDEX idx_activity_session_is_deleted ON activity_sessions(is_deleted);
+
+CREATE INDEX idx_activity_segment_date ON activity_segments(activity_date);
+CREATE INDEX idx_activity_segment_type ON activity_segments(segment_type);
+CREATE INDEX idx_activity_segment_session ON activity_segments(session_id);
+CREATE INDEX idx_activity_segment_is_deleted ON activity_segments(is_deleted);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE activity_sessions IS 'Raw activity sessions from Health Connect, partitioned by month of start_time (UTC)';
+COMMENT ON TABLE activity_segments IS 'Work-time / off-hours segments of sessions, partitioned by month of activity_date';
+
+-- =====================================================
+-- End of Migration V16
+-- =====================================================
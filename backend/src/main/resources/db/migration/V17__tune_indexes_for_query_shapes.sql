@@ -0,0 +1,95 @@
+-- =====================================================
+-- Flyway Migration V17: Tune Indexes for Query Shapes
+-- =====================================================
+-- Description: Replaces single-column indexes on low-selectivity columns with
+--              partial, covering and BRIN indexes matching the user + time
+--              access patterns of the repositories. Also scopes the
+--              daily_aggregations date uniqueness to the user.
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- activity_sessions (partitioned; indexes cascade to every partition)
+-- =====================================================
+DROP INDEX IF EXISTS idx_activity_session_processed;
+DROP INDEX IF EXISTS idx_activity_session_is_deleted;
+DROP INDEX IF EXISTS idx_activity_session_type;
+DROP INDEX IF EXISTS idx_activity_session_end_time;
+DROP INDEX IF EXISTS idx_activity_session_start_time;
+
+-- Reprocessing queue: only live, unprocessed sessions
+CREATE INDEX idx_activity_session_unprocessed ON activity_sessions(user_id, start_time)
+    WHERE processed = false AND is_deleted = false;
+
+-- Per-user, per-type lookups bounded by start time (sleep metrics, attribution joins)
+CREATE INDEX idx_activity_session_user_type_start ON activity_sessions(user_id, activity_type, start_time)
+    WHERE is_deleted = false;
+
+-- Keyset pages and overlap filters are answered without visiting the heap
+DROP INDEX IF EXISTS idx_activity_session_user_start;
+CREATE INDEX idx_activity_session_user_start ON activity_sessions(user_id, start_time, id)
+    INCLUDE (end_time, is_deleted);
+
+-- Cross-user time ranges; sessions arrive mostly in time order
+CREATE INDEX idx_activity_session_start_time_brin ON activity_sessions USING BRIN (start_time);
+
+-- =====================================================
+-- activity_segments (partitioned)
+-- =====================================================
+DROP INDEX IF EXISTS idx_activity_segment_type;
+DROP INDEX IF EXISTS idx_activity_segment_is_deleted;
+DROP INDEX IF EXISTS idx_activity_segment_date;
+
+-- Day lookups joined to their sessions, with the overlap filter columns covered
+CREATE INDEX idx_activity_segment_date_session ON activity_segments(activity_date, session_id)
+    INCLUDE (start_time, end_time, segment_type)
+    WHERE is_deleted = false;
+
+-- Date ranges including deleted rows (exports, maintenance)
+CREATE INDEX idx_activity_segment_date_brin ON activity_segments USING BRIN (activity_date);
+
+-- =====================================================
+-- daily_aggregations
+-- =====================================================
+ALTER TABLE daily_aggregations DROP CONSTRAINT IF EXISTS daily_aggregations_date_key;
+
+-- One row per user and day; the day type is covered for index-only lookups
+ALTER TABLE daily_aggregations
+    ADD CONSTRAINT uk_daily_aggregation_user_date UNIQUE (user_id, date) INCLUDE (day_type);
+
+DROP INDEX IF EXISTS idx_daily_agg_user;
+DROP INDEX IF EXISTS idx_daily_agg_day_type;
+DROP INDEX IF EXISTS idx_daily_agg_is_deleted;
+DROP INDEX IF EXISTS idx_daily_agg_date;
+
+-- Comparable-day search: same user and day type, complete non-anomalous days
+CREATE INDEX idx_daily_agg_comparable ON daily_aggregations(user_id, day_type, date)
+    WHERE anomalous = false AND total_steps IS NOT NULL AND sleep_duration_seconds IS NOT NULL;
+
+-- Cross-user date ranges; days are computed mostly in date order
+CREATE INDEX idx_daily_agg_date_brin ON daily_aggregations USING BRIN (date);
+
+-- =====================================================
+-- working_schedules
+-- =====================================================
+DROP INDEX IF EXISTS idx_working_schedule_active;
+DROP INDEX IF EXISTS idx_working_schedule_is_deleted;
+DROP INDEX IF EXISTS idx_working_schedule_day;
+DROP INDEX IF EXISTS idx_working_schedule_user;
+
+CREATE INDEX idx_working_schedule_user_day ON working_schedules(user_id, day_of_week);
+
+CREATE INDEX idx_working_schedule_user_active ON working_schedules(user_id)
+    WHERE is_active = true AND is_deleted = false;
+
+-- =====================================================
+-- schedule_overrides
+-- =====================================================
+-- The UNIQUE constraint on date already provides this index
+DROP INDEX IF EXISTS idx_schedule_override_date;
+DROP INDEX IF EXISTS idx_schedule_override_is_deleted;
+
+-- =====================================================
+-- End of Migration V17
+-- =====================================================
@@ -0,0 +1,52 @@
+-- =====================================================
+-- Flyway Migration V18: Time-Ordered UUIDv7 Defaults
+-- =====================================================
+-- Description: Adds a uuid_generate_v7() function and uses it as the id
+--              default of every table, matching the UUIDv7 ids the application
+--              generates. Rows inserted by native upserts get time-ordered ids too.
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Function: uuid_generate_v7
+-- Description: RFC 9562 UUIDv7: 48-bit Unix millisecond timestamp, version 7,
+--              then random bits (the variant comes from gen_random_uuid()).
+-- =====================================================
+CREATE OR REPLACE FUNCTION uuid_generate_v7()
+RETURNS UUID
+LANGUAGE plpgsql
+VOLATILE
+AS $$
+DECLARE
+    unix_ms BIGINT := floor(extract(epoch FROM clock_timestamp()) * 1000);
+    uuid_bytes BYTEA := uuid_send(gen_random_uuid());
+BEGIN
+    uuid_bytes := overlay(uuid_bytes PLACING substring(int8send(unix_ms) FROM 3) FROM 1 FOR 6);
+    uuid_bytes := set_byte(uuid_bytes, 6, (get_byte(uuid_bytes, 6) & 15) | 112);
+    RETURN encode(uuid_bytes, 'hex')::UUID;
+END;
+$$;
+
+-- =====================================================
+-- Column defaults
+-- =====================================================
+ALTER TABLE activity_sessions ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE activity_segments ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE working_schedules ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE schedule_overrides ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE daily_aggregations ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE daily_activity_profiles ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE activity_heatmaps ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE heart_rate_zone_configs ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE metric_sketches ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE metric_baselines ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE metric_correlations ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE sync_states ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE day_digests ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE step_rollups ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+ALTER TABLE day_minute_bitmaps ALTER COLUMN id SET DEFAULT uuid_generate_v7();
+
+-- =====================================================
+-- End of Migration V18
+-- =====================================================
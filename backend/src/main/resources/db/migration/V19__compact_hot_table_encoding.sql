@@ -0,0 +1,95 @@
+-- =====================================================
+-- Flyway Migration V19: Compact Encoding of Hot Tables
+-- =====================================================
+-- Description: Stores activity and segment types as smallint codes, moves
+--              session timezones and data sources into dictionary tables,
+--              and drops the unused created_by/updated_by columns of
+--              activity_sessions and activity_segments
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Dictionary tables
+-- =====================================================
+CREATE TABLE timezones (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(50) NOT NULL UNIQUE
+);
+
+CREATE TABLE data_sources (
+    id SMALLINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name VARCHAR(100) NOT NULL UNIQUE
+);
+
+INSERT INTO timezones (name)
+SELECT DISTINCT timezone FROM activity_sessions ORDER BY timezone;
+
+INSERT INTO data_sources (name)
+SELECT DISTINCT data_source FROM activity_sessions ORDER BY data_source;
+
+-- =====================================================
+-- activity_sessions
+-- Codes must match ActivityType.getCode()
+-- =====================================================
+ALTER TABLE activity_sessions DROP CONSTRAINT chk_activity_type;
+
+ALTER TABLE activity_sessions
+    ALTER COLUMN activity_type TYPE SMALLINT USING (CASE activity_type
+        WHEN 'STEPS' THEN 1
+        WHEN 'HEART_RATE' THEN 2
+        WHEN 'EXERCISE_SESSION' THEN 3
+        WHEN 'SLEEP_SESSION' THEN 4
+        WHEN 'CALORIES_BURNED' THEN 5
+    END);
+
+ALTER TABLE activity_sessions
+    ADD CONSTRAINT chk_activity_type CHECK (activity_type BETWEEN 1 AND 5);
+
+ALTER TABLE activity_sessions
+    ADD COLUMN timezone_id SMALLINT,
+    ADD COLUMN data_source_id SMALLINT;
+
+UPDATE activity_sessions s
+SET timezone_id = t.id, data_source_id = d.id
+FROM timezones t, data_sources d
+WHERE t.name = s.timezone AND d.name = s.data_source;
+
+ALTER TABLE activity_sessions
+    ALTER COLUMN timezone_id SET NOT NULL,
+    ALTER COLUMN data_source_id SET NOT NULL,
+    ADD CONSTRAINT fk_activity_session_timezone FOREIGN KEY (timezone_id) REFERENCES timezones(id),
+    ADD CONSTRAINT fk_activity_session_data_source FOREIGN KEY (data_source_id) REFERENCES data_sources(id),
+    DROP COLUMN timezone,
+    DROP COLUMN data_source,
+    DROP COLUMN created_by,
+    DROP COLUMN updated_by;
+
+-- =====================================================
+-- activity_segments
+-- Codes must match TimeSegmentType.getCode()
+-- =====================================================
+ALTER TABLE activity_segments DROP CONSTRAINT chk_segment_type;
+
+ALTER TABLE activity_segments
+    ALTER COLUMN segment_type TYPE SMALLINT USING (CASE segment_type
+        WHEN 'WORK_HOURS' THEN 1
+        WHEN 'OFF_HOURS' THEN 2
+    END);
+
+ALTER TABLE activity_segments
+    ADD CONSTRAINT chk_segment_type CHECK (segment_type BETWEEN 1 AND 2),
+    DROP COLUMN created_by,
+    DROP COLUMN updated_by;
+
+-- =====================================================
+-- Comments
+-- =====================================================
+COMMENT ON TABLE timezones IS 'Dictionary of session timezone names referenced by activity_sessions.timezone_id';
+COMMENT ON TABLE data_sources IS 'Dictionary of data source names referenced by activity_sessions.data_source_id';
+COMMENT ON COLUMN activity_sessions.activity_type IS '1 STEPS, 2 HEART_RATE, 3 EXERCISE_SESSION, 4 SLEEP_SESSION, 5 CALORIES_BURNED';
+COMMENT ON COLUMN activity_segments.segment_type IS '1 WORK_HOURS, 2 OFF_HOURS';
+
+-- =====================================================
+-- End of Migration V19
+-- =====================================================
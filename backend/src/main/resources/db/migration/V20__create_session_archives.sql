@@ -0,0 +1,61 @@
+-- =====================================================
+-- Flyway Migration V20: Create Session Archives
+-- =====================================================
+-- Description: Adds the manifest of raw sessions archived to columnar files,
+--              and stores the user on activity segments so segments of
+--              archived months stay queryable without their sessions
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- activity_segments.user_id
+-- =====================================================
+ALTER TABLE activity_segments ADD COLUMN user_id VARCHAR(255);
+
+UPDATE activity_segments seg
+SET user_id = s.user_id
+FROM activity_sessions s
+WHERE s.id = seg.session_id;
+
+ALTER TABLE activity_segments ALTER COLUMN user_id SET NOT NULL;
+
+CREATE INDEX idx_activity_segment_user_date ON activity_segments(user_id, activity_date)
+    WHERE is_deleted = false;
+
+-- =====================================================
+-- Table: session_archives
+-- Description: One row per user and month whose raw sessions were moved out
+--              of activity_sessions into an Arrow IPC file
+-- =====================================================
+CREATE TABLE session_archives (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    user_id VARCHAR(255) NOT NULL,
+    month DATE NOT NULL,  -- First day of the UTC month of the sessions' start times
+    file_path VARCHAR(1024) NOT NULL,  -- Relative to worktime.archive.directory
+    session_count INTEGER NOT NULL,
+    file_size_bytes BIGINT NOT NULL,
+    archived_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_session_archive_user_month UNIQUE (user_id, month),
+    CONSTRAINT chk_session_archive_month CHECK (EXTRACT(DAY FROM month) = 1)
+);
+
+CREATE INDEX idx_session_archive_month ON session_archives(month);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE session_archives IS 'Manifest of raw activity sessions archived to compressed Arrow files, per user and month';
+
+-- =====================================================
+-- End of Migration V20
+-- =====================================================
@@ -0,0 +1,64 @@
+-- =====================================================
+-- Flyway Migration V21: Dirty Days and Tombstone Purge
+-- =====================================================
+-- Description: Adds the queue of days awaiting re-aggregation, indexes the
+--              soft-deleted rows of the hot tables for the purge job, and
+--              soft-deletes the segments of already deleted sessions
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: dirty_days
+-- Description: One row per user and day whose daily aggregation is stale;
+--              drained oldest first by DirtyDayService
+-- =====================================================
+CREATE TABLE dirty_days (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    user_id VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,  -- Last time the day was marked
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_dirty_day_user_date UNIQUE (user_id, date)
+);
+
+CREATE INDEX idx_dirty_day_updated ON dirty_days(updated_at);
+
+-- =====================================================
+-- Tombstone indexes
+-- Only soft-deleted rows are indexed, ordered by deletion time
+-- =====================================================
+CREATE INDEX idx_activity_session_tombstone ON activity_sessions(updated_at)
+    WHERE is_deleted = true;
+
+CREATE INDEX idx_activity_segment_tombstone ON activity_segments(updated_at)
+    WHERE is_deleted = true;
+
+-- =====================================================
+-- Segments of deleted sessions
+-- Deleting a session now deletes its segments; catch up on earlier deletes
+-- =====================================================
+WITH orphaned AS (
+    UPDATE activity_segments seg
+    SET is_deleted = true, updated_at = NOW()
+    FROM activity_sessions s
+    WHERE s.id = seg.session_id AND s.is_deleted = true AND seg.is_deleted = false
+    RETURNING seg.user_id, seg.activity_date
+)
+INSERT INTO dirty_days (user_id, date, created_at, updated_at)
+SELECT DISTINCT user_id, activity_date, NOW(), NOW()
+FROM orphaned;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE dirty_days IS 'Queue of user days whose daily aggregation must be recomputed';
+
+-- =====================================================
+-- End of Migration V21
+-- =====================================================
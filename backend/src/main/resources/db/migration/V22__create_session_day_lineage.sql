@@ -0,0 +1,60 @@
+-- =====================================================
+-- Flyway Migration V22: Session Day Lineage
+-- =====================================================
+-- Description: Adds the mapping from each split session to the days it
+--              contributes to, so invalidations recompute exactly those days
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: session_day_lineage
+-- Description: One row per split session; the days are stored as a bitmap
+--              relative to the first day (bit i set: first_date + i)
+-- =====================================================
+CREATE TABLE session_day_lineage (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    session_id UUID NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    first_date DATE NOT NULL,
+    day_mask INTEGER NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,  -- Last time the session was split
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_session_day_lineage_session UNIQUE (session_id),
+    CONSTRAINT chk_session_day_lineage_mask CHECK (day_mask <> 0)
+);
+
+-- A user's sessions by first day (working schedule changes)
+CREATE INDEX idx_session_day_lineage_user_date ON session_day_lineage(user_id, first_date);
+
+-- All users' sessions by first day (schedule overrides apply to everyone)
+CREATE INDEX idx_session_day_lineage_date ON session_day_lineage(first_date);
+
+-- =====================================================
+-- Backfill
+-- Built from the live segments of already split sessions
+-- =====================================================
+INSERT INTO session_day_lineage (session_id, user_id, first_date, day_mask, created_at, updated_at)
+SELECT session_id, user_id, first_date, bit_or(1 << (activity_date - first_date)), NOW(), NOW()
+FROM (
+    SELECT DISTINCT session_id, user_id, activity_date,
+           MIN(activity_date) OVER (PARTITION BY session_id) AS first_date
+    FROM activity_segments
+    WHERE is_deleted = false
+) days
+GROUP BY session_id, user_id, first_date;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE session_day_lineage IS 'Days each split session contributes to, as a bitmap from the first day';
+COMMENT ON COLUMN session_day_lineage.day_mask IS 'Bit i set: the session has segments on first_date + i';
+
+-- =====================================================
+-- End of Migration V22
+-- =====================================================
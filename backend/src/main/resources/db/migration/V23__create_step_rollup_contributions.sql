@@ -0,0 +1,42 @@
+-- =====================================================
+-- Flyway Migration V23: Step Rollup Contributions
+-- =====================================================
+-- Description: Records what each session added to each step rollup, so a
+--              deleted or resplit session can be subtracted again
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: step_rollup_contributions
+-- Description: One row per rollup and compacted session; the rollup holds
+--              the sum of its contributions
+-- =====================================================
+CREATE TABLE step_rollup_contributions (
+    rollup_id UUID NOT NULL,
+    session_id UUID NOT NULL,
+    step_count BIGINT NOT NULL DEFAULT 0,
+    calories_burned DOUBLE PRECISION NOT NULL DEFAULT 0,
+    duration_seconds BIGINT NOT NULL DEFAULT 0,
+    segment_count INTEGER NOT NULL DEFAULT 0,
+
+    -- Constraints
+    CONSTRAINT pk_step_rollup_contribution PRIMARY KEY (rollup_id, session_id),
+    CONSTRAINT fk_step_rollup_contribution_rollup FOREIGN KEY (rollup_id)
+        REFERENCES step_rollups(id) ON DELETE CASCADE
+);
+
+-- Contributions of a session (retraction on delete, resplit and late overlaps)
+CREATE INDEX idx_step_rollup_contribution_session ON step_rollup_contributions(session_id);
+
+-- Rollups emptied by retraction, removed right after
+CREATE INDEX idx_step_rollup_empty ON step_rollups(user_id) WHERE segment_count = 0;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE step_rollup_contributions IS 'Per-session shares of step rollups; rollups compacted before V23 have none and cannot be retracted';
+
+-- =====================================================
+-- End of Migration V23
+-- =====================================================
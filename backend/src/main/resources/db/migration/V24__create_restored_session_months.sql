@@ -0,0 +1,41 @@
+-- =====================================================
+-- Flyway Migration V24: Restored Session Months
+-- =====================================================
+-- Description: Records the months restored from session archives, so the
+--              scheduled archival leaves them in the database until they
+--              are explicitly archived again
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: restored_session_months
+-- Description: One row per user and month restored from its archive file
+-- =====================================================
+CREATE TABLE restored_session_months (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    user_id VARCHAR(255) NOT NULL,
+    month DATE NOT NULL,  -- First day of the UTC month of the sessions' start times
+    restored_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_restored_session_month_user_month UNIQUE (user_id, month),
+    CONSTRAINT chk_restored_session_month_month CHECK (EXTRACT(DAY FROM month) = 1)
+);
+
+-- Restored users of a month, excluded by the scheduled archival
+CREATE INDEX idx_restored_session_month_month ON restored_session_months(month);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE restored_session_months IS 'User months restored from session archives; skipped by scheduled archival until archived again explicitly';
+
+-- =====================================================
+-- End of Migration V24
+-- =====================================================
@@ -0,0 +1,38 @@
+-- =====================================================
+-- Flyway Migration V25: Deleted Record IDs
+-- =====================================================
+-- Description: Keeps the Health Connect record IDs of purged sessions, so
+--              duplicate detection still recognizes them after the purge
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: deleted_record_ids
+-- Description: One row per purged session that carried a record ID;
+--              written by the tombstone purge, read by ingestion
+-- =====================================================
+CREATE TABLE deleted_record_ids (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    health_connect_record_id VARCHAR(255) NOT NULL,
+    session_id UUID NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+    deleted_at TIMESTAMP WITH TIME ZONE NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_deleted_record_id_record UNIQUE (health_connect_record_id)
+);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE deleted_record_ids IS 'Record IDs of purged sessions, so a full re-sync does not ingest deleted records again';
+
+-- =====================================================
+-- End of Migration V25
+-- =====================================================
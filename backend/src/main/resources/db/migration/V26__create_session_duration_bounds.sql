@@ -0,0 +1,46 @@
+-- =====================================================
+-- Flyway Migration V26: Session Duration Bounds
+-- =====================================================
+-- Description: Keeps the longest session duration of each user, bounding
+--              overlap lookups on the (user_id, start_time, id) index
+--              instead of capping how long a session may be
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: session_duration_bounds
+-- Description: One row per user; raised on ingestion and restore, never
+--              lowered, so it bounds every stored session of the user
+-- =====================================================
+CREATE TABLE session_duration_bounds (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    user_id VARCHAR(255) NOT NULL,
+    max_duration_seconds BIGINT NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_session_duration_bound_user UNIQUE (user_id),
+    CONSTRAINT chk_session_duration_bound_positive CHECK (max_duration_seconds >= 0)
+);
+
+-- Sessions stored so far, including any longer than the former ingestion cap
+INSERT INTO session_duration_bounds (user_id, max_duration_seconds, created_at, updated_at)
+SELECT user_id,
+       CEIL(MAX(EXTRACT(EPOCH FROM (end_time - start_time))))::BIGINT,
+       NOW(), NOW()
+FROM activity_sessions
+GROUP BY user_id;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE session_duration_bounds IS 'Longest session duration per user; overlap queries scan back this far from their range start';
+
+-- =====================================================
+-- End of Migration V26
+-- =====================================================
@@ -0,0 +1,22 @@
+-- =====================================================
+-- Flyway Migration V27: Step Rollup Contribution Minute Masks
+-- =====================================================
+-- Description: Records which minutes of its bucket each compacted session
+--              covered, so minute bitmaps rebuilt from rollups keep the
+--              minutes of the segments instead of whole buckets
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- Bit i is the minute starting i minutes after bucket_start; NULL for
+-- contributions recorded before V27, which count as the whole bucket
+ALTER TABLE step_rollup_contributions ADD COLUMN minute_mask BIGINT;
+
+-- =====================================================
+-- Comments on Columns
+-- =====================================================
+COMMENT ON COLUMN step_rollup_contributions.minute_mask IS 'Minutes of the bucket covered by the session''s compacted segments; NULL means the whole bucket';
+
+-- =====================================================
+-- End of Migration V27
+-- =====================================================
@@ -0,0 +1,41 @@
+-- =====================================================
+-- Flyway Migration V28: Session Day Lineage Last Date
+-- =====================================================
+-- Description: Adds the last day of each session's lineage, so sessions
+--              spanning 32 days or more are represented as a date range
+--              and lookups can bound their scans by the real span
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+ALTER TABLE session_day_lineage ADD COLUMN last_date DATE;
+
+-- Highest day of the bitmap
+UPDATE session_day_lineage l
+SET last_date = l.first_date + (
+    SELECT MAX(bits.n) FROM generate_series(0, 31) AS bits(n) WHERE l.day_mask & (1 << bits.n) <> 0);
+
+-- Sessions spanning 32 days or more: the V22 backfill wrapped their bits,
+-- so they cover every day of their range instead
+UPDATE session_day_lineage l
+SET last_date = s.last_date, day_mask = -1
+FROM (
+    SELECT session_id, MAX(activity_date) AS last_date
+    FROM activity_segments
+    WHERE is_deleted = false
+    GROUP BY session_id
+) s
+WHERE s.session_id = l.session_id AND s.last_date - l.first_date >= 32;
+
+ALTER TABLE session_day_lineage
+    ALTER COLUMN last_date SET NOT NULL,
+    ADD CONSTRAINT chk_session_day_lineage_range CHECK (last_date >= first_date);
+
+-- =====================================================
+-- Comments on Columns
+-- =====================================================
+COMMENT ON COLUMN session_day_lineage.last_date IS 'Last day the session has segments on; spans of 32 days or more cover every day up to it';
+
+-- =====================================================
+-- End of Migration V28
+-- =====================================================
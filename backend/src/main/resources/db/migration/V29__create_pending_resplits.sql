@@ -0,0 +1,38 @@
+-- =====================================================
+-- Flyway Migration V29: Pending Resplits
+-- =====================================================
+-- Description: Adds the queue of sessions awaiting a resplit after the
+--              schedule they were split against changed
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: pending_resplits
+-- Description: One row per session to split again; drained oldest first
+--              by SessionResplitService
+-- =====================================================
+CREATE TABLE pending_resplits (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v7(),
+    session_id UUID NOT NULL,
+    user_id VARCHAR(255) NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,  -- Last time the session was queued
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_pending_resplit_session UNIQUE (session_id)
+);
+
+CREATE INDEX idx_pending_resplit_updated ON pending_resplits(updated_at);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE pending_resplits IS 'Queue of sessions to split again against the current schedule';
+
+-- =====================================================
+-- End of Migration V29
+-- =====================================================
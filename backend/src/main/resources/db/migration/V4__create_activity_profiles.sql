@@ -0,0 +1,72 @@
+-- =====================================================
+-- Flyway Migration V4: Create Activity Profiles
+-- =====================================================
+-- Description: Adds per-day hourly activity histograms and monthly
+--              day-of-week x hour heatmaps maintained during splitting
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: daily_activity_profiles
+-- Description: 24-bucket (local hour) histogram of steps and active seconds per user per day
+-- =====================================================
+CREATE TABLE daily_activity_profiles (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    date DATE NOT NULL,
+
+    -- Hourly histograms, index = local hour of day
+    hourly_steps INTEGER[] NOT NULL,
+    hourly_active_seconds INTEGER[] NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_daily_activity_profile_user_date UNIQUE (user_id, date),
+    CONSTRAINT chk_profile_hourly_steps CHECK (cardinality(hourly_steps) = 24),
+    CONSTRAINT chk_profile_hourly_active_seconds CHECK (cardinality(hourly_active_seconds) = 24)
+);
+
+-- =====================================================
+-- Table: activity_heatmaps
+-- Description: Monthly 7x24 heatmap cells, stored row-major as (day_of_week - 1) * 24 + hour
+-- =====================================================
+CREATE TABLE activity_heatmaps (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    month_start DATE NOT NULL,
+
+    step_cells INTEGER[] NOT NULL,
+    active_second_cells INTEGER[] NOT NULL,
+    day_counts INTEGER[] NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_activity_heatmap_user_month UNIQUE (user_id, month_start),
+    CONSTRAINT chk_heatmap_month_start CHECK (EXTRACT(DAY FROM month_start) = 1),
+    CONSTRAINT chk_heatmap_step_cells CHECK (cardinality(step_cells) = 168),
+    CONSTRAINT chk_heatmap_active_second_cells CHECK (cardinality(active_second_cells) = 168),
+    CONSTRAINT chk_heatmap_day_counts CHECK (cardinality(day_counts) = 7)
+);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE daily_activity_profiles IS 'Per-day hourly histogram of steps and active seconds';
+COMMENT ON TABLE activity_heatmaps IS 'Monthly day-of-week x hour activity heatmaps, folded for long-range queries';
+
+-- =====================================================
+-- End of Migration V4
+-- =====================================================
@@ -0,0 +1,50 @@
+-- =====================================================
+-- Flyway Migration V5: Add Heart Rate Zones
+-- =====================================================
+-- Description: Adds per-user heart rate zone configuration and
+--              time-in-zone arrays on segments and daily aggregations
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: heart_rate_zone_configs
+-- Description: Per-user heart rate zones as percentages of max heart rate
+-- =====================================================
+CREATE TABLE heart_rate_zone_configs (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL UNIQUE,
+    max_heart_rate INTEGER NOT NULL,
+    zone_lower_percents INTEGER[] NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT chk_max_heart_rate_positive CHECK (max_heart_rate > 0),
+    CONSTRAINT chk_zone_lower_percents CHECK (cardinality(zone_lower_percents) = 5)
+);
+
+-- =====================================================
+-- Time-in-zone arrays (5 zones, seconds)
+-- =====================================================
+ALTER TABLE activity_segments
+    ADD COLUMN heart_rate_zone_seconds INTEGER[];
+
+ALTER TABLE daily_aggregations
+    ADD COLUMN heart_rate_zone_seconds INTEGER[];
+
+-- =====================================================
+-- Comments
+-- =====================================================
+COMMENT ON TABLE heart_rate_zone_configs IS 'Per-user heart rate zone configuration';
+COMMENT ON COLUMN activity_segments.heart_rate_zone_seconds IS 'Seconds spent in each heart rate zone (HEART_RATE sessions only)';
+COMMENT ON COLUMN daily_aggregations.heart_rate_zone_seconds IS 'Seconds spent in each heart rate zone over the day';
+
+-- =====================================================
+-- End of Migration V5
+-- =====================================================
@@ -0,0 +1,45 @@
+-- =====================================================
+-- Flyway Migration V6: Create Metric Sketches
+-- =====================================================
+-- Description: Adds serialized quantile sketches of daily metrics per user,
+--              metric, day type and period (monthly buckets plus all-time)
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: metric_sketches
+-- Description: Mergeable quantile sketches maintained as daily aggregations are written
+-- =====================================================
+CREATE TABLE metric_sketches (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    metric VARCHAR(50) NOT NULL,
+    day_type VARCHAR(20) NOT NULL,
+    period VARCHAR(7) NOT NULL,
+    sketch BYTEA NOT NULL,
+    sample_count BIGINT NOT NULL,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_metric_sketch_key UNIQUE (user_id, metric, day_type, period),
+    CONSTRAINT chk_metric_sketch_metric CHECK (metric IN ('WORK_HOURS_STEPS', 'OFF_HOURS_STEPS', 'TOTAL_STEPS', 'SLEEP_DURATION_SECONDS')),
+    CONSTRAINT chk_metric_sketch_day_type CHECK (day_type IN ('WORKDAY', 'NON_WORKDAY', 'HOLIDAY', 'PTO', 'SICK_DAY')),
+    CONSTRAINT chk_metric_sketch_period CHECK (period = 'ALL' OR period ~ '^[0-9]{4}-[0-9]{2}$'),
+    CONSTRAINT chk_metric_sketch_sample_count CHECK (sample_count >= 0)
+);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE metric_sketches IS 'Per-user quantile sketches of daily metrics for percentile ranking';
+
+-- =====================================================
+-- End of Migration V6
+-- =====================================================
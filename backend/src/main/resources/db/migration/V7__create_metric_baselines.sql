@@ -0,0 +1,66 @@
+-- =====================================================
+-- Flyway Migration V7: Create Metric Baselines
+-- =====================================================
+-- Description: Adds online anomaly-detection state (EWMA mean and variance)
+--              per user, metric and day type, and anomaly flags on daily aggregations
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: metric_baselines
+-- Description: Exponentially weighted baselines updated as daily aggregations are written
+-- =====================================================
+CREATE TABLE metric_baselines (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    metric VARCHAR(50) NOT NULL,
+    day_type VARCHAR(20) NOT NULL,
+
+    -- Current state
+    sample_count INTEGER NOT NULL DEFAULT 0,
+    mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    variance DOUBLE PRECISION NOT NULL DEFAULT 0,
+    last_date DATE,
+
+    -- State before last_date was applied
+    previous_sample_count INTEGER NOT NULL DEFAULT 0,
+    previous_mean DOUBLE PRECISION NOT NULL DEFAULT 0,
+    previous_variance DOUBLE PRECISION NOT NULL DEFAULT 0,
+    previous_last_date DATE,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_metric_baseline_key UNIQUE (user_id, metric, day_type),
+    CONSTRAINT chk_metric_baseline_metric CHECK (metric IN ('WORK_HOURS_STEPS', 'OFF_HOURS_STEPS', 'TOTAL_STEPS', 'SLEEP_DURATION_SECONDS')),
+    CONSTRAINT chk_metric_baseline_day_type CHECK (day_type IN ('WORKDAY', 'NON_WORKDAY', 'HOLIDAY', 'PTO', 'SICK_DAY')),
+    CONSTRAINT chk_metric_baseline_sample_count CHECK (sample_count >= 0 AND previous_sample_count >= 0),
+    CONSTRAINT chk_metric_baseline_variance CHECK (variance >= 0 AND previous_variance >= 0)
+);
+
+-- =====================================================
+-- Table: daily_aggregations
+-- Description: Anomaly flag and score of the most deviating metric
+-- =====================================================
+ALTER TABLE daily_aggregations
+    ADD COLUMN anomalous BOOLEAN NOT NULL DEFAULT FALSE,
+    ADD COLUMN anomaly_score DOUBLE PRECISION,
+    ADD COLUMN anomalous_metric VARCHAR(50);
+
+CREATE INDEX idx_daily_agg_user_anomalous ON daily_aggregations(user_id, date) WHERE anomalous;
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE metric_baselines IS 'Per-user EWMA baselines of daily metrics for anomaly detection';
+COMMENT ON COLUMN daily_aggregations.anomaly_score IS 'Z-score of the most deviating metric against its baseline';
+
+-- =====================================================
+-- End of Migration V7
+-- =====================================================
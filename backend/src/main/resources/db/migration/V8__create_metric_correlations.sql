@@ -0,0 +1,47 @@
+-- =====================================================
+-- Flyway Migration V8: Create Metric Correlations
+-- =====================================================
+-- Description: Adds running co-moments of daily metric pairs per user and period
+--              (monthly buckets plus all-time) for correlation analysis
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+-- =====================================================
+-- Table: metric_correlations
+-- Description: Welford accumulators maintained as daily aggregations are written
+-- =====================================================
+CREATE TABLE metric_correlations (
+    id UUID PRIMARY KEY DEFAULT uuid_generate_v4(),
+    user_id VARCHAR(255) NOT NULL,
+    pair VARCHAR(50) NOT NULL,
+    period VARCHAR(7) NOT NULL,
+    sample_count BIGINT NOT NULL DEFAULT 0,
+    mean_x DOUBLE PRECISION NOT NULL DEFAULT 0,
+    mean_y DOUBLE PRECISION NOT NULL DEFAULT 0,
+    m2_x DOUBLE PRECISION NOT NULL DEFAULT 0,
+    m2_y DOUBLE PRECISION NOT NULL DEFAULT 0,
+    co_moment DOUBLE PRECISION NOT NULL DEFAULT 0,
+
+    -- Audit fields
+    created_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    created_by UUID,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_by UUID,
+    is_deleted BOOLEAN NOT NULL DEFAULT FALSE,
+
+    -- Constraints
+    CONSTRAINT uk_metric_correlation_key UNIQUE (user_id, pair, period),
+    CONSTRAINT chk_metric_correlation_pair CHECK (pair IN ('SLEEP_DURATION_VS_WORK_HOURS_STEPS', 'SLEEP_DURATION_VS_TOTAL_STEPS', 'SLEEP_QUALITY_VS_TOTAL_ACTIVE_MINUTES', 'TOTAL_STEPS_VS_NEXT_SLEEP_DURATION')),
+    CONSTRAINT chk_metric_correlation_period CHECK (period = 'ALL' OR period ~ '^[0-9]{4}-[0-9]{2}$'),
+    CONSTRAINT chk_metric_correlation_sample_count CHECK (sample_count >= 0)
+);
+
+-- =====================================================
+-- Comments on Tables
+-- =====================================================
+COMMENT ON TABLE metric_correlations IS 'Per-user running covariance of daily metric pairs for correlation analysis';
+
+-- =====================================================
+-- End of Migration V8
+-- =====================================================
@@ -0,0 +1,18 @@
+-- =====================================================
+-- Flyway Migration V9: Index Sessions by User and Start Time
+-- =====================================================
+-- Description: Replaces the user_id index on activity_sessions with a
+--              (user_id, start_time, id) index serving user-scoped overlap
+--              queries and keyset pagination
+-- Author: Thang
+-- Date: 2026-10-18
+-- =====================================================
+
+CREATE INDEX idx_activity_session_user_start ON activity_sessions(user_id, start_time, id);
+
+-- Covered by the leading column of the new index
+DROP INDEX IF EXISTS idx_activity_session_user;
+
+-- =====================================================
+-- End of Migration V9
+-- =====================================================